@@ -44,6 +44,7 @@ import com.comze_instancelabs.minigamesapi.events.PlayerLeaveArenaEvent;
 import com.comze_instancelabs.minigamesapi.util.BungeeUtil;
 import com.comze_instancelabs.minigamesapi.util.Cuboid;
 import com.comze_instancelabs.minigamesapi.util.IconMenu;
+import com.comze_instancelabs.minigamesapi.util.SpatialGrid;
 import com.comze_instancelabs.minigamesapi.util.Util;
 import com.comze_instancelabs.minigamesapi.util.Validator;
 
@@ -147,6 +148,11 @@ public class Arena
      */
     private Location                      specsignloc;
     
+    /**
+     * The rendered sign state.
+     */
+    private final ArenaSignCache          signCache                 = new ArenaSignCache();
+    
     /**
      * Max amount of players for the game.
      */
@@ -169,7 +175,17 @@ public class Arena
     /**
      * The players joined the arena and playing.
      */
-    private final ArrayList<String>       players                   = new ArrayList<>();
+    private final ArenaMembers            players                   = new ArenaMembers();
+    
+    /**
+     * The broadcasts to the arena players; created on first use.
+     */
+    private ArenaBroadcast                broadcast;
+    
+    /**
+     * The spectators of this arena bucketed by position; spectators are pushed away from the players.
+     */
+    private final SpatialGrid<Player>     spectatorGrid             = new SpatialGrid<>(3);
     
     private ArrayList<String>             temp_players              = new ArrayList<>();
     
@@ -238,13 +254,16 @@ public class Arena
     private int                           currentingamecount        = 10;
     
     /**
-     * the current task id.
+     * the id of the placeholder bukkit task of the running countdown or the task id set by {@link #setTaskId(int)}.
      * 
-     * @deprecated remove in 1.5.0; current no one ever sets this, review the trials to cancel tasks to find out what is going on here; possibly a bug.
+     * @deprecated remove in 1.5.0; countdowns run on the {@link TickWheel}.
      */
     @Deprecated
     private int                           currenttaskid             = 0;
     
+    /** the running lobby or ingame countdown; {@code null} if there is no countdown. */
+    private TickWheel.Task                countdownTask;
+    
     boolean                               temp_delay_stopped        = false;
     
     /** the arenam logger. */
@@ -269,7 +288,7 @@ public class Arena
         this.logger = new ArenaLogger(this.plugin.getLogger(), this.name);
         
         // Maximum game time:
-        this.timer = new MatchTimer((int) this.plugin.getConfig().getDouble(ArenaConfigStrings.CONFIG_DEFAULT_MAX_GAME_TIME_IN_MINUTES) * 60, () -> {
+        this.timer = new MatchTimer(this, (int) this.plugin.getConfig().getDouble(ArenaConfigStrings.CONFIG_DEFAULT_MAX_GAME_TIME_IN_MINUTES) * 60, () -> {
             for (final String p_ : Arena.this.getAllPlayers())
             {
                 if (Validator.isPlayerValid(Arena.this.plugin, p_, Arena.this))
@@ -277,15 +296,10 @@ public class Arena
                     Bukkit.getPlayer(p_).sendMessage(Arena.this.pli.getMessagesConfig().stop_cause_maximum_game_time_now);
                 }
             }
-            Bukkit.getScheduler().runTaskLater(Arena.this.plugin, () -> this.stopArena(), 1);
+            this.getTickWheel().schedule(this, 1L, () -> this.stopArena());
         }, (sec) -> {
-            for (final String p_ : Arena.this.getAllPlayers())
-            {
-                if (Validator.isPlayerValid(Arena.this.plugin, p_, Arena.this))
-                {
-                    Bukkit.getPlayer(p_).sendMessage(Arena.this.pli.getMessagesConfig().stop_cause_maximum_game_time_sec.replace("<sec>", String.valueOf(sec)));
-                }
-            }
+            final String msg = Arena.this.pli.getMessagesConfig().stop_cause_maximum_game_time_sec.replace("<sec>", String.valueOf(sec));
+            Arena.this.getBroadcast().queue(p -> p.sendMessage(msg));
         });
     }
     
@@ -330,6 +344,7 @@ public class Arena
         // TODO Disallow duplicate init; reloading should create a new arena instance.
         this.signloc = signloc;
         this.specsignloc = Util.getSpecSignLocationFromArena(this.plugin, this.getInternalName());
+        this.signCache.invalidate();
         this.spawns.clear();
         if (spawns != null)
         {
@@ -408,11 +423,14 @@ public class Arena
         }
         else
         {
-            this.pli.getArenasConfig().getConfig().set(path, this.name);
+            this.pli.getArenasConfig().set(path, this.name);
             this.pli.getArenasConfig().saveConfig();
             this.displayname = this.name;
         }
         
+        // boundaries and signs may have changed
+        this.pli.getArenaRegionIndex().invalidate(this);
+        this.pli.getArenaSignIndex().invalidate();
     }
     
     /**
@@ -517,6 +535,8 @@ public class Arena
     public void setSignLocation(final Location l)
     {
         this.signloc = l;
+        this.signCache.invalidate();
+        this.pli.getArenaSignIndex().invalidate();
     }
     
     /**
@@ -538,6 +558,18 @@ public class Arena
     public void setSpecSignLocation(final Location l)
     {
         this.specsignloc = l;
+        this.signCache.invalidate();
+        this.pli.getArenaSignIndex().invalidate();
+    }
+    
+    /**
+     * Returns the rendered sign state used to skip unchanged sign updates.
+     * 
+     * @return sign cache.
+     */
+    public ArenaSignCache getSignCache()
+    {
+        return this.signCache;
     }
     
     /**
@@ -712,8 +744,7 @@ public class Arena
      */
     public boolean containsPlayer(final String playername)
     {
-        // potential performance lack for huge arenas or massive invocation count; hash set can be better.
-        // at the moment we decided to keep up the ordering the players joined the arena.
+        // indexed lookup; the member list keeps the ordering the players joined the arena.
         return this.players.contains(playername);
     }
     
@@ -917,16 +948,17 @@ public class Arena
             Bukkit.getServer().getPluginManager().callEvent(new PlayerJoinLobbyEvent(p, this.plugin, this));
             Util.sendMessage(this.plugin, p, this.pli.getMessagesConfig().you_joined_arena.replaceAll(ArenaMessageStrings.ARENA, this.getDisplayName()));
             Util.sendMessage(this.plugin, p, this.pli.getMessagesConfig().minigame_description);
-            if (this.pli.getArenasConfig().getConfig().isSet(ArenaConfigStrings.ARENAS_PREFIX + this.getInternalName() + ArenaConfigStrings.AUTHOR_SUFFIX))
+            final ArenaLayout layout = this.pli.getArenaLayout(this.getInternalName());
+            if (layout.getAuthor() != null)
             {
                 Util.sendMessage(this.plugin, p, this.pli.getMessagesConfig().author_of_the_map.replaceAll(ArenaMessageStrings.ARENA, this.getDisplayName()).replaceAll(ArenaMessageStrings.AUTHOR,
-                        this.pli.getArenasConfig().getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + this.getInternalName() + ArenaConfigStrings.AUTHOR_SUFFIX)));
+                        layout.getAuthor()));
             }
-            if (this.pli.getArenasConfig().getConfig().isSet(ArenaConfigStrings.ARENAS_PREFIX + this.getInternalName() + ArenaConfigStrings.DESCRIPTION_SUFFIX))
+            if (layout.getDescription() != null)
             {
                 Util.sendMessage(this.plugin, p,
                         this.pli.getMessagesConfig().description_of_the_map.replaceAll(ArenaMessageStrings.ARENA, this.getDisplayName()).replaceAll(ArenaMessageStrings.DESCRIPTION,
-                                this.pli.getArenasConfig().getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + this.getInternalName() + ArenaConfigStrings.DESCRIPTION_SUFFIX)));
+                                layout.getDescription()));
             }
             
             Bukkit.getScheduler().runTaskLater(this.getPlugin(), () -> {
@@ -1123,14 +1155,7 @@ public class Arena
                         // cancel starting
                         this.setArenaState(ArenaState.JOIN);
                         Util.updateSign(this.plugin, this);
-                        try
-                        {
-                            Bukkit.getScheduler().cancelTask(this.currenttaskid);
-                        }
-                        catch (@SuppressWarnings("unused") final Exception e)
-                        {
-                            // silently ignore
-                        }
+                        this.cancelCountdown();
                         for (final String p_ : this.getAllPlayers())
                         {
                             if (Validator.isPlayerOnline(p_))
@@ -1174,6 +1199,7 @@ public class Arena
             return;
         }
         this.players.remove(playername);
+        this.spectatorGrid.remove(p);
         if (this.pli.containsGlobalPlayer(playername))
         {
             this.pli.global_players.remove(playername);
@@ -1361,6 +1387,7 @@ public class Arena
             {
                 Arena.this.pli.getSpectatorManager().showSpectator(p);
                 Arena.this.pli.global_lost.remove(playername);
+                Arena.this.spectatorGrid.remove(p);
             }
             else
             {
@@ -1563,9 +1590,13 @@ public class Arena
     }
     
     /**
-     * Returns the task id
+     * Returns the id of the bukkit task standing for the running lobby or ingame countdown.
+     * 
+     * <p>
+     * The countdowns run on the {@link TickWheel}; the returned task is a placeholder. Cancelling it through the bukkit scheduler stops the countdown on its next run.
+     * </p>
      * 
-     * @return task id
+     * @return task id; {@code 0} if there is no countdown
      * @deprecated will be removed in 1.5.0; replaced by a more helpful task management, for example to perform tasks during lobby countdown etc.
      */
     @Deprecated
@@ -1640,7 +1671,7 @@ public class Arena
         // skip countdown
         if (!countdown)
         {
-            Bukkit.getScheduler().runTaskLater(this.plugin, () -> Arena.this.start(true), 10L);
+            this.getTickWheel().schedule(this, 10L, () -> Arena.this.start(true));
         }
         
         Sound lobbycountdown_sound_ = null;
@@ -1654,7 +1685,13 @@ public class Arena
         }
         final Sound lobbycountdown_sound = lobbycountdown_sound_;
         
-        this.currenttaskid = Bukkit.getScheduler().runTaskTimer(MinigamesAPI.getAPI(), () -> {
+        this.registerCountdownHandle();
+        this.countdownTask = this.getTickWheel().scheduleRepeating(this, 5L, 20L, () -> {
+            if (Arena.this.isCountdownHandleCancelled())
+            {
+                Arena.this.cancelCountdown();
+                return;
+            }
             Arena.this.currentlobbycount--;
             if (Arena.this.currentlobbycount == 60 || Arena.this.currentlobbycount == 30 || Arena.this.currentlobbycount == 15 || Arena.this.currentlobbycount == 10
                     || Arena.this.currentlobbycount < 6)
@@ -1665,57 +1702,30 @@ public class Arena
             if (Arena.this.currentlobbycount < 1)
             {
                 onLobbyCountdownComplete();
-                try
-                {
-                    Bukkit.getScheduler().cancelTask(Arena.this.currenttaskid);
-                }
-                catch (@SuppressWarnings("unused") final Exception e)
-                {
-                    // silently ignore
-                }
+                Arena.this.cancelCountdown();
             }
-        }, 5L, 20).getTaskId();
+        });
     }
     
     protected void onLobbyCountdownComplete()
     {
-        Bukkit.getScheduler().runTaskLater(Arena.this.plugin, () -> Arena.this.start(true), 10L);
+        this.getTickWheel().schedule(this, 10L, () -> Arena.this.start(true));
     }
     
     protected void setLobbyCountdownLevel(final Arena a)
     {
-        for (final String p_2 : a.getAllPlayers())
-        {
-            if (Validator.isPlayerOnline(p_2))
-            {
-                final Player p2 = Bukkit.getPlayer(p_2);
-                p2.setExp(1F * ((1F * Arena.this.currentlobbycount) / (1F * Arena.this.pli.getLobbyCountdown())));
-                if (Arena.this.pli.use_xp_bar_level)
-                {
-                    p2.setLevel(Arena.this.currentlobbycount);
-                }
-            }
-        }
+        a.getBroadcast().setCountdown(Arena.this.currentlobbycount, Arena.this.pli.getLobbyCountdown(), Arena.this.pli.use_xp_bar_level);
     }
     
     protected void sendLobbyCountdownMsg(final boolean countdown, final Arena a, final Sound lobbycountdown_sound)
     {
-        for (final String p_1 : a.getAllPlayers())
+        if (!countdown)
         {
-            if (Validator.isPlayerOnline(p_1))
-            {
-                final Player p1 = Bukkit.getPlayer(p_1);
-                if (countdown)
-                {
-                    Util.sendMessage(Arena.this.plugin, p1,
-                            Arena.this.pli.getMessagesConfig().teleporting_to_arena_in.replaceAll(ArenaMessageStrings.COUNT, Integer.toString(Arena.this.currentlobbycount)));
-                    if (lobbycountdown_sound != null)
-                    {
-                        p1.playSound(p1.getLocation(), lobbycountdown_sound, 1F, 0F);
-                    }
-                }
-            }
+            return;
         }
+        final String msg = Arena.this.pli.getMessagesConfig().getTeleportingToArenaInTemplate().render(Arena.this.currentlobbycount);
+        a.getBroadcast().sendMessage(msg);
+        a.getBroadcast().playSound(lobbycountdown_sound, 1F, 0F);
     }
     
     /**
@@ -1726,14 +1736,7 @@ public class Arena
      */
     public void start(final boolean tp)
     {
-        try
-        {
-            Bukkit.getScheduler().cancelTask(this.currenttaskid);
-        }
-        catch (@SuppressWarnings("unused") final Exception e)
-        {
-            // silently ignore
-        }
+        this.cancelCountdown();
         if (this.removeItemsOnGameStartup())
         {
             Util.clearDrops(this.getSpecBoundaries());
@@ -1776,41 +1779,27 @@ public class Arena
         }
         final Sound ingamecountdown_sound = ingamecountdown_sound_;
         
-        this.currenttaskid = Bukkit.getScheduler().runTaskTimer(MinigamesAPI.getAPI(), () -> {
+        this.registerCountdownHandle();
+        this.countdownTask = this.getTickWheel().scheduleRepeating(this, 5L, 20L, () -> {
+            if (Arena.this.isCountdownHandleCancelled())
+            {
+                Arena.this.cancelCountdown();
+                return;
+            }
             Arena.this.currentingamecount--;
             if (Arena.this.currentingamecount == 60 || Arena.this.currentingamecount == 30 || Arena.this.currentingamecount == 15 || Arena.this.currentingamecount == 10
                     || Arena.this.currentingamecount < 6)
             {
-                for (final String p_1 : Arena.this.getAllPlayers())
-                {
-                    if (Validator.isPlayerOnline(p_1))
-                    {
-                        final Player p1 = Bukkit.getPlayer(p_1);
-                        Util.sendMessage(Arena.this.plugin, p1, Arena.this.pli.getMessagesConfig().starting_in.replaceAll(ArenaMessageStrings.COUNT, Integer.toString(Arena.this.currentingamecount)));
-                        if (ingamecountdown_sound != null)
-                        {
-                            p1.playSound(p1.getLocation(), ingamecountdown_sound, 1F, 0F);
-                        }
-                    }
-                }
-            }
-            for (final String p_2 : Arena.this.getAllPlayers())
-            {
-                if (Validator.isPlayerOnline(p_2))
-                {
-                    final Player p2 = Bukkit.getPlayer(p_2);
-                    p2.setExp(1F * ((1F * Arena.this.currentingamecount) / (1F * Arena.this.pli.getIngameCountdown())));
-                    if (Arena.this.pli.use_xp_bar_level)
-                    {
-                        p2.setLevel(Arena.this.currentingamecount);
-                    }
-                }
+                final String msg = Arena.this.pli.getMessagesConfig().getStartingInTemplate().render(Arena.this.currentingamecount);
+                Arena.this.getBroadcast().sendMessage(msg);
+                Arena.this.getBroadcast().playSound(ingamecountdown_sound, 1F, 0F);
             }
+            Arena.this.getBroadcast().setCountdown(Arena.this.currentingamecount, Arena.this.pli.getIngameCountdown(), Arena.this.pli.use_xp_bar_level);
             if (Arena.this.currentingamecount < 1)
             {
                 Arena.this.startRaw();
             }
-        }, 5L, 20).getTaskId();
+        });
         
         for (final String p_ : this.getAllPlayers())
         {
@@ -1886,14 +1875,7 @@ public class Arena
         this.started = true;
         Bukkit.getServer().getPluginManager().callEvent(new ArenaStartedEvent(this.plugin, this));
         this.started();
-        try
-        {
-            Bukkit.getScheduler().cancelTask(this.currenttaskid);
-        }
-        catch (@SuppressWarnings("unused") final Exception e)
-        {
-            // silently ignore
-        }
+        this.cancelCountdown();
         
         // Maximum game time:
         this.timer.onArenaStart(this.plugin);
@@ -1979,10 +1961,10 @@ public class Arena
         {
             if (this.plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_DELAY_ENABLED))
             {
-                Bukkit.getScheduler().runTaskLater(this.plugin, () -> {
+                this.getTickWheel().schedule(this, this.plugin.getConfig().getInt(ArenaConfigStrings.CONFIG_DELAY_AMOUNT_SECONDS) * 20L, () -> {
                     Arena.this.temp_delay_stopped = true;
                     a.stopArena();
-                }, this.plugin.getConfig().getInt(ArenaConfigStrings.CONFIG_DELAY_AMOUNT_SECONDS) * 20L);
+                });
                 this.setArenaState(ArenaState.RESTARTING);
                 Util.updateSign(this.plugin, this);
                 if (this.plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_SPAWN_FIREWORKS_FOR_WINNERS))
@@ -1997,14 +1979,7 @@ public class Arena
         }
         this.temp_delay_stopped = false;
         
-        try
-        {
-            Bukkit.getScheduler().cancelTask(this.currenttaskid);
-        }
-        catch (@SuppressWarnings("unused") final Exception e)
-        {
-            // silently ignore
-        }
+        this.cancelCountdown();
         
         this.setArenaState(ArenaState.RESTARTING);
         
@@ -2013,7 +1988,7 @@ public class Arena
         {
             try
             {
-                Bukkit.getScheduler().runTaskLater(this.plugin, () -> {
+                this.getTickWheel().schedule(this, 10L, () -> {
                     if (Validator.isPlayerOnline(p_))
                     {
                         for (final Entity e : Bukkit.getPlayer(p_).getNearbyEntities(50, 50, 50))
@@ -2024,7 +1999,7 @@ public class Arena
                             }
                         }
                     }
-                }, 10L);
+                });
             }
             catch (final Exception e)
             {
@@ -2061,13 +2036,13 @@ public class Arena
             Util.updateSign(this.plugin, a);
         }
         
-        Bukkit.getScheduler().runTaskLater(this.plugin, () -> {
+        this.getTickWheel().schedule(this, 10L, () -> {
             Arena.this.players.clear();
             for (final IconMenu im : Arena.this.pli.getClassesHandler().lasticonm.values())
             {
                 im.destroy();
             }
-        }, 10L);
+        });
         
         this.started = false;
         this.startedIngameCountdown = false;
@@ -2086,6 +2061,12 @@ public class Arena
             this.logger.log(Level.WARNING, "failed clearing score boards", e); //$NON-NLS-1$
         }
         
+        if (this.pli.getSQLInstance() != null)
+        {
+            // the stats of this round are complete; write them without waiting for the flush interval
+            this.pli.getSQLInstance().flush();
+        }
+        
         /*
          * try { pli.getStatsInstance().updateSkulls(); } catch (Exception e) {
          * 
@@ -2112,12 +2093,12 @@ public class Arena
         if (this.plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_BUNGEE_TELEPORT_ALL_TO_SERVER_ON_STOP_TP))
         {
             final String server = this.plugin.getConfig().getString(ArenaConfigStrings.CONFIG_BUNGEE_TELEPORT_ALL_TO_SERVER_ON_STOP_SERVER);
-            Bukkit.getScheduler().runTaskLater(this.plugin, () -> {
+            this.getTickWheel().schedule(this, 30L, () -> {
                 for (final Player p : Bukkit.getOnlinePlayers())
                 {
                     BungeeUtil.connectToServer(MinigamesAPI.getAPI(), p.getName(), server);
                 }
-            }, 30L);
+            });
             return;
         }
         
@@ -2135,13 +2116,13 @@ public class Arena
         
         if (this.ai != null)
         {
-            Bukkit.getScheduler().runTaskLater(this.plugin, () -> {
+            this.getTickWheel().schedule(this, 10L, () -> {
                 if (Arena.this.ai != null)
                 {
                     Arena.this.ai.nextMinigame();
                     Arena.this.ai = null;
                 }
-            }, 10L);
+            });
         }
         else
         {
@@ -2153,7 +2134,7 @@ public class Arena
             }
             if (this.plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_MAP_ROTATION))
             {
-                Bukkit.getScheduler().runTaskLater(this.plugin, () -> a.nextArenaOnMapRotation(temp), 35L);
+                this.getTickWheel().schedule(this, 35L, () -> a.nextArenaOnMapRotation(temp));
             }
         }
         if (this.removeItemsOnGameStop())
@@ -2397,6 +2378,95 @@ public class Arena
         return this.plugin;
     }
     
+    /**
+     * Returns the timing wheel the arena countdowns and delayed arena tasks are scheduled on.
+     * 
+     * @return timing wheel.
+     */
+    protected TickWheel getTickWheel()
+    {
+        return MinigamesAPI.getAPI().getTickWheel();
+    }
+    
+    /**
+     * Cancels the lobby or ingame countdown.
+     */
+    protected void cancelCountdown()
+    {
+        if (this.countdownTask != null)
+        {
+            this.countdownTask.cancel();
+            this.countdownTask = null;
+        }
+        if (this.currenttaskid != 0)
+        {
+            // countdown handle or task set by setTaskId
+            Bukkit.getScheduler().cancelTask(this.currenttaskid);
+            this.currenttaskid = 0;
+        }
+    }
+    
+    /**
+     * Registers a placeholder bukkit task for the countdown being started; its id is returned by {@link #getTaskId()}.
+     */
+    private void registerCountdownHandle()
+    {
+        if (this.currenttaskid != 0)
+        {
+            Bukkit.getScheduler().cancelTask(this.currenttaskid);
+        }
+        this.currenttaskid = Bukkit.getScheduler().runTaskLater(MinigamesAPI.getAPI(), () -> {
+            // placeholder only; the countdown runs on the tick wheel
+        }, Integer.MAX_VALUE).getTaskId();
+    }
+    
+    /**
+     * Checks if the countdown handle was cancelled through the bukkit scheduler.
+     * 
+     * @return {@code true} if the countdown should stop
+     */
+    private boolean isCountdownHandleCancelled()
+    {
+        return this.currenttaskid != 0 && !Bukkit.getScheduler().isQueued(this.currenttaskid);
+    }
+    
+    /**
+     * Cancels all pending tasks of this arena (countdowns, match timer and delayed actions) and forgets its timing metrics.
+     * 
+     * <p>
+     * Invoked when the arena is removed or reloaded and when its minigame is disabled.
+     * </p>
+     */
+    public void cancelTasks()
+    {
+        this.cancelCountdown();
+        this.getTickWheel().removeTiming(this);
+    }
+    
+    /**
+     * Returns the broadcast facility sending messages, sounds and packets to all arena players once per tick.
+     * 
+     * @return arena broadcast.
+     */
+    public ArenaBroadcast getBroadcast()
+    {
+        if (this.broadcast == null)
+        {
+            this.broadcast = new ArenaBroadcast(this.plugin, this.players);
+        }
+        return this.broadcast;
+    }
+    
+    /**
+     * Returns the spectators of this arena bucketed by their position. The grid is updated by the arena listener on spectator moves and teleports.
+     * 
+     * @return spectator grid.
+     */
+    public SpatialGrid<Player> getSpectatorGrid()
+    {
+        return this.spectatorGrid;
+    }
+    
     /**
      * Returns the plugin instance owning this arena.
      * 
@@ -0,0 +1,275 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Arena wide broadcasts.
+ * 
+ * <p>
+ * Messages, sounds and packets are built once by the caller and queued. The queue is flushed once per tick: the recipients are resolved once per membership change and each queued action is
+ * written to every recipient in a single pass.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class ArenaBroadcast
+{
+    
+    /**
+     * An action sent to each recipient.
+     */
+    @FunctionalInterface
+    public interface Action
+    {
+        /**
+         * Sends the action to given recipient.
+         * 
+         * @param p
+         *            the recipient
+         * @throws Exception
+         *             thrown if sending failed
+         */
+        void send(Player p) throws Exception;
+    }
+    
+    /** empty recipients. */
+    private static final Player[] EMPTY          = new Player[0];
+    
+    /** the plugin owning the arena. */
+    private final JavaPlugin      plugin;
+    
+    /** the arena members. */
+    private final ArenaMembers    members;
+    
+    /** the queued actions. */
+    private final List<Action>    pending        = new ArrayList<>();
+    
+    /** {@code true} if a flush task is scheduled. */
+    private boolean               scheduled;
+    
+    /** the resolved recipients. */
+    private Player[]              recipients     = EMPTY;
+    
+    /** the members version the recipients were resolved for; {@code -1} to resolve on next use. */
+    private int                   membersVersion = -1;
+    
+    /**
+     * Constructor.
+     * 
+     * @param plugin
+     *            the plugin owning the arena
+     * @param members
+     *            the arena members
+     */
+    ArenaBroadcast(final JavaPlugin plugin, final ArenaMembers members)
+    {
+        this.plugin = plugin;
+        this.members = members;
+    }
+    
+    /**
+     * Returns the online arena members; resolved once per membership change.
+     * 
+     * @return recipients; the returned array must not be modified
+     */
+    public Player[] getRecipients()
+    {
+        final int version = this.members.getVersion();
+        if (version != this.membersVersion)
+        {
+            final List<Player> result = new ArrayList<>(this.members.size());
+            for (final String name : this.members)
+            {
+                final Player p = Bukkit.getPlayerExact(name);
+                if (p != null)
+                {
+                    result.add(p);
+                }
+            }
+            this.recipients = result.isEmpty() ? EMPTY : result.toArray(new Player[result.size()]);
+            this.membersVersion = version;
+        }
+        return this.recipients;
+    }
+    
+    /**
+     * Queues a chat message. The message may contain multiple lines separated by semicolon and the placeholders {@code <player>} and {@code <game>}; see
+     * {@link com.comze_instancelabs.minigamesapi.util.Util#sendMessage(JavaPlugin, Player, String)}.
+     * 
+     * @param msgraw
+     *            the message
+     */
+    public void sendMessage(final String msgraw)
+    {
+        if (msgraw == null || msgraw.isEmpty())
+        {
+            return;
+        }
+        final String[] lines = msgraw.replace("<game>", this.plugin.getName()).split(";"); //$NON-NLS-1$
+        if (msgraw.contains("<player>")) //$NON-NLS-1$
+        {
+            this.queue(p -> {
+                for (final String line : lines)
+                {
+                    p.sendMessage(line.replace("<player>", p.getName())); //$NON-NLS-1$
+                }
+            });
+        }
+        else
+        {
+            this.queue(p -> p.sendMessage(lines));
+        }
+    }
+    
+    /**
+     * Queues a sound played at the location of each recipient.
+     * 
+     * @param sound
+     *            the sound; {@code null} to play nothing
+     * @param volume
+     *            volume
+     * @param pitch
+     *            pitch
+     */
+    public void playSound(final Sound sound, final float volume, final float pitch)
+    {
+        if (sound != null)
+        {
+            this.queue(p -> p.playSound(p.getLocation(), sound, volume, pitch));
+        }
+    }
+    
+    /**
+     * Queues a countdown display on the experience bar.
+     * 
+     * @param count
+     *            remaining seconds
+     * @param max
+     *            seconds of the full countdown
+     * @param showLevel
+     *            {@code true} to display the remaining seconds as level
+     */
+    public void setCountdown(final int count, final int max, final boolean showLevel)
+    {
+        final float exp = 1F * ((1F * count) / (1F * max));
+        this.queue(p -> {
+            p.setExp(exp);
+            if (showLevel)
+            {
+                p.setLevel(count);
+            }
+        });
+    }
+    
+    /**
+     * Queues a nms packet.
+     * 
+     * @param packet
+     *            the packet
+     */
+    public void sendPacket(final Object packet)
+    {
+        final NmsAccess nms = NmsAccess.get();
+        this.queue(p -> nms.sendPacket(p, packet));
+    }
+    
+    /**
+     * Queues a title or subtitle.
+     * 
+     * @param title
+     *            the title string
+     * @param eindex
+     *            the enum index, can be 0 for title, 1 for subtitle, 4 for reset
+     */
+    public void sendTitle(final String title, final int eindex)
+    {
+        try
+        {
+            this.sendPacket(Effects.createTitlePacket(title, eindex));
+        }
+        catch (final Exception e)
+        {
+            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "Failed sending title packet", e); //$NON-NLS-1$
+        }
+    }
+    
+    /**
+     * Queues an action; it is sent to all recipients on next tick.
+     * 
+     * @param action
+     *            the action
+     */
+    public void queue(final Action action)
+    {
+        synchronized (this.pending)
+        {
+            this.pending.add(action);
+            if (this.scheduled)
+            {
+                return;
+            }
+            this.scheduled = true;
+        }
+        Bukkit.getScheduler().runTask(this.plugin, this::flush);
+    }
+    
+    /**
+     * Sends all queued actions to the recipients.
+     */
+    public void flush()
+    {
+        final Action[] actions;
+        synchronized (this.pending)
+        {
+            actions = this.pending.toArray(new Action[this.pending.size()]);
+            this.pending.clear();
+            this.scheduled = false;
+        }
+        if (actions.length == 0)
+        {
+            return;
+        }
+        for (final Player p : this.getRecipients())
+        {
+            if (!p.isOnline())
+            {
+                // relogged or quit without leaving the arena yet
+                this.membersVersion = -1;
+                continue;
+            }
+            for (final Action action : actions)
+            {
+                try
+                {
+                    action.send(p);
+                }
+                catch (final Exception e)
+                {
+                    MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "Failed broadcasting to " + p.getName(), e); //$NON-NLS-1$
+                }
+            }
+        }
+    }
+    
+}
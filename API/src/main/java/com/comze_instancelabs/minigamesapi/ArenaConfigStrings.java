@@ -269,6 +269,12 @@ public interface ArenaConfigStrings
     String CONFIG_MYSQL_PW = "mysql.pw"; //$NON-NLS-1$
     /** mysql database name */
     String CONFIG_MYSQL_DATABASE = "mysql.database"; //$NON-NLS-1$
+    /** maximum number of pooled mysql connections */
+    String CONFIG_MYSQL_POOL_SIZE = "mysql.pool_size"; //$NON-NLS-1$
+    /** seconds after which idle mysql connections are closed */
+    String CONFIG_MYSQL_IDLE_TIMEOUT = "mysql.idle_timeout"; //$NON-NLS-1$
+    /** seconds between batched writes of mysql/sqlite stats */
+    String CONFIG_SQL_FLUSH_INTERVAL = "config.sql_flush_interval"; //$NON-NLS-1$
     
     /** flag to enable sqlite */
     String CONFIG_SQLITE_ENABLED = "sqlite.enabled"; //$NON-NLS-1$
@@ -0,0 +1,285 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+/**
+ * Immutable snapshot of the arena settings stored within arenas.yml.
+ *
+ * <p>
+ * Sign updates and sign clicks need the arena components very often. Instead of reading the yaml tree and building the locations from half a dozen config lookups on every call, the layout
+ * is parsed once and cached by the {@link PluginInstance}. Changing the arena through {@link com.comze_instancelabs.minigamesapi.config.ArenasConfig#set(String, Object)} or reloading the arenas config creates a new revision of that arena; the
+ * cached layout is replaced on next access. See
+ * {@link PluginInstance#getArenaLayout(String)}.
+ * </p>
+ *
+ * @author mepeisen
+ */
+public final class ArenaLayout
+{
+    
+    /** the arena name. */
+    private final String                      name;
+    
+    /** the arena revision this layout was built from. */
+    private final int                         revision;
+    
+    /** all config paths set below the arena section. */
+    private final Set<String>                 paths;
+    
+    /** the location components by path (f.e. "lobby" or "spawns.spawn0"). */
+    private final Map<String, StoredLocation> components;
+    
+    /** the spawn names in config order. */
+    private final List<String>                spawns;
+    
+    /** the join sign; {@code null} if not set. */
+    private final StoredLocation              sign;
+    
+    /** the spectator sign; {@code null} if not set. */
+    private final StoredLocation              specSign;
+    
+    /** the map author; {@code null} if not set. */
+    private final String                      author;
+    
+    /** the map description; {@code null} if not set. */
+    private final String                      description;
+    
+    /**
+     * Parses the arena layout.
+     * 
+     * @param name
+     *            the arena name
+     * @param config
+     *            the arenas config
+     * @param revision
+     *            the arena revision
+     */
+    public ArenaLayout(final String name, final FileConfiguration config, final int revision)
+    {
+        this.name = name;
+        this.revision = revision;
+        final ConfigurationSection section = config.getConfigurationSection(ArenaConfigStrings.ARENAS_PREFIX + name);
+        if (section == null)
+        {
+            this.paths = Collections.emptySet();
+            this.components = Collections.emptyMap();
+            this.spawns = Collections.emptyList();
+            this.sign = null;
+            this.specSign = null;
+            this.author = null;
+            this.description = null;
+            return;
+        }
+        
+        final Set<String> keys = new HashSet<>();
+        final Map<String, StoredLocation> locs = new HashMap<>();
+        for (final String key : section.getKeys(true))
+        {
+            keys.add(key);
+            if (section.isConfigurationSection(key) && section.isSet(key + ".world")) //$NON-NLS-1$
+            {
+                locs.put(key, new StoredLocation(section.getString(key + ".world"), section.getDouble(key + ".location.x"), section.getDouble(key + ".location.y"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                        section.getDouble(key + ".location.z"), (float) section.getDouble(key + ".location.yaw"), (float) section.getDouble(key + ".location.pitch"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            }
+        }
+        this.paths = Collections.unmodifiableSet(keys);
+        this.components = Collections.unmodifiableMap(locs);
+        
+        final ConfigurationSection spawnSection = section.getConfigurationSection("spawns"); //$NON-NLS-1$
+        this.spawns = spawnSection == null ? Collections.<String> emptyList() : Collections.unmodifiableList(new ArrayList<>(spawnSection.getKeys(false)));
+        
+        this.sign = parseSign(section, "sign"); //$NON-NLS-1$
+        this.specSign = parseSign(section, "specsign"); //$NON-NLS-1$
+        this.author = section.isSet("author") ? section.getString("author") : null; //$NON-NLS-1$ //$NON-NLS-2$
+        this.description = section.isSet("description") ? section.getString("description") : null; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+    /**
+     * Parses a sign location; signs are stored with block coordinates.
+     * 
+     * @param section
+     *            the arena section
+     * @param key
+     *            the sign key
+     * @return sign location or {@code null} if the sign is not set
+     */
+    private static StoredLocation parseSign(final ConfigurationSection section, final String key)
+    {
+        if (!section.isSet(key + ".world")) //$NON-NLS-1$
+        {
+            return null;
+        }
+        return new StoredLocation(section.getString(key + ".world"), section.getInt(key + ".loc.x"), section.getInt(key + ".loc.y"), section.getInt(key + ".loc.z"), 0, 0); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+    
+    /**
+     * @return the arena name
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+    
+    /**
+     * @return the arena revision this layout was built from
+     */
+    public int getRevision()
+    {
+        return this.revision;
+    }
+    
+    /**
+     * Checks if the arena was set up correctly; an arena needs at least a waiting lobby and the first spawn.
+     * 
+     * @return {@code true} if the arena is valid
+     */
+    public boolean isValid()
+    {
+        return this.isSet("lobby") && this.isSet("spawns.spawn0"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+    /**
+     * Checks if given config path is set.
+     * 
+     * @param component
+     *            the path relative to the arena section (f.e. "lobby" or "bounds.low")
+     * @return {@code true} if the path is set
+     */
+    public boolean isSet(final String component)
+    {
+        return this.paths.contains(component);
+    }
+    
+    /**
+     * Returns a location component.
+     * 
+     * @param component
+     *            the path relative to the arena section (f.e. "lobby" or "bounds.low")
+     * @return new location instance; {@code null} if the component is not set or its world is not loaded
+     */
+    public Location getLocation(final String component)
+    {
+        final StoredLocation loc = this.components.get(component);
+        if (loc == null)
+        {
+            return null;
+        }
+        final Location result = loc.toLocation();
+        return result.getWorld() == null ? null : result;
+    }
+    
+    /**
+     * @return the spawn names in config order (f.e. "spawn0")
+     */
+    public List<String> getSpawns()
+    {
+        return this.spawns;
+    }
+    
+    /**
+     * Returns the join sign location.
+     * 
+     * @return new location instance; {@code null} if the sign is not set. The world may be {@code null} if it is not loaded.
+     */
+    public Location getSignLocation()
+    {
+        return this.sign == null ? null : this.sign.toLocation();
+    }
+    
+    /**
+     * Returns the spectator sign location.
+     * 
+     * @return new location instance; {@code null} if the sign is not set. The world may be {@code null} if it is not loaded.
+     */
+    public Location getSpecSignLocation()
+    {
+        return this.specSign == null ? null : this.specSign.toLocation();
+    }
+    
+    /**
+     * @return the map author; {@code null} if not set
+     */
+    public String getAuthor()
+    {
+        return this.author;
+    }
+    
+    /**
+     * @return the map description; {@code null} if not set
+     */
+    public String getDescription()
+    {
+        return this.description;
+    }
+    
+    /**
+     * A location read from config; the world is resolved on each access because worlds may be loaded or unloaded at runtime.
+     */
+    private static final class StoredLocation
+    {
+        /** world name. */
+        private final String world;
+        /** x coordinate. */
+        private final double x;
+        /** y coordinate. */
+        private final double y;
+        /** z coordinate. */
+        private final double z;
+        /** yaw. */
+        private final float  yaw;
+        /** pitch. */
+        private final float  pitch;
+        
+        /**
+         * @param world
+         * @param x
+         * @param y
+         * @param z
+         * @param yaw
+         * @param pitch
+         */
+        StoredLocation(final String world, final double x, final double y, final double z, final float yaw, final float pitch)
+        {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.yaw = yaw;
+            this.pitch = pitch;
+        }
+        
+        /**
+         * @return new location instance
+         */
+        Location toLocation()
+        {
+            return new Location(this.world == null ? null : Bukkit.getWorld(this.world), this.x, this.y, this.z, this.yaw, this.pitch);
+        }
+    }
+    
+}
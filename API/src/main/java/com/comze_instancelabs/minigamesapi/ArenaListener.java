@@ -99,6 +99,9 @@ import com.comze_instancelabs.minigamesapi.util.Validator;
 public class ArenaListener implements Listener
 {
     
+    /** spectators closer to a player than this distance (blocks) are pushed away. */
+    private static final double SPECTATOR_PUSH_RADIUS = 5.5D;
+    
     /** minigame plugin. */
     private JavaPlugin        plugin    = null;
     
@@ -116,6 +119,9 @@ public class ArenaListener implements Listener
     
     public int                loseY     = 4;
     
+    /** refreshes the player visibility after teleports. */
+    private final VisibilityRefresher visibilityRefresher;
+    
     /**
      * Constructor to create the arena listener.
      * 
@@ -130,6 +136,7 @@ public class ArenaListener implements Listener
     {
         this.plugin = plugin;
         this.pli = pinstance;
+        this.visibilityRefresher = new VisibilityRefresher(pinstance);
         this.setName(minigame);
         this.leave_cmd = plugin.getConfig().getString(ArenaConfigStrings.CONFIG_LEAVE_COMMAND);
     }
@@ -171,21 +178,23 @@ public class ArenaListener implements Listener
     @EventHandler(priority = EventPriority.HIGH)
     public void onExplode(final EntityExplodeEvent event)
     {
-        for (final Arena a : this.pli.getArenas())
+        if (event.getEntity() == null)
+        {
+            return;
+        }
+        final Location loc = event.getEntity().getLocation();
+        for (final Arena a : this.pli.getArenaRegionIndex().getCandidates(loc))
         {
             if (a.getArenaType() == ArenaType.REGENERATION)
             {
                 final Cuboid c = a.getBoundaries();
                 if (c != null)
                 {
-                    if (event.getEntity() != null)
+                    if (c.containsLocWithoutY(loc))
                     {
-                        if (c.containsLocWithoutY(event.getEntity().getLocation()))
+                        for (final Block b : event.blockList())
                         {
-                            for (final Block b : event.blockList())
-                            {
-                                a.getSmartReset().addChanged(b);
-                            }
+                            a.getSmartReset().addChanged(b);
                         }
                     }
                 }
@@ -208,14 +217,14 @@ public class ArenaListener implements Listener
     @EventHandler(priority = EventPriority.HIGH)
     public void onExplode2(final BlockExplodeEvent event)
     {
-        for (final Arena a : this.pli.getArenas())
+        for (final Block b : event.blockList())
         {
-            if (a.getArenaType() == ArenaType.REGENERATION)
+            for (final Arena a : this.pli.getArenaRegionIndex().getCandidates(b))
             {
-                final Cuboid c = a.getBoundaries();
-                if (c != null)
+                if (a.getArenaType() == ArenaType.REGENERATION)
                 {
-                    for (final Block b : event.blockList())
+                    final Cuboid c = a.getBoundaries();
+                    if (c != null)
                     {
                         if (c.containsLocWithoutY(b.getLocation()))
                         {
@@ -246,7 +255,7 @@ public class ArenaListener implements Listener
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockFromTo(final BlockFromToEvent event)
     {
-        for (final Arena a : this.pli.getArenas())
+        for (final Arena a : this.pli.getArenaRegionIndex().getCandidates(event.getBlock()))
         {
             if (a.getArenaType() == ArenaType.REGENERATION)
             {
@@ -284,7 +293,7 @@ public class ArenaListener implements Listener
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockFade(final BlockFadeEvent event)
     {
-        for (final Arena a : this.pli.getArenas())
+        for (final Arena a : this.pli.getArenaRegionIndex().getCandidates(event.getBlock()))
         {
             if (a.getArenaType() == ArenaType.REGENERATION && a.getArenaState() == ArenaState.INGAME)
             {
@@ -323,23 +332,20 @@ public class ArenaListener implements Listener
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockPhysics(final BlockPhysicsEvent event)
     {
-        for (final Arena a : this.pli.getArenas())
+        for (final Arena a : this.pli.getArenaRegionIndex().getCandidates(event.getBlock()))
         {
             if (a.getArenaType() == ArenaType.REGENERATION)
             {
                 final Cuboid c = a.getBoundaries();
-                if (c != null)
+                if (c != null && c.containsLocWithoutY(event.getBlock().getLocation()))
                 {
                     if (a.getArenaState() == ArenaState.INGAME)
                     {
-                        if (c.containsLocWithoutY(event.getBlock().getLocation()))
+                        if (event.getChangedType() == Material.CARPET || event.getChangedType() == Material.BED_BLOCK)
                         {
-                            if (event.getChangedType() == Material.CARPET || event.getChangedType() == Material.BED_BLOCK)
-                            {
-                                return;
-                            }
-                            a.getSmartReset().addChanged(event.getBlock());
+                            return;
                         }
+                        a.getSmartReset().addChanged(event.getBlock());
                     }
                     else if (a.getArenaState() == ArenaState.RESTARTING)
                     {
@@ -365,12 +371,12 @@ public class ArenaListener implements Listener
     @EventHandler
     public void onBlockRedstone(final BlockRedstoneEvent event)
     {
-        for (final Arena a : this.pli.getArenas())
+        for (final Arena a : this.pli.getArenaRegionIndex().getCandidates(event.getBlock()))
         {
             if (a.getArenaType() == ArenaType.REGENERATION)
             {
                 final Cuboid c = a.getBoundaries();
-                if (c != null)
+                if (c != null && c.containsLocWithoutY(event.getBlock().getLocation()))
                 {
                     if (a.getArenaState() == ArenaState.INGAME)
                     {
@@ -401,12 +407,12 @@ public class ArenaListener implements Listener
     public void onBlockSpread(final BlockSpreadEvent event)
     {
         // disallow fire spread while the arena restarts
-        for (final Arena a : this.pli.getArenas())
+        for (final Arena a : this.pli.getArenaRegionIndex().getCandidates(event.getBlock()))
         {
             if (a.getArenaType() == ArenaType.REGENERATION)
             {
                 final Cuboid c = a.getBoundaries();
-                if (c != null)
+                if (c != null && c.containsLocWithoutY(event.getBlock().getLocation()))
                 {
                     if (a.getArenaState() == ArenaState.INGAME)
                     {
@@ -574,9 +580,9 @@ public class ArenaListener implements Listener
     public void onBlockBreak2(final BlockBreakEvent event)
     {
         final Player p = event.getPlayer();
-        if (this.pli.containsGlobalPlayer(p.getName()))
+        if (this.pli.containsGlobalPlayer(p))
         {
-            final Arena a = this.pli.global_players.get(p.getName());
+            final Arena a = this.pli.getArenaByGlobalPlayer(p);
             if (event.getBlock().getType() != Material.AIR)
             {
                 a.getSmartReset().addChanged(event.getBlock());
@@ -606,16 +612,16 @@ public class ArenaListener implements Listener
     @EventHandler
     public void onPlayerDrop(final PlayerDropItemEvent event)
     {
-        if (this.pli.containsGlobalPlayer(event.getPlayer().getName()))
+        if (this.pli.containsGlobalPlayer(event.getPlayer()))
         {
-            final Arena a = this.pli.global_players.get(event.getPlayer().getName());
+            final Arena a = this.pli.getArenaByGlobalPlayer(event.getPlayer());
             if (a != null)
             {
                 if (a.getArenaState() != ArenaState.INGAME && a.getArcadeInstance() == null && !a.isArcadeMain())
                 {
                     event.setCancelled(true);
                 }
-                if (a.getArenaState() == ArenaState.INGAME && this.pli.containsGlobalLost(event.getPlayer().getName()))
+                if (a.getArenaState() == ArenaState.INGAME && this.pli.containsGlobalLost(event.getPlayer()))
                 {
                     event.setCancelled(true);
                 }
@@ -638,7 +644,7 @@ public class ArenaListener implements Listener
     {
         this.pli.getSpectatorManager();
         // spectators shall not pick up items
-        if (this.pli.containsGlobalLost(event.getPlayer().getName()) || SpectatorManager.isSpectating(event.getPlayer()))
+        if (this.pli.containsGlobalLost(event.getPlayer()) || SpectatorManager.isSpectating(event.getPlayer()))
         {
             final Arena a = this.pli.global_lost.get(event.getPlayer().getName());
             if (a != null)
@@ -667,9 +673,9 @@ public class ArenaListener implements Listener
         if (event.getWhoClicked() instanceof Player)
         {
             final Player p = (Player) event.getWhoClicked();
-            if (this.pli.containsGlobalPlayer(p.getName()))
+            if (this.pli.containsGlobalPlayer(p))
             {
-                final Arena a = this.pli.global_players.get(p.getName());
+                final Arena a = this.pli.getArenaByGlobalPlayer(p);
                 if (a != null)
                 {
                     if (a.getArenaState() == ArenaState.STARTING && a.getArcadeInstance() == null && !a.isArcadeMain())
@@ -697,9 +703,9 @@ public class ArenaListener implements Listener
         if (event.getEntity() instanceof Player)
         {
             final Player p = (Player) event.getEntity();
-            if (this.pli.containsGlobalPlayer(p.getName()))
+            if (this.pli.containsGlobalPlayer(p))
             {
-                if (!this.pli.global_players.get(p.getName()).isArcadeMain())
+                if (!this.pli.getArenaByGlobalPlayer(p).isArcadeMain())
                 {
                     event.setCancelled(true);
                 }
@@ -723,9 +729,9 @@ public class ArenaListener implements Listener
         if (event.getDamager() instanceof Player)
         {
             final Player p = (Player) event.getDamager();
-            if (this.pli.containsGlobalPlayer(p.getName()))
+            if (this.pli.containsGlobalPlayer(p))
             {
-                final Arena arena = this.pli.global_players.get(p.getName());
+                final Arena arena = this.pli.getArenaByGlobalPlayer(p);
                 if (arena.getArenaState() == ArenaState.JOIN || (arena.getArenaState() == ArenaState.STARTING))
                 {
                     final Entity e = event.getEntity();
@@ -755,7 +761,7 @@ public class ArenaListener implements Listener
         final Entity e = event.getRightClicked();
         if (!(e instanceof Player))
         {
-            final Arena arena = this.pli.global_players.get(p.getName());
+            final Arena arena = this.pli.getArenaByGlobalPlayer(p);
             if (arena != null)
             {
                 if (arena.getArenaState() == ArenaState.JOIN || (arena.getArenaState() == ArenaState.STARTING))
@@ -804,7 +810,8 @@ public class ArenaListener implements Listener
      * Fetches player move event.
      * 
      * <p>
-     * TODO describe what this event is doing. Seems to ensure that players cannot collide.
+     * Pushes spectators away from the ingame players so that they cannot block them. Spectator positions are tracked in the arena's spectator grid; only the grid cells around the moving
+     * player are visited. The event is ignored unless the player crossed a block boundary.
      * </p>
      * 
      * @param event
@@ -813,29 +820,37 @@ public class ArenaListener implements Listener
     @EventHandler
     public void Space(final PlayerMoveEvent event)
     {
+        final Location from = event.getFrom();
+        final Location to = event.getTo();
+        if (to == null || (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() && from.getBlockZ() == to.getBlockZ()))
+        {
+            return;
+        }
         final Player p = event.getPlayer();
-        if (this.pli.containsGlobalPlayer(p.getName()))
+        if (this.pli.containsGlobalPlayer(p))
         {
-            final Arena a = this.pli.global_players.get(p.getName());
+            final Arena a = this.pli.getArenaByGlobalPlayer(p);
             if (a != null)
             {
                 if (a.getArenaState() == ArenaState.INGAME)
                 {
-                    if (!ArenaListener.isSpectating(p))
+                    if (this.pli.containsGlobalLost(p) || this.pli.global_arcade_spectator.containsKey(p.getName()))
+                    {
+                        a.getSpectatorGrid().update(p, to.getWorld().getName(), to.getX(), to.getY(), to.getZ());
+                    }
+                    else if (!ArenaListener.isSpectating(p))
                     {
-                        for (final Entity e : this.getEntitiesByLocation(p.getLocation(), 30D))
+                        for (final Player sp : a.getSpectatorGrid().getNear(to.getWorld().getName(), to.getX(), to.getY(), to.getZ(), SPECTATOR_PUSH_RADIUS))
                         {
-                            
-                            if (e instanceof Player)
+                            if (!sp.isOnline() || this.pli.getArenaByGlobalPlayer(sp) != a)
                             {
-                                final Player sp = (Player) e;
-                                
-                                if (ArenaListener.isSpectating(sp))
-                                {
-                                    sp.setVelocity(sp.getLocation().getDirection().setY(0.05D));
-                                    sp.setVelocity(sp.getLocation().getDirection().multiply(-2));
-                                }
-                                
+                                a.getSpectatorGrid().remove(sp);
+                                continue;
+                            }
+                            if (ArenaListener.isSpectating(sp))
+                            {
+                                sp.setVelocity(sp.getLocation().getDirection().setY(0.05D));
+                                sp.setVelocity(sp.getLocation().getDirection().multiply(-2));
                             }
                         }
                     }
@@ -860,10 +875,10 @@ public class ArenaListener implements Listener
         if (event.getVehicle().getPassenger() instanceof Player)
         {
             final Player p = (Player) event.getVehicle().getPassenger();
-            if (this.pli.containsGlobalPlayer(p.getName()))
+            if (this.pli.containsGlobalPlayer(p))
             {
-                final Arena a = this.pli.global_players.get(p.getName());
-                if (!this.pli.containsGlobalLost(p.getName()) && !this.pli.global_arcade_spectator.containsKey(p.getName()))
+                final Arena a = this.pli.getArenaByGlobalPlayer(p);
+                if (!this.pli.containsGlobalLost(p) && !this.pli.global_arcade_spectator.containsKey(p.getName()))
                 {
                     if (a.getArenaState() == ArenaState.INGAME)
                     {
@@ -918,10 +933,10 @@ public class ArenaListener implements Listener
         try
         {
             final Player p = event.getPlayer();
-            if (this.pli.containsGlobalPlayer(p.getName()))
+            if (this.pli.containsGlobalPlayer(p))
             {
-                final Arena a = this.pli.global_players.get(p.getName());
-                if (!this.pli.containsGlobalLost(p.getName()) && !this.pli.global_arcade_spectator.containsKey(p.getName()))
+                final Arena a = this.pli.getArenaByGlobalPlayer(p);
+                if (!this.pli.containsGlobalLost(p) && !this.pli.global_arcade_spectator.containsKey(p.getName()))
                 {
                     if (a.getArenaState() == ArenaState.INGAME)
                     {
@@ -1046,14 +1061,14 @@ public class ArenaListener implements Listener
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerDeath(final PlayerDeathEvent event)
     {
-        if (this.pli.containsGlobalPlayer(event.getEntity().getName()))
+        if (this.pli.containsGlobalPlayer(event.getEntity()))
         {
             event.setDeathMessage(null);
             final Player p = event.getEntity();
             
             p.addPotionEffect(new PotionEffect(PotionEffectType.HEAL, 20 * 3, 50));
             
-            final Arena arena = this.pli.global_players.get(p.getName());
+            final Arena arena = this.pli.getArenaByGlobalPlayer(p);
             if (arena.getArenaState() == ArenaState.JOIN || (arena.getArenaState() == ArenaState.STARTING && !arena.getIngameCountdownStarted()))
             {
                 if (arena.isArcadeMain())
@@ -1091,7 +1106,7 @@ public class ArenaListener implements Listener
             final int count_ = count;
             
             Bukkit.getScheduler().runTaskLater(MinigamesAPI.getAPI(), () -> {
-                if (ArenaListener.this.pli.containsGlobalPlayer(p.getName()) && count_ > 1)
+                if (ArenaListener.this.pli.containsGlobalPlayer(p) && count_ > 1)
                 {
                     arena.spectate(p.getName());
                 }
@@ -1132,9 +1147,9 @@ public class ArenaListener implements Listener
         if (event.getEntity() instanceof Player)
         {
             final Player p = (Player) event.getEntity();
-            if (this.pli.containsGlobalPlayer(p.getName()) && this.pli.containsGlobalLost(p.getName()))
+            if (this.pli.containsGlobalPlayer(p) && this.pli.containsGlobalLost(p))
             {
-                final Arena a = this.pli.global_players.get(p.getName());
+                final Arena a = this.pli.getArenaByGlobalPlayer(p);
                 if (a.getArenaState() == ArenaState.INGAME && a.getArcadeInstance() == null && !a.getAlwaysPvP())
                 {
                     event.setCancelled(true);
@@ -1142,9 +1157,9 @@ public class ArenaListener implements Listener
             }
             if (event.getCause().equals(DamageCause.ENTITY_ATTACK))
             {
-                if (this.pli.containsGlobalPlayer(p.getName()))
+                if (this.pli.containsGlobalPlayer(p))
                 {
-                    final Arena a = this.pli.global_players.get(p.getName());
+                    final Arena a = this.pli.getArenaByGlobalPlayer(p);
                     if (a.getArenaState() != ArenaState.INGAME && a.getArcadeInstance() == null && !a.getAlwaysPvP())
                     {
                         event.setCancelled(true);
@@ -1155,16 +1170,16 @@ public class ArenaListener implements Listener
                     }
                 }
                 this.pli.getSpectatorManager();
-                if (this.pli.containsGlobalLost(p.getName()) || SpectatorManager.isSpectating(p))
+                if (this.pli.containsGlobalLost(p) || SpectatorManager.isSpectating(p))
                 {
                     event.setCancelled(true);
                 }
             }
             else if (event.getCause().equals(DamageCause.FALL))
             {
-                if (this.pli.containsGlobalPlayer(p.getName()))
+                if (this.pli.containsGlobalPlayer(p))
                 {
-                    final Arena a = this.pli.global_players.get(p.getName());
+                    final Arena a = this.pli.getArenaByGlobalPlayer(p);
                     if (a.getArenaState() != ArenaState.INGAME && a.getArcadeInstance() != null)
                     {
                         event.setCancelled(true);
@@ -1210,7 +1225,7 @@ public class ArenaListener implements Listener
             
             if (p != null && attacker != null)
             {
-                if (this.pli.containsGlobalPlayer(p.getName()) && this.pli.containsGlobalPlayer(attacker.getName()))
+                if (this.pli.containsGlobalPlayer(p) && this.pli.containsGlobalPlayer(attacker))
                 {
                     this.pli.getSpectatorManager();
                     if (SpectatorManager.isSpectating(p))
@@ -1266,12 +1281,12 @@ public class ArenaListener implements Listener
                         event.setCancelled(true);
                         return;
                     }
-                    if (this.pli.containsGlobalLost(attacker.getName()))
+                    if (this.pli.containsGlobalLost(attacker))
                     {
                         event.setCancelled(true);
                         return;
                     }
-                    final Arena a = this.pli.global_players.get(p.getName());
+                    final Arena a = this.pli.getArenaByGlobalPlayer(p);
                     if (a.getArenaState() == ArenaState.INGAME)
                     {
                         a.setLastDamager(p.getName(), attacker.getName());
@@ -1312,10 +1327,10 @@ public class ArenaListener implements Listener
     public void onBlockBreak(final BlockBreakEvent event)
     {
         final Player p = event.getPlayer();
-        if (this.pli.containsGlobalPlayer(p.getName()))
+        if (this.pli.containsGlobalPlayer(p))
         {
-            final Arena a = this.pli.global_players.get(p.getName());
-            if (a.getArenaState() != ArenaState.INGAME || this.pli.containsGlobalLost(p.getName()))
+            final Arena a = this.pli.getArenaByGlobalPlayer(p);
+            if (a.getArenaState() != ArenaState.INGAME || this.pli.containsGlobalLost(p))
             {
                 event.setCancelled(true);
                 return;
@@ -1364,8 +1379,16 @@ public class ArenaListener implements Listener
             final Arena arena = Util.getArenaBySignLocation(this.plugin, event.getBlock().getLocation());
             if (arena != null)
             {
-                this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena.getInternalName() + ".sign", null);
+                this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena.getInternalName() + ".sign", null);
+                this.pli.getArenasConfig().saveConfig();
+                arena.setSignLocation(null);
+            }
+            final Arena specarena = Util.getArenaBySpecSignLocation(this.plugin, event.getBlock().getLocation());
+            if (specarena != null)
+            {
+                this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + specarena.getInternalName() + ".specsign", null);
                 this.pli.getArenasConfig().saveConfig();
+                specarena.setSpecSignLocation(null);
             }
         }
     }
@@ -1383,9 +1406,9 @@ public class ArenaListener implements Listener
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerBucketEmpty(final PlayerBucketEmptyEvent event)
     {
-        if (this.pli.containsGlobalPlayer(event.getPlayer().getName()))
+        if (this.pli.containsGlobalPlayer(event.getPlayer()))
         {
-            final Arena a = this.pli.global_players.get(event.getPlayer().getName());
+            final Arena a = this.pli.getArenaByGlobalPlayer(event.getPlayer());
             final Block start = event.getBlockClicked();
             if (!a.getBoundaries().containsLocWithoutY(start.getLocation()))
             {
@@ -1420,11 +1443,11 @@ public class ArenaListener implements Listener
     public void onBlockPlace(final BlockPlaceEvent event)
     {
         final Player p = event.getPlayer();
-        if (this.pli.containsGlobalPlayer(p.getName()))
+        if (this.pli.containsGlobalPlayer(p))
         {
-            final Arena a = this.pli.global_players.get(p.getName());
+            final Arena a = this.pli.getArenaByGlobalPlayer(p);
             this.pli.getSpectatorManager();
-            if (a.getArenaState() != ArenaState.INGAME || this.pli.containsGlobalLost(p.getName()) || SpectatorManager.isSpectating(p))
+            if (a.getArenaState() != ArenaState.INGAME || this.pli.containsGlobalLost(p) || SpectatorManager.isSpectating(p))
             {
                 event.setCancelled(true);
                 return;
@@ -1524,7 +1547,7 @@ public class ArenaListener implements Listener
                         }
                     }
                     // try getting leave sign
-                    if (this.pli.containsGlobalPlayer(event.getPlayer().getName()))
+                    if (this.pli.containsGlobalPlayer(event.getPlayer()))
                     {
                         if (this.pli.getArenasConfig().getConfig().isSet("arenas.leave"))
                         {
@@ -1533,7 +1556,7 @@ public class ArenaListener implements Listener
                                 final Location loc = Util.getComponentForArenaRaw(this.plugin, "leave." + str, "sign");
                                 if (this.checkLocationMatchesSign(loc, s))
                                 {
-                                    this.pli.global_players.get(event.getPlayer().getName()).leavePlayer(event.getPlayer().getName(), false, false);
+                                    this.pli.getArenaByGlobalPlayer(event.getPlayer()).leavePlayer(event.getPlayer().getName(), false, false);
                                     Util.updateSign(this.plugin, this.pli.getArenaByName("leave"));
                                     return;
                                 }
@@ -1545,9 +1568,9 @@ public class ArenaListener implements Listener
             else if (event.getClickedBlock().getType() == Material.CHEST)
             {
                 final Player p = event.getPlayer();
-                if (this.pli.containsGlobalPlayer(p.getName()))
+                if (this.pli.containsGlobalPlayer(p))
                 {
-                    final Arena a = this.pli.global_players.get(p.getName());
+                    final Arena a = this.pli.getArenaByGlobalPlayer(p);
                     if (a.getArenaState() == ArenaState.INGAME)
                     {
                         a.getSmartReset().addChanged(event.getClickedBlock());
@@ -1557,9 +1580,9 @@ public class ArenaListener implements Listener
             else if (event.getClickedBlock().getType() == Material.TNT)
             {
                 final Player p = event.getPlayer();
-                if (this.pli.containsGlobalPlayer(p.getName()))
+                if (this.pli.containsGlobalPlayer(p))
                 {
-                    final Arena a = this.pli.global_players.get(p.getName());
+                    final Arena a = this.pli.getArenaByGlobalPlayer(p);
                     if (a.getArenaState() == ArenaState.INGAME)
                     {
                         a.getSmartReset().addChanged(event.getClickedBlock());
@@ -1571,9 +1594,9 @@ public class ArenaListener implements Listener
                     || event.getPlayer().getItemInHand().getType() == Material.LAVA_BUCKET || event.getPlayer().getItemInHand().getType() == Material.LAVA)
             {
                 final Player p = event.getPlayer();
-                if (this.pli.containsGlobalPlayer(p.getName()))
+                if (this.pli.containsGlobalPlayer(p))
                 {
-                    final Arena a = this.pli.global_players.get(p.getName());
+                    final Arena a = this.pli.getArenaByGlobalPlayer(p);
                     if (!a.getBoundaries().containsLocWithoutY(event.getClickedBlock().getLocation()))
                     {
                         event.setCancelled(true);
@@ -1589,9 +1612,9 @@ public class ArenaListener implements Listener
             else if (event.getClickedBlock().getType() == Material.DISPENSER || event.getClickedBlock().getType() == Material.DROPPER)
             {
                 final Player p = event.getPlayer();
-                if (this.pli.containsGlobalPlayer(p.getName()))
+                if (this.pli.containsGlobalPlayer(p))
                 {
-                    final Arena a = this.pli.global_players.get(p.getName());
+                    final Arena a = this.pli.getArenaByGlobalPlayer(p);
                     if (a.getArenaState() == ArenaState.INGAME)
                     {
                         a.getSmartReset().addChanged(event.getClickedBlock());
@@ -1601,7 +1624,7 @@ public class ArenaListener implements Listener
         }
         
         this.pli.getSpectatorManager();
-        if (this.pli.containsGlobalLost(event.getPlayer().getName()) || SpectatorManager.isSpectating(event.getPlayer()))
+        if (this.pli.containsGlobalLost(event.getPlayer()) || SpectatorManager.isSpectating(event.getPlayer()))
         {
             event.setCancelled(true);
         }
@@ -1609,11 +1632,11 @@ public class ArenaListener implements Listener
         if (event.hasItem())
         {
             final Player p = event.getPlayer();
-            if (!this.pli.containsGlobalPlayer(p.getName()))
+            if (!this.pli.containsGlobalPlayer(p))
             {
                 return;
             }
-            final Arena a = this.pli.global_players.get(p.getName());
+            final Arena a = this.pli.getArenaByGlobalPlayer(p);
             if (a.isArcadeMain())
             {
                 return;
@@ -1635,7 +1658,7 @@ public class ArenaListener implements Listener
                 }
                 else
                 {
-                    if (this.pli.containsGlobalLost(p.getName()))
+                    if (this.pli.containsGlobalLost(p))
                     {
                         a.leavePlayer(p.getName(), false, false);
                         event.setCancelled(true);
@@ -1644,7 +1667,7 @@ public class ArenaListener implements Listener
             }
             else if (event.getItem().getTypeId() == this.plugin.getConfig().getInt(ArenaConfigStrings.CONFIG_SPECTATOR_ITEM))
             {
-                if (this.pli.containsGlobalLost(p.getName()))
+                if (this.pli.containsGlobalLost(p))
                 {
                     this.pli.getSpectatorManager().openSpectatorGUI(p, a);
                     event.setCancelled(true);
@@ -1726,10 +1749,10 @@ public class ArenaListener implements Listener
                     final String arena = event.getLine(1);
                     if (arena.equalsIgnoreCase("random"))
                     {
-                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.world", p.getWorld().getName());
-                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.location.x", event.getBlock().getLocation().getBlockX());
-                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.location.y", event.getBlock().getLocation().getBlockY());
-                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.location.z", event.getBlock().getLocation().getBlockZ());
+                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.world", p.getWorld().getName());
+                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.location.x", event.getBlock().getLocation().getBlockX());
+                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.location.y", event.getBlock().getLocation().getBlockY());
+                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.location.z", event.getBlock().getLocation().getBlockZ());
                         this.pli.getArenasConfig().saveConfig();
                         Util.sendMessage(this.plugin, p, this.pli.getMessagesConfig().successfully_set.replaceAll("<component>", "arena (random) sign"));
                         Util.updateSign(this.plugin, event, arena);
@@ -1744,10 +1767,10 @@ public class ArenaListener implements Listener
                                 count++;
                             }
                         }
-                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + "." + count + ".sign.world", p.getWorld().getName());
-                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + "." + count + ".sign.location.x", event.getBlock().getLocation().getBlockX());
-                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + "." + count + ".sign.location.y", event.getBlock().getLocation().getBlockY());
-                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + "." + count + ".sign.location.z", event.getBlock().getLocation().getBlockZ());
+                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + "." + count + ".sign.world", p.getWorld().getName());
+                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + "." + count + ".sign.location.x", event.getBlock().getLocation().getBlockX());
+                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + "." + count + ".sign.location.y", event.getBlock().getLocation().getBlockY());
+                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + "." + count + ".sign.location.z", event.getBlock().getLocation().getBlockZ());
                         this.pli.getArenasConfig().saveConfig();
                         Util.sendMessage(this.plugin, p, this.pli.getMessagesConfig().successfully_set.replaceAll("<component>", "arena (leave) sign"));
                         Util.updateSign(this.plugin, event, arena);
@@ -1762,10 +1785,10 @@ public class ArenaListener implements Listener
                                 {
                                     if (Validator.isArenaValid(this.plugin, arena))
                                     {
-                                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.world", p.getWorld().getName());
-                                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.loc.x", event.getBlock().getLocation().getBlockX());
-                                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.loc.y", event.getBlock().getLocation().getBlockY());
-                                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.loc.z", event.getBlock().getLocation().getBlockZ());
+                                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.world", p.getWorld().getName());
+                                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.loc.x", event.getBlock().getLocation().getBlockX());
+                                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.loc.y", event.getBlock().getLocation().getBlockY());
+                                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.loc.z", event.getBlock().getLocation().getBlockZ());
                                         this.pli.getArenasConfig().saveConfig();
                                         Util.sendMessage(this.plugin, p, this.pli.getMessagesConfig().successfully_set.replaceAll("<component>", "arena sign"));
                                     }
@@ -1791,10 +1814,10 @@ public class ArenaListener implements Listener
                                 {
                                     if (Validator.isArenaValid(this.plugin, arena))
                                     {
-                                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.world", p.getWorld().getName());
-                                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.loc.x", event.getBlock().getLocation().getBlockX());
-                                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.loc.y", event.getBlock().getLocation().getBlockY());
-                                        this.pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.loc.z", event.getBlock().getLocation().getBlockZ());
+                                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.world", p.getWorld().getName());
+                                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.loc.x", event.getBlock().getLocation().getBlockX());
+                                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.loc.y", event.getBlock().getLocation().getBlockY());
+                                        this.pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.loc.z", event.getBlock().getLocation().getBlockZ());
                                         this.pli.getArenasConfig().saveConfig();
                                         Util.sendMessage(this.plugin, p, this.pli.getMessagesConfig().successfully_set.replaceAll("<component>", "spectator sign"));
                                     }
@@ -1838,11 +1861,11 @@ public class ArenaListener implements Listener
     {
         final Player p = event.getPlayer();
         this.pli.getStatsInstance().update(p.getName());
-        if (this.pli.containsGlobalPlayer(p.getName()))
+        if (this.pli.containsGlobalPlayer(p))
         {
             this.pli.global_players.remove(p.getName());
         }
-        if (this.pli.containsGlobalLost(p.getName()))
+        if (this.pli.containsGlobalLost(p))
         {
             this.pli.global_lost.remove(p.getName());
         }
@@ -1862,7 +1885,7 @@ public class ArenaListener implements Listener
                             p.getInventory().addItem(ArenaListener.this.plugin.getConfig().getItemStack("temp.left_players." + p.getName() + ".items." + key));
                         }
                     }
-                    final Arena arena = ArenaListener.this.pli.global_players.get(p.getName());
+                    final Arena arena = ArenaListener.this.pli.getArenaByGlobalPlayer(p);
                     p.updateInventory();
                     p.setWalkSpeed(0.2F);
                     p.removePotionEffect(PotionEffectType.JUMP);
@@ -1903,7 +1926,7 @@ public class ArenaListener implements Listener
                 if (p != null)
                 {
                     ArenaListener.this.pli.getArenas().get(0).joinPlayerLobby(p.getName());
-                    final Arena arena = ArenaListener.this.pli.global_players.get(p.getName());
+                    final Arena arena = ArenaListener.this.pli.getArenaByGlobalPlayer(p);
                     Util.updateSign(ArenaListener.this.plugin, arena);
                 }
             }, 30L);
@@ -1923,19 +1946,10 @@ public class ArenaListener implements Listener
     @EventHandler
     public void onPlayerLeave(final PlayerQuitEvent event)
     {
-        if (this.pli.containsGlobalPlayer(event.getPlayer().getName()))
+        if (this.pli.containsGlobalPlayer(event.getPlayer()))
         {
-            final Arena arena = this.pli.global_players.get(event.getPlayer().getName());
+            final Arena arena = this.pli.getArenaByGlobalPlayer(event.getPlayer());
             MinigamesAPI.getAPI().getLogger().info(event.getPlayer().getName() + " quit while in arena " + arena.getInternalName() + ".");
-            int count = 0;
-            for (final String p_ : this.pli.global_players.keySet())
-            {
-                if (this.pli.global_players.get(p_).getInternalName().equalsIgnoreCase(arena.getInternalName()))
-                {
-                    count++;
-                }
-            }
-            
             arena.leavePlayer(event.getPlayer().getName(), true, false);
             
             try
@@ -1983,7 +1997,7 @@ public class ArenaListener implements Listener
         final Player p = event.getPlayer();
         if (!this.pli.chat_enabled)
         {
-            if (this.pli.containsGlobalPlayer(p.getName()))
+            if (this.pli.containsGlobalPlayer(p))
             {
                 event.setCancelled(true);
                 return;
@@ -1991,24 +2005,22 @@ public class ArenaListener implements Listener
         }
         if (this.plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_CHAT_SHOW_SCORE_IN_ARENA))
         {
-            if (this.pli.containsGlobalPlayer(event.getPlayer().getName()))
+            if (this.pli.containsGlobalPlayer(event.getPlayer()))
             {
                 event.setFormat(ChatColor.GRAY + "[" + ChatColor.GREEN + this.pli.getStatsInstance().getPoints(event.getPlayer().getName()) + ChatColor.GRAY + "] " + event.getFormat());
             }
         }
         if (this.plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_CHAT_PER_ARENA_ONLY))
         {
-            if (this.pli.containsGlobalPlayer(p.getName()))
+            final Arena arena = this.pli.getArenaByGlobalPlayer(p);
+            if (arena != null)
             {
                 final String msg = String.format(event.getFormat(), p.getName(), event.getMessage());
                 for (final Player receiver : event.getRecipients())
                 {
-                    if (this.pli.containsGlobalPlayer(receiver.getName()))
+                    if (this.pli.getArenaByGlobalPlayer(receiver) == arena)
                     {
-                        if (this.pli.global_players.get(receiver.getName()) == this.pli.global_players.get(p.getName()))
-                        {
-                            receiver.sendMessage("§7" + msg);
-                        }
+                        receiver.sendMessage("§7" + msg);
                     }
                 }
                 event.setCancelled(true);
@@ -2031,15 +2043,15 @@ public class ArenaListener implements Listener
     {
         if (event.getMessage().equalsIgnoreCase(this.leave_cmd) || event.getMessage().equalsIgnoreCase("/l"))
         {
-            if (this.pli.containsGlobalPlayer(event.getPlayer().getName()))
+            if (this.pli.containsGlobalPlayer(event.getPlayer()))
             {
-                final Arena arena = this.pli.global_players.get(event.getPlayer().getName());
+                final Arena arena = this.pli.getArenaByGlobalPlayer(event.getPlayer());
                 arena.leavePlayer(event.getPlayer().getName(), false, false);
                 event.setCancelled(true);
                 return;
             }
         }
-        if (this.pli.containsGlobalPlayer(event.getPlayer().getName()) && !event.getPlayer().isOp())
+        if (this.pli.containsGlobalPlayer(event.getPlayer()) && !event.getPlayer().isOp())
         {
             if (!this.plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_DISABLE_COMMANDS_IN_ARENA))
             {
@@ -2080,20 +2092,24 @@ public class ArenaListener implements Listener
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerTeleport(final PlayerTeleportEvent event)
     {
+        final Player player = event.getPlayer();
+        if (this.pli.containsGlobalLost(player) || this.pli.global_arcade_spectator.containsKey(player.getName()))
+        {
+            final Arena a = this.pli.getArenaByGlobalPlayer(player);
+            final Location to = event.getTo();
+            if (a != null && to != null && to.getWorld() != null)
+            {
+                a.getSpectatorGrid().update(player, to.getWorld().getName(), to.getX(), to.getY(), to.getZ());
+            }
+        }
         if (event.getCause().equals(TeleportCause.UNKNOWN) && this.pli.spectator_mode_1_8)
         {
             // Don't hide/show players when 1.8 spectator mode is enabled
             return;
         }
-        final Player player = event.getPlayer();
-        if (this.pli.containsGlobalPlayer(player.getName()))
+        if (this.pli.containsGlobalPlayer(player))
         {
-            final int visibleDistance = 16;
-            Bukkit.getServer().getScheduler().scheduleSyncDelayedTask(this.plugin, () -> {
-                final List<Player> nearby = ArenaListener.this.getPlayersWithin(player, visibleDistance);
-                ArenaListener.this.updateEntities(nearby, false);
-                Bukkit.getServer().getScheduler().scheduleSyncDelayedTask(ArenaListener.this.plugin, () -> ArenaListener.this.updateEntities(nearby, true), 1);
-            }, 5L);
+            this.visibilityRefresher.teleported(player);
         }
     }
     
@@ -2104,26 +2120,9 @@ public class ArenaListener implements Listener
     @EventHandler
     public void onMobSpawn(CreatureSpawnEvent evt)
     {
-        for (final Arena arena : this.pli.getArenas())
+        if (this.pli.getArenaRegionIndex().getRegionArena(evt.getLocation()) != null)
         {
-            Cuboid c = arena.getBoundaries();
-            if (c != null && c.containsLoc(evt.getLocation()))
-            {
-                evt.setCancelled(true);
-                return;
-            }
-            c = arena.getLobbyBoundaries();
-            if (c != null && c.containsLoc(evt.getLocation()))
-            {
-                evt.setCancelled(true);
-                return;
-            }
-            c = arena.getSpecBoundaries();
-            if (c != null && c.containsLoc(evt.getLocation()))
-            {
-                evt.setCancelled(true);
-                return;
-            }
+            evt.setCancelled(true);
         }
     }
     
@@ -2137,7 +2136,7 @@ public class ArenaListener implements Listener
         if (!(evt.getEntity() instanceof Player) && evt.getTarget() instanceof Player)
         {
             final Player target = (Player) evt.getTarget();
-            if (this.pli.containsGlobalPlayer(target.getName()))
+            if (this.pli.containsGlobalPlayer(target))
             {
                 evt.setCancelled(true);
             }
@@ -2162,28 +2161,6 @@ public class ArenaListener implements Listener
         return ArenaScoreboard.mainScoreboardHasPlayer("spectators", p);
     }
     
-    /**
-     * Finds entities by location and squared distance.
-     * 
-     * @param loc
-     *            base
-     * @param d
-     *            maximum squared distance
-     * @return list of entities.
-     */
-    private List<Entity> getEntitiesByLocation(final Location loc, final double d)
-    {
-        final List<Entity> ent = new ArrayList<>();
-        for (final Entity e : loc.getWorld().getEntities())
-        {
-            if (e.getLocation().distanceSquared(loc) <= d)
-            {
-                ent.add(e);
-            }
-        }
-        return ent;
-    }
-    
     /**
      * Check if given location matches given sign.
      * 
@@ -2211,41 +2188,6 @@ public class ArenaListener implements Listener
         return false;
     }
     
-    private void updateEntities(final List<Player> players, final boolean visible)
-    {
-        for (final Player observer : players)
-        {
-            for (final Player player : players)
-            {
-                if (observer.getEntityId() != player.getEntityId())
-                {
-                    if (visible && !this.pli.containsGlobalLost(player.getName()))
-                    {
-                        observer.showPlayer(player);
-                    }
-                    else
-                    {
-                        observer.hidePlayer(player);
-                    }
-                }
-            }
-        }
-    }
-    
-    private List<Player> getPlayersWithin(final Player player, final int distance)
-    {
-        final List<Player> res = new ArrayList<>();
-        final int d2 = distance * distance;
-        for (final Player p : Bukkit.getServer().getOnlinePlayers())
-        {
-            if (p.getWorld() == player.getWorld() && p.getLocation().distanceSquared(player.getLocation()) <= d2)
-            {
-                res.add(p);
-            }
-        }
-        return res;
-    }
-    
     public String getName()
     {
         return this.minigame;
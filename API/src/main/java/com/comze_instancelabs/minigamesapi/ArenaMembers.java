@@ -0,0 +1,423 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * The member list of an arena.
+ * 
+ * <p>
+ * Keeps the join order of an array list while membership is answered by a hash index. Each player is contained at most once; adding a player that is already a member is ignored. Replacing
+ * an element may hold a player twice for a moment, as done by {@link Collections#swap(List, int, int)}, so the index counts the occurrences.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+final class ArenaMembers extends ArrayList<String>
+{
+    
+    /** serial version uid. */
+    private static final long         serialVersionUID = 1L;
+    
+    /** the membership index; occurrences by player. */
+    private final Map<String, Integer> index            = new HashMap<>();
+    
+    /** the members version; unlike the modification count it changes on replacements, too. */
+    private int                        version;
+    
+    @Override
+    public boolean contains(final Object o)
+    {
+        return this.index.containsKey(o);
+    }
+    
+    @Override
+    public boolean add(final String e)
+    {
+        if (this.index.containsKey(e))
+        {
+            return false;
+        }
+        super.add(e);
+        this.index(e);
+        return true;
+    }
+    
+    @Override
+    public void add(final int i, final String element)
+    {
+        if (!this.index.containsKey(element))
+        {
+            super.add(i, element);
+            this.index(element);
+        }
+    }
+    
+    @Override
+    public boolean addAll(final Collection<? extends String> c)
+    {
+        boolean result = false;
+        for (final String e : c)
+        {
+            result |= this.add(e);
+        }
+        return result;
+    }
+    
+    @Override
+    public boolean addAll(final int i, final Collection<? extends String> c)
+    {
+        final List<String> added = new ArrayList<>();
+        for (final String e : c)
+        {
+            if (!this.index.containsKey(e) && !added.contains(e))
+            {
+                added.add(e);
+            }
+        }
+        if (!super.addAll(i, added))
+        {
+            return false;
+        }
+        for (final String e : added)
+        {
+            this.index(e);
+        }
+        return true;
+    }
+    
+    @Override
+    public String set(final int i, final String element)
+    {
+        final String old = this.get(i);
+        if (old == null ? element == null : old.equals(element))
+        {
+            return old;
+        }
+        super.set(i, element);
+        this.unindex(old);
+        this.index(element);
+        return old;
+    }
+    
+    @Override
+    public String remove(final int i)
+    {
+        final String result = super.remove(i);
+        this.unindex(result);
+        return result;
+    }
+    
+    @Override
+    public boolean remove(final Object o)
+    {
+        final int i = this.indexOf(o);
+        if (i == -1)
+        {
+            return false;
+        }
+        this.remove(i);
+        return true;
+    }
+    
+    @Override
+    public int indexOf(final Object o)
+    {
+        // non members are answered by the index
+        return this.index.containsKey(o) ? super.indexOf(o) : -1;
+    }
+    
+    @Override
+    public int lastIndexOf(final Object o)
+    {
+        return this.index.containsKey(o) ? super.lastIndexOf(o) : -1;
+    }
+    
+    @Override
+    public boolean removeAll(final Collection<?> c)
+    {
+        final boolean result = super.removeAll(c);
+        this.reindex();
+        return result;
+    }
+    
+    @Override
+    public boolean retainAll(final Collection<?> c)
+    {
+        final boolean result = super.retainAll(c);
+        this.reindex();
+        return result;
+    }
+    
+    @Override
+    public boolean removeIf(final Predicate<? super String> filter)
+    {
+        final boolean result = super.removeIf(filter);
+        this.reindex();
+        return result;
+    }
+    
+    @Override
+    public void replaceAll(final UnaryOperator<String> operator)
+    {
+        super.replaceAll(operator);
+        if (new HashSet<>(this).size() != this.size())
+        {
+            // remove duplicates created by the operator
+            final List<String> members = new ArrayList<>(new LinkedHashSet<>(this));
+            super.clear();
+            super.addAll(members);
+        }
+        this.reindex();
+    }
+    
+    @Override
+    public void sort(final Comparator<? super String> c)
+    {
+        super.sort(c);
+        this.version++;
+    }
+    
+    @Override
+    public void clear()
+    {
+        super.clear();
+        this.index.clear();
+        this.version++;
+    }
+    
+    @Override
+    public Iterator<String> iterator()
+    {
+        return new MemberIterator(0);
+    }
+    
+    @Override
+    public ListIterator<String> listIterator()
+    {
+        return new MemberIterator(0);
+    }
+    
+    @Override
+    public ListIterator<String> listIterator(final int i)
+    {
+        if (i < 0 || i > this.size())
+        {
+            throw new IndexOutOfBoundsException("Index: " + i); //$NON-NLS-1$
+        }
+        return new MemberIterator(i);
+    }
+    
+    @Override
+    public List<String> subList(final int fromIndex, final int toIndex)
+    {
+        return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+    }
+    
+    @Override
+    public Object clone()
+    {
+        return new ArrayList<>(this);
+    }
+    
+    /**
+     * Returns a counter that changes whenever the members change.
+     * 
+     * @return modification counter
+     */
+    int getVersion()
+    {
+        return this.version;
+    }
+    
+    /**
+     * Iterator changing the members through the list methods so that the index stays consistent.
+     */
+    private final class MemberIterator implements ListIterator<String>
+    {
+        
+        /** index of the next element. */
+        private int cursor;
+        
+        /** index of the last returned element; {@code -1} if there is none. */
+        private int lastRet = -1;
+        
+        /** the expected modification count. */
+        private int expectedModCount = ArenaMembers.this.modCount;
+        
+        /**
+         * Constructor.
+         * 
+         * @param cursor
+         *            index of the first element
+         */
+        MemberIterator(final int cursor)
+        {
+            this.cursor = cursor;
+        }
+        
+        @Override
+        public boolean hasNext()
+        {
+            return this.cursor < ArenaMembers.this.size();
+        }
+        
+        @Override
+        public String next()
+        {
+            this.checkForComodification();
+            if (this.cursor >= ArenaMembers.this.size())
+            {
+                throw new NoSuchElementException();
+            }
+            this.lastRet = this.cursor++;
+            return ArenaMembers.this.get(this.lastRet);
+        }
+        
+        @Override
+        public boolean hasPrevious()
+        {
+            return this.cursor > 0;
+        }
+        
+        @Override
+        public String previous()
+        {
+            this.checkForComodification();
+            if (this.cursor <= 0)
+            {
+                throw new NoSuchElementException();
+            }
+            this.lastRet = --this.cursor;
+            return ArenaMembers.this.get(this.lastRet);
+        }
+        
+        @Override
+        public int nextIndex()
+        {
+            return this.cursor;
+        }
+        
+        @Override
+        public int previousIndex()
+        {
+            return this.cursor - 1;
+        }
+        
+        @Override
+        public void remove()
+        {
+            if (this.lastRet < 0)
+            {
+                throw new IllegalStateException();
+            }
+            this.checkForComodification();
+            ArenaMembers.this.remove(this.lastRet);
+            this.cursor = this.lastRet;
+            this.lastRet = -1;
+            this.expectedModCount = ArenaMembers.this.modCount;
+        }
+        
+        @Override
+        public void set(final String e)
+        {
+            if (this.lastRet < 0)
+            {
+                throw new IllegalStateException();
+            }
+            this.checkForComodification();
+            ArenaMembers.this.set(this.lastRet, e);
+        }
+        
+        @Override
+        public void add(final String e)
+        {
+            this.checkForComodification();
+            if (ArenaMembers.this.contains(e))
+            {
+                // already a member; the cursor must not move
+                return;
+            }
+            ArenaMembers.this.add(this.cursor++, e);
+            this.lastRet = -1;
+            this.expectedModCount = ArenaMembers.this.modCount;
+        }
+        
+        /**
+         * Fails if the members were changed outside of this iterator.
+         */
+        private void checkForComodification()
+        {
+            if (ArenaMembers.this.modCount != this.expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+        }
+        
+    }
+    
+    /**
+     * Counts an occurrence of given member.
+     * 
+     * @param e
+     *            the member
+     */
+    private void index(final String e)
+    {
+        this.index.merge(e, 1, Integer::sum);
+        this.version++;
+    }
+    
+    /**
+     * Removes an occurrence of given member.
+     * 
+     * @param e
+     *            the member
+     */
+    private void unindex(final String e)
+    {
+        this.index.computeIfPresent(e, (k, v) -> v == 1 ? null : v - 1);
+        this.version++;
+    }
+    
+    /**
+     * Rebuilds the index after bulk operations.
+     */
+    private void reindex()
+    {
+        this.index.clear();
+        for (final String e : this)
+        {
+            this.index.merge(e, 1, Integer::sum);
+        }
+        this.version++;
+    }
+    
+}
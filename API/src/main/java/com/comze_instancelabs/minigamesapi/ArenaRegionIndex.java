@@ -0,0 +1,651 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import com.comze_instancelabs.minigamesapi.util.Cuboid;
+
+/**
+ * Spatial index mapping world chunks to the arenas whose regions cover them.
+ *
+ * <p>
+ * Block events (physics, water flow, redstone etc.) and creature spawns fire very often. Instead of testing every arena region for each event the listener asks this index for the arenas
+ * covering the chunk of the event. Events outside of any arena resolve to an empty array without touching any arena. The arena boundaries, lobby boundaries and spectator boundaries are
+ * indexed separately, see {@link Region}.
+ * </p>
+ *
+ * <p>
+ * The index is maintained lazily. {@link PluginInstance} invalidates it whenever arenas are added, removed or reloaded and {@link Arena#init} invalidates the arena after the boundaries
+ * changed; on next lookup only the regions of invalidated arenas are indexed again. A full rebuild is only done after bulk changes of the arena list.
+ * </p>
+ *
+ * @author instancelabs
+ */
+public class ArenaRegionIndex
+{
+    
+    /**
+     * The indexed arena regions.
+     */
+    public enum Region
+    {
+        /** the arena boundaries. */
+        ARENA,
+        /** the waiting lobby boundaries. */
+        LOBBY,
+        /** the spectator boundaries. */
+        SPECTATOR;
+        
+        /**
+         * Returns the cuboid of this region.
+         * 
+         * @param arena
+         *            the arena
+         * @return cuboid or {@code null} if the region is not set
+         */
+        public Cuboid of(final Arena arena)
+        {
+            switch (this)
+            {
+                case LOBBY:
+                    return arena.getLobbyBoundaries();
+                case SPECTATOR:
+                    return arena.getSpecBoundaries();
+                case ARENA:
+                default:
+                    return arena.getBoundaries();
+            }
+        }
+    }
+    
+    /** all regions. */
+    private static final Region[]                  REGIONS            = Region.values();
+    
+    /** empty result. */
+    private static final Arena[]                   EMPTY              = new Arena[0];
+    
+    /** extra blocks around the boundaries to be indexed; see {@link Cuboid#containsLocWithoutYD(Location)}. */
+    private static final int                       MARGIN             = 2;
+    
+    /** maximum chunks per arena; bigger arenas are not indexed by chunk but tested on every lookup. */
+    private static final int                       MAX_INDEXED_CHUNKS = 16384;
+    
+    /** the plugin instance owning the arenas. */
+    private final PluginInstance                   pli;
+    
+    /** the chunk index of each region. */
+    private final Layer[]                          layers             = new Layer[REGIONS.length];
+    
+    /** the indexed footprints of each arena; one entry per region, {@code null} if the region is not set. */
+    private final Map<Arena, Footprint[]>          footprints         = new IdentityHashMap<>();
+    
+    /** arenas to be indexed again before next lookup. */
+    private final Set<Arena>                       dirtyArenas        = Collections.newSetFromMap(new IdentityHashMap<>());
+    
+    /** {@code true} if the index needs to be rebuilt before next lookup. */
+    private boolean                                dirty              = true;
+    
+    /**
+     * Constructor.
+     * 
+     * @param pli
+     *            the plugin instance owning the arenas.
+     */
+    public ArenaRegionIndex(final PluginInstance pli)
+    {
+        this.pli = pli;
+        for (int i = 0; i < this.layers.length; i++)
+        {
+            this.layers[i] = new Layer();
+        }
+    }
+    
+    /**
+     * Marks the whole index as outdated; it is rebuilt on next lookup.
+     */
+    public void invalidate()
+    {
+        this.dirty = true;
+    }
+    
+    /**
+     * Marks the regions of given arena as outdated, f.e. after the arena was added or its boundaries changed; the arena is indexed again on next lookup.
+     * 
+     * @param arena
+     *            the arena.
+     */
+    public void invalidate(final Arena arena)
+    {
+        this.dirtyArenas.add(arena);
+    }
+    
+    /**
+     * Removes an arena from the index.
+     * 
+     * @param arena
+     *            the removed arena.
+     */
+    public void remove(final Arena arena)
+    {
+        this.dirtyArenas.remove(arena);
+        this.unindex(arena);
+    }
+    
+    /**
+     * Returns the arenas whose boundaries (plus a small margin) cover the chunk of given block.
+     * 
+     * <p>
+     * The caller still has to check the exact boundaries; the returned array must not be modified.
+     * </p>
+     * 
+     * @param block
+     *            the block.
+     * @return candidate arenas; empty array if the block is not near any arena.
+     */
+    public Arena[] getCandidates(final Block block)
+    {
+        return this.getCandidates(Region.ARENA, block.getWorld(), block.getX(), block.getZ());
+    }
+    
+    /**
+     * Returns the arenas whose boundaries (plus a small margin) cover the chunk of given location.
+     * 
+     * <p>
+     * The caller still has to check the exact boundaries; the returned array must not be modified.
+     * </p>
+     * 
+     * @param loc
+     *            the location.
+     * @return candidate arenas; empty array if the location is not near any arena.
+     */
+    public Arena[] getCandidates(final Location loc)
+    {
+        return this.getCandidates(Region.ARENA, loc);
+    }
+    
+    /**
+     * Returns the arenas whose region (plus a small margin) covers the chunk of given location.
+     * 
+     * <p>
+     * The caller still has to check the exact boundaries; the returned array must not be modified.
+     * </p>
+     * 
+     * @param region
+     *            the region.
+     * @param loc
+     *            the location.
+     * @return candidate arenas; empty array if the location is not near any arena.
+     */
+    public Arena[] getCandidates(final Region region, final Location loc)
+    {
+        if (loc == null)
+        {
+            return EMPTY;
+        }
+        return this.getCandidates(region, loc.getWorld(), loc.getBlockX(), loc.getBlockZ());
+    }
+    
+    /**
+     * Returns the arenas whose boundaries (plus a small margin) cover the chunk of given block coordinates.
+     * 
+     * @param world
+     *            the world.
+     * @param blockX
+     *            block x coordinate.
+     * @param blockZ
+     *            block z coordinate.
+     * @return candidate arenas; empty array if the coordinates are not near any arena.
+     */
+    public Arena[] getCandidates(final World world, final int blockX, final int blockZ)
+    {
+        return this.getCandidates(Region.ARENA, world, blockX, blockZ);
+    }
+    
+    /**
+     * Returns the arenas whose region (plus a small margin) covers the chunk of given block coordinates.
+     * 
+     * @param region
+     *            the region.
+     * @param world
+     *            the world.
+     * @param blockX
+     *            block x coordinate.
+     * @param blockZ
+     *            block z coordinate.
+     * @return candidate arenas; empty array if the coordinates are not near any arena.
+     */
+    public Arena[] getCandidates(final Region region, final World world, final int blockX, final int blockZ)
+    {
+        if (world == null)
+        {
+            return EMPTY;
+        }
+        this.ensureIndex();
+        return this.layers[region.ordinal()].get(world.getName(), chunkKey(blockX >> 4, blockZ >> 4));
+    }
+    
+    /**
+     * Returns the arena whose boundaries contain given location (ignoring the y coordinate).
+     * 
+     * @param loc
+     *            the location.
+     * @return arena or {@code null} if the location is not within any arena.
+     */
+    public Arena getArena(final Location loc)
+    {
+        for (final Arena a : this.getCandidates(loc))
+        {
+            final Cuboid c = a.getBoundaries();
+            if (c != null && c.containsLocWithoutY(loc))
+            {
+                return a;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the arena having any region (arena, lobby or spectator boundaries) containing given location.
+     * 
+     * @param loc
+     *            the location.
+     * @return arena or {@code null} if the location is not within any arena region.
+     */
+    public Arena getRegionArena(final Location loc)
+    {
+        for (final Region region : REGIONS)
+        {
+            for (final Arena a : this.getCandidates(region, loc))
+            {
+                final Cuboid c = region.of(a);
+                if (c != null && c.containsLoc(loc))
+                {
+                    return a;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Brings the index up to date.
+     */
+    private void ensureIndex()
+    {
+        if (this.dirty)
+        {
+            this.rebuild();
+            return;
+        }
+        if (!this.dirtyArenas.isEmpty())
+        {
+            final List<Arena> arenas = this.pli.getArenas();
+            for (final Arena a : this.dirtyArenas)
+            {
+                this.unindex(a);
+                if (arenas.contains(a))
+                {
+                    this.index(a);
+                }
+            }
+            this.dirtyArenas.clear();
+        }
+        if (this.footprints.size() != this.pli.getArenas().size())
+        {
+            // arena list was manipulated directly
+            this.rebuild();
+        }
+    }
+    
+    /**
+     * Rebuilds the chunk index from the current arena list.
+     */
+    public void rebuild()
+    {
+        for (final Layer layer : this.layers)
+        {
+            layer.clear();
+        }
+        this.footprints.clear();
+        this.dirtyArenas.clear();
+        for (final Arena a : this.pli.getArenas())
+        {
+            if (a != null)
+            {
+                this.index(a);
+            }
+        }
+        this.dirty = false;
+    }
+    
+    /**
+     * Adds the regions of given arena to the index.
+     * 
+     * @param arena
+     *            the arena.
+     */
+    private void index(final Arena arena)
+    {
+        final Footprint[] prints = new Footprint[REGIONS.length];
+        for (final Region region : REGIONS)
+        {
+            final Footprint print = Footprint.of(region.of(arena));
+            if (print != null)
+            {
+                this.layers[region.ordinal()].add(arena, print);
+                prints[region.ordinal()] = print;
+            }
+        }
+        this.footprints.put(arena, prints);
+    }
+    
+    /**
+     * Removes the regions of given arena from the index.
+     * 
+     * @param arena
+     *            the arena.
+     */
+    private void unindex(final Arena arena)
+    {
+        final Footprint[] prints = this.footprints.remove(arena);
+        if (prints != null)
+        {
+            for (int i = 0; i < prints.length; i++)
+            {
+                if (prints[i] != null)
+                {
+                    this.layers[i].remove(arena, prints[i]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Packs chunk coordinates into a single key.
+     * 
+     * @param chunkX
+     *            chunk x coordinate.
+     * @param chunkZ
+     *            chunk z coordinate.
+     * @return chunk key.
+     */
+    static long chunkKey(final int chunkX, final int chunkZ)
+    {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Appends an arena to an array.
+     * 
+     * @param arenas
+     *            the array.
+     * @param arena
+     *            the arena to add.
+     * @return new array.
+     */
+    static Arena[] append(final Arena[] arenas, final Arena arena)
+    {
+        final Arena[] result = Arrays.copyOf(arenas, arenas.length + 1);
+        result[arenas.length] = arena;
+        return result;
+    }
+    
+    /**
+     * Removes an arena from an array.
+     * 
+     * @param arenas
+     *            the array.
+     * @param arena
+     *            the arena to remove.
+     * @return new array; {@code null} if the array is empty.
+     */
+    static Arena[] without(final Arena[] arenas, final Arena arena)
+    {
+        for (int i = 0; i < arenas.length; i++)
+        {
+            if (arenas[i] == arena)
+            {
+                if (arenas.length == 1)
+                {
+                    return null;
+                }
+                final Arena[] result = new Arena[arenas.length - 1];
+                System.arraycopy(arenas, 0, result, 0, i);
+                System.arraycopy(arenas, i + 1, result, i, arenas.length - i - 1);
+                return result;
+            }
+        }
+        return arenas;
+    }
+    
+    /**
+     * The chunks covered by a region.
+     */
+    private static final class Footprint
+    {
+        /** world name. */
+        final String  world;
+        
+        /** lowest chunk x. */
+        final int     minCX;
+        
+        /** lowest chunk z. */
+        final int     minCZ;
+        
+        /** highest chunk x. */
+        final int     maxCX;
+        
+        /** highest chunk z. */
+        final int     maxCZ;
+        
+        /** {@code true} if the region is too big for the chunk index. */
+        final boolean large;
+        
+        /**
+         * Constructor.
+         * 
+         * @param world
+         * @param minCX
+         * @param minCZ
+         * @param maxCX
+         * @param maxCZ
+         */
+        private Footprint(final String world, final int minCX, final int minCZ, final int maxCX, final int maxCZ)
+        {
+            this.world = world;
+            this.minCX = minCX;
+            this.minCZ = minCZ;
+            this.maxCX = maxCX;
+            this.maxCZ = maxCZ;
+            this.large = (long) (maxCX - minCX + 1) * (maxCZ - minCZ + 1) > MAX_INDEXED_CHUNKS;
+        }
+        
+        /**
+         * Returns the footprint of given cuboid.
+         * 
+         * @param c
+         *            cuboid.
+         * @return footprint or {@code null} if the cuboid is not set.
+         */
+        static Footprint of(final Cuboid c)
+        {
+            if (c == null || c.getLowLoc() == null || c.getHighLoc() == null || c.getWorld() == null)
+            {
+                return null;
+            }
+            return new Footprint(c.getWorld().getName(), (c.getLowLoc().getBlockX() - MARGIN) >> 4, (c.getLowLoc().getBlockZ() - MARGIN) >> 4, (c.getHighLoc().getBlockX() + MARGIN) >> 4,
+                    (c.getHighLoc().getBlockZ() + MARGIN) >> 4);
+        }
+    }
+    
+    /**
+     * The chunk index of a single region.
+     * 
+     * <p>
+     * Arenas being too big for the chunk index are kept per world. They are part of every chunk entry of their world, so a lookup returns a single array without merging.
+     * </p>
+     */
+    private static final class Layer
+    {
+        /** world name to chunk key to arenas; each entry contains at least one indexed arena plus the large arenas of the world. */
+        private final Map<String, Map<Long, Arena[]>> worlds = new HashMap<>();
+        
+        /** world name to arenas being too big for the chunk index. */
+        private final Map<String, Arena[]>            large  = new HashMap<>();
+        
+        /**
+         * Returns the arenas covering given chunk.
+         * 
+         * @param world
+         *            world name.
+         * @param key
+         *            chunk key.
+         * @return arenas.
+         */
+        Arena[] get(final String world, final long key)
+        {
+            final Map<Long, Arena[]> chunks = this.worlds.get(world);
+            if (chunks != null)
+            {
+                final Arena[] found = chunks.get(key);
+                if (found != null)
+                {
+                    return found;
+                }
+            }
+            return this.getLarge(world);
+        }
+        
+        /**
+         * Returns the arenas of given world being too big for the chunk index.
+         * 
+         * @param world
+         *            world name.
+         * @return arenas.
+         */
+        private Arena[] getLarge(final String world)
+        {
+            final Arena[] result = this.large.get(world);
+            return result == null ? EMPTY : result;
+        }
+        
+        /**
+         * Adds an arena.
+         * 
+         * @param arena
+         *            the arena.
+         * @param print
+         *            the covered chunks.
+         */
+        void add(final Arena arena, final Footprint print)
+        {
+            final Map<Long, Arena[]> chunks = this.worlds.get(print.world);
+            if (print.large)
+            {
+                this.large.put(print.world, append(this.getLarge(print.world), arena));
+                if (chunks != null)
+                {
+                    chunks.replaceAll((k, old) -> append(old, arena));
+                }
+                return;
+            }
+            final Arena[] largeArenas = this.getLarge(print.world);
+            final Map<Long, Arena[]> target = chunks == null ? new HashMap<>() : chunks;
+            for (int cx = print.minCX; cx <= print.maxCX; cx++)
+            {
+                for (int cz = print.minCZ; cz <= print.maxCZ; cz++)
+                {
+                    target.compute(chunkKey(cx, cz), (k, old) -> append(old == null ? largeArenas : old, arena));
+                }
+            }
+            if (chunks == null)
+            {
+                this.worlds.put(print.world, target);
+            }
+        }
+        
+        /**
+         * Removes an arena.
+         * 
+         * @param arena
+         *            the arena.
+         * @param print
+         *            the covered chunks.
+         */
+        void remove(final Arena arena, final Footprint print)
+        {
+            final Map<Long, Arena[]> chunks = this.worlds.get(print.world);
+            if (print.large)
+            {
+                final Arena[] result = without(this.getLarge(print.world), arena);
+                if (result == null)
+                {
+                    this.large.remove(print.world);
+                }
+                else
+                {
+                    this.large.put(print.world, result);
+                }
+                if (chunks != null)
+                {
+                    // never empty; each entry contains an indexed arena
+                    chunks.replaceAll((k, old) -> without(old, arena));
+                }
+                return;
+            }
+            if (chunks == null)
+            {
+                return;
+            }
+            final int largeCount = this.getLarge(print.world).length;
+            for (int cx = print.minCX; cx <= print.maxCX; cx++)
+            {
+                for (int cz = print.minCZ; cz <= print.maxCZ; cz++)
+                {
+                    chunks.computeIfPresent(chunkKey(cx, cz), (k, old) -> {
+                        final Arena[] result = without(old, arena);
+                        // entries holding the large arenas only are answered by the world
+                        return result == null || result.length == largeCount ? null : result;
+                    });
+                }
+            }
+            if (chunks.isEmpty())
+            {
+                this.worlds.remove(print.world);
+            }
+        }
+        
+        /**
+         * Removes all arenas.
+         */
+        void clear()
+        {
+            this.worlds.clear();
+            this.large.clear();
+        }
+    }
+    
+}
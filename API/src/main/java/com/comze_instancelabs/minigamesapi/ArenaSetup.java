@@ -97,7 +97,7 @@ public class ArenaSetup
         {
             ret = true;
         }
-        config.getConfig().set(path, null);
+        config.set(path, null);
         config.saveConfig();
         return ret;
     }
@@ -224,7 +224,7 @@ public class ArenaSetup
         final String path = ArenaConfigStrings.ARENAS_PREFIX + arenaname + ArenaConfigStrings.DISPLAYNAME_SUFFIX;
         if (!pli.getArenasConfig().getConfig().isSet(path))
         {
-            pli.getArenasConfig().getConfig().set(path, arenaname);
+            pli.getArenasConfig().set(path, arenaname);
             pli.getArenasConfig().saveConfig();
         }
         
@@ -239,7 +239,7 @@ public class ArenaSetup
             component = "min_players";
         }
         final String base = ArenaConfigStrings.ARENAS_PREFIX + arena + "." + component;
-        MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().getConfig().set(base, count);
+        MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().set(base, count);
         MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().saveConfig();
     }
     
@@ -264,7 +264,7 @@ public class ArenaSetup
     
     public void setArenaVIP(final JavaPlugin plugin, final String arena, final boolean vip)
     {
-        MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".is_vip", vip);
+        MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".is_vip", vip);
         MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().saveConfig();
     }
     
@@ -275,8 +275,9 @@ public class ArenaSetup
     
     public void setArenaEnabled(final JavaPlugin plugin, final String arena, final boolean enabled)
     {
-        MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".enabled", enabled);
+        MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".enabled", enabled);
         MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().saveConfig();
+        MinigamesAPI.getAPI().invalidateMotd();
     }
     
     public boolean getArenaEnabled(final JavaPlugin plugin, final String arena)
@@ -287,7 +288,7 @@ public class ArenaSetup
     
     public void setShowScoreboard(final JavaPlugin plugin, final String arena, final boolean enabled)
     {
-        MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".showscoreboard", enabled);
+        MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + arena + ".showscoreboard", enabled);
         MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().saveConfig();
     }
     
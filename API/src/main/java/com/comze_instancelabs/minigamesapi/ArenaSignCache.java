@@ -0,0 +1,113 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+/**
+ * Remembers what was last rendered to the join and spectator signs of an arena and sent to bungee.
+ * 
+ * <p>
+ * {@link com.comze_instancelabs.minigamesapi.util.Util#updateSign(org.bukkit.plugin.java.JavaPlugin, Arena)} compares the current arena state, player count and display name against these
+ * keys and only touches the sign blocks or sends bungee messages if something changed. A key stays unchanged if the sign chunk was not loaded so that the sign is rendered on a later
+ * update.
+ * </p>
+ * 
+ * @author instancelabs
+ */
+public class ArenaSignCache
+{
+    
+    /** key of the rendered join sign; {@code null} if unknown. */
+    private String joinKey;
+    
+    /** key of the rendered spectator sign; {@code null} if unknown. */
+    private String specKey;
+    
+    /** the last bungee sign update; {@code null} if unknown. */
+    private String bungeeKey;
+    
+    /**
+     * Forgets all rendered keys; the signs are rendered again on next update.
+     */
+    public void invalidate()
+    {
+        this.joinKey = null;
+        this.specKey = null;
+        this.bungeeKey = null;
+    }
+    
+    /**
+     * Returns the key of the rendered join sign.
+     * 
+     * @return key or {@code null}
+     */
+    public String getJoinKey()
+    {
+        return this.joinKey;
+    }
+    
+    /**
+     * Sets the key of the rendered join sign.
+     * 
+     * @param joinKey
+     *            new key
+     */
+    public void setJoinKey(final String joinKey)
+    {
+        this.joinKey = joinKey;
+    }
+    
+    /**
+     * Returns the key of the rendered spectator sign.
+     * 
+     * @return key or {@code null}
+     */
+    public String getSpecKey()
+    {
+        return this.specKey;
+    }
+    
+    /**
+     * Sets the key of the rendered spectator sign.
+     * 
+     * @param specKey
+     *            new key
+     */
+    public void setSpecKey(final String specKey)
+    {
+        this.specKey = specKey;
+    }
+    
+    /**
+     * Returns the last bungee sign update.
+     * 
+     * @return key or {@code null}
+     */
+    public String getBungeeKey()
+    {
+        return this.bungeeKey;
+    }
+    
+    /**
+     * Sets the last bungee sign update.
+     * 
+     * @param bungeeKey
+     *            new key
+     */
+    public void setBungeeKey(final String bungeeKey)
+    {
+        this.bungeeKey = bungeeKey;
+    }
+    
+}
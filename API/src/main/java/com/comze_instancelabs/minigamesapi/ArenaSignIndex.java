@@ -0,0 +1,151 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import org.bukkit.Location;
+
+import com.comze_instancelabs.minigamesapi.util.SignLocationIndex;
+
+/**
+ * Index mapping join and spectator sign blocks to their arenas.
+ *
+ * <p>
+ * Every sign click and sign break needs the arena of the sign. Instead of comparing the sign location with every arena the listener asks this index. Like the {@link ArenaRegionIndex} the
+ * index is rebuilt lazily; {@link PluginInstance} invalidates it whenever arenas are added, removed or reloaded and {@link Arena} invalidates it whenever a sign location changes.
+ * </p>
+ *
+ * @author mepeisen
+ */
+public class ArenaSignIndex
+{
+    
+    /** the plugin instance owning the arenas. */
+    private final PluginInstance           pli;
+    
+    /** join signs. */
+    private final SignLocationIndex<Arena> signs     = new SignLocationIndex<>();
+    
+    /** spectator signs. */
+    private final SignLocationIndex<Arena> specSigns = new SignLocationIndex<>();
+    
+    /** {@code true} if the index needs to be rebuilt before next lookup. */
+    private boolean                        dirty     = true;
+    
+    /** number of arenas at the time of the last rebuild. */
+    private int                            indexedCount;
+    
+    /**
+     * Constructor.
+     * 
+     * @param pli
+     *            the plugin instance owning the arenas.
+     */
+    public ArenaSignIndex(final PluginInstance pli)
+    {
+        this.pli = pli;
+    }
+    
+    /**
+     * Marks the index as outdated; it is rebuilt on next lookup.
+     */
+    public void invalidate()
+    {
+        this.dirty = true;
+    }
+    
+    /**
+     * Returns the arena of given join sign.
+     * 
+     * @param sign
+     *            the sign location.
+     * @return arena or {@code null} if there is no join sign at given location.
+     */
+    public Arena getArena(final Location sign)
+    {
+        return this.lookup(this.signs, sign);
+    }
+    
+    /**
+     * Returns the arena of given spectator sign.
+     * 
+     * @param sign
+     *            the sign location.
+     * @return arena or {@code null} if there is no spectator sign at given location.
+     */
+    public Arena getSpecArena(final Location sign)
+    {
+        return this.lookup(this.specSigns, sign);
+    }
+    
+    /**
+     * Looks up a sign.
+     * 
+     * @param index
+     *            the index to use.
+     * @param sign
+     *            the sign location.
+     * @return arena or {@code null}
+     */
+    private Arena lookup(final SignLocationIndex<Arena> index, final Location sign)
+    {
+        if (sign == null || sign.getWorld() == null)
+        {
+            return null;
+        }
+        if (this.dirty || this.indexedCount != this.pli.getArenas().size())
+        {
+            this.rebuild();
+        }
+        return index.get(sign.getWorld().getName(), sign.getBlockX(), sign.getBlockY(), sign.getBlockZ());
+    }
+    
+    /**
+     * Rebuilds the index from the current arena list.
+     */
+    public void rebuild()
+    {
+        this.signs.clear();
+        this.specSigns.clear();
+        for (final Arena a : this.pli.getArenas())
+        {
+            if (a != null)
+            {
+                add(this.signs, a.getSignLocation(), a);
+                add(this.specSigns, a.getSpecSignLocation(), a);
+            }
+        }
+        this.indexedCount = this.pli.getArenas().size();
+        this.dirty = false;
+    }
+    
+    /**
+     * Adds a sign; the first arena wins if multiple arenas share a sign.
+     * 
+     * @param index
+     *            the index to use.
+     * @param sign
+     *            the sign location.
+     * @param arena
+     *            the arena.
+     */
+    private static void add(final SignLocationIndex<Arena> index, final Location sign, final Arena arena)
+    {
+        if (sign != null && sign.getWorld() != null)
+        {
+            index.putIfAbsent(sign.getWorld().getName(), sign.getBlockX(), sign.getBlockY(), sign.getBlockZ(), arena);
+        }
+    }
+    
+}
@@ -41,4 +41,24 @@ public interface ChannelStrings
      */
     String SUBCHANNEL_MINIGAMESLIB_SIGN = "MinigamesLibSign"; //$NON-NLS-1$
     
+    /**
+     * Bungee-cord sub channel for minigames lib; lobby servers subscribing to arena snapshots.
+     */
+    String SUBCHANNEL_MINIGAMESLIB_SUBSCRIBE = "MinigamesLibSubscribe"; //$NON-NLS-1$
+    
+    /**
+     * Bungee-cord sub channel for minigames lib; batched arena snapshots sent to lobby servers.
+     */
+    String SUBCHANNEL_MINIGAMESLIB_SNAPSHOT = "MinigamesLibSnapshot"; //$NON-NLS-1$
+    
+    /**
+     * Bungee-cord sub channel for minigames lib; lobby servers measuring the round trip time to a game server.
+     */
+    String SUBCHANNEL_MINIGAMESLIB_PING = "MinigamesLibPing"; //$NON-NLS-1$
+    
+    /**
+     * Bungee-cord sub channel for minigames lib; the game server echoing a ping.
+     */
+    String SUBCHANNEL_MINIGAMESLIB_PONG = "MinigamesLibPong"; //$NON-NLS-1$
+    
 }
@@ -14,25 +14,19 @@
 */
 package com.comze_instancelabs.minigamesapi;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.UUID;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.Color;
-import org.bukkit.Material;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.LeatherArmorMeta;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.potion.PotionEffect;
-import org.bukkit.potion.PotionEffectType;
 
 import com.comze_instancelabs.minigamesapi.config.ClassesConfig;
 import com.comze_instancelabs.minigamesapi.util.AClass;
 import com.comze_instancelabs.minigamesapi.util.IconMenu;
+import com.comze_instancelabs.minigamesapi.util.KitLoadout;
 import com.comze_instancelabs.minigamesapi.util.Util;
 import com.comze_instancelabs.minigamesapi.util.Validator;
 import com.shampaggon.crackshot.CSUtility;
@@ -146,129 +140,14 @@ public class Classes
         }
         final Player p = Bukkit.getServer().getPlayer(player);
         Util.clearInv(p);
-        final ArrayList<ItemStack> items = new ArrayList<>(Arrays.asList(c.getItems()));
-        final ArrayList<ItemStack> temp = new ArrayList<>(Arrays.asList(c.getItems()));
-        final ArrayList<String> tempguns = new ArrayList<>();
-        final ArrayList<PotionEffectType> temppotions = new ArrayList<>();
-        final ArrayList<Integer> temppotions_lv = new ArrayList<>();
-        final ArrayList<Integer> temppotions_duration = new ArrayList<>();
-        
-        // crackshot support
-        for (final ItemStack item : temp)
-        {
-            if (item != null)
-            {
-                if (item.hasItemMeta())
-                {
-                    if (item.getItemMeta().hasDisplayName())
-                    {
-                        if (item.getItemMeta().getDisplayName().startsWith("crackshot:"))
-                        {
-                            items.remove(item);
-                            tempguns.add(item.getItemMeta().getDisplayName().split(":")[1]);
-                        }
-                        else if (item.getItemMeta().getDisplayName().startsWith("potioneffect:"))
-                        {
-                            items.remove(item);
-                            final String potioneffect = item.getItemMeta().getDisplayName().split(":")[1];
-                            final String data = item.getItemMeta().getDisplayName().split(":")[2];
-                            final Integer time = Integer.parseInt(data.substring(0, data.indexOf("#")));
-                            final Integer lv = Integer.parseInt(data.split("#")[1]);
-                            if (PotionEffectType.getByName(potioneffect) != null)
-                            {
-                                temppotions.add(PotionEffectType.getByName(potioneffect));
-                                temppotions_lv.add(lv);
-                                temppotions_duration.add(time);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        
-        for (final ItemStack item : items)
-        {
-            if (item != null)
-            {
-                Color c_ = null;
-                if (item.hasItemMeta())
-                {
-                    if (item.getItemMeta().hasDisplayName())
-                    {
-                        if (item.getItemMeta().getDisplayName().startsWith("#") && item.getItemMeta().getDisplayName().length() == 7)
-                        {
-                            c_ = Util.hexToRgb(item.getItemMeta().getDisplayName());
-                        }
-                    }
-                }
-                if (item.getTypeId() == 298 || item.getTypeId() == 302 || item.getTypeId() == 306 || item.getTypeId() == 310 || item.getTypeId() == 314)
-                {
-                    if (item.getTypeId() == 298)
-                    {
-                        final LeatherArmorMeta lam = (LeatherArmorMeta) item.getItemMeta();
-                        if (c_ != null)
-                        {
-                            lam.setColor(c_);
-                        }
-                        item.setItemMeta(lam);
-                    }
-                    p.getInventory().setHelmet(item);
-                    continue;
-                }
-                if (item.getTypeId() == 299 || item.getTypeId() == 303 || item.getTypeId() == 307 || item.getTypeId() == 311 || item.getTypeId() == 315)
-                {
-                    if (item.getTypeId() == 299)
-                    {
-                        final LeatherArmorMeta lam = (LeatherArmorMeta) item.getItemMeta();
-                        if (c_ != null)
-                        {
-                            lam.setColor(c_);
-                        }
-                        item.setItemMeta(lam);
-                    }
-                    p.getInventory().setChestplate(item);
-                    continue;
-                }
-                if (item.getTypeId() == 300 || item.getTypeId() == 304 || item.getTypeId() == 308 || item.getTypeId() == 312 || item.getTypeId() == 316)
-                {
-                    if (item.getTypeId() == 300)
-                    {
-                        final LeatherArmorMeta lam = (LeatherArmorMeta) item.getItemMeta();
-                        if (c_ != null)
-                        {
-                            lam.setColor(c_);
-                        }
-                        item.setItemMeta(lam);
-                    }
-                    p.getInventory().setLeggings(item);
-                    continue;
-                }
-                if (item.getTypeId() == 301 || item.getTypeId() == 305 || item.getTypeId() == 309 || item.getTypeId() == 313 || item.getTypeId() == 317)
-                {
-                    if (item.getTypeId() == 301)
-                    {
-                        final LeatherArmorMeta lam = (LeatherArmorMeta) item.getItemMeta();
-                        if (c_ != null)
-                        {
-                            lam.setColor(c_);
-                        }
-                        item.setItemMeta(lam);
-                    }
-                    p.getInventory().setBoots(item);
-                    continue;
-                }
-                if (item.getType() != Material.AIR)
-                {
-                    p.getInventory().addItem(item);
-                }
-            }
-        }
-        // p.getInventory().setContents((ItemStack[]) items.toArray(new ItemStack[items.size()]));
+        final KitLoadout loadout = c.getLoadout();
+        loadout.applyItems(p);
         p.updateInventory();
         
+        // crackshot support
         if (MinigamesAPI.getAPI().crackshotAvailable())
         {
-            for (final String t : tempguns)
+            for (final String t : loadout.getGuns())
             {
                 final CSUtility cs = new CSUtility();
                 cs.giveWeapon(p, t, 1);
@@ -278,12 +157,7 @@ public class Classes
         Bukkit.getScheduler().runTaskLater(this.plugin, () -> {
             if (p != null)
             {
-                int index = 0;
-                for (final PotionEffectType t : temppotions)
-                {
-                    p.addPotionEffect(new PotionEffect(t, temppotions_duration.get(index), temppotions_lv.get(index)));
-                    index++;
-                }
+                loadout.applyPotionEffects(p);
             }
         }, 10L);
         
@@ -391,6 +265,7 @@ public class Classes
                                 config.isSet("config.kits." + aclass + ".enabled") ? config.getBoolean("config.kits." + aclass + ".enabled") : true,
                                 Util.parseItems(config.getString("config.kits." + aclass + ".items")));
                     }
+                    n.getLoadout();
                     Classes.this.pli.addAClass(config.getString("config.kits." + aclass + ".name"), n);
                     if (!config.isSet("config.kits." + aclass + ".items") || !config.isSet("config.kits." + aclass + ".lore"))
                     {
@@ -429,6 +304,7 @@ public class Classes
                                 Util.parseItems(config.getString("config.kits." + aclass + ".items")));
                     }
                     // pli.addAClass(aclass, n);
+                    n.getLoadout();
                     MinigamesAPI.getAPI().getPluginInstance(plugin).addAClass(config.getString("config.kits." + aclass + ".name"), n);
                     if (!config.isSet("config.kits." + aclass + ".items") || !config.isSet("config.kits." + aclass + ".lore"))
                     {
@@ -465,17 +341,17 @@ public class Classes
         // Credits
         if (this.plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_USE_CREADITS_INSTEAD_MONEY_FOR_KITS))
         {
-            final String uuid = p.getUniqueId().toString();
+            final UUID uuid = p.getUniqueId();
+            final StatsStore global = MinigamesAPI.getAPI().getGlobalStatsStore();
             int points = 0;
-            if (!MinigamesAPI.getAPI().statsglobal.getConfig().isSet("players." + uuid + ".points"))
+            if (!global.isSet(uuid, StatsKey.POINTS))
             {
                 points = this.pli.getStatsInstance().getPoints(p.getName());
-                MinigamesAPI.getAPI().statsglobal.getConfig().set("players." + uuid + ".points", points);
-                MinigamesAPI.getAPI().statsglobal.saveConfig();
+                global.set(uuid, StatsKey.POINTS, points, null);
             }
             else
             {
-                points = MinigamesAPI.getAPI().statsglobal.getConfig().getInt("players." + uuid + ".points");
+                points = global.get(uuid, StatsKey.POINTS);
             }
             if (this.plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_BUY_CLASSES_FOREVER))
             {
@@ -485,8 +361,7 @@ public class Classes
                     final int money = this.pli.getClassesConfig().getConfig().getInt("config.kits." + kit + ".money_amount");
                     if (points >= money)
                     {
-                        MinigamesAPI.getAPI().statsglobal.getConfig().set("players." + uuid + ".points", points - money);
-                        MinigamesAPI.getAPI().statsglobal.saveConfig();
+                        global.set(uuid, StatsKey.POINTS, points - money, null);
                         cl.getConfig().set("players.bought_kits." + p.getName() + "." + kit, true);
                         cl.saveConfig();
                         p.sendMessage(this.pli.getMessagesConfig().successfully_bought_kit.replaceAll("<kit>", ChatColor.translateAlternateColorCodes('&', this.getClassByInternalname(kit).getName()))
@@ -516,8 +391,7 @@ public class Classes
                 final int money = config.getConfig().getInt("config.kits." + kit + ".money_amount");
                 if (points >= money)
                 {
-                    MinigamesAPI.getAPI().statsglobal.getConfig().set("players." + uuid + ".points", points - money);
-                    MinigamesAPI.getAPI().statsglobal.saveConfig();
+                    global.set(uuid, StatsKey.POINTS, points - money, null);
                     p.sendMessage(this.pli.getMessagesConfig().successfully_bought_kit.replaceAll("<kit>", ChatColor.translateAlternateColorCodes('&', this.getClassByInternalname(kit).getName()))
                             .replaceAll("<money>", Integer.toString(money)));
                 }
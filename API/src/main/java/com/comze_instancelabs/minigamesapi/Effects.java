@@ -14,9 +14,6 @@
 */
 package com.comze_instancelabs.minigamesapi;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -110,31 +107,26 @@ public class Effects
     {
         try
         {
-            final Method getHandle = Class.forName("org.bukkit.craftbukkit." + MinigamesAPI.getAPI().internalServerVersion + ".entity.CraftPlayer").getMethod("getHandle");
-            final Field playerConnection = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityPlayer").getField("playerConnection");
-            playerConnection.setAccessible(true);
-            final Method sendPacket = playerConnection.getType().getMethod("sendPacket", Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".Packet"));
-            
-            final Constructor<?> packetPlayOutNamedEntityConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutNamedEntitySpawn")
-                    .getConstructor(Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityHuman"));
-            final Constructor<?> packetPlayOutBedConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutBed").getConstructor();
+            final NmsAccess nms = NmsAccess.get();
+            final NmsAccess.Packets packets = nms.getPackets();
+            final NmsAccess.Invoker packetPlayOutNamedEntityConstr = packets.getNamedEntitySpawn();
+            final NmsAccess.Invoker packetPlayOutBedConstr = packets.getBed();
             
             final int id = -p.getEntityId() - 1000;
             
-            final Object packetNamedEntity = packetPlayOutNamedEntityConstr.newInstance(getHandle.invoke(p));
+            final Object packetNamedEntity = packetPlayOutNamedEntityConstr.invoke(nms.getHandle(p));
             Effects.setValue(packetNamedEntity, "a", id);
             
-            final Object packetFakeBed = packetPlayOutBedConstr.newInstance();
+            final Object packetFakeBed = packetPlayOutBedConstr.invoke();
             Effects.setValue(packetFakeBed, "a", id);
-            final Object packetFakeBed2 = packetPlayOutBedConstr.newInstance();
+            final Object packetFakeBed2 = packetPlayOutBedConstr.invoke();
             Effects.setValue(packetFakeBed2, "a", id);
             if (MinigamesAPI.SERVER_VERSION.isAtLeast(MinecraftVersionsType.V1_8_R1))
             {
-                final Class<?> bpClazz = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".BlockPosition");
-                final Constructor<?> ctor = bpClazz.getDeclaredConstructor(int.class, int.class, int.class);
-                Effects.setValue(packetFakeBed, "b", ctor.newInstance(x, y, z));
+                final NmsAccess.Invoker ctor = packets.getBlockPosition();
+                Effects.setValue(packetFakeBed, "b", ctor.invoke(x, y, z));
                 
-                Effects.setValue(packetFakeBed2, "b", ctor.newInstance(0, 0, 0));
+                Effects.setValue(packetFakeBed2, "b", ctor.invoke(0, 0, 0));
             }
             else
             {
@@ -146,12 +138,8 @@ public class Effects
                 Effects.setValue(packetFakeBed2, "d", 0);
             }
             
-            for (final String p_ : a.getAllPlayers())
-            {
-                final Player p__ = Bukkit.getPlayer(p_);
-                sendPacket.invoke(playerConnection.get(getHandle.invoke(p__)), packetNamedEntity);
-                sendPacket.invoke(playerConnection.get(getHandle.invoke(p__)), packetFakeBed);
-            }
+            a.getBroadcast().sendPacket(packetNamedEntity);
+            a.getBroadcast().sendPacket(packetFakeBed);
             
             // Move the effect (fake player) to 0 0 0 after 4 seconds
             final ArrayList<String> tempp = new ArrayList<>(a.getAllPlayers());
@@ -166,8 +154,8 @@ public class Effects
                             final Player p__ = Bukkit.getPlayer(p_);
                             if (p__.getWorld() == currentworld)
                             {
-                                sendPacket.invoke(playerConnection.get(getHandle.invoke(p__)), packetNamedEntity);
-                                sendPacket.invoke(playerConnection.get(getHandle.invoke(p__)), packetFakeBed2);
+                                nms.sendPacket(p__, packetNamedEntity);
+                                nms.sendPacket(p__, packetFakeBed2);
                             }
                         }
                     }
@@ -199,9 +187,7 @@ public class Effects
      */
     private static void setValue(final Object instance, final String fieldName, final Object value) throws Exception
     {
-        final Field field = instance.getClass().getDeclaredField(fieldName);
-        field.setAccessible(true);
-        field.set(instance, value);
+        NmsAccess.get().setField(instance, fieldName, value);
     }
     
     /**
@@ -216,16 +202,11 @@ public class Effects
         Bukkit.getScheduler().runTaskLater(plugin, () -> {
             try
             {
-                final Method getHandle = Class.forName("org.bukkit.craftbukkit." + MinigamesAPI.getAPI().internalServerVersion + ".entity.CraftPlayer").getMethod("getHandle");
-                final Field playerConnection = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityPlayer").getField("playerConnection");
-                final Field minecraftServer = playerConnection.get(getHandle.invoke(p)).getClass().getDeclaredField("minecraftServer");
-                minecraftServer.setAccessible(true);
-                
-                final Object nmsMcServer = minecraftServer.get(playerConnection.get(getHandle.invoke(p)));
-                final Object playerlist = nmsMcServer.getClass().getDeclaredMethod("getPlayerList").invoke(nmsMcServer);
-                final Method moveToWorld = playerlist.getClass().getMethod("moveToWorld", Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityPlayer"),
-                        int.class, boolean.class);
-                moveToWorld.invoke(playerlist, getHandle.invoke(p), 0, false);
+                final NmsAccess nms = NmsAccess.get();
+                final Object handle = nms.getHandle(p);
+                final Object nmsMcServer = nms.getField(nms.getField(handle, "playerConnection"), "minecraftServer");
+                final Object playerlist = nms.method(nmsMcServer.getClass(), "getPlayerList").invoke(nmsMcServer);
+                nms.method(playerlist.getClass(), "moveToWorld", nms.nmsClass("EntityPlayer"), int.class, boolean.class).invoke(playerlist, handle, 0, false);
             }
             catch (final Exception e)
             {
@@ -245,43 +226,50 @@ public class Effects
      *            The enum index, can be 0 for title, 1 for subtitle, 4 for reset
      */
     public static void playTitle(final Player player, final String title, int eindex)
+    {
+        try
+        {
+            NmsAccess.get().sendPacket(player, createTitlePacket(title, eindex));
+        }
+        catch (final Exception e)
+        {
+            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "Failed sending title packet", e);
+        }
+    }
+    
+    /**
+     * Creates a title/subtitle packet that can be sent to multiple players.
+     * 
+     * @param title
+     *            The title string
+     * @param eindex
+     *            The enum index, can be 0 for title, 1 for subtitle, 4 for reset
+     * @return nms packet
+     * @throws Exception
+     *             thrown if the packet cannot be created on this server version
+     */
+    static Object createTitlePacket(final String title, int eindex) throws Exception
     {
         int enumindex = eindex;
         if (enumindex > 4)
         {
             enumindex = 0;
         }
-        try
+        final NmsAccess.Packets packets = NmsAccess.get().getPackets();
+        Object chatComp = null;
+        if (MinigamesAPI.SERVER_VERSION.isBelow(MinecraftVersionsType.V1_8_R2))
         {
-            final Method getHandle = Class.forName("org.bukkit.craftbukkit." + MinigamesAPI.getAPI().internalServerVersion + ".entity.CraftPlayer").getMethod("getHandle");
-            final Field playerConnection = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityPlayer").getField("playerConnection");
-            playerConnection.setAccessible(true);
-            final Method sendPacket = playerConnection.getType().getMethod("sendPacket", Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".Packet"));
-            Class<?> enumClass = null;
-            Object chatComp = null;
-            if (MinigamesAPI.SERVER_VERSION.isBelow(MinecraftVersionsType.V1_8_R2))
-            {
-                Method a = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".ChatSerializer").getMethod("a", String.class);
-                enumClass = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EnumTitleAction");
-                chatComp = a.invoke(null, "{text:\"" + title + "\"}");
-            }
-            else
-            {
-                enumClass = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutTitle$EnumTitleAction");
-                chatComp = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".ChatComponentText").getConstructor(String.class).newInstance(title);
-            }
-            
-            final Constructor<?> packetPlayOutTitleConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutTitle").getConstructor();
-            final Object packet = packetPlayOutTitleConstr.newInstance();
-            Effects.setValue(packet, "a", enumClass.getEnumConstants()[enumindex]);
-            Effects.setValue(packet, "b", chatComp);
-            
-            sendPacket.invoke(playerConnection.get(getHandle.invoke(player)), packet);
+            chatComp = packets.getChatSerializer().invoke("{text:\"" + title + "\"}");
         }
-        catch (final Exception e)
+        else
         {
-            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "Failed sending title packet", e);
+            chatComp = packets.getChatComponentText().invoke(title);
         }
+        
+        final Object packet = packets.getTitle().invoke();
+        Effects.setValue(packet, "a", packets.getTitleAction(enumindex));
+        Effects.setValue(packet, "b", chatComp);
+        return packet;
     }
     
     static HashMap<Integer, Integer> effectlocd        = new HashMap<>();
@@ -309,44 +297,26 @@ public class Effects
         {
             try
             {
-                final Method getPlayerHandle = Class.forName("org.bukkit.craftbukkit." + MinigamesAPI.getAPI().internalServerVersion + ".entity.CraftPlayer").getMethod("getHandle");
-                final Field playerConnection = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityPlayer").getField("playerConnection");
-                playerConnection.setAccessible(true);
-                final Method sendPacket = playerConnection.getType().getMethod("sendPacket", Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".Packet"));
-                
-                final Class<?> craftw = Class.forName("org.bukkit.craftbukkit." + MinigamesAPI.getAPI().internalServerVersion + ".CraftWorld");
-                final Class<?> w = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".World");
-                final Class<?> entity = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".Entity");
-                final Method getWorldHandle = craftw.getDeclaredMethod("getHandle");
-                final Object worldServer = getWorldHandle.invoke(craftw.cast(l.getWorld()));
-//                Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutSpawnEntity").getConstructor(entity, int.class);
-                final Constructor<?> packetPlayOutSpawnEntityLivingConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutSpawnEntityLiving")
-                        .getConstructor(Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityLiving"));
-//                Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutAttachEntity").getConstructor(int.class, entity, entity);
-                final Constructor<?> packetPlayOutEntityDestroyConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutEntityDestroy")
-                        .getConstructor(int[].class);
-                final Constructor<?> packetPlayOutEntityVelocity = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutEntityVelocity")
-                        .getConstructor(int.class, double.class, double.class, double.class);
+                final NmsAccess nms = NmsAccess.get();
+                final NmsAccess.Packets packets = nms.getPackets();
+                final Object worldServer = nms.getHandle(l.getWorld());
+                final NmsAccess.Invoker packetPlayOutSpawnEntityLivingConstr = packets.getSpawnEntityLiving();
+                final NmsAccess.Invoker packetPlayOutEntityDestroyConstr = packets.getEntityDestroy();
+                final NmsAccess.Invoker packetPlayOutEntityVelocity = packets.getEntityVelocity();
                 
                 // EntityArmorStand
-                final Constructor<?> entityArmorStandConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityArmorStand").getConstructor(w);
-                final Object entityArmorStand = entityArmorStandConstr.newInstance(worldServer);
-                final Method setLoc2 = entityArmorStand.getClass().getSuperclass().getSuperclass().getDeclaredMethod("setLocation", double.class, double.class, double.class, float.class, float.class);
-                setLoc2.invoke(entityArmorStand, l.getX(), l.getY() - 1D, l.getZ(), 0F, 0F);
-                final Method setCustomName = entityArmorStand.getClass().getSuperclass().getSuperclass().getDeclaredMethod("setCustomName", String.class);
-                setCustomName.invoke(entityArmorStand, text);
-                final Method setCustomNameVisible = entityArmorStand.getClass().getSuperclass().getSuperclass().getDeclaredMethod("setCustomNameVisible", boolean.class);
-                setCustomNameVisible.invoke(entityArmorStand, true);
-                final Method getArmorStandId = entityArmorStand.getClass().getSuperclass().getSuperclass().getDeclaredMethod("getId");
-                final int armorstandId = (Integer) (getArmorStandId.invoke(entityArmorStand));
-                final Method setInvisble = entityArmorStand.getClass().getSuperclass().getSuperclass().getDeclaredMethod("setInvisible", boolean.class);
-                setInvisble.invoke(entityArmorStand, true);
+                final Object entityArmorStand = packets.getArmorStand().invoke(worldServer);
+                packets.getSetLocation().invoke(entityArmorStand, l.getX(), l.getY() - 1D, l.getZ(), 0F, 0F);
+                packets.getSetCustomName().invoke(entityArmorStand, text);
+                packets.getSetCustomNameVisible().invoke(entityArmorStand, true);
+                final int armorstandId = (Integer) packets.getGetId().invoke(entityArmorStand);
+                packets.getSetInvisible().invoke(entityArmorStand, true);
                 
                 Effects.effectlocd.put(armorstandId, 12); // send move packet 12 times
                 
                 // Send EntityArmorStand packet
-                final Object horsePacket = packetPlayOutSpawnEntityLivingConstr.newInstance(entityArmorStand);
-                sendPacket.invoke(playerConnection.get(getPlayerHandle.invoke(p)), horsePacket);
+                final Object horsePacket = packetPlayOutSpawnEntityLivingConstr.invoke(entityArmorStand);
+                nms.sendPacket(p, horsePacket);
                 
                 // Send velocity packets to move the entities slowly down
                 if (moveDown)
@@ -355,8 +325,8 @@ public class Effects
                         try
                         {
                             final int i = Effects.effectlocd.get(armorstandId);
-                            final Object packet = packetPlayOutEntityVelocity.newInstance(armorstandId, 0D, -0.05D, 0D);
-                            sendPacket.invoke(playerConnection.get(getPlayerHandle.invoke(p)), packet);
+                            final Object packet = packetPlayOutEntityVelocity.invoke(armorstandId, 0D, -0.05D, 0D);
+                            nms.sendPacket(p, packet);
                             if (i < -1)
                             {
                                 final int taskid = Effects.effectlocd_taskid.get(armorstandId);
@@ -383,8 +353,8 @@ public class Effects
                     Bukkit.getScheduler().runTaskLater(MinigamesAPI.getAPI(), () -> {
                         try
                         {
-                            final Object destroyPacket = packetPlayOutEntityDestroyConstr.newInstance(new int[] { armorstandId });
-                            sendPacket.invoke(playerConnection.get(getPlayerHandle.invoke(p)), destroyPacket);
+                            final Object destroyPacket = packetPlayOutEntityDestroyConstr.invoke(new int[] { armorstandId });
+                            nms.sendPacket(p, destroyPacket);
                         }
                         catch (final Exception e)
                         {
@@ -413,73 +383,45 @@ public class Effects
             // If player is on 1.8, we'll have to use armor stands, otherwise just use the old 1.7 technique
             final boolean playerIs1_8 = MinigamesAPI.SERVER_VERSION.isAtLeast(MinecraftVersionsType.V1_8);
             
-            final Method getPlayerHandle = Class.forName("org.bukkit.craftbukkit." + MinigamesAPI.getAPI().internalServerVersion + ".entity.CraftPlayer").getMethod("getHandle");
-            final Field playerConnection = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityPlayer").getField("playerConnection");
-            playerConnection.setAccessible(true);
-            final Method sendPacket = playerConnection.getType().getMethod("sendPacket", Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".Packet"));
-            
-            final Class<?> craftw = Class.forName("org.bukkit.craftbukkit." + MinigamesAPI.getAPI().internalServerVersion + ".CraftWorld");
-            final Class<?> w = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".World");
-            final Class<?> entity = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".Entity");
-            final Method getWorldHandle = craftw.getDeclaredMethod("getHandle");
-            final Object worldServer = getWorldHandle.invoke(craftw.cast(l.getWorld()));
-            final Constructor<?> packetPlayOutSpawnEntityConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutSpawnEntity")
-                    .getConstructor(entity, int.class);
-            final Constructor<?> packetPlayOutSpawnEntityLivingConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutSpawnEntityLiving")
-                    .getConstructor(Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityLiving"));
-            final Constructor<?> packetPlayOutAttachEntityConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutAttachEntity")
-                    .getConstructor(int.class, entity, entity);
-            final Constructor<?> packetPlayOutEntityDestroyConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutEntityDestroy")
-                    .getConstructor(int[].class);
-            final Constructor<?> packetPlayOutEntityVelocity = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".PacketPlayOutEntityVelocity")
-                    .getConstructor(int.class, double.class, double.class, double.class);
+            final NmsAccess nms = NmsAccess.get();
+            final NmsAccess.Packets packets = nms.getPackets();
+            final Object worldServer = nms.getHandle(l.getWorld());
+            final NmsAccess.Invoker packetPlayOutSpawnEntityConstr = packets.getSpawnEntity();
+            final NmsAccess.Invoker packetPlayOutSpawnEntityLivingConstr = packets.getSpawnEntityLiving();
+            final NmsAccess.Invoker packetPlayOutAttachEntityConstr = packets.getAttachEntity();
+            final NmsAccess.Invoker packetPlayOutEntityDestroyConstr = packets.getEntityDestroy();
+            final NmsAccess.Invoker packetPlayOutEntityVelocity = packets.getEntityVelocity();
             
             // WitherSkull
-            final Constructor<?> witherSkullConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityWitherSkull").getConstructor(w);
-            final Object witherSkull = witherSkullConstr.newInstance(worldServer);
-            final Method setLoc = witherSkull.getClass().getSuperclass().getSuperclass().getDeclaredMethod("setLocation", double.class, double.class, double.class, float.class, float.class);
-            setLoc.invoke(witherSkull, l.getX(), l.getY() + 33D, l.getZ(), 0F, 0F);
-            final Method getWitherSkullId = witherSkull.getClass().getSuperclass().getSuperclass().getDeclaredMethod("getId");
-            final int witherSkullId = (Integer) (getWitherSkullId.invoke(witherSkull));
+            final Object witherSkull = packets.getWitherSkull().invoke(worldServer);
+            packets.getSetLocation().invoke(witherSkull, l.getX(), l.getY() + 33D, l.getZ(), 0F, 0F);
+            final int witherSkullId = (Integer) packets.getGetId().invoke(witherSkull);
             
             // EntityHorse
-            final Constructor<?> entityHorseConstr = Class.forName("net.minecraft.server." + MinigamesAPI.getAPI().internalServerVersion + ".EntityHorse").getConstructor(w);
-            final Object entityHorse = entityHorseConstr.newInstance(worldServer);
-            final Method setLoc2 = entityHorse.getClass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getDeclaredMethod("setLocation", double.class,
-                    double.class, double.class, float.class, float.class);
-            setLoc2.invoke(entityHorse, l.getX(), l.getY() + (playerIs1_8 ? -1D : 33D), l.getZ(), 0F, 0F);
-            final Method setAge = entityHorse.getClass().getSuperclass().getSuperclass().getDeclaredMethod("setAge", int.class);
-            setAge.invoke(entityHorse, -1000000);
-            final Method setCustomName = entityHorse.getClass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getDeclaredMethod("setCustomName", String.class);
-            setCustomName.invoke(entityHorse, text);
-            final Method setCustomNameVisible = entityHorse.getClass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getDeclaredMethod("setCustomNameVisible", boolean.class);
-            setCustomNameVisible.invoke(entityHorse, true);
-            final Method getHorseId = entityHorse.getClass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getDeclaredMethod("getId");
-            final int horseId = (Integer) (getHorseId.invoke(entityHorse));
+            final Object entityHorse = packets.getHorse().invoke(worldServer);
+            packets.getSetLocation().invoke(entityHorse, l.getX(), l.getY() + (playerIs1_8 ? -1D : 33D), l.getZ(), 0F, 0F);
+            packets.getSetAge().invoke(entityHorse, -1000000);
+            packets.getSetCustomName().invoke(entityHorse, text);
+            packets.getSetCustomNameVisible().invoke(entityHorse, true);
+            final int horseId = (Integer) packets.getGetId().invoke(entityHorse);
             
             if (playerIs1_8)
             {
                 // Set horse (later armor stand) invisible
-                final Method setInvisble = entityHorse.getClass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getDeclaredMethod("setInvisible",
-                        boolean.class);
-                setInvisble.invoke(entityHorse, true);
+                packets.getSetInvisible().invoke(entityHorse, true);
             }
             
             Effects.effectlocd.put(horseId, 12); // send move packet 12 times
             
             // Send Witherskull+EntityHorse packet
-            final Object horsePacket = packetPlayOutSpawnEntityLivingConstr.newInstance(entityHorse);
+            final Object horsePacket = packetPlayOutSpawnEntityLivingConstr.invoke(entityHorse);
             if (playerIs1_8)
             {
                 // Set entity id to 30 (armor stand):
                 Effects.setValue(horsePacket, "b", 30);
                 // Fix datawatcher values to prevent crashes (ofc armor stands expect other data than horses):
-                final Field datawatcher = entityHorse.getClass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getSuperclass().getDeclaredField("datawatcher");
-                datawatcher.setAccessible(true);
-                final Object datawatcherInstance = datawatcher.get(entityHorse);
-                final Field d = datawatcherInstance.getClass().getDeclaredField("d");
-                d.setAccessible(true);
-                final Map<?, ?> dmap = (Map<?, ?>) d.get(datawatcherInstance);
+                final Object datawatcherInstance = nms.getField(entityHorse, "datawatcher");
+                final Map<?, ?> dmap = (Map<?, ?>) nms.getField(datawatcherInstance, "d");
                 dmap.remove(10);
                 // These are the Rotation ones
                 dmap.remove(11);
@@ -488,21 +430,20 @@ public class Effects
                 dmap.remove(14);
                 dmap.remove(15);
                 dmap.remove(16);
-                final Method a = datawatcherInstance.getClass().getDeclaredMethod("a", int.class, Object.class);
-                a.invoke(datawatcherInstance, 10, (byte) 0);
+                nms.method(datawatcherInstance.getClass(), "a", int.class, Object.class).invoke(datawatcherInstance, 10, (byte) 0);
             }
-            sendPacket.invoke(playerConnection.get(getPlayerHandle.invoke(p)), horsePacket);
+            nms.sendPacket(p, horsePacket);
             if (!playerIs1_8)
             {
-                final Object witherPacket = packetPlayOutSpawnEntityConstr.newInstance(witherSkull, 64);
-                sendPacket.invoke(playerConnection.get(getPlayerHandle.invoke(p)), witherPacket);
+                final Object witherPacket = packetPlayOutSpawnEntityConstr.invoke(witherSkull, 64);
+                nms.sendPacket(p, witherPacket);
             }
             
             // Send attach packet
             if (!playerIs1_8)
             {
-                final Object attachPacket = packetPlayOutAttachEntityConstr.newInstance(0, entityHorse, witherSkull);
-                sendPacket.invoke(playerConnection.get(getPlayerHandle.invoke(p)), attachPacket);
+                final Object attachPacket = packetPlayOutAttachEntityConstr.invoke(0, entityHorse, witherSkull);
+                nms.sendPacket(p, attachPacket);
             }
             
             // Send velocity packets to move the entities slowly down
@@ -512,12 +453,12 @@ public class Effects
                     try
                     {
                         final int i = Effects.effectlocd.get(horseId);
-                        final Object packet = packetPlayOutEntityVelocity.newInstance(horseId, 0D, -0.05D, 0D);
-                        sendPacket.invoke(playerConnection.get(getPlayerHandle.invoke(p)), packet);
+                        final Object packet = packetPlayOutEntityVelocity.invoke(horseId, 0D, -0.05D, 0D);
+                        nms.sendPacket(p, packet);
                         if (!playerIs1_8)
                         {
-                            final Object packet2 = packetPlayOutEntityVelocity.newInstance(witherSkullId, 0D, -0.05D, 0D);
-                            sendPacket.invoke(playerConnection.get(getPlayerHandle.invoke(p)), packet2);
+                            final Object packet2 = packetPlayOutEntityVelocity.invoke(witherSkullId, 0D, -0.05D, 0D);
+                            nms.sendPacket(p, packet2);
                         }
                         if (i < -1)
                         {
@@ -545,8 +486,8 @@ public class Effects
                 Bukkit.getScheduler().runTaskLater(MinigamesAPI.getAPI(), () -> {
                     try
                     {
-                        final Object destroyPacket = packetPlayOutEntityDestroyConstr.newInstance(new int[] { witherSkullId, horseId });
-                        sendPacket.invoke(playerConnection.get(getPlayerHandle.invoke(p)), destroyPacket);
+                        final Object destroyPacket = packetPlayOutEntityDestroyConstr.invoke(new int[] { witherSkullId, horseId });
+                        nms.sendPacket(p, destroyPacket);
                     }
                     catch (final Exception e)
                     {
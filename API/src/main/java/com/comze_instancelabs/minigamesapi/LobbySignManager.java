@@ -15,12 +15,18 @@
 
 package com.comze_instancelabs.minigamesapi;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 
 import org.bukkit.Bukkit;
@@ -38,6 +44,15 @@ import com.google.common.io.ByteStreams;
 /**
  * Manager for cross server lobby signs.
  * 
+ * <p>
+ * The manager subscribes once per remote server and applies the received {@link SignSnapshot}s to all signs of that server. Servers not answering the subscription (older minigames lib
+ * versions) are still polled per sign.
+ * </p>
+ * 
+ * <p>
+ * All received arena values are collected in the {@link RemoteArenaDirectory}; servers without signs can be watched for quick joins.
+ * </p>
+ * 
  * @author mepeisen
  *
  */
@@ -49,6 +64,32 @@ public class LobbySignManager
      */
     private final Map<Location, SignData> signs = new HashMap<>();
     
+    /**
+     * remote servers by name.
+     */
+    private final Map<String, RemoteServer> servers = new HashMap<>();
+    
+    /**
+     * the arenas of the remote servers.
+     */
+    private final RemoteArenaDirectory    directory = new RemoteArenaDirectory(() -> MinigamesAPI.getAPI().getBungeeTransport(), System::currentTimeMillis,
+            RemoteArenaDirectory.DEFAULT_STALE_MILLIS);
+    
+    /**
+     * seconds after subscriptions are renewed; must be below {@link SignSnapshotPublisher#SUBSCRIPTION_LEASE}.
+     */
+    private static final long             SUBSCRIPTION_RENEWAL = 30;
+    
+    /**
+     * seconds between the pings measuring the round trip time.
+     */
+    private static final long             PING_INTERVAL        = 10;
+    
+    /**
+     * seconds without snapshots after the remote server is treated as offline.
+     */
+    private static final long             SNAPSHOT_TIMEOUT     = 120;
+    
     /**
      * minigames api.
      */
@@ -64,6 +105,27 @@ public class LobbySignManager
         this.plugin = plugin;
     }
     
+    /**
+     * Returns the directory of the arenas on the remote servers.
+     * 
+     * @return remote arena directory
+     */
+    public RemoteArenaDirectory getDirectory()
+    {
+        return this.directory;
+    }
+    
+    /**
+     * Subscribes to the arena snapshots of given server even if there are no signs for it, f.e. to use it for quick joins.
+     * 
+     * @param serverName
+     *            server name
+     */
+    public void watchServer(String serverName)
+    {
+        this.getServer(serverName).watched = true;
+    }
+    
     /**
      * Attaches a new sign to the sign manager,
      * 
@@ -81,7 +143,7 @@ public class LobbySignManager
     public void attachSign(Location location, String serverName, String minigameName, String arenaName, boolean spec)
     {
         final SignData data = new SignData(location, serverName, minigameName, arenaName, spec);
-        this.signs.put(location, data);
+        this.register(data);
         data.setSignData(null);
     }
     
@@ -104,7 +166,7 @@ public class LobbySignManager
     public void attachSign(Location location, String serverName, String minigameName, String arenaName, boolean spec, SignChangeEvent evt)
     {
         final SignData data = new SignData(location, serverName, minigameName, arenaName, spec);
-        this.signs.put(location, data);
+        this.register(data);
         data.setSignData(evt);
     }
     
@@ -118,7 +180,16 @@ public class LobbySignManager
         final SignData data = this.signs.get(location);
         if (data != null)
         {
-            data.requestServerSign();
+            final RemoteServer server = this.servers.get(data.serverName);
+            final SignSnapshot.Entry entry = server == null ? null : server.arenas.get(SignSnapshot.key(data.minigameName, data.arenaName));
+            if (entry != null)
+            {
+                data.apply(entry);
+            }
+            else if (server == null || !server.sequence.isKnown())
+            {
+                data.requestServerSign();
+            }
         }
     }
     
@@ -129,7 +200,152 @@ public class LobbySignManager
      */
     public void detachSign(Location location)
     {
-        this.signs.remove(location);
+        final SignData data = this.signs.remove(location);
+        if (data != null)
+        {
+            final RemoteServer server = this.servers.get(data.serverName);
+            if (server != null)
+            {
+                server.signs.remove(data);
+                if (server.signs.isEmpty() && !server.watched)
+                {
+                    this.servers.remove(data.serverName);
+                    this.directory.remove(data.serverName);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Registers the sign and subscribes to its server.
+     * 
+     * @param data
+     */
+    private void register(SignData data)
+    {
+        this.detachSign(data.location);
+        this.signs.put(data.location, data);
+        this.getServer(data.serverName).signs.add(data);
+    }
+    
+    /**
+     * Returns the remote server, creating it on first access.
+     * 
+     * @param serverName
+     * @return remote server
+     */
+    private RemoteServer getServer(String serverName)
+    {
+        RemoteServer server = this.servers.get(serverName);
+        if (server == null)
+        {
+            server = new RemoteServer(serverName);
+            this.servers.put(serverName, server);
+        }
+        return server;
+    }
+    
+    /**
+     * Applies a snapshot received from a remote server.
+     * 
+     * @param payload
+     *            the snapshot message payload
+     */
+    public void applySnapshot(byte[] payload)
+    {
+        final SignSnapshot snapshot;
+        try
+        {
+            snapshot = SignSnapshot.decode(payload);
+        }
+        catch (Exception e)
+        {
+            this.plugin.getLogger().log(Level.WARNING, "Malformed arena snapshot: ", e); //$NON-NLS-1$
+            return;
+        }
+        if (snapshot == null)
+        {
+            return;
+        }
+        final RemoteServer server = this.servers.get(snapshot.getServer());
+        if (server == null)
+        {
+            // neither signs nor watched
+            return;
+        }
+        switch (server.sequence.accept(snapshot))
+        {
+            case STALE:
+                return;
+            case RESYNC:
+                server.subscribe(true);
+                return;
+            case APPLY:
+            default:
+                break;
+        }
+        server.lastSnapshot = LocalDateTime.now();
+        server.offline = false;
+        this.directory.apply(snapshot);
+        final Map<String, List<SignData>> signsByArena = server.signsByArena();
+        for (final SignSnapshot.Entry entry : snapshot.getEntries())
+        {
+            server.arenas.put(entry.getKey(), entry);
+            final List<SignData> list = signsByArena.get(entry.getKey());
+            if (list != null)
+            {
+                for (final SignData data : list)
+                {
+                    data.apply(entry);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Applies a pong received from a remote server.
+     * 
+     * @param payload
+     *            the pong message payload
+     */
+    public void applyPong(byte[] payload)
+    {
+        try
+        {
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            if (in.readUnsignedByte() != SignSnapshot.PROTOCOL_VERSION)
+            {
+                return;
+            }
+            final String server = in.readUTF();
+            this.directory.pongReceived(server, in.readLong());
+        }
+        catch (Exception e)
+        {
+            this.plugin.getLogger().log(Level.WARNING, "Malformed pong: ", e); //$NON-NLS-1$
+        }
+    }
+    
+    /**
+     * Creates the payload of a ping message; the game server echoes it unchanged as pong.
+     * 
+     * @param server
+     *            the name of the game server to ping
+     * @param nonce
+     *            the ping nonce
+     * @return message payload
+     * @throws IOException
+     *             thrown on encoding errors
+     */
+    static byte[] createPing(final String server, final long nonce) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(SignSnapshot.PROTOCOL_VERSION);
+        out.writeUTF(server);
+        out.writeLong(nonce);
+        out.flush();
+        return bytes.toByteArray();
     }
     
     /**
@@ -145,6 +361,10 @@ public class LobbySignManager
         {
             data.setSignData(count, maxcount, arenastate, null);
             data.updateResponseDate();
+            if (!data.spec)
+            {
+                this.directory.update(data.serverName, new SignSnapshot.Entry(data.minigameName, data.arenaName, arenastate, count, maxcount));
+            }
         }
     }
     
@@ -201,6 +421,17 @@ public class LobbySignManager
             this.spec = spec;
         }
         
+        /**
+         * Applies the arena values of a snapshot.
+         * 
+         * @param entry
+         */
+        public void apply(SignSnapshot.Entry entry)
+        {
+            this.setSignData(entry.getPlayers(), entry.getMaxPlayers(), this.spec ? "SPEC" : entry.getState(), null); //$NON-NLS-1$
+            this.updateResponseDate();
+        }
+        
         /**
          * Updates the last response data.
          */
@@ -310,13 +541,138 @@ public class LobbySignManager
         
     }
     
+    /**
+     * A remote server lobby signs are pointing to.
+     */
+    private final class RemoteServer
+    {
+        
+        /** the server name. */
+        final String                          name;
+        
+        /** the signs of this server. */
+        final List<SignData>                  signs    = new ArrayList<>();
+        
+        /** the last known arena values. */
+        final Map<String, SignSnapshot.Entry> arenas   = new HashMap<>();
+        
+        /** the snapshot sequence. */
+        final SignSnapshot.Sequence           sequence = new SignSnapshot.Sequence();
+        
+        /** last subscription. */
+        LocalDateTime                         lastSubscribe;
+        
+        /** last applied snapshot. */
+        LocalDateTime                         lastSnapshot;
+        
+        /** last ping. */
+        LocalDateTime                         lastPing;
+        
+        /** {@code true} if the signs were reset because the server stopped sending snapshots. */
+        boolean                               offline;
+        
+        /** {@code true} if the server is kept for quick joins even without signs. */
+        boolean                               watched;
+        
+        /**
+         * @param name
+         */
+        RemoteServer(String name)
+        {
+            this.name = name;
+        }
+        
+        /**
+         * @return signs grouped by snapshot key
+         */
+        Map<String, List<SignData>> signsByArena()
+        {
+            final Map<String, List<SignData>> result = new HashMap<>();
+            for (final SignData data : this.signs)
+            {
+                result.computeIfAbsent(SignSnapshot.key(data.minigameName, data.arenaName), k -> new ArrayList<>(2)).add(data);
+            }
+            return result;
+        }
+        
+        /**
+         * Sends a subscription to the remote server.
+         * 
+         * @param full
+         *            {@code true} to request a full snapshot
+         */
+        void subscribe(boolean full)
+        {
+            this.lastSubscribe = LocalDateTime.now();
+            try
+            {
+                MinigamesAPI.getAPI().getBungeeTransport().send(this.name, ChannelStrings.SUBCHANNEL_MINIGAMESLIB_SUBSCRIBE, SignSnapshotPublisher.createSubscription(this.name, full));
+            }
+            catch (Exception e)
+            {
+                LobbySignManager.this.plugin.getLogger().log(Level.WARNING, "Error occurred while subscribing to arena snapshots: ", e); //$NON-NLS-1$
+            }
+        }
+        
+        /**
+         * Sends a ping to the remote server; the server echoes it immediately so that the round trip time is not affected by the snapshot interval.
+         */
+        void ping()
+        {
+            this.lastPing = LocalDateTime.now();
+            try
+            {
+                final long nonce = ThreadLocalRandom.current().nextLong();
+                MinigamesAPI.getAPI().getBungeeTransport().send(this.name, ChannelStrings.SUBCHANNEL_MINIGAMESLIB_PING, createPing(this.name, nonce));
+                LobbySignManager.this.directory.pingSent(this.name, nonce);
+            }
+            catch (Exception e)
+            {
+                LobbySignManager.this.plugin.getLogger().log(Level.WARNING, "Error occurred while pinging remote server: ", e); //$NON-NLS-1$
+            }
+        }
+        
+    }
+    
     /**
      * 
      */
     public void ping()
     {
+        for (final RemoteServer server : this.servers.values())
+        {
+            if (server.lastSubscribe == null || server.lastSubscribe.until(LocalDateTime.now(), ChronoUnit.SECONDS) >= SUBSCRIPTION_RENEWAL)
+            {
+                server.subscribe(!server.sequence.isKnown());
+            }
+            if (server.sequence.isKnown() && !server.offline && (server.lastPing == null || server.lastPing.until(LocalDateTime.now(), ChronoUnit.SECONDS) >= PING_INTERVAL))
+            {
+                server.ping();
+            }
+            if (server.sequence.isKnown() && !server.offline && server.lastSnapshot.until(LocalDateTime.now(), ChronoUnit.SECONDS) > SNAPSHOT_TIMEOUT)
+            {
+                // assume the server is down; signs are updated again with the next full snapshot
+                server.offline = true;
+                server.arenas.clear();
+                this.directory.remove(server.name);
+                for (final SignData data : server.signs)
+                {
+                    data.setSignData(0, data.lastMaxPlayers, data.spec ? "SPEC" : "JOIN", null); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                server.subscribe(true);
+            }
+        }
+        
+        this.directory.evictStale();
+        
         for (final SignData data : this.signs.values())
         {
+            final RemoteServer server = this.servers.get(data.serverName);
+            if (server != null && server.sequence.isKnown())
+            {
+                // updated through snapshots
+                continue;
+            }
             if (data.lastResponse.isBefore(data.lastRequest))
             {
                 if (data.lastResponse.until(data.lastRequest, ChronoUnit.SECONDS) > 5)
@@ -21,8 +21,6 @@ import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import org.bukkit.plugin.Plugin;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 
 /**
  * Backport of v2 BasicMatchTimer rule
@@ -62,7 +60,12 @@ public class MatchTimer
     /**
      * The timer task
      */
-    private BukkitTask timerTask;
+    private TickWheel.Task timerTask;
+    
+    /**
+     * The owner of the timer task
+     */
+    private final Object owner;
 
     private Runnable arenaAbort;
 
@@ -93,6 +96,16 @@ public class MatchTimer
      */
     public MatchTimer(int maxSeconds, Runnable arenaAbort, Consumer<Integer> arenaNotify)
     {
+        this(null, maxSeconds, arenaAbort, arenaNotify);
+    }
+    
+    /**
+     * @param owner
+     *            the owner of the timer task, f.e. the arena; used for timing metrics
+     */
+    public MatchTimer(Object owner, int maxSeconds, Runnable arenaAbort, Consumer<Integer> arenaNotify)
+    {
+        this.owner = owner == null ? this : owner;
         this.setMaxSeconds(maxSeconds);
         this.arenaAbort = arenaAbort;
         this.arenaNotify = arenaNotify;
@@ -161,7 +174,7 @@ public class MatchTimer
         this.matchTime += millis;
         if (this.matchTime > 0 && this.timerTask == null)
         {
-            this.startTimer(plugin);
+            this.startTimer();
         }
         this.fixWarnings();
     }
@@ -212,7 +225,7 @@ public class MatchTimer
         this.paused = false;
         if (this.matchTime > 0)
         {
-            this.startTimer(plugin);
+            this.startTimer();
         }
         this.fixWarnings();
     }
@@ -224,25 +237,18 @@ public class MatchTimer
     }
 
     /**
-     * Starts the bukkit timer task
+     * Starts the timer task
      */
-    private void startTimer(Plugin plugin)
+    private void startTimer()
     {
-        if (this.timerTask == null)
+        if (this.timerTask == null || this.timerTask.isCancelled())
         {
-            this.timerTask = new BukkitRunnable() {
-                
-                @Override
-                public void run()
-                {
-                    MatchTimer.this.onTimer(MatchTimer.this.timerTask);
-                }
-            }.runTaskTimer(plugin, 20L, 20L);
+            this.timerTask = MinigamesAPI.getAPI().getTickWheel().scheduleRepeating(this.owner, 20L, 20L, this::onTimer);
         }
     }
 
     /**
-     * Stops the bukkit timer task
+     * Stops the timer task
      */
     private void stopTimer()
     {
@@ -273,10 +279,8 @@ public class MatchTimer
     
     /**
      * On timer tick
-     * 
-     * @param task
      */
-    private void onTimer(BukkitTask task)
+    private void onTimer()
     {
         if (!this.paused)
         {
@@ -20,13 +20,12 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
-import java.util.function.Supplier;
 import java.util.logging.Level;
 
 import org.bukkit.Bukkit;
@@ -46,6 +45,7 @@ import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.SignChangeEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.event.server.ServerListPingEvent;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -61,10 +61,13 @@ import com.comze_instancelabs.minigamesapi.config.StatsConfig;
 import com.comze_instancelabs.minigamesapi.config.StatsGlobalConfig;
 import com.comze_instancelabs.minigamesapi.guns.Guns;
 import com.comze_instancelabs.minigamesapi.util.ArenaScoreboard;
+import com.comze_instancelabs.minigamesapi.util.BungeeTransport;
 import com.comze_instancelabs.minigamesapi.util.BungeeUtil;
+import com.comze_instancelabs.minigamesapi.util.MessageTemplate;
 import com.comze_instancelabs.minigamesapi.util.Metrics;
 import com.comze_instancelabs.minigamesapi.util.Metrics.Graph;
 import com.comze_instancelabs.minigamesapi.util.ParticleEffectNew;
+import com.comze_instancelabs.minigamesapi.util.SignLocationIndex;
 import com.comze_instancelabs.minigamesapi.util.UpdaterNexus;
 import com.comze_instancelabs.minigamesapi.util.Util;
 import com.comze_instancelabs.minigamesapi.util.Validator;
@@ -159,6 +162,16 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
     @Deprecated
     public StatsGlobalConfig                          statsglobal;
     
+    /**
+     * The in-memory global stats; written to global stats config in background.
+     */
+    private StatsStore                                statsglobalStore;
+    
+    /**
+     * Drives the smart resets of all arenas.
+     */
+    private SmartResetScheduler                       resetScheduler;
+    
     /**
      * textual server version.
      * 
@@ -179,15 +192,27 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
      */
     Metrics                                           metrics;
     
-    /** the current motd */
-    private String                                    motd;
+    /** the timing wheel driving arena countdowns and delayed tasks. */
+    private final TickWheel                           tickWheel             = new TickWheel();
     
-    /** suppliers or the motd strings. */
-    private Iterator<Supplier<String>>                motdStrings           = Collections.emptyIterator();
+    /** the server list motd; {@code null} if the motd is disabled. */
+    private MotdRotation                              motdRotation;
     
     /** the lobby sign manager. */
     private final LobbySignManager                    signManager           = new LobbySignManager(this);
     
+    /** the bungee join and spectator signs by block. */
+    private final SignLocationIndex<BungeeSign>       bungeeSigns           = new SignLocationIndex<>();
+    
+    /** {@code true} if the bungee sign index needs to be rebuilt from config before next lookup. */
+    private boolean                                   bungeeSignsDirty      = true;
+    
+    /** the transport for messages to the other servers of the bungee cord network. */
+    private BungeeTransport                           bungeeTransport       = BungeeTransport.forPlugin(this);
+    
+    /** publishes the arena snapshots to subscribed lobby servers. */
+    private final SignSnapshotPublisher               signPublisher         = new SignSnapshotPublisher(this);
+    
     @Override
     public void onEnable()
     {
@@ -196,6 +221,17 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
         this.internalServerVersion = Bukkit.getServer().getClass().getPackage().getName().substring(Bukkit.getServer().getClass().getPackage().getName().lastIndexOf(".") + 1); //$NON-NLS-1$
         this.below1710 = MinigamesAPI.SERVER_VERSION.isBelow(MinecraftVersionsType.V1_7_R4);
         this.getLogger().info(String.format("§c§lLoaded MinigamesAPI. We're on %0$s.", MinigamesAPI.SERVER_VERSION.name())); //$NON-NLS-1$
+        try
+        {
+            NmsAccess.get().init();
+        }
+        catch (final Exception e)
+        {
+            this.getLogger().log(Level.WARNING, "Failed resolving packet handles; effects and holograms may not work", e); //$NON-NLS-1$
+        }
+        
+        this.tickWheel.start(this);
+        this.tickWheel.scheduleRepeating(this.signPublisher, 20L, 20L, this.signPublisher::tick);
         
         this.getServer().getMessenger().registerOutgoingPluginChannel(this, ChannelStrings.CHANNEL_BUNGEE_CORD);
         this.getServer().getMessenger().registerIncomingPluginChannel(this, ChannelStrings.CHANNEL_BUNGEE_CORD, this);
@@ -212,6 +248,9 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
         this.getConfig().addDefault(PluginConfigStrings.SIGNS_UPDATE_TIME, 20);
         this.getConfig().addDefault(PluginConfigStrings.PARTY_COMMAND_ENABLED, true);
         this.getConfig().addDefault(PluginConfigStrings.DEBUG, false);
+        this.getConfig().addDefault(PluginConfigStrings.STATS_FLUSH_INTERVAL, 30);
+        this.getConfig().addDefault(PluginConfigStrings.BUNGEE_SERVERS, new ArrayList<String>());
+        this.getConfig().addDefault(PluginConfigStrings.SMART_RESET_TICK_BUDGET, SmartResetScheduler.DEFAULT_BUDGET_MICROS);
         
         this.getConfig().addDefault(PluginConfigStrings.PERMISSION_PREFIX, "ancient.core"); //$NON-NLS-1$
         this.getConfig().addDefault(PluginConfigStrings.PERMISSION_KITS_PREFIX, "ancient.core.kits"); //$NON-NLS-1$
@@ -245,6 +284,8 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
         
         this.partymessages = new PartyMessagesConfig(this);
         this.statsglobal = new StatsGlobalConfig(this, false);
+        this.statsglobalStore = new StatsStore(this.getLogger(), this.statsglobal::getConfig, this.statsglobal.getFile());
+        this.resetScheduler = new SmartResetScheduler(this, this.getConfig().getInt(PluginConfigStrings.SMART_RESET_TICK_BUDGET));
         
         MinigamesAPI.debug = this.getConfig().getBoolean(PluginConfigStrings.DEBUG);
         
@@ -317,6 +358,8 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
             this.getLogger().info("Found " + i + " arenas."); //$NON-NLS-1$//$NON-NLS-2$
         }, 50L);
         Bukkit.getScheduler().scheduleSyncRepeatingTask(this, () -> {
+            // arena changes update the signs directly; this catches signs whose chunks were unloaded before
+            // updateSign only touches signs (and sends bungee messages) if the rendered content changed
             MinigamesAPI.getAPI();
             for (final PluginInstance pli : MinigamesAPI.pinstances.values())
             {
@@ -328,74 +371,15 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
             }
         }, 0, 20 * this.getConfig().getInt(PluginConfigStrings.SIGNS_UPDATE_TIME));
         
-        if (this.getConfig().getBoolean(PluginConfigStrings.MOTD_ENABLED))
-        {
-            Bukkit.getScheduler().scheduleSyncRepeatingTask(this, () -> {
-                if (this.motdStrings.hasNext())
-                {
-                    this.motd = this.motdStrings.next().get();
-                }
-                else
-                {
-                    final List<Supplier<String>> suppliers = new ArrayList<>();
-                    for (final PluginInstance pli : MinigamesAPI.pinstances.values())
-                    {
-                        for (final Arena arena : pli.getArenas())
-                        {
-                            suppliers.add(() -> {
-                                String motdString = getConfig().getString(PluginConfigStrings.MOTD_TEXT);
-                                String stateString = null;
-                                if (arena.isSuccessfullyInit() && pli.arenaSetup.getArenaEnabled(pli.getPlugin(), arena.getInternalName()))
-                                {
-                                    switch (arena.getArenaState())
-                                    {
-                                        case INGAME:
-                                            stateString = getConfig().getString(PluginConfigStrings.MOTD_STATE_INGAME);
-                                            break;
-                                        case JOIN:
-                                            stateString = getConfig().getString(PluginConfigStrings.MOTD_STATE_JOIN);
-                                            break;
-                                        case RESTARTING:
-                                            stateString = getConfig().getString(PluginConfigStrings.MOTD_STATE_RESTARTING);
-                                            break;
-                                        case STARTING:
-                                            stateString = getConfig().getString(PluginConfigStrings.MOTD_STATE_STARTING);
-                                            break;
-                                        default:
-                                            stateString = getConfig().getString(PluginConfigStrings.MOTD_STATE_DISABLED);
-                                            break;
-                                    }
-                                }
-                                else
-                                {
-                                    stateString = getConfig().getString(PluginConfigStrings.MOTD_STATE_DISABLED);
-                                }
-                                motdString = motdString.replace("<minigame>", arena.getPluginInstance().getPlugin().getDescription().getName());
-                                motdString = motdString.replace("<arena>", arena.getDisplayName());
-                                motdString = motdString.replace("<state>", stateString);
-                                motdString = motdString.replace("<players>", String.valueOf(arena.getAllPlayers().size()));
-                                motdString = motdString.replace("<minplayers>", String.valueOf(arena.getMinPlayers()));
-                                motdString = motdString.replace("<maxplayers>", String.valueOf(arena.getMaxPlayers()));
-                                return motdString;
-                            });
-                        }
-                    }
-                    this.motdStrings = suppliers.iterator();
-                    if (this.motdStrings.hasNext())
-                    {
-                        this.motd = this.motdStrings.next().get();
-                    }
-                    else
-                    {
-                        this.motd = null;
-                    }
-                }
-            }, 0, 20 * this.getConfig().getInt(PluginConfigStrings.MOTD_ROTATION_SECONDS));
-        }
+        this.setupMotdRotation();
         
         Bukkit.getPluginManager().registerEvents(this, this);
         
         Bukkit.getScheduler().runTaskLater(this, () -> {
+            for (final String server : getConfig().getStringList(PluginConfigStrings.BUNGEE_SERVERS))
+            {
+                this.signManager.watchServer(server);
+            }
             final ConfigurationSection configurationSection = getConfig().getConfigurationSection("arenas"); //$NON-NLS-1$
             if (configurationSection != null)
             {
@@ -428,6 +412,35 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
         Bukkit.getScheduler().scheduleSyncRepeatingTask(this, () -> {
             this.signManager.ping();
         }, 60L, 26L);
+        
+        final long statsFlushInterval = 20L * Math.max(1, this.getConfig().getInt(PluginConfigStrings.STATS_FLUSH_INTERVAL));
+        Bukkit.getScheduler().scheduleSyncRepeatingTask(this, () -> {
+            this.statsglobalStore.flushAsync(this);
+            for (final PluginInstance pli : MinigamesAPI.pinstances.values())
+            {
+                pli.getStatsInstance().getStore().flushAsync(this);
+            }
+        }, statsFlushInterval, statsFlushInterval);
+    }
+    
+    /**
+     * Returns the scheduler driving the smart resets.
+     * 
+     * @return smart reset scheduler.
+     */
+    public SmartResetScheduler getResetScheduler()
+    {
+        return this.resetScheduler;
+    }
+    
+    /**
+     * Returns the in-memory global stats (points shared by all minigames).
+     * 
+     * @return global stats store.
+     */
+    public StatsStore getGlobalStatsStore()
+    {
+        return this.statsglobalStore;
     }
     
     /**
@@ -439,13 +452,19 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
      */
     public Arena getArenaForPlayer(String playerName)
     {
-        for (final PluginInstance pli : this.pinstances.values())
-        {
-            final Arena arena = pli.global_players.get(playerName);
-            if (arena != null)
-                return arena;
-        }
-        return null;
+        return PlayerRegistry.get().getArena(PlayerRegistry.get().getUuid(playerName));
+    }
+    
+    /**
+     * Returns the arena for player if already playing
+     * 
+     * @param uuid
+     *            players uuid
+     * @return arena or {@code null} if not inside an arena
+     */
+    public Arena getArenaForPlayer(UUID uuid)
+    {
+        return PlayerRegistry.get().getArena(uuid);
     }
     
     /**
@@ -586,6 +605,80 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
         return MinecraftVersionsType.Unknown;
     }
     
+    /**
+     * (Re-)Creates the motd rotation from the current config; the previous rotation is stopped.
+     */
+    private void setupMotdRotation()
+    {
+        if (this.motdRotation != null)
+        {
+            this.tickWheel.removeTiming(this.motdRotation);
+            this.motdRotation = null;
+        }
+        if (this.getConfig().getBoolean(PluginConfigStrings.MOTD_ENABLED))
+        {
+            final MotdRotation rotation = new MotdRotation(this.compileMotdTemplate(), () -> {
+                final List<Arena> arenas = new ArrayList<>();
+                for (final PluginInstance pli : MinigamesAPI.pinstances.values())
+                {
+                    arenas.addAll(pli.getArenas());
+                }
+                return arenas;
+            }, this.getConfig().getInt(PluginConfigStrings.MOTD_ROTATION_SECONDS));
+            this.tickWheel.scheduleRepeating(rotation, 1L, 20L, rotation::tick);
+            this.motdRotation = rotation;
+        }
+    }
+    
+    /**
+     * Compiles the motd text; the state strings are read once instead of once per arena.
+     * 
+     * @return motd template.
+     */
+    private MessageTemplate<Arena> compileMotdTemplate()
+    {
+        final Map<ArenaState, String> states = new EnumMap<>(ArenaState.class);
+        states.put(ArenaState.INGAME, this.getConfig().getString(PluginConfigStrings.MOTD_STATE_INGAME));
+        states.put(ArenaState.JOIN, this.getConfig().getString(PluginConfigStrings.MOTD_STATE_JOIN));
+        states.put(ArenaState.RESTARTING, this.getConfig().getString(PluginConfigStrings.MOTD_STATE_RESTARTING));
+        states.put(ArenaState.STARTING, this.getConfig().getString(PluginConfigStrings.MOTD_STATE_STARTING));
+        final String disabled = this.getConfig().getString(PluginConfigStrings.MOTD_STATE_DISABLED);
+        
+        final Map<String, MessageTemplate.Placeholder<Arena>> placeholders = new HashMap<>();
+        placeholders.put("<minigame>", (sb, a) -> sb.append(a.getPluginInstance().getPlugin().getDescription().getName())); //$NON-NLS-1$
+        placeholders.put("<arena>", (sb, a) -> sb.append(a.getDisplayName())); //$NON-NLS-1$
+        placeholders.put("<state>", (sb, a) -> { //$NON-NLS-1$
+            final PluginInstance pli = a.getPluginInstance();
+            final String state = a.isSuccessfullyInit() && pli.arenaSetup.getArenaEnabled(pli.getPlugin(), a.getInternalName()) ? states.get(a.getArenaState()) : null;
+            sb.append(state == null ? disabled : state);
+        });
+        placeholders.put("<players>", (sb, a) -> sb.append(a.getAllPlayers().size())); //$NON-NLS-1$
+        placeholders.put("<minplayers>", (sb, a) -> sb.append(a.getMinPlayers())); //$NON-NLS-1$
+        placeholders.put("<maxplayers>", (sb, a) -> sb.append(a.getMaxPlayers())); //$NON-NLS-1$
+        return MessageTemplate.compile(this.getConfig().getString(PluginConfigStrings.MOTD_TEXT), placeholders);
+    }
+    
+    /**
+     * Cancels the arena tasks of a minigame being disabled.
+     * 
+     * @param event
+     */
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent event)
+    {
+        final PluginInstance pli = MinigamesAPI.pinstances.get(event.getPlugin());
+        if (pli != null)
+        {
+            for (final Arena a : pli.getArenas())
+            {
+                if (a != null)
+                {
+                    a.cancelTasks();
+                }
+            }
+        }
+    }
+    
     @Override
     public void onDisable()
     {
@@ -596,6 +689,7 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
             {
                 if (a != null)
                 {
+                    a.cancelTasks();
                     if (a.isSuccessfullyInit())
                     {
                         if (a.getArenaState() != ArenaState.JOIN)
@@ -628,8 +722,17 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
             pli.getPlugin().saveConfig();
             pli.getMessagesConfig().saveConfig();
             pli.getClassesConfig().saveConfig();
+            pli.getStatsInstance().getStore().flush();
+            if (pli.getSQLInstance() != null)
+            {
+                pli.getSQLInstance().close();
+            }
         }
-        
+        if (this.statsglobalStore != null)
+        {
+            this.statsglobalStore.flush();
+        }
+        this.tickWheel.stop();
     }
     
     /**
@@ -817,6 +920,90 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
         return MinigamesAPI.instance;
     }
     
+    /**
+     * Renders the arenas shown in the server list motd again, f.e. after an arena was enabled or disabled.
+     */
+    public void invalidateMotd()
+    {
+        if (this.motdRotation != null)
+        {
+            this.motdRotation.invalidate();
+        }
+    }
+    
+    /**
+     * Returns the directory of the arenas on the other servers of the bungee cord network.
+     * 
+     * @return remote arena directory.
+     */
+    public RemoteArenaDirectory getRemoteArenas()
+    {
+        return this.signManager.getDirectory();
+    }
+    
+    /**
+     * Sends the player to the best joinable arena of given minigame on the bungee cord network.
+     * 
+     * @param player
+     *            the player
+     * @param minigame
+     *            the minigame (plugin name)
+     * @return {@code true} if an arena was found
+     */
+    public boolean quickJoin(final Player player, final String minigame)
+    {
+        try
+        {
+            return this.signManager.getDirectory().quickJoin(player.getName(), minigame) != null;
+        }
+        catch (final IOException e)
+        {
+            this.getLogger().log(Level.WARNING, "Error occurred while sending quick join: ", e); //$NON-NLS-1$
+            return false;
+        }
+    }
+    
+    /**
+     * Returns the transport for messages to the other servers of the bungee cord network.
+     * 
+     * @return bungee transport.
+     */
+    public BungeeTransport getBungeeTransport()
+    {
+        return this.bungeeTransport;
+    }
+    
+    /**
+     * Replaces the transport for messages to the other servers, f.e. by an in-memory stand-in in tests.
+     * 
+     * @param bungeeTransport
+     *            the new transport.
+     */
+    public void setBungeeTransport(final BungeeTransport bungeeTransport)
+    {
+        this.bungeeTransport = bungeeTransport;
+    }
+    
+    /**
+     * Returns the publisher sending arena snapshots to the lobby servers.
+     * 
+     * @return sign snapshot publisher.
+     */
+    public SignSnapshotPublisher getSignPublisher()
+    {
+        return this.signPublisher;
+    }
+    
+    /**
+     * Returns the timing wheel driving arena countdowns, match timers and delayed arena tasks.
+     * 
+     * @return timing wheel.
+     */
+    public TickWheel getTickWheel()
+    {
+        return this.tickWheel;
+    }
+    
     /**
      * Creates a new Command handler.
      * 
@@ -1400,6 +1587,63 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
                 MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e);
             }
         }
+        else if (subchannel.equals(ChannelStrings.SUBCHANNEL_MINIGAMESLIB_SUBSCRIBE))
+        {
+            // Lobby subscribes to arena snapshots
+            final short len = in.readShort();
+            final byte[] msgbytes = new byte[len];
+            in.readFully(msgbytes);
+            
+            if (debug)
+            {
+                this.getLogger().info("channel message: " + ChannelStrings.SUBCHANNEL_MINIGAMESLIB_SUBSCRIBE); //$NON-NLS-1$
+            }
+            try
+            {
+                this.signPublisher.onSubscribe(msgbytes);
+            }
+            catch (final IOException e)
+            {
+                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
+            }
+        }
+        else if (subchannel.equals(ChannelStrings.SUBCHANNEL_MINIGAMESLIB_SNAPSHOT))
+        {
+            final short len = in.readShort();
+            final byte[] msgbytes = new byte[len];
+            in.readFully(msgbytes);
+            
+            if (debug)
+            {
+                this.getLogger().info("channel message: " + ChannelStrings.SUBCHANNEL_MINIGAMESLIB_SNAPSHOT + " -> " + len + " bytes"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            }
+            this.signManager.applySnapshot(msgbytes);
+        }
+        else if (subchannel.equals(ChannelStrings.SUBCHANNEL_MINIGAMESLIB_PING))
+        {
+            // Lobby measures the round trip time; echo immediately
+            final short len = in.readShort();
+            final byte[] msgbytes = new byte[len];
+            in.readFully(msgbytes);
+            
+            if (debug)
+            {
+                this.getLogger().info("channel message: " + ChannelStrings.SUBCHANNEL_MINIGAMESLIB_PING); //$NON-NLS-1$
+            }
+            this.getBungeeTransport().send("ALL", ChannelStrings.SUBCHANNEL_MINIGAMESLIB_PONG, msgbytes); //$NON-NLS-1$
+        }
+        else if (subchannel.equals(ChannelStrings.SUBCHANNEL_MINIGAMESLIB_PONG))
+        {
+            final short len = in.readShort();
+            final byte[] msgbytes = new byte[len];
+            in.readFully(msgbytes);
+            
+            if (debug)
+            {
+                this.getLogger().info("channel message: " + ChannelStrings.SUBCHANNEL_MINIGAMESLIB_PONG); //$NON-NLS-1$
+            }
+            this.signManager.applyPong(msgbytes);
+        }
     }
     
     /**
@@ -1500,45 +1744,26 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
     {
         if (event.getBlock().getType() == Material.SIGN_POST || event.getBlock().getType() == Material.WALL_SIGN)
         {
-            if (getConfig().isSet(ArenaConfigStrings.ARENAS_PREFIX))
+            final Location loc = event.getBlock().getLocation();
+            final BungeeSign sign = this.getBungeeSign(loc);
+            if (sign != null)
             {
-                for (String mg_key : getConfig().getConfigurationSection(ArenaConfigStrings.ARENAS_PREFIX).getKeys(false))
+                this.signManager.detachSign(loc);
+                final String base = ArenaConfigStrings.ARENAS_PREFIX + sign.minigame + "." + sign.arena; //$NON-NLS-1$
+                if (sign.spec)
                 {
-                    for (String arena_key : getConfig().getConfigurationSection(ArenaConfigStrings.ARENAS_PREFIX + mg_key + ".").getKeys(false))
-                    {
-                        final ConfigurationSection section = getConfig().getConfigurationSection(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key);
-                        if (section.contains("world"))
-                        {
-                            Location l = new Location(Bukkit.getWorld(getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".world")),
-                                    getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".loc.x"),
-                                    getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".loc.y"),
-                                    getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".loc.z"));
-                            if (l.distance(event.getBlock().getLocation()) < 1)
-                            {
-                                getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".server", null);
-                                getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".world", null);
-                                getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".loc", null);
-                                saveConfig();
-                                return;
-                            }
-                        }
-                        if (section.contains("specworld"))
-                        {
-                            Location l = new Location(Bukkit.getWorld(getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specworld")),
-                                    getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specloc.x"),
-                                    getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specloc.y"),
-                                    getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specloc.z"));
-                            if (l.distance(event.getBlock().getLocation()) < 1)
-                            {
-                                getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specserver", null);
-                                getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specworld", null);
-                                getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specloc", null);
-                                saveConfig();
-                                return;
-                            }
-                        }
-                    }
+                    getConfig().set(base + ".specserver", null); //$NON-NLS-1$
+                    getConfig().set(base + ".specworld", null); //$NON-NLS-1$
+                    getConfig().set(base + ".specloc", null); //$NON-NLS-1$
                 }
+                else
+                {
+                    getConfig().set(base + ".server", null); //$NON-NLS-1$
+                    getConfig().set(base + ".world", null); //$NON-NLS-1$
+                    getConfig().set(base + ".loc", null); //$NON-NLS-1$
+                }
+                saveConfig();
+                this.bungeeSigns.remove(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
             }
         }
     }
@@ -1641,21 +1866,6 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
         connectToServer(this, player.getName(), server);
     }
     
-    @EventHandler
-    public void onSignBreak(BlockBreakEvent event)
-    {
-        if (event.getBlock().getType() == Material.SIGN_POST || event.getBlock().getType() == Material.WALL_SIGN)
-        {
-            String server = getServerBySignLocation(event.getBlock().getLocation());
-            if (server != null)
-            {
-                this.signManager.detachSign(event.getBlock().getLocation());
-                final String[] splitted = getInfoBySignLocation(event.getBlock().getLocation()).split(":");
-                getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + splitted[0] + "." + splitted[1], null);
-            }
-        }
-    }
-    
     @EventHandler
     public void onSignChange(SignChangeEvent event)
     {
@@ -1679,6 +1889,7 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
                     
                     p.sendMessage(ChatColor.GREEN + "Successfully set sign."); //$NON-NLS-1$ 
                     
+                    this.bungeeSignsDirty = true;
                     this.signManager.attachSign(event.getBlock().getLocation(), server, mg, arena, false, event);
                     this.signManager.requestSignUpdate(event.getBlock().getLocation());
                 }
@@ -1703,6 +1914,7 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
                     
                     p.sendMessage(ChatColor.GREEN + "Successfully set sign."); //$NON-NLS-1$ 
                     
+                    this.bungeeSignsDirty = true;
                     this.signManager.attachSign(event.getBlock().getLocation(), server, mg, arena, true, event);
                     this.signManager.requestSignUpdate(event.getBlock().getLocation());
                 }
@@ -1824,83 +2036,126 @@ public class MinigamesAPI extends JavaPlugin implements PluginMessageListener, L
     
     public String getServerBySignLocation(Location sign)
     {
-        if (getConfig().isSet(ArenaConfigStrings.ARENAS_PREFIX))
+        final BungeeSign result = this.getBungeeSign(sign);
+        return result == null ? null : result.server;
+    }
+    
+    public String getInfoBySignLocation(Location sign)
+    {
+        final BungeeSign result = this.getBungeeSign(sign);
+        return result == null ? "" : result.minigame + ":" + result.arena + (result.spec ? ":spec" : ":join"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+    
+    /**
+     * Returns the bungee sign at given location.
+     * 
+     * @param sign
+     *            sign location
+     * @return bungee sign or {@code null} if there is no bungee sign at given location
+     */
+    private BungeeSign getBungeeSign(Location sign)
+    {
+        if (sign == null || sign.getWorld() == null)
         {
-            for (String mg_key : getConfig().getConfigurationSection(ArenaConfigStrings.ARENAS_PREFIX).getKeys(false))
-            {
-                for (String arena_key : getConfig().getConfigurationSection(ArenaConfigStrings.ARENAS_PREFIX + mg_key + ".").getKeys(false))
-                {
-                    if (getConfig().isString(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".world"))
-                    {
-                        Location l = new Location(Bukkit.getWorld(getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".world")),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".loc.x"),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".loc.y"),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".loc.z"));
-                        if (l.distance(sign) < 1)
-                        {
-                            return getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".server");
-                        }
-                    }
-                    if (getConfig().isString(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specworld"))
-                    {
-                        Location l = new Location(Bukkit.getWorld(getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specworld")),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specloc.x"),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specloc.y"),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specloc.z"));
-                        if (l.distance(sign) < 1)
-                        {
-                            return getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specserver");
-                        }
-                    }
-                }
-            }
+            return null;
         }
-        return null;
+        if (this.bungeeSignsDirty)
+        {
+            this.rebuildBungeeSigns();
+        }
+        return this.bungeeSigns.get(sign.getWorld().getName(), sign.getBlockX(), sign.getBlockY(), sign.getBlockZ());
     }
     
-    public String getInfoBySignLocation(Location sign)
+    /**
+     * Rebuilds the bungee sign index from config.
+     */
+    private void rebuildBungeeSigns()
     {
-        if (getConfig().isSet(ArenaConfigStrings.ARENAS_PREFIX))
+        this.bungeeSigns.clear();
+        final ConfigurationSection arenas = getConfig().getConfigurationSection("arenas"); //$NON-NLS-1$
+        if (arenas != null)
         {
-            for (String mg_key : getConfig().getConfigurationSection(ArenaConfigStrings.ARENAS_PREFIX).getKeys(false))
+            for (String mg_key : arenas.getKeys(false))
             {
-                for (String arena_key : getConfig().getConfigurationSection(ArenaConfigStrings.ARENAS_PREFIX + mg_key + ".").getKeys(false))
+                final ConfigurationSection mg = arenas.getConfigurationSection(mg_key);
+                if (mg == null)
                 {
-                    final ConfigurationSection section = getConfig().getConfigurationSection(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key);
-                    if (section.contains("world"))
+                    continue;
+                }
+                for (String arena_key : mg.getKeys(false))
+                {
+                    final ConfigurationSection section = mg.getConfigurationSection(arena_key);
+                    if (section == null)
                     {
-                        Location l = new Location(Bukkit.getWorld(getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".world")),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".loc.x"),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".loc.y"),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".loc.z"));
-                        if (l.distance(sign) < 1)
-                        {
-                            return mg_key + ":" + arena_key + ":join";
-                        }
+                        continue;
                     }
-                    if (section.contains("specworld"))
+                    if (section.isString("world")) //$NON-NLS-1$
                     {
-                        Location l = new Location(Bukkit.getWorld(getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specworld")),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specloc.x"),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specloc.y"),
-                                getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + mg_key + "." + arena_key + ".specloc.z"));
-                        if (l.distance(sign) < 1)
-                        {
-                            return mg_key + ":" + arena_key + ":spec";
-                        }
+                        this.bungeeSigns.putIfAbsent(section.getString("world"), section.getInt("loc.x"), section.getInt("loc.y"), section.getInt("loc.z"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                                new BungeeSign(section.getString("server"), mg_key, arena_key, false)); //$NON-NLS-1$
+                    }
+                    if (section.isString("specworld")) //$NON-NLS-1$
+                    {
+                        this.bungeeSigns.putIfAbsent(section.getString("specworld"), section.getInt("specloc.x"), section.getInt("specloc.y"), section.getInt("specloc.z"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                                new BungeeSign(section.getString("specserver"), mg_key, arena_key, true)); //$NON-NLS-1$
                     }
                 }
             }
         }
-        return "";
+        this.bungeeSignsDirty = false;
+    }
+    
+    @Override
+    public void reloadConfig()
+    {
+        super.reloadConfig();
+        this.bungeeSignsDirty = true;
+        if (this.isEnabled())
+        {
+            // motd texts and states may have changed
+            this.setupMotdRotation();
+        }
+    }
+    
+    /**
+     * A join or spectator sign of an arena on another bungee server.
+     */
+    private static final class BungeeSign
+    {
+        /** the target server. */
+        final String  server;
+        
+        /** the minigame name. */
+        final String  minigame;
+        
+        /** the arena name. */
+        final String  arena;
+        
+        /** {@code true} for spectator signs. */
+        final boolean spec;
+        
+        /**
+         * @param server
+         * @param minigame
+         * @param arena
+         * @param spec
+         */
+        BungeeSign(String server, String minigame, String arena, boolean spec)
+        {
+            this.server = server;
+            this.minigame = minigame;
+            this.arena = arena;
+            this.spec = spec;
+        }
     }
     
     @EventHandler
     public void onServerPing(ServerListPingEvent evt)
     {
-        if (this.motd != null)
+        final String motd = this.motdRotation == null ? null : this.motdRotation.getMotd();
+        if (motd != null)
         {
-            evt.setMotd(this.motd);
+            evt.setMotd(motd);
         }
     }
     
@@ -0,0 +1,203 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.comze_instancelabs.minigamesapi.util.MessageTemplate;
+
+/**
+ * The rotating server list motd showing one arena after another.
+ * 
+ * <p>
+ * The motd template is compiled once. Each arena keeps its rendered text together with a stamp of the values shown (state, player counts); the text is only rendered again if the stamp
+ * changed. The ping handler reads the ready string.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class MotdRotation
+{
+    
+    /**
+     * The rendered motd of an arena.
+     */
+    private static final class Entry
+    {
+        /** the arena. */
+        final Arena arena;
+        
+        /** the stamp the text was rendered for; {@code -1} to render again. */
+        long        stamp = -1;
+        
+        /** the rendered text. */
+        String      text;
+        
+        /**
+         * Constructor.
+         * 
+         * @param arena
+         *            the arena
+         */
+        Entry(final Arena arena)
+        {
+            this.arena = arena;
+        }
+    }
+    
+    /** no entries. */
+    private static final Entry[]         EMPTY   = new Entry[0];
+    
+    /** the motd template. */
+    private final MessageTemplate<Arena> template;
+    
+    /** supplier of all arenas to rotate through. */
+    private final Supplier<List<Arena>>  arenas;
+    
+    /** seconds each arena is shown. */
+    private final int                    rotationSeconds;
+    
+    /** the entries of the current rotation. */
+    private Entry[]                      entries = EMPTY;
+    
+    /** index of the shown entry. */
+    private int                          index   = -1;
+    
+    /** seconds the current entry was shown. */
+    private int                          seconds;
+    
+    /** the current motd; {@code null} if there is no arena. */
+    private volatile String              motd;
+    
+    /**
+     * Constructor.
+     * 
+     * @param template
+     *            the compiled motd template
+     * @param arenas
+     *            supplier of all arenas; invoked once per rotation
+     * @param rotationSeconds
+     *            seconds each arena is shown
+     */
+    public MotdRotation(final MessageTemplate<Arena> template, final Supplier<List<Arena>> arenas, final int rotationSeconds)
+    {
+        this.template = template;
+        this.arenas = arenas;
+        this.rotationSeconds = Math.max(1, rotationSeconds);
+    }
+    
+    /**
+     * Returns the current motd.
+     * 
+     * @return motd; {@code null} if there is no arena
+     */
+    public String getMotd()
+    {
+        return this.motd;
+    }
+    
+    /**
+     * Invoked once per second; advances the rotation and refreshes the shown arena if its values changed.
+     */
+    public void tick()
+    {
+        if (this.index < 0 || ++this.seconds >= this.rotationSeconds)
+        {
+            this.seconds = 0;
+            this.index++;
+            if (this.index >= this.entries.length)
+            {
+                this.rebuild();
+            }
+        }
+        this.refresh();
+    }
+    
+    /**
+     * Forces all arenas to be rendered again, f.e. after the arena configuration changed.
+     */
+    public void invalidate()
+    {
+        for (final Entry entry : this.entries)
+        {
+            entry.stamp = -1;
+        }
+        this.refresh();
+    }
+    
+    /**
+     * Renders the shown arena if needed and publishes its text.
+     */
+    private void refresh()
+    {
+        if (this.index < 0 || this.index >= this.entries.length)
+        {
+            this.motd = null;
+            return;
+        }
+        final Entry entry = this.entries[this.index];
+        final long stamp = stamp(entry.arena);
+        if (stamp != entry.stamp)
+        {
+            entry.text = this.template.render(entry.arena);
+            entry.stamp = stamp;
+        }
+        this.motd = entry.text;
+    }
+    
+    /**
+     * Starts a new rotation; entries of known arenas are kept with their rendered text.
+     */
+    private void rebuild()
+    {
+        final Map<Arena, Entry> known = new IdentityHashMap<>();
+        for (final Entry entry : this.entries)
+        {
+            known.put(entry.arena, entry);
+        }
+        final List<Arena> list = this.arenas.get();
+        final Entry[] result = new Entry[list.size()];
+        for (int i = 0; i < result.length; i++)
+        {
+            final Arena arena = list.get(i);
+            final Entry entry = known.get(arena);
+            result[i] = entry == null ? new Entry(arena) : entry;
+        }
+        this.entries = result;
+        this.index = 0;
+    }
+    
+    /**
+     * Packs the values shown by the motd into a single stamp.
+     * 
+     * @param arena
+     *            the arena
+     * @return stamp
+     */
+    private static long stamp(final Arena arena)
+    {
+        final ArenaState state = arena.getArenaState();
+        long result = state == null ? 0xFF : state.ordinal();
+        result |= (arena.isSuccessfullyInit() ? 1L : 0L) << 8;
+        result |= (arena.getAllPlayers().size() & 0xFFFFL) << 9;
+        result |= (arena.getMinPlayers() & 0xFFFFL) << 25;
+        result |= (arena.getMaxPlayers() & 0xFFFFL) << 41;
+        return result;
+    }
+    
+}
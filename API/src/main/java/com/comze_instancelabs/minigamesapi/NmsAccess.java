@@ -0,0 +1,963 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * Cached access to net.minecraft.server and craftbukkit internals.
+ * 
+ * <p>
+ * Classes, constructors, methods and fields are resolved once per server version and cached as method handles; invoking them does not perform any reflective lookup. The handles for
+ * sending packets to players and the packet constructors used by the effects are resolved eagerly when the API is enabled.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class NmsAccess
+{
+    
+    /**
+     * A cached constructor or method.
+     */
+    public static final class Invoker
+    {
+        
+        /** the handle; (Object[])Object; {@code null} if the member could not be resolved. */
+        private final MethodHandle                 handle;
+        
+        /** the resolve error; reported on invocation. */
+        private final ReflectiveOperationException error;
+        
+        /**
+         * Constructor.
+         * 
+         * @param handle
+         *            the handle
+         */
+        Invoker(final MethodHandle handle)
+        {
+            final int count = handle.type().parameterCount();
+            this.handle = handle.asType(MethodType.genericMethodType(count)).asSpreader(Object[].class, count);
+            this.error = null;
+        }
+        
+        /**
+         * Constructor for members missing on this server version.
+         * 
+         * @param error
+         *            the resolve error
+         */
+        Invoker(final ReflectiveOperationException error)
+        {
+            this.handle = null;
+            this.error = error;
+        }
+        
+        /**
+         * Invokes the constructor or method; methods expect the receiver as first argument.
+         * 
+         * @param args
+         *            the arguments
+         * @return result; {@code null} for void methods
+         * @throws Exception
+         *             thrown if the invocation failed or the member does not exist on this server version
+         */
+        public Object invoke(final Object... args) throws Exception
+        {
+            if (this.handle == null)
+            {
+                throw this.error;
+            }
+            return call(this.handle, args);
+        }
+        
+    }
+    
+    /**
+     * The packet constructors and entity methods used by the effects; resolved once in {@link NmsAccess#init()}.
+     * 
+     * <p>
+     * Members missing on the running server version are reported when they are invoked.
+     * </p>
+     */
+    public static final class Packets
+    {
+        
+        /** PacketPlayOutTitle(). */
+        private final Invoker  title;
+        
+        /** the EnumTitleAction constants; {@code null} if missing. */
+        private final Object[] titleActions;
+        
+        /** ChatSerializer.a(String); used before 1.8 R2. */
+        private final Invoker  chatSerializer;
+        
+        /** ChatComponentText(String). */
+        private final Invoker  chatComponentText;
+        
+        /** PacketPlayOutNamedEntitySpawn(EntityHuman). */
+        private final Invoker  namedEntitySpawn;
+        
+        /** PacketPlayOutBed(). */
+        private final Invoker  bed;
+        
+        /** BlockPosition(int, int, int). */
+        private final Invoker  blockPosition;
+        
+        /** PacketPlayOutSpawnEntity(Entity, int). */
+        private final Invoker  spawnEntity;
+        
+        /** PacketPlayOutSpawnEntityLiving(EntityLiving). */
+        private final Invoker  spawnEntityLiving;
+        
+        /** PacketPlayOutAttachEntity(int, Entity, Entity). */
+        private final Invoker  attachEntity;
+        
+        /** PacketPlayOutEntityDestroy(int[]). */
+        private final Invoker  entityDestroy;
+        
+        /** PacketPlayOutEntityVelocity(int, double, double, double). */
+        private final Invoker  entityVelocity;
+        
+        /** EntityArmorStand(World). */
+        private final Invoker  armorStand;
+        
+        /** EntityWitherSkull(World). */
+        private final Invoker  witherSkull;
+        
+        /** EntityHorse(World). */
+        private final Invoker  horse;
+        
+        /** Entity.setLocation(double, double, double, float, float). */
+        private final Invoker  setLocation;
+        
+        /** Entity.setCustomName(String). */
+        private final Invoker  setCustomName;
+        
+        /** Entity.setCustomNameVisible(boolean). */
+        private final Invoker  setCustomNameVisible;
+        
+        /** Entity.setInvisible(boolean). */
+        private final Invoker  setInvisible;
+        
+        /** Entity.getId(). */
+        private final Invoker  getId;
+        
+        /** EntityAgeable.setAge(int). */
+        private final Invoker  setAge;
+        
+        /**
+         * Constructor.
+         * 
+         * @param nms
+         *            the accessor
+         */
+        Packets(final NmsAccess nms)
+        {
+            this.title = nms.resolve(() -> nms.constructor(nms.nmsClass("PacketPlayOutTitle"))); //$NON-NLS-1$
+            Object[] actions = nms.enumConstants("PacketPlayOutTitle$EnumTitleAction"); //$NON-NLS-1$
+            if (actions == null)
+            {
+                actions = nms.enumConstants("EnumTitleAction"); //$NON-NLS-1$
+            }
+            this.titleActions = actions;
+            this.chatSerializer = nms.resolve(() -> nms.method(nms.nmsClass("ChatSerializer"), "a", String.class)); //$NON-NLS-1$ //$NON-NLS-2$
+            this.chatComponentText = nms.resolve(() -> nms.constructor(nms.nmsClass("ChatComponentText"), String.class)); //$NON-NLS-1$
+            this.namedEntitySpawn = nms.resolve(() -> nms.constructor(nms.nmsClass("PacketPlayOutNamedEntitySpawn"), nms.nmsClass("EntityHuman"))); //$NON-NLS-1$ //$NON-NLS-2$
+            this.bed = nms.resolve(() -> nms.constructor(nms.nmsClass("PacketPlayOutBed"))); //$NON-NLS-1$
+            this.blockPosition = nms.resolve(() -> nms.constructor(nms.nmsClass("BlockPosition"), int.class, int.class, int.class)); //$NON-NLS-1$
+            this.spawnEntity = nms.resolve(() -> nms.constructor(nms.nmsClass("PacketPlayOutSpawnEntity"), nms.nmsClass("Entity"), int.class)); //$NON-NLS-1$ //$NON-NLS-2$
+            this.spawnEntityLiving = nms.resolve(() -> nms.constructor(nms.nmsClass("PacketPlayOutSpawnEntityLiving"), nms.nmsClass("EntityLiving"))); //$NON-NLS-1$ //$NON-NLS-2$
+            this.attachEntity = nms.resolve(() -> nms.constructor(nms.nmsClass("PacketPlayOutAttachEntity"), int.class, nms.nmsClass("Entity"), nms.nmsClass("Entity"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            this.entityDestroy = nms.resolve(() -> nms.constructor(nms.nmsClass("PacketPlayOutEntityDestroy"), int[].class)); //$NON-NLS-1$
+            this.entityVelocity = nms.resolve(() -> nms.constructor(nms.nmsClass("PacketPlayOutEntityVelocity"), int.class, double.class, double.class, double.class)); //$NON-NLS-1$
+            this.armorStand = nms.resolve(() -> nms.constructor(nms.nmsClass("EntityArmorStand"), nms.nmsClass("World"))); //$NON-NLS-1$ //$NON-NLS-2$
+            this.witherSkull = nms.resolve(() -> nms.constructor(nms.nmsClass("EntityWitherSkull"), nms.nmsClass("World"))); //$NON-NLS-1$ //$NON-NLS-2$
+            this.horse = nms.resolve(() -> nms.constructor(nms.nmsClass("EntityHorse"), nms.nmsClass("World"))); //$NON-NLS-1$ //$NON-NLS-2$
+            this.setLocation = nms.resolve(() -> nms.method(nms.nmsClass("Entity"), "setLocation", double.class, double.class, double.class, float.class, float.class)); //$NON-NLS-1$ //$NON-NLS-2$
+            this.setCustomName = nms.resolve(() -> nms.method(nms.nmsClass("Entity"), "setCustomName", String.class)); //$NON-NLS-1$ //$NON-NLS-2$
+            this.setCustomNameVisible = nms.resolve(() -> nms.method(nms.nmsClass("Entity"), "setCustomNameVisible", boolean.class)); //$NON-NLS-1$ //$NON-NLS-2$
+            this.setInvisible = nms.resolve(() -> nms.method(nms.nmsClass("Entity"), "setInvisible", boolean.class)); //$NON-NLS-1$ //$NON-NLS-2$
+            this.getId = nms.resolve(() -> nms.method(nms.nmsClass("Entity"), "getId")); //$NON-NLS-1$ //$NON-NLS-2$
+            this.setAge = nms.resolve(() -> nms.method(nms.nmsClass("EntityAgeable"), "setAge", int.class)); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        
+        /**
+         * Returns PacketPlayOutTitle().
+         * 
+         * @return constructor
+         */
+        public Invoker getTitle()
+        {
+            return this.title;
+        }
+        
+        /**
+         * Returns the title action for given index.
+         * 
+         * @param index
+         *            enum index; 0 for title, 1 for subtitle, 4 for reset
+         * @return EnumTitleAction constant
+         * @throws ClassNotFoundException
+         *             thrown if the enum does not exist on this server version
+         */
+        public Object getTitleAction(final int index) throws ClassNotFoundException
+        {
+            if (this.titleActions == null)
+            {
+                throw new ClassNotFoundException("EnumTitleAction"); //$NON-NLS-1$
+            }
+            return this.titleActions[index];
+        }
+        
+        /**
+         * Returns ChatSerializer.a(String).
+         * 
+         * @return method
+         */
+        public Invoker getChatSerializer()
+        {
+            return this.chatSerializer;
+        }
+        
+        /**
+         * Returns ChatComponentText(String).
+         * 
+         * @return constructor
+         */
+        public Invoker getChatComponentText()
+        {
+            return this.chatComponentText;
+        }
+        
+        /**
+         * Returns PacketPlayOutNamedEntitySpawn(EntityHuman).
+         * 
+         * @return constructor
+         */
+        public Invoker getNamedEntitySpawn()
+        {
+            return this.namedEntitySpawn;
+        }
+        
+        /**
+         * Returns PacketPlayOutBed().
+         * 
+         * @return constructor
+         */
+        public Invoker getBed()
+        {
+            return this.bed;
+        }
+        
+        /**
+         * Returns BlockPosition(int, int, int).
+         * 
+         * @return constructor
+         */
+        public Invoker getBlockPosition()
+        {
+            return this.blockPosition;
+        }
+        
+        /**
+         * Returns PacketPlayOutSpawnEntity(Entity, int).
+         * 
+         * @return constructor
+         */
+        public Invoker getSpawnEntity()
+        {
+            return this.spawnEntity;
+        }
+        
+        /**
+         * Returns PacketPlayOutSpawnEntityLiving(EntityLiving).
+         * 
+         * @return constructor
+         */
+        public Invoker getSpawnEntityLiving()
+        {
+            return this.spawnEntityLiving;
+        }
+        
+        /**
+         * Returns PacketPlayOutAttachEntity(int, Entity, Entity).
+         * 
+         * @return constructor
+         */
+        public Invoker getAttachEntity()
+        {
+            return this.attachEntity;
+        }
+        
+        /**
+         * Returns PacketPlayOutEntityDestroy(int[]).
+         * 
+         * @return constructor
+         */
+        public Invoker getEntityDestroy()
+        {
+            return this.entityDestroy;
+        }
+        
+        /**
+         * Returns PacketPlayOutEntityVelocity(int, double, double, double).
+         * 
+         * @return constructor
+         */
+        public Invoker getEntityVelocity()
+        {
+            return this.entityVelocity;
+        }
+        
+        /**
+         * Returns EntityArmorStand(World).
+         * 
+         * @return constructor
+         */
+        public Invoker getArmorStand()
+        {
+            return this.armorStand;
+        }
+        
+        /**
+         * Returns EntityWitherSkull(World).
+         * 
+         * @return constructor
+         */
+        public Invoker getWitherSkull()
+        {
+            return this.witherSkull;
+        }
+        
+        /**
+         * Returns EntityHorse(World).
+         * 
+         * @return constructor
+         */
+        public Invoker getHorse()
+        {
+            return this.horse;
+        }
+        
+        /**
+         * Returns Entity.setLocation(double, double, double, float, float).
+         * 
+         * @return method
+         */
+        public Invoker getSetLocation()
+        {
+            return this.setLocation;
+        }
+        
+        /**
+         * Returns Entity.setCustomName(String).
+         * 
+         * @return method
+         */
+        public Invoker getSetCustomName()
+        {
+            return this.setCustomName;
+        }
+        
+        /**
+         * Returns Entity.setCustomNameVisible(boolean).
+         * 
+         * @return method
+         */
+        public Invoker getSetCustomNameVisible()
+        {
+            return this.setCustomNameVisible;
+        }
+        
+        /**
+         * Returns Entity.setInvisible(boolean).
+         * 
+         * @return method
+         */
+        public Invoker getSetInvisible()
+        {
+            return this.setInvisible;
+        }
+        
+        /**
+         * Returns Entity.getId().
+         * 
+         * @return method
+         */
+        public Invoker getGetId()
+        {
+            return this.getId;
+        }
+        
+        /**
+         * Returns EntityAgeable.setAge(int).
+         * 
+         * @return method
+         */
+        public Invoker getSetAge()
+        {
+            return this.setAge;
+        }
+        
+    }
+    
+    /**
+     * Resolves a constructor or method.
+     */
+    @FunctionalInterface
+    private interface Resolver
+    {
+        
+        /**
+         * Resolves the member.
+         * 
+         * @return invoker
+         * @throws ReflectiveOperationException
+         *             thrown if the member does not exist
+         */
+        Invoker resolve() throws ReflectiveOperationException;
+        
+    }
+    
+    /** the accessor of the current server version. */
+    private static volatile NmsAccess                           current;
+    
+    /** the lookup. */
+    private static final MethodHandles.Lookup                   LOOKUP       = MethodHandles.lookup();
+    
+    /** the server version (f.e. v1_12_R1). */
+    private final String                                        version;
+    
+    /** the resolved classes by name. */
+    private final Map<String, Class<?>>                         classes      = new ConcurrentHashMap<>();
+    
+    /** the resolved constructors by declaring class and signature. */
+    private final Map<Class<?>, Map<String, Invoker>>           constructors = new ConcurrentHashMap<>();
+    
+    /** the resolved methods by class and signature. */
+    private final Map<Class<?>, Map<String, Invoker>>           methods      = new ConcurrentHashMap<>();
+    
+    /** the resolved field getters by class and field name. */
+    private final Map<Class<?>, Map<String, MethodHandle>>      getters      = new ConcurrentHashMap<>();
+    
+    /** the resolved field setters by class and field name. */
+    private final Map<Class<?>, Map<String, MethodHandle>>      setters      = new ConcurrentHashMap<>();
+    
+    /** the packet constructors and entity methods; resolved in {@link #init()}. */
+    private volatile Packets                                    packets;
+    
+    /** CraftPlayer.getHandle().playerConnection.sendPacket(packet); (Object,Object)Object. */
+    private MethodHandle                                        sendPacket;
+    
+    /** CraftPlayer.getHandle(); (Object)Object. */
+    private MethodHandle                                        playerHandle;
+    
+    /** CraftWorld.getHandle(); (Object)Object. */
+    private MethodHandle                                        worldHandle;
+    
+    /**
+     * Constructor.
+     * 
+     * @param version
+     *            the server version
+     */
+    private NmsAccess(final String version)
+    {
+        this.version = version;
+    }
+    
+    /**
+     * Returns the accessor for the running server.
+     * 
+     * @return accessor
+     */
+    public static NmsAccess get()
+    {
+        final String version = MinigamesAPI.getAPI().internalServerVersion;
+        NmsAccess result = current;
+        if (result == null || !result.version.equals(version))
+        {
+            result = new NmsAccess(version);
+            current = result;
+        }
+        return result;
+    }
+    
+    /**
+     * Returns an accessor for given server version; the accessor of the running server is not changed.
+     * 
+     * @param version
+     *            the server version (f.e. v1_12_R1)
+     * @return accessor; the accessor of the running server if the version matches, a new one otherwise
+     */
+    public static NmsAccess forVersion(final String version)
+    {
+        final NmsAccess result = current;
+        if (result != null && result.version.equals(version))
+        {
+            return result;
+        }
+        return new NmsAccess(version);
+    }
+    
+    /**
+     * Resolves the handles used to send packets and the packet constructors.
+     * 
+     * @throws Exception
+     *             thrown if the handles cannot be resolved on this server version
+     */
+    public void init() throws Exception
+    {
+        this.packets = new Packets(this);
+        this.playerHandle();
+        this.worldHandle();
+        this.sendPacketHandle();
+    }
+    
+    /**
+     * Returns the packet constructors and entity methods; resolved on first use if {@link #init()} was not invoked.
+     * 
+     * @return packets
+     */
+    public Packets getPackets()
+    {
+        Packets result = this.packets;
+        if (result == null)
+        {
+            result = new Packets(this);
+            this.packets = result;
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the server version.
+     * 
+     * @return server version
+     */
+    public String getVersion()
+    {
+        return this.version;
+    }
+    
+    /**
+     * Returns a net.minecraft.server class.
+     * 
+     * @param name
+     *            simple class name (f.e. PacketPlayOutTitle)
+     * @return class
+     * @throws ClassNotFoundException
+     *             thrown if the class does not exist on this server version
+     */
+    public Class<?> nmsClass(final String name) throws ClassNotFoundException
+    {
+        return this.forName("net.minecraft.server." + this.version + "." + name); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+    /**
+     * Returns the constants of a net.minecraft.server enum.
+     * 
+     * @param name
+     *            simple class name
+     * @return enum constants; {@code null} if the enum does not exist on this server version
+     */
+    private Object[] enumConstants(final String name)
+    {
+        try
+        {
+            return this.nmsClass(name).getEnumConstants();
+        }
+        catch (@SuppressWarnings("unused") final ClassNotFoundException ex)
+        {
+            return null;
+        }
+    }
+    
+    /**
+     * Resolves a constructor or method that may be missing on this server version.
+     * 
+     * @param resolver
+     *            the resolver
+     * @return invoker; reports the resolve error on invocation if the member is missing
+     */
+    private Invoker resolve(final Resolver resolver)
+    {
+        try
+        {
+            return resolver.resolve();
+        }
+        catch (final ReflectiveOperationException ex)
+        {
+            return new Invoker(ex);
+        }
+    }
+    
+    /**
+     * Returns a craftbukkit class.
+     * 
+     * @param name
+     *            class name relative to the craftbukkit package (f.e. entity.CraftPlayer)
+     * @return class
+     * @throws ClassNotFoundException
+     *             thrown if the class does not exist on this server version
+     */
+    public Class<?> craftClass(final String name) throws ClassNotFoundException
+    {
+        return this.forName("org.bukkit.craftbukkit." + this.version + "." + name); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+    /**
+     * Returns a cached class.
+     * 
+     * @param name
+     *            fully qualified class name
+     * @return class
+     * @throws ClassNotFoundException
+     *             thrown if the class does not exist
+     */
+    private Class<?> forName(final String name) throws ClassNotFoundException
+    {
+        Class<?> result = this.classes.get(name);
+        if (result == null)
+        {
+            result = Class.forName(name);
+            this.classes.put(name, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Returns a cached constructor.
+     * 
+     * @param clazz
+     *            the class
+     * @param params
+     *            the parameter types
+     * @return constructor
+     * @throws ReflectiveOperationException
+     *             thrown if the constructor does not exist
+     */
+    public Invoker constructor(final Class<?> clazz, final Class<?>... params) throws ReflectiveOperationException
+    {
+        final Map<String, Invoker> map = this.constructors.computeIfAbsent(clazz, k -> new ConcurrentHashMap<>());
+        final String key = signature("<init>", params); //$NON-NLS-1$
+        Invoker result = map.get(key);
+        if (result == null)
+        {
+            final Constructor<?> ctor = clazz.getDeclaredConstructor(params);
+            ctor.setAccessible(true);
+            result = new Invoker(LOOKUP.unreflectConstructor(ctor));
+            map.put(key, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Returns a cached method declared by given class or one of its super classes.
+     * 
+     * @param clazz
+     *            the class
+     * @param name
+     *            the method name
+     * @param params
+     *            the parameter types
+     * @return method; instance methods expect the receiver as first argument
+     * @throws ReflectiveOperationException
+     *             thrown if the method does not exist
+     */
+    public Invoker method(final Class<?> clazz, final String name, final Class<?>... params) throws ReflectiveOperationException
+    {
+        final Map<String, Invoker> map = this.methods.computeIfAbsent(clazz, k -> new ConcurrentHashMap<>());
+        final String key = signature(name, params);
+        Invoker result = map.get(key);
+        if (result == null)
+        {
+            final Method method = findMethod(clazz, name, params);
+            method.setAccessible(true);
+            result = new Invoker(LOOKUP.unreflect(method));
+            map.put(key, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Reads a field declared by the class of given instance or one of its super classes.
+     * 
+     * @param instance
+     *            the object
+     * @param name
+     *            the field name
+     * @return field value
+     * @throws Exception
+     *             thrown if the field does not exist or cannot be read
+     */
+    public Object getField(final Object instance, final String name) throws Exception
+    {
+        final Map<String, MethodHandle> map = this.getters.computeIfAbsent(instance.getClass(), k -> new ConcurrentHashMap<>());
+        MethodHandle result = map.get(name);
+        if (result == null)
+        {
+            final Field field = findField(instance.getClass(), name);
+            field.setAccessible(true);
+            result = LOOKUP.unreflectGetter(field).asType(MethodType.genericMethodType(1)).asSpreader(Object[].class, 1);
+            map.put(name, result);
+        }
+        return call(result, instance);
+    }
+    
+    /**
+     * Sets a field declared by the class of given instance or one of its super classes.
+     * 
+     * @param instance
+     *            the object
+     * @param name
+     *            the field name
+     * @param value
+     *            the new value
+     * @throws Exception
+     *             thrown if the field does not exist or cannot be written
+     */
+    public void setField(final Object instance, final String name, final Object value) throws Exception
+    {
+        final Map<String, MethodHandle> map = this.setters.computeIfAbsent(instance.getClass(), k -> new ConcurrentHashMap<>());
+        MethodHandle result = map.get(name);
+        if (result == null)
+        {
+            final Field field = findField(instance.getClass(), name);
+            field.setAccessible(true);
+            result = LOOKUP.unreflectSetter(field).asType(MethodType.genericMethodType(2)).asSpreader(Object[].class, 2);
+            map.put(name, result);
+        }
+        call(result, instance, value);
+    }
+    
+    /**
+     * Returns the nms entity of given player.
+     * 
+     * @param p
+     *            the player
+     * @return EntityPlayer
+     * @throws Exception
+     *             thrown if the handle cannot be resolved
+     */
+    public Object getHandle(final Player p) throws Exception
+    {
+        return call(this.playerHandle(), p);
+    }
+    
+    /**
+     * Returns the nms world of given world.
+     * 
+     * @param w
+     *            the world
+     * @return WorldServer
+     * @throws Exception
+     *             thrown if the handle cannot be resolved
+     */
+    public Object getHandle(final World w) throws Exception
+    {
+        return call(this.worldHandle(), w);
+    }
+    
+    /**
+     * Sends a packet to given player.
+     * 
+     * @param p
+     *            the player
+     * @param packet
+     *            the nms packet
+     * @throws Exception
+     *             thrown if the packet cannot be sent
+     */
+    public void sendPacket(final Player p, final Object packet) throws Exception
+    {
+        call(this.sendPacketHandle(), p, packet);
+    }
+    
+    /**
+     * Returns the handle for CraftPlayer.getHandle().
+     * 
+     * @return handle
+     * @throws ReflectiveOperationException
+     *             thrown if the handle cannot be resolved
+     */
+    private MethodHandle playerHandle() throws ReflectiveOperationException
+    {
+        if (this.playerHandle == null)
+        {
+            this.playerHandle = LOOKUP.unreflect(this.craftClass("entity.CraftPlayer").getMethod("getHandle")).asType(MethodType.genericMethodType(1)).asSpreader(Object[].class, 1); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return this.playerHandle;
+    }
+    
+    /**
+     * Returns the handle for CraftWorld.getHandle().
+     * 
+     * @return handle
+     * @throws ReflectiveOperationException
+     *             thrown if the handle cannot be resolved
+     */
+    private MethodHandle worldHandle() throws ReflectiveOperationException
+    {
+        if (this.worldHandle == null)
+        {
+            final Method getHandle = this.craftClass("CraftWorld").getDeclaredMethod("getHandle"); //$NON-NLS-1$ //$NON-NLS-2$
+            getHandle.setAccessible(true);
+            this.worldHandle = LOOKUP.unreflect(getHandle).asType(MethodType.genericMethodType(1)).asSpreader(Object[].class, 1);
+        }
+        return this.worldHandle;
+    }
+    
+    /**
+     * Returns the combined handle for CraftPlayer.getHandle().playerConnection.sendPacket(packet).
+     * 
+     * @return handle
+     * @throws ReflectiveOperationException
+     *             thrown if the handle cannot be resolved
+     */
+    private MethodHandle sendPacketHandle() throws ReflectiveOperationException
+    {
+        if (this.sendPacket == null)
+        {
+            final Method getHandle = this.craftClass("entity.CraftPlayer").getMethod("getHandle"); //$NON-NLS-1$ //$NON-NLS-2$
+            final Field playerConnection = this.nmsClass("EntityPlayer").getField("playerConnection"); //$NON-NLS-1$ //$NON-NLS-2$
+            playerConnection.setAccessible(true);
+            final Method sendPacketMethod = playerConnection.getType().getMethod("sendPacket", this.nmsClass("Packet")); //$NON-NLS-1$ //$NON-NLS-2$
+            // (CraftPlayer) -> EntityPlayer -> PlayerConnection
+            final MethodHandle connection = MethodHandles.filterReturnValue(LOOKUP.unreflect(getHandle).asType(MethodType.methodType(playerConnection.getDeclaringClass(), getHandle.getDeclaringClass())),
+                    LOOKUP.unreflectGetter(playerConnection));
+            // (CraftPlayer, Packet) -> void
+            final MethodHandle send = MethodHandles.filterArguments(LOOKUP.unreflect(sendPacketMethod), 0, connection);
+            this.sendPacket = send.asType(MethodType.genericMethodType(2)).asSpreader(Object[].class, 2);
+        }
+        return this.sendPacket;
+    }
+    
+    /**
+     * Invokes a spread handle.
+     * 
+     * @param handle
+     *            handle of type (Object[])Object
+     * @param args
+     *            arguments
+     * @return result
+     * @throws Exception
+     *             thrown if the invocation failed
+     */
+    static Object call(final MethodHandle handle, final Object... args) throws Exception
+    {
+        try
+        {
+            return handle.invokeExact(args);
+        }
+        catch (final Exception | Error e)
+        {
+            throw e;
+        }
+        catch (final Throwable t)
+        {
+            throw new InvocationTargetException(t);
+        }
+    }
+    
+    /**
+     * Finds a method declared by given class or one of its super classes.
+     * 
+     * @param clazz
+     *            the class
+     * @param name
+     *            the method name
+     * @param params
+     *            parameter types
+     * @return method
+     * @throws NoSuchMethodException
+     *             thrown if the method does not exist
+     */
+    private static Method findMethod(final Class<?> clazz, final String name, final Class<?>... params) throws NoSuchMethodException
+    {
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass())
+        {
+            try
+            {
+                return c.getDeclaredMethod(name, params);
+            }
+            catch (@SuppressWarnings("unused") final NoSuchMethodException ex)
+            {
+                // try super class
+            }
+        }
+        return clazz.getMethod(name, params);
+    }
+    
+    /**
+     * Finds a field declared by given class or one of its super classes.
+     * 
+     * @param clazz
+     *            the class
+     * @param name
+     *            the field name
+     * @return field
+     * @throws NoSuchFieldException
+     *             thrown if the field does not exist
+     */
+    private static Field findField(final Class<?> clazz, final String name) throws NoSuchFieldException
+    {
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass())
+        {
+            try
+            {
+                return c.getDeclaredField(name);
+            }
+            catch (@SuppressWarnings("unused") final NoSuchFieldException ex)
+            {
+                // try super class
+            }
+        }
+        throw new NoSuchFieldException(clazz.getName() + "." + name); //$NON-NLS-1$
+    }
+    
+    /**
+     * Builds the cache key of a signature.
+     * 
+     * @param name
+     *            member name
+     * @param params
+     *            parameter types
+     * @return key
+     */
+    private static String signature(final String name, final Class<?>... params)
+    {
+        final StringBuilder builder = new StringBuilder(name);
+        for (final Class<?> param : params)
+        {
+            builder.append(';').append(param.getName());
+        }
+        return builder.toString();
+    }
+    
+}
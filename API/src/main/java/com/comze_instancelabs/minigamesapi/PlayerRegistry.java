@@ -0,0 +1,347 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import com.comze_instancelabs.minigamesapi.PlayerSession.Role;
+
+/**
+ * Registry of the players taking part in minigames.
+ * 
+ * <p>
+ * Sessions are keyed by player uuid; a player may have one session per plugin instance (f.e. MGArcade running multiple minigames). The registry is backed by concurrent maps and immutable
+ * sessions, reading is safe from asynchronous threads (f.e. chat events). Modifications are expected to happen on the server thread.
+ * </p>
+ * 
+ * <p>
+ * The name keyed maps of {@link PluginInstance} are thin adapters to this registry.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class PlayerRegistry
+{
+    
+    /** the registry instance. */
+    private static final PlayerRegistry                  INSTANCE = new PlayerRegistry();
+    
+    /** empty session list. */
+    private static final PlayerSession[]                 NONE     = new PlayerSession[0];
+    
+    /** the sessions by player uuid; the most recent session is the last element. */
+    private final ConcurrentHashMap<UUID, PlayerSession[]> sessions = new ConcurrentHashMap<>();
+    
+    /** the uuids of registered players by name. */
+    private final ConcurrentHashMap<String, UUID>        names    = new ConcurrentHashMap<>();
+    
+    /**
+     * Returns the player registry.
+     * 
+     * @return player registry
+     */
+    public static PlayerRegistry get()
+    {
+        return INSTANCE;
+    }
+    
+    /**
+     * Returns the uuid of a registered player.
+     * 
+     * @param playername
+     *            player name
+     * @return uuid or {@code null} if the player is not registered
+     */
+    public UUID getUuid(final String playername)
+    {
+        return playername == null ? null : this.names.get(playername);
+    }
+    
+    /**
+     * Returns the session of given player within given plugin instance.
+     * 
+     * @param uuid
+     *            player uuid
+     * @param pli
+     *            plugin instance
+     * @return session or {@code null} if the player is not registered
+     */
+    public PlayerSession getSession(final UUID uuid, final PluginInstance pli)
+    {
+        final PlayerSession[] list = uuid == null ? null : this.sessions.get(uuid);
+        if (list != null)
+        {
+            final int index = indexOf(list, pli);
+            if (index >= 0)
+            {
+                return list[index];
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the session of given player within given plugin instance.
+     * 
+     * @param playername
+     *            player name
+     * @param pli
+     *            plugin instance
+     * @return session or {@code null} if the player is not registered
+     */
+    public PlayerSession getSession(final String playername, final PluginInstance pli)
+    {
+        return this.getSession(this.getUuid(playername), pli);
+    }
+    
+    /**
+     * Returns the most recent session the player joined an arena in, regardless of the plugin instance.
+     * 
+     * @param uuid
+     *            player uuid
+     * @return session or {@code null} if the player is not playing any arena
+     */
+    public PlayerSession getSession(final UUID uuid)
+    {
+        final PlayerSession[] list = uuid == null ? null : this.sessions.get(uuid);
+        if (list != null)
+        {
+            for (int i = list.length - 1; i >= 0; i--)
+            {
+                if (list[i].hasRole(Role.PLAYING))
+                {
+                    return list[i];
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the arena the player joined, regardless of the plugin instance.
+     * 
+     * @param uuid
+     *            player uuid
+     * @return arena or {@code null} if the player is not playing any arena
+     */
+    public Arena getArena(final UUID uuid)
+    {
+        final PlayerSession session = this.getSession(uuid);
+        return session == null ? null : session.getArena();
+    }
+    
+    /**
+     * Returns the arena of given player and role.
+     * 
+     * @param playername
+     *            player name
+     * @param pli
+     *            plugin instance
+     * @param role
+     *            role
+     * @return arena or {@code null} if the player does not have given role
+     */
+    public Arena getArena(final String playername, final PluginInstance pli, final Role role)
+    {
+        final PlayerSession session = this.getSession(playername, pli);
+        return session == null ? null : session.getArena(role);
+    }
+    
+    /**
+     * Sets or removes the role of given online player.
+     * 
+     * @param player
+     *            the player
+     * @param pli
+     *            plugin instance
+     * @param role
+     *            role
+     * @param arena
+     *            the arena or {@code null} to remove the role
+     * @return the previous arena of given role
+     */
+    public Arena set(final Player player, final PluginInstance pli, final Role role, final Arena arena)
+    {
+        return this.set(player.getUniqueId(), player.getName(), pli, role, arena);
+    }
+    
+    /**
+     * Sets or removes the role of given player.
+     * 
+     * @param playername
+     *            the player name
+     * @param pli
+     *            plugin instance
+     * @param role
+     *            role
+     * @param arena
+     *            the arena or {@code null} to remove the role
+     * @return the previous arena of given role
+     */
+    public Arena set(final String playername, final PluginInstance pli, final Role role, final Arena arena)
+    {
+        UUID uuid = this.getUuid(playername);
+        if (uuid == null)
+        {
+            if (arena == null)
+            {
+                return null;
+            }
+            uuid = resolveUuid(playername);
+        }
+        return this.set(uuid, playername, pli, role, arena);
+    }
+    
+    /**
+     * Sets or removes the role of given player.
+     * 
+     * @param uuid
+     *            the player uuid
+     * @param playername
+     *            the player name
+     * @param pli
+     *            plugin instance
+     * @param role
+     *            role
+     * @param arena
+     *            the arena or {@code null} to remove the role
+     * @return the previous arena of given role
+     */
+    private Arena set(final UUID uuid, final String playername, final PluginInstance pli, final Role role, final Arena arena)
+    {
+        if (arena != null)
+        {
+            this.names.put(playername, uuid);
+        }
+        final Arena[] previous = new Arena[1];
+        final PlayerSession[] result = this.sessions.compute(uuid, (key, list) -> {
+            final PlayerSession[] current = list == null ? NONE : list;
+            final int index = indexOf(current, pli);
+            final PlayerSession old = index < 0 ? null : current[index];
+            previous[0] = old == null ? null : old.getArena(role);
+            final PlayerSession updated = old == null ? (arena == null ? null : PlayerSession.create(uuid, playername, pli, role, arena)) : old.with(role, arena);
+            if (index >= 0 && updated != null && !(arena != null && previous[0] == null))
+            {
+                // role changed only; keep the ordering
+                final PlayerSession[] copy = current.clone();
+                copy[index] = updated;
+                return copy;
+            }
+            // removed session or new role; the session becomes the most recent one
+            final List<PlayerSession> copy = new ArrayList<>(Arrays.asList(current));
+            if (index >= 0)
+            {
+                copy.remove(index);
+            }
+            if (updated != null)
+            {
+                copy.add(updated);
+            }
+            return copy.isEmpty() ? null : copy.toArray(new PlayerSession[copy.size()]);
+        });
+        if (result == null)
+        {
+            this.names.remove(playername, uuid);
+        }
+        return previous[0];
+    }
+    
+    /**
+     * Returns the sessions of given plugin instance.
+     * 
+     * @param pli
+     *            plugin instance
+     * @return snapshot of the sessions
+     */
+    public List<PlayerSession> getSessions(final PluginInstance pli)
+    {
+        final List<PlayerSession> result = new ArrayList<>();
+        for (final PlayerSession[] list : this.sessions.values())
+        {
+            final int index = indexOf(list, pli);
+            if (index >= 0)
+            {
+                result.add(list[index]);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Removes given role from all players of given plugin instance.
+     * 
+     * @param pli
+     *            plugin instance
+     * @param role
+     *            role
+     */
+    public void clear(final PluginInstance pli, final Role role)
+    {
+        for (final PlayerSession session : this.getSessions(pli))
+        {
+            if (session.hasRole(role))
+            {
+                this.set(session.getUuid(), session.getName(), pli, role, null);
+            }
+        }
+    }
+    
+    /**
+     * Returns the index of the session of given plugin instance.
+     * 
+     * @param list
+     *            sessions
+     * @param pli
+     *            plugin instance
+     * @return index or -1 if there is no session for given plugin instance
+     */
+    private static int indexOf(final PlayerSession[] list, final PluginInstance pli)
+    {
+        for (int i = 0; i < list.length; i++)
+        {
+            if (list[i].getPluginInstance() == pli)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Resolves the uuid of a player not yet registered.
+     * 
+     * @param playername
+     *            player name
+     * @return uuid of the online player or the offline uuid if the player is not online
+     */
+    private static UUID resolveUuid(final String playername)
+    {
+        final Player player = Bukkit.getServer() == null ? null : Bukkit.getPlayerExact(playername);
+        if (player != null)
+        {
+            return player.getUniqueId();
+        }
+        return UUID.nameUUIDFromBytes(("OfflinePlayer:" + playername).getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+    }
+    
+}
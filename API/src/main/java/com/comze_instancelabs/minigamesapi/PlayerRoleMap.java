@@ -0,0 +1,269 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.comze_instancelabs.minigamesapi.PlayerSession.Role;
+
+/**
+ * Name keyed view of a single role within the {@link PlayerRegistry}.
+ * 
+ * <p>
+ * Backs the deprecated maps of {@link PluginInstance}. Lookups and modifications are delegated to the registry; the collection views are snapshots.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+final class PlayerRoleMap extends HashMap<String, Arena>
+{
+    
+    /** serial version uid. */
+    private static final long    serialVersionUID = 1L;
+    
+    /** the plugin instance. */
+    private final transient PluginInstance pli;
+    
+    /** the role. */
+    private final Role           role;
+    
+    /**
+     * Constructor.
+     * 
+     * @param pli
+     *            the plugin instance
+     * @param role
+     *            the role
+     */
+    PlayerRoleMap(final PluginInstance pli, final Role role)
+    {
+        this.pli = pli;
+        this.role = role;
+    }
+    
+    /**
+     * Returns a snapshot of the players having the role.
+     * 
+     * @return snapshot
+     */
+    private Map<String, Arena> snapshot()
+    {
+        final Map<String, Arena> result = new LinkedHashMap<>();
+        for (final PlayerSession session : PlayerRegistry.get().getSessions(this.pli))
+        {
+            final Arena arena = session.getArena(this.role);
+            if (arena != null)
+            {
+                result.put(session.getName(), arena);
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public Arena get(final Object key)
+    {
+        return key instanceof String ? PlayerRegistry.get().getArena((String) key, this.pli, this.role) : null;
+    }
+    
+    @Override
+    public Arena getOrDefault(final Object key, final Arena defaultValue)
+    {
+        final Arena result = this.get(key);
+        return result == null ? defaultValue : result;
+    }
+    
+    @Override
+    public boolean containsKey(final Object key)
+    {
+        return this.get(key) != null;
+    }
+    
+    @Override
+    public boolean containsValue(final Object value)
+    {
+        return value != null && this.snapshot().containsValue(value);
+    }
+    
+    @Override
+    public Arena put(final String key, final Arena value)
+    {
+        return PlayerRegistry.get().set(key, this.pli, this.role, value);
+    }
+    
+    @Override
+    public Arena putIfAbsent(final String key, final Arena value)
+    {
+        final Arena result = this.get(key);
+        return result == null ? this.put(key, value) : result;
+    }
+    
+    @Override
+    public void putAll(final Map<? extends String, ? extends Arena> m)
+    {
+        for (final Map.Entry<? extends String, ? extends Arena> entry : m.entrySet())
+        {
+            this.put(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    @Override
+    public Arena remove(final Object key)
+    {
+        return key instanceof String ? PlayerRegistry.get().set((String) key, this.pli, this.role, null) : null;
+    }
+    
+    @Override
+    public boolean remove(final Object key, final Object value)
+    {
+        if (value != null && value.equals(this.get(key)))
+        {
+            this.remove(key);
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public Arena replace(final String key, final Arena value)
+    {
+        return this.containsKey(key) ? this.put(key, value) : null;
+    }
+    
+    @Override
+    public boolean replace(final String key, final Arena oldValue, final Arena newValue)
+    {
+        if (oldValue != null && oldValue.equals(this.get(key)))
+        {
+            this.put(key, newValue);
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public Arena computeIfAbsent(final String key, final Function<? super String, ? extends Arena> mappingFunction)
+    {
+        final Arena result = this.get(key);
+        if (result != null)
+        {
+            return result;
+        }
+        final Arena value = mappingFunction.apply(key);
+        this.put(key, value);
+        return value;
+    }
+    
+    @Override
+    public Arena computeIfPresent(final String key, final BiFunction<? super String, ? super Arena, ? extends Arena> remappingFunction)
+    {
+        final Arena result = this.get(key);
+        if (result == null)
+        {
+            return null;
+        }
+        final Arena value = remappingFunction.apply(key, result);
+        this.put(key, value);
+        return value;
+    }
+    
+    @Override
+    public Arena compute(final String key, final BiFunction<? super String, ? super Arena, ? extends Arena> remappingFunction)
+    {
+        final Arena value = remappingFunction.apply(key, this.get(key));
+        this.put(key, value);
+        return value;
+    }
+    
+    @Override
+    public Arena merge(final String key, final Arena value, final BiFunction<? super Arena, ? super Arena, ? extends Arena> remappingFunction)
+    {
+        final Arena result = this.get(key);
+        final Arena newValue = result == null ? value : remappingFunction.apply(result, value);
+        this.put(key, newValue);
+        return newValue;
+    }
+    
+    @Override
+    public void replaceAll(final BiFunction<? super String, ? super Arena, ? extends Arena> function)
+    {
+        this.snapshot().forEach((key, value) -> this.put(key, function.apply(key, value)));
+    }
+    
+    @Override
+    public void clear()
+    {
+        PlayerRegistry.get().clear(this.pli, this.role);
+    }
+    
+    @Override
+    public int size()
+    {
+        int result = 0;
+        for (final PlayerSession session : PlayerRegistry.get().getSessions(this.pli))
+        {
+            if (session.hasRole(this.role))
+            {
+                result++;
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public boolean isEmpty()
+    {
+        return this.size() == 0;
+    }
+    
+    @Override
+    public Set<String> keySet()
+    {
+        return Collections.unmodifiableSet(this.snapshot().keySet());
+    }
+    
+    @Override
+    public Collection<Arena> values()
+    {
+        return Collections.unmodifiableCollection(this.snapshot().values());
+    }
+    
+    @Override
+    public Set<Map.Entry<String, Arena>> entrySet()
+    {
+        return Collections.unmodifiableMap(this.snapshot()).entrySet();
+    }
+    
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super Arena> action)
+    {
+        this.snapshot().forEach(action);
+    }
+    
+    @Override
+    public Object clone()
+    {
+        return new HashMap<>(this.snapshot());
+    }
+    
+}
@@ -0,0 +1,213 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a player taking part in a minigame of a single plugin instance.
+ * 
+ * <p>
+ * Sessions are owned by the {@link PlayerRegistry}. Every change creates a new session object so that sessions can safely be read from asynchronous threads.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class PlayerSession
+{
+    
+    /**
+     * The roles a player may have within an arena.
+     */
+    public enum Role
+    {
+        /** player joined the arena (lobby or ingame). */
+        PLAYING,
+        /** player already lost the game. */
+        LOST,
+        /** player is an arcade spectator. */
+        SPECTATOR
+    }
+    
+    /** the roles. */
+    private static final Role[] ROLES = Role.values();
+    
+    /** the player uuid. */
+    private final UUID          uuid;
+    
+    /** the player name. */
+    private final String        name;
+    
+    /** the plugin instance. */
+    private final PluginInstance pli;
+    
+    /** the arenas by role ordinal. */
+    private final Arena[]       arenas;
+    
+    /**
+     * Constructor.
+     * 
+     * @param uuid
+     *            the player uuid
+     * @param name
+     *            the player name
+     * @param pli
+     *            the plugin instance
+     * @param arenas
+     *            the arenas by role ordinal
+     */
+    private PlayerSession(final UUID uuid, final String name, final PluginInstance pli, final Arena[] arenas)
+    {
+        this.uuid = uuid;
+        this.name = name;
+        this.pli = pli;
+        this.arenas = arenas;
+    }
+    
+    /**
+     * Creates a new session with given role.
+     * 
+     * @param uuid
+     *            the player uuid
+     * @param name
+     *            the player name
+     * @param pli
+     *            the plugin instance
+     * @param role
+     *            the role
+     * @param arena
+     *            the arena
+     * @return session
+     */
+    static PlayerSession create(final UUID uuid, final String name, final PluginInstance pli, final Role role, final Arena arena)
+    {
+        final Arena[] arenas = new Arena[ROLES.length];
+        arenas[role.ordinal()] = arena;
+        return new PlayerSession(uuid, name, pli, arenas);
+    }
+    
+    /**
+     * Returns a copy of this session with changed role arena.
+     * 
+     * @param role
+     *            the role
+     * @param arena
+     *            the new arena or {@code null} to remove the role
+     * @return new session; {@code null} if the session does not have any role left
+     */
+    PlayerSession with(final Role role, final Arena arena)
+    {
+        final Arena[] copy = Arrays.copyOf(this.arenas, this.arenas.length);
+        copy[role.ordinal()] = arena;
+        for (final Arena a : copy)
+        {
+            if (a != null)
+            {
+                return new PlayerSession(this.uuid, this.name, this.pli, copy);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the player uuid.
+     * 
+     * @return player uuid
+     */
+    public UUID getUuid()
+    {
+        return this.uuid;
+    }
+    
+    /**
+     * Returns the player name.
+     * 
+     * @return player name
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+    
+    /**
+     * Returns the plugin instance.
+     * 
+     * @return plugin instance
+     */
+    public PluginInstance getPluginInstance()
+    {
+        return this.pli;
+    }
+    
+    /**
+     * Returns the arena the player joined.
+     * 
+     * @return arena or {@code null} if the player is not playing
+     */
+    public Arena getArena()
+    {
+        return this.arenas[Role.PLAYING.ordinal()];
+    }
+    
+    /**
+     * Returns the arena for given role.
+     * 
+     * @param role
+     *            the role
+     * @return arena or {@code null} if the player does not have given role
+     */
+    public Arena getArena(final Role role)
+    {
+        return this.arenas[role.ordinal()];
+    }
+    
+    /**
+     * Checks if the player has given role.
+     * 
+     * @param role
+     *            the role
+     * @return {@code true} if the player has given role
+     */
+    public boolean hasRole(final Role role)
+    {
+        return this.arenas[role.ordinal()] != null;
+    }
+    
+    /**
+     * Returns the most specific role of the player; spectators and losers are still counted as playing.
+     * 
+     * @return role
+     */
+    public Role getRole()
+    {
+        if (this.hasRole(Role.SPECTATOR))
+        {
+            return Role.SPECTATOR;
+        }
+        if (this.hasRole(Role.LOST))
+        {
+            return Role.LOST;
+        }
+        return Role.PLAYING;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "PlayerSession[" + this.name + ", " + this.getRole() + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+    
+}
@@ -113,4 +113,19 @@ public interface PluginConfigStrings
      */
     String PERMISSION_GAME_PREFIX = "config.permissions_game_prefix"; //$NON-NLS-1$
     
+    /**
+     * seconds between writing changed stats to disk.
+     */
+    String STATS_FLUSH_INTERVAL = "config.stats_flush_interval"; //$NON-NLS-1$
+    
+    /**
+     * bungee servers watched for quick joins even without lobby signs.
+     */
+    String BUNGEE_SERVERS = "config.bungee_servers"; //$NON-NLS-1$
+    
+    /**
+     * microseconds per tick to spend on smart resets of all arenas.
+     */
+    String SMART_RESET_TICK_BUDGET = "config.smart_reset_tick_budget"; //$NON-NLS-1$
+    
 }
@@ -18,9 +18,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import com.comze_instancelabs.minigamesapi.PlayerSession.Role;
 import com.comze_instancelabs.minigamesapi.achievements.ArenaAchievements;
 import com.comze_instancelabs.minigamesapi.config.AchievementsConfig;
 import com.comze_instancelabs.minigamesapi.config.ArenasConfig;
@@ -36,6 +40,8 @@ import com.comze_instancelabs.minigamesapi.statsholograms.Holograms;
 import com.comze_instancelabs.minigamesapi.util.AClass;
 import com.comze_instancelabs.minigamesapi.util.ArenaLobbyScoreboard;
 import com.comze_instancelabs.minigamesapi.util.ArenaScoreboard;
+import com.comze_instancelabs.minigamesapi.util.MessageTemplate;
+import com.comze_instancelabs.minigamesapi.util.Signs;
 import com.comze_instancelabs.minigamesapi.util.Util;
 import com.comze_instancelabs.minigamesapi.util.Validator;
 
@@ -48,28 +54,28 @@ public class PluginInstance
 {
     
     /**
-     * TODO describe field.
+     * The players by name; view of the {@link PlayerRegistry}.
      * 
      * @deprecated will be private in 1.5.0; replaced by new methods.
      */
     @Deprecated
-    public HashMap<String, Arena>               global_players                        = new HashMap<>();
+    public HashMap<String, Arena>               global_players                        = new PlayerRoleMap(this, Role.PLAYING);
     
     /**
-     * TODO describe field.
+     * The players that already lost by name; view of the {@link PlayerRegistry}.
      * 
      * @deprecated will be private in 1.5.0; replaced by new methods.
      */
     @Deprecated
-    public HashMap<String, Arena>               global_lost                           = new HashMap<>();
+    public HashMap<String, Arena>               global_lost                           = new PlayerRoleMap(this, Role.LOST);
     
     /**
-     * TODO describe field.
+     * The arcade spectators by name; view of the {@link PlayerRegistry}.
      * 
      * @deprecated will be private in 1.5.0; replaced by new methods.
      */
     @Deprecated
-    public HashMap<String, Arena>               global_arcade_spectator               = new HashMap<>();
+    public HashMap<String, Arena>               global_arcade_spectator               = new PlayerRoleMap(this, Role.SPECTATOR);
     
     /**
      * The arena listener for this plugin.
@@ -81,6 +87,11 @@ public class PluginInstance
      */
     private ArenasConfig                        arenasconfig                          = null;
     
+    /**
+     * The parsed arena layouts by arena name; see {@link #getArenaLayout(String)}.
+     */
+    private final Map<String, ArenaLayout>      arenaLayouts                          = new HashMap<>();
+    
     /**
      * The classes configuration (classes.yml).
      */
@@ -126,6 +137,16 @@ public class PluginInstance
      */
     private ArrayList<Arena>                    arenas                                = new ArrayList<>();
     
+    /**
+     * The chunk index of the arena boundaries.
+     */
+    private final ArenaRegionIndex              regionIndex                           = new ArenaRegionIndex(this);
+    
+    /**
+     * The index of the join and spectator signs.
+     */
+    private final ArenaSignIndex                signIndex                             = new ArenaSignIndex(this);
+    
     /**
      * The classes per player.
      */
@@ -324,6 +345,11 @@ public class PluginInstance
     @Deprecated
     public HashMap<String, ArrayList<String>>   cached_sign_states                    = new HashMap<>();
     
+    /**
+     * Compiled sign templates by lower case arena state name ("spec" for spectator signs).
+     */
+    private final Map<String, List<MessageTemplate<Arena>>> sign_templates        = new HashMap<>();
+    
     /**
      * Constructor to create a new plugin instance.
      * 
@@ -420,9 +446,47 @@ public class PluginInstance
                 new ArrayList<>(Arrays.asList(this.messagesconfig.getConfig().getString("signs.spec.0"),
                         this.messagesconfig.getConfig().getString("signs.spec.1"), this.messagesconfig.getConfig().getString("signs.spec.2"),
                         this.messagesconfig.getConfig().getString("signs.spec.3"))));
+        this.sign_templates.clear();
+        for (final String state : ArenaState.getAllStateNames())
+        {
+            this.getSignTemplate(state.toLowerCase(), 0);
+        }
+        this.getSignTemplate("spec", 0); //$NON-NLS-1$
+        for (final Arena a : this.arenas)
+        {
+            if (a != null)
+            {
+                a.getSignCache().invalidate();
+            }
+        }
         
     }
     
+    /**
+     * Returns the compiled template for a sign line; the templates are compiled on first use and on {@link #reloadVariables()}.
+     * 
+     * @param state
+     *            lower case arena state name or "spec" for spectator signs.
+     * @param line
+     *            sign line (0 to 3).
+     * @return sign line template; see {@link Util#SIGN_PLACEHOLDERS}.
+     */
+    public MessageTemplate<Arena> getSignTemplate(final String state, final int line)
+    {
+        List<MessageTemplate<Arena>> templates = this.sign_templates.get(state);
+        if (templates == null)
+        {
+            templates = new ArrayList<>(4);
+            for (int i = 0; i < 4; i++)
+            {
+                final String source = this.messagesconfig.getConfig().getString("signs." + state + "." + i); //$NON-NLS-1$ //$NON-NLS-2$
+                templates.add(MessageTemplate.compile(source == null ? null : Signs.format(source), Util.SIGN_PLACEHOLDERS));
+            }
+            this.sign_templates.put(state, templates);
+        }
+        return templates.get(line);
+    }
+    
     /**
      * Returns the minigames java plugin.
      * 
@@ -518,6 +582,30 @@ public class PluginInstance
         return this.arenasconfig;
     }
     
+    /**
+     * Returns the layout of given arena.
+     * 
+     * <p>
+     * The layout is parsed from the arenas config on first access and replaced by a new instance as soon as the arena was changed through {@link ArenasConfig#set(String, Object)} or the arenas config was saved or reloaded.
+     * </p>
+     * 
+     * @param arenaname
+     *            the arena name
+     * @return arena layout; never {@code null}
+     */
+    public ArenaLayout getArenaLayout(final String arenaname)
+    {
+        final int revision = this.arenasconfig.getRevision(arenaname);
+        final ArenaLayout layout = this.arenaLayouts.get(arenaname);
+        if (layout != null && layout.getRevision() == revision)
+        {
+            return layout;
+        }
+        final ArenaLayout result = new ArenaLayout(arenaname, this.arenasconfig.getConfig(), revision);
+        this.arenaLayouts.put(arenaname, result);
+        return result;
+    }
+    
     /**
      * Returns the messages config.
      * 
@@ -764,12 +852,41 @@ public class PluginInstance
         return this.arenas;
     }
     
+    /**
+     * Returns the chunk index of the arena boundaries.
+     * 
+     * @return arena region index.
+     */
+    public ArenaRegionIndex getArenaRegionIndex()
+    {
+        return this.regionIndex;
+    }
+    
+    /**
+     * Returns the index of the join and spectator signs.
+     * 
+     * @return sign index.
+     */
+    public ArenaSignIndex getArenaSignIndex()
+    {
+        return this.signIndex;
+    }
+    
     /**
      * Clears the arena list
      */
     public void clearArenas()
     {
+        for (final Arena a : this.arenas)
+        {
+            if (a != null)
+            {
+                a.cancelTasks();
+            }
+        }
         this.arenas.clear();
+        this.regionIndex.invalidate();
+        this.signIndex.invalidate();
     }
     
     /**
@@ -783,6 +900,8 @@ public class PluginInstance
     public ArrayList<Arena> addArena(final Arena arena)
     {
         this.arenas.add(arena);
+        this.regionIndex.invalidate(arena);
+        this.signIndex.invalidate();
         return this.getArenas();
     }
     
@@ -841,6 +960,9 @@ public class PluginInstance
         if (this.arenas.contains(arena))
         {
             this.arenas.remove(arena);
+            arena.cancelTasks();
+            this.regionIndex.remove(arena);
+            this.signIndex.invalidate();
             return true;
         }
         return false;
@@ -856,7 +978,16 @@ public class PluginInstance
     @Deprecated
     public void addLoadedArenas(final ArrayList<Arena> arenas)
     {
+        for (final Arena a : this.arenas)
+        {
+            if (a != null && !arenas.contains(a))
+            {
+                a.cancelTasks();
+            }
+        }
         this.arenas = arenas;
+        this.regionIndex.invalidate();
+        this.signIndex.invalidate();
     }
     
     /**
@@ -870,7 +1001,9 @@ public class PluginInstance
         for (final Arena arena : arenaList)
         {
             this.arenas.add(arena);
+            this.regionIndex.invalidate(arena);
         }
+        this.signIndex.invalidate();
     }
     
     /**
@@ -884,7 +1017,9 @@ public class PluginInstance
         for (final Arena arena : arenaList)
         {
             this.arenas.add(arena);
+            this.regionIndex.invalidate(arena);
         }
+        this.signIndex.invalidate();
     }
     
     /**
@@ -943,6 +1078,7 @@ public class PluginInstance
             {
                 final String arenaname = a.getInternalName();
                 final ArenaSetup s = this.arenaSetup;
+                a.cancelTasks();
                 a.init(Util.getSignLocationFromArena(this.plugin, arenaname), Util.getAllSpawns(this.plugin, arenaname), Util.getMainLobby(this.plugin),
                         Util.getComponentForArena(this.plugin, arenaname, "lobby"), s.getPlayerCount(this.plugin, arenaname, true), s.getPlayerCount(this.plugin, arenaname, false),
                         s.getArenaVIP(this.plugin, arenaname));
@@ -952,6 +1088,8 @@ public class PluginInstance
                 }
             }
         }
+        this.regionIndex.invalidate();
+        this.signIndex.invalidate();
     }
     
     /**
@@ -968,9 +1106,12 @@ public class PluginInstance
             if (a != null)
             {
                 final ArenaSetup s = this.arenaSetup;
+                a.cancelTasks();
                 a.init(Util.getSignLocationFromArena(this.plugin, arenaname), Util.getAllSpawns(this.plugin, arenaname), Util.getMainLobby(this.plugin),
                         Util.getComponentForArena(this.plugin, arenaname, "lobby"), s.getPlayerCount(this.plugin, arenaname, true), s.getPlayerCount(this.plugin, arenaname, false),
                         s.getArenaVIP(this.plugin, arenaname));
+                this.regionIndex.invalidate(a);
+                this.signIndex.invalidate();
             }
         }
     }
@@ -987,6 +1128,18 @@ public class PluginInstance
         return this.global_players.containsKey(playername);
     }
     
+    /**
+     * Checks if the player joined an arena of this minigame.
+     * 
+     * @param player
+     *            the player
+     * @return {@code true} if the player joined an arena.
+     */
+    public boolean containsGlobalPlayer(final Player player)
+    {
+        return this.getArenaByGlobalPlayer(player) != null;
+    }
+    
     /**
      * Checks if the player already lost.
      * 
@@ -999,6 +1152,19 @@ public class PluginInstance
         return this.global_lost.containsKey(playername);
     }
     
+    /**
+     * Checks if the player already lost.
+     * 
+     * @param player
+     *            the player
+     * @return {@code true} if the player already lost.
+     */
+    public boolean containsGlobalLost(final Player player)
+    {
+        final PlayerSession session = this.getPlayerSession(player);
+        return session != null && session.hasRole(Role.LOST);
+    }
+    
     /**
      * Returns the arena by player name.
      * 
@@ -1008,14 +1174,32 @@ public class PluginInstance
      */
     public Arena getArenaByGlobalPlayer(final String playername)
     {
-        if (this.containsGlobalPlayer(playername))
-        {
-            return this.global_players.get(playername);
-        }
-        else
-        {
-            return null;
-        }
+        return this.global_players.get(playername);
+    }
+    
+    /**
+     * Returns the arena by player.
+     * 
+     * @param player
+     *            player to be searched for.
+     * @return arena or {@code null} if the player is not present in any arena.
+     */
+    public Arena getArenaByGlobalPlayer(final Player player)
+    {
+        final PlayerSession session = this.getPlayerSession(player);
+        return session == null ? null : session.getArena();
+    }
+    
+    /**
+     * Returns the session of given player within this minigame.
+     * 
+     * @param player
+     *            the player
+     * @return session or {@code null} if the player did not join any arena of this minigame.
+     */
+    public PlayerSession getPlayerSession(final Player player)
+    {
+        return PlayerRegistry.get().getSession(player.getUniqueId(), this);
     }
     
 }
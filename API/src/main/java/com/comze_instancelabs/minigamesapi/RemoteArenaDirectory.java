@@ -0,0 +1,475 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.comze_instancelabs.minigamesapi.util.BungeeTransport;
+
+/**
+ * In-memory directory of the arenas on the other servers of a bungee cord network.
+ *
+ * <p>
+ * The directory is fed by the lobby sign messages ({@link SignSnapshot}s and legacy sign updates) received by the {@link LobbySignManager}. Servers not heard of within the stale time are
+ * evicted. {@link #quickJoin(String, String)} picks the best joinable arena across the network and sends the player there.
+ * </p>
+ *
+ * @author mepeisen
+ */
+public final class RemoteArenaDirectory
+{
+    
+    /** default time after servers are evicted (millis). */
+    public static final long                      DEFAULT_STALE_MILLIS = 150000L;
+    
+    /** fill levels closer than this are treated as equal; the latency decides between them. */
+    private static final double                   FILL_TOLERANCE       = 1E-6D;
+    
+    /** weight of new latency samples. */
+    private static final double                   LATENCY_SMOOTHING    = 0.3D;
+    
+    /** the transport to send joins. */
+    private final Supplier<BungeeTransport>       transport;
+    
+    /** the clock (millis). */
+    private final LongSupplier                    clock;
+    
+    /** time after servers are evicted (millis). */
+    private final long                            staleMillis;
+    
+    /** the known servers. */
+    private final Map<String, ServerInfo>         servers              = new LinkedHashMap<>();
+    
+    /**
+     * Constructor.
+     * 
+     * @param transport
+     *            the transport to send joins
+     * @param clock
+     *            the clock (millis)
+     * @param staleMillis
+     *            time after servers are evicted (millis)
+     */
+    public RemoteArenaDirectory(final Supplier<BungeeTransport> transport, final LongSupplier clock, final long staleMillis)
+    {
+        this.transport = transport;
+        this.clock = clock;
+        this.staleMillis = staleMillis;
+    }
+    
+    /**
+     * Applies a snapshot of a remote server.
+     * 
+     * @param snapshot
+     *            the snapshot; must have been accepted by the {@link SignSnapshot.Sequence} of that server
+     */
+    public void apply(final SignSnapshot snapshot)
+    {
+        final ServerInfo info = this.touch(snapshot.getServer());
+        if (snapshot.isFull())
+        {
+            info.arenas.clear();
+        }
+        for (final SignSnapshot.Entry entry : snapshot.getEntries())
+        {
+            info.arenas.put(entry.getKey(), new RemoteArena(info, entry));
+        }
+    }
+    
+    /**
+     * Applies a single arena update of a remote server (legacy sign messages).
+     * 
+     * @param server
+     *            the server name
+     * @param entry
+     *            the arena values
+     */
+    public void update(final String server, final SignSnapshot.Entry entry)
+    {
+        final ServerInfo info = this.touch(server);
+        info.arenas.put(entry.getKey(), new RemoteArena(info, entry));
+    }
+    
+    /**
+     * Remembers that a ping was sent to given server; the matching pong is used as latency sample.
+     * 
+     * <p>
+     * Snapshots are not used to measure the latency because they are only published once per second.
+     * </p>
+     * 
+     * @param server
+     *            the server name
+     * @param nonce
+     *            the ping nonce echoed by the server
+     */
+    public void pingSent(final String server, final long nonce)
+    {
+        final ServerInfo info = this.servers.get(server);
+        if (info != null)
+        {
+            info.pingSent = this.clock.getAsLong();
+            info.pingNonce = nonce;
+        }
+    }
+    
+    /**
+     * Applies the pong of a remote server.
+     * 
+     * @param server
+     *            the server name
+     * @param nonce
+     *            the echoed ping nonce; pongs to other lobbies or to outdated pings are ignored
+     * @return {@code true} if the pong was used as latency sample
+     */
+    public boolean pongReceived(final String server, final long nonce)
+    {
+        final ServerInfo info = this.servers.get(server);
+        if (info == null || info.pingSent == 0 || info.pingNonce != nonce)
+        {
+            return false;
+        }
+        final long sample = this.clock.getAsLong() - info.pingSent;
+        info.latency = info.latency < 0 ? sample : info.latency + (sample - info.latency) * LATENCY_SMOOTHING;
+        info.pingSent = 0;
+        return true;
+    }
+    
+    /**
+     * Removes the servers not heard of within the stale time.
+     * 
+     * @return number of evicted servers
+     */
+    public int evictStale()
+    {
+        final long now = this.clock.getAsLong();
+        int count = 0;
+        final Iterator<ServerInfo> iter = this.servers.values().iterator();
+        while (iter.hasNext())
+        {
+            if (now - iter.next().lastSeen > this.staleMillis)
+            {
+                iter.remove();
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Removes a server.
+     * 
+     * @param server
+     *            the server name
+     */
+    public void remove(final String server)
+    {
+        this.servers.remove(server);
+    }
+    
+    /**
+     * Returns a remote arena.
+     * 
+     * @param server
+     *            the server name
+     * @param minigame
+     *            the minigame (plugin name)
+     * @param arena
+     *            the arena name
+     * @return the arena or {@code null} if it is not known
+     */
+    public RemoteArena getArena(final String server, final String minigame, final String arena)
+    {
+        final ServerInfo info = this.servers.get(server);
+        return info == null ? null : info.arenas.get(SignSnapshot.key(minigame, arena));
+    }
+    
+    /**
+     * Returns the remote arenas of given minigame.
+     * 
+     * @param minigame
+     *            the minigame (plugin name); {@code null} for all minigames
+     * @return remote arenas
+     */
+    public List<RemoteArena> getArenas(final String minigame)
+    {
+        final List<RemoteArena> result = new ArrayList<>();
+        for (final ServerInfo info : this.servers.values())
+        {
+            for (final RemoteArena arena : info.arenas.values())
+            {
+                if (minigame == null || minigame.equalsIgnoreCase(arena.getMinigame()))
+                {
+                    result.add(arena);
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the latency of a server.
+     * 
+     * @param server
+     *            the server name
+     * @return smoothed round trip time in millis; {@code -1} if unknown
+     */
+    public long getLatency(final String server)
+    {
+        final ServerInfo info = this.servers.get(server);
+        return info == null || info.latency < 0 ? -1 : Math.round(info.latency);
+    }
+    
+    /**
+     * Picks the best joinable arena of given minigame.
+     * 
+     * <p>
+     * Arenas filling up are preferred so that games start sooner; between arenas of the same fill level the server with the lower round trip time wins. Stale servers are ignored.
+     * </p>
+     * 
+     * @param minigame
+     *            the minigame (plugin name)
+     * @return best arena or {@code null} if no joinable arena is known
+     */
+    public RemoteArena findBest(final String minigame)
+    {
+        final long now = this.clock.getAsLong();
+        RemoteArena best = null;
+        double bestFill = 0;
+        double bestLatency = 0;
+        for (final ServerInfo info : this.servers.values())
+        {
+            if (now - info.lastSeen > this.staleMillis)
+            {
+                continue;
+            }
+            for (final RemoteArena arena : info.arenas.values())
+            {
+                if (!arena.isJoinable() || !minigame.equalsIgnoreCase(arena.getMinigame()))
+                {
+                    continue;
+                }
+                final double fill = arena.getFillLevel();
+                final double latency = Math.max(0, info.latency);
+                if (best == null || fill > bestFill + FILL_TOLERANCE || (fill >= bestFill - FILL_TOLERANCE && latency < bestLatency))
+                {
+                    best = arena;
+                    bestFill = fill;
+                    bestLatency = latency;
+                }
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Sends the player to the best joinable arena of given minigame.
+     * 
+     * <p>
+     * The chosen arena counts the player immediately so that concurrent quick joins are spread correctly until the next update of that server arrives.
+     * </p>
+     * 
+     * @param player
+     *            the player name
+     * @param minigame
+     *            the minigame (plugin name)
+     * @return the chosen arena or {@code null} if no joinable arena is known
+     * @throws IOException
+     *             thrown if the join message could not be created
+     */
+    public RemoteArena quickJoin(final String player, final String minigame) throws IOException
+    {
+        final RemoteArena arena = this.findBest(minigame);
+        if (arena == null)
+        {
+            return null;
+        }
+        final ByteArrayOutputStream msgbytes = new ByteArrayOutputStream();
+        final DataOutputStream msgout = new DataOutputStream(msgbytes);
+        msgout.writeUTF(arena.getMinigame() + ":" + arena.getArena() + ":join:" + player); //$NON-NLS-1$ //$NON-NLS-2$
+        final BungeeTransport t = this.transport.get();
+        // addressed to the target server; bungee cord queues the message until the player arrived
+        t.send(arena.getServer(), ChannelStrings.SUBCHANNEL_MINIGAMESLIB_BACK, msgbytes.toByteArray());
+        t.connect(player, arena.getServer());
+        
+        final RemoteArena reserved = new RemoteArena(arena.info, new SignSnapshot.Entry(arena.getMinigame(), arena.getArena(), arena.getState(), arena.getPlayers() + 1, arena.getMaxPlayers()));
+        arena.info.arenas.put(SignSnapshot.key(arena.getMinigame(), arena.getArena()), reserved);
+        return arena;
+    }
+    
+    /**
+     * Returns the server info and marks the server as seen.
+     * 
+     * @param server
+     *            server name
+     * @return server info
+     */
+    private ServerInfo touch(final String server)
+    {
+        final long now = this.clock.getAsLong();
+        final ServerInfo info = this.servers.computeIfAbsent(server, ServerInfo::new);
+        info.lastSeen = now;
+        return info;
+    }
+    
+    /**
+     * Data of a remote server.
+     */
+    private static final class ServerInfo
+    {
+        
+        /** server name. */
+        final String                   name;
+        
+        /** arenas by snapshot key. */
+        final Map<String, RemoteArena> arenas      = new HashMap<>();
+        
+        /** last update (millis). */
+        long                           lastSeen;
+        
+        /** pending ping (millis); {@code 0} if there is no pending ping. */
+        long                           pingSent;
+        
+        /** nonce of the pending ping. */
+        long                           pingNonce;
+        
+        /** smoothed round trip time (millis); {@code -1} if unknown. */
+        double                         latency     = -1;
+        
+        /**
+         * @param name
+         *            server name
+         */
+        ServerInfo(final String name)
+        {
+            this.name = name;
+        }
+        
+    }
+    
+    /**
+     * An arena on a remote server.
+     */
+    public static final class RemoteArena
+    {
+        
+        /** the server. */
+        final ServerInfo                 info;
+        
+        /** the arena values. */
+        private final SignSnapshot.Entry entry;
+        
+        /**
+         * @param info
+         *            the server
+         * @param entry
+         *            the arena values
+         */
+        RemoteArena(final ServerInfo info, final SignSnapshot.Entry entry)
+        {
+            this.info = info;
+            this.entry = entry;
+        }
+        
+        /**
+         * @return the server name
+         */
+        public String getServer()
+        {
+            return this.info.name;
+        }
+        
+        /**
+         * @return the minigame (plugin name)
+         */
+        public String getMinigame()
+        {
+            return this.entry.getMinigame();
+        }
+        
+        /**
+         * @return the arena name
+         */
+        public String getArena()
+        {
+            return this.entry.getArena();
+        }
+        
+        /**
+         * @return the arena state
+         */
+        public String getState()
+        {
+            return this.entry.getState();
+        }
+        
+        /**
+         * @return the player count
+         */
+        public int getPlayers()
+        {
+            return this.entry.getPlayers();
+        }
+        
+        /**
+         * @return the max player count
+         */
+        public int getMaxPlayers()
+        {
+            return this.entry.getMaxPlayers();
+        }
+        
+        /**
+         * @return the time the server was last heard of (millis)
+         */
+        public long getLastSeen()
+        {
+            return this.info.lastSeen;
+        }
+        
+        /**
+         * @return {@code true} if players may join the arena
+         */
+        public boolean isJoinable()
+        {
+            return (ArenaState.JOIN.name().equals(this.getState()) || ArenaState.STARTING.name().equals(this.getState())) && this.getPlayers() < this.getMaxPlayers();
+        }
+        
+        /**
+         * @return players in relation to max players
+         */
+        public double getFillLevel()
+        {
+            return this.getMaxPlayers() <= 0 ? 1D : (double) this.getPlayers() / this.getMaxPlayers();
+        }
+        
+        @Override
+        public String toString()
+        {
+            return this.getServer() + "/" + this.entry; //$NON-NLS-1$
+        }
+        
+    }
+    
+}
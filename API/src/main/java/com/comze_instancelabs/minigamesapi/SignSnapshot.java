@@ -0,0 +1,645 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A batched arena state snapshot sent from a game server to the lobby servers.
+ *
+ * <p>
+ * Instead of one plugin message per arena and sign a game server publishes a single snapshot per interval. A full snapshot contains every arena, a delta snapshot only the arenas changed
+ * since the previous one. Each snapshot carries the epoch of the publishing server (changes on every restart) and a sequence number; the receiver uses {@link Sequence} to drop stale or
+ * duplicate snapshots and to detect lost deltas.
+ * </p>
+ *
+ * <p>
+ * Wire format: protocol version (byte), server name (utf), epoch (long), sequence (int), flags (byte) followed by the body. The body holds the arenas grouped by minigame and is deflated
+ * if that pays off.
+ * </p>
+ *
+ * @author mepeisen
+ */
+public final class SignSnapshot
+{
+    
+    /** the protocol version; snapshots with other versions are ignored. */
+    public static final int     PROTOCOL_VERSION = 1;
+    
+    /** flag for full snapshots. */
+    private static final int    FLAG_FULL        = 1;
+    
+    /** flag for deflated bodies. */
+    private static final int    FLAG_DEFLATED    = 2;
+    
+    /** bodies smaller than this are not deflated. */
+    private static final int    DEFLATE_MIN      = 128;
+    
+    /** the publishing server. */
+    private final String        server;
+    
+    /** the epoch of the publishing server. */
+    private final long          epoch;
+    
+    /** the sequence number. */
+    private final int           sequence;
+    
+    /** {@code true} for full snapshots. */
+    private final boolean       full;
+    
+    /** the arena entries. */
+    private final List<Entry>   entries;
+    
+    /**
+     * Constructor.
+     * 
+     * @param server
+     *            the publishing server
+     * @param epoch
+     *            the epoch of the publishing server
+     * @param sequence
+     *            the sequence number
+     * @param full
+     *            {@code true} for full snapshots
+     * @param entries
+     *            the arena entries
+     */
+    public SignSnapshot(final String server, final long epoch, final int sequence, final boolean full, final List<Entry> entries)
+    {
+        this.server = server;
+        this.epoch = epoch;
+        this.sequence = sequence;
+        this.full = full;
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+    
+    /**
+     * @return the publishing server
+     */
+    public String getServer()
+    {
+        return this.server;
+    }
+    
+    /**
+     * @return the epoch of the publishing server
+     */
+    public long getEpoch()
+    {
+        return this.epoch;
+    }
+    
+    /**
+     * @return the sequence number
+     */
+    public int getSequence()
+    {
+        return this.sequence;
+    }
+    
+    /**
+     * @return {@code true} for full snapshots, {@code false} for deltas
+     */
+    public boolean isFull()
+    {
+        return this.full;
+    }
+    
+    /**
+     * @return the arena entries
+     */
+    public List<Entry> getEntries()
+    {
+        return this.entries;
+    }
+    
+    /**
+     * Encodes this snapshot.
+     * 
+     * @return the encoded snapshot
+     * @throws IOException
+     *             thrown on encoding errors
+     */
+    public byte[] encode() throws IOException
+    {
+        final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        final DataOutputStream body = new DataOutputStream(bodyBytes);
+        final Map<String, List<Entry>> byMinigame = new LinkedHashMap<>();
+        for (final Entry entry : this.entries)
+        {
+            byMinigame.computeIfAbsent(entry.getMinigame(), k -> new ArrayList<>()).add(entry);
+        }
+        writeVarInt(body, byMinigame.size());
+        for (final Map.Entry<String, List<Entry>> group : byMinigame.entrySet())
+        {
+            body.writeUTF(group.getKey());
+            writeVarInt(body, group.getValue().size());
+            for (final Entry entry : group.getValue())
+            {
+                body.writeUTF(entry.getArena());
+                body.writeUTF(entry.getState());
+                writeVarInt(body, entry.getPlayers());
+                writeVarInt(body, entry.getMaxPlayers());
+            }
+        }
+        body.flush();
+        
+        int flags = this.full ? FLAG_FULL : 0;
+        byte[] raw = bodyBytes.toByteArray();
+        if (raw.length >= DEFLATE_MIN)
+        {
+            final byte[] deflated = deflate(raw);
+            if (deflated.length < raw.length)
+            {
+                flags |= FLAG_DEFLATED;
+                raw = deflated;
+            }
+        }
+        
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(raw.length + 32);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(PROTOCOL_VERSION);
+        out.writeUTF(this.server);
+        out.writeLong(this.epoch);
+        out.writeInt(this.sequence);
+        out.writeByte(flags);
+        out.write(raw);
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Decodes a snapshot.
+     * 
+     * @param data
+     *            the encoded snapshot
+     * @return the snapshot or {@code null} if the snapshot was created by an unknown protocol version
+     * @throws IOException
+     *             thrown on malformed snapshots
+     */
+    public static SignSnapshot decode(final byte[] data) throws IOException
+    {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readUnsignedByte() != PROTOCOL_VERSION)
+        {
+            return null;
+        }
+        final String server = in.readUTF();
+        final long epoch = in.readLong();
+        final int sequence = in.readInt();
+        final int flags = in.readUnsignedByte();
+        final int headerSize = data.length - in.available();
+        DataInputStream body = in;
+        if ((flags & FLAG_DEFLATED) != 0)
+        {
+            body = new DataInputStream(new ByteArrayInputStream(inflate(data, headerSize)));
+        }
+        
+        final List<Entry> entries = new ArrayList<>();
+        final int groups = readVarInt(body);
+        for (int i = 0; i < groups; i++)
+        {
+            final String minigame = body.readUTF();
+            final int count = readVarInt(body);
+            for (int j = 0; j < count; j++)
+            {
+                final String arena = body.readUTF();
+                final String state = body.readUTF();
+                final int players = readVarInt(body);
+                final int max = readVarInt(body);
+                entries.add(new Entry(minigame, arena, state, players, max));
+            }
+        }
+        return new SignSnapshot(server, epoch, sequence, (flags & FLAG_FULL) != 0, entries);
+    }
+    
+    /**
+     * Deflates given bytes.
+     * 
+     * @param raw
+     *            raw bytes
+     * @return deflated bytes
+     */
+    private static byte[] deflate(final byte[] raw)
+    {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try
+        {
+            deflater.setInput(raw);
+            deflater.finish();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length);
+            final byte[] buffer = new byte[512];
+            while (!deflater.finished())
+            {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+    
+    /**
+     * Inflates given bytes.
+     * 
+     * @param data
+     *            the data
+     * @param offset
+     *            offset of the deflated body
+     * @return inflated bytes
+     * @throws IOException
+     *             thrown on malformed bodies
+     */
+    private static byte[] inflate(final byte[] data, final int offset) throws IOException
+    {
+        final Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(data, offset, data.length - offset);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            final byte[] buffer = new byte[512];
+            while (!inflater.finished())
+            {
+                final int len = inflater.inflate(buffer);
+                if (len == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    throw new IOException("Truncated snapshot body"); //$NON-NLS-1$
+                }
+                out.write(buffer, 0, len);
+            }
+            return out.toByteArray();
+        }
+        catch (final DataFormatException e)
+        {
+            throw new IOException("Malformed snapshot body", e); //$NON-NLS-1$
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+    
+    /**
+     * Writes an unsigned variable length int.
+     * 
+     * @param out
+     *            output
+     * @param value
+     *            the value
+     * @throws IOException
+     *             thrown on io errors
+     */
+    private static void writeVarInt(final DataOutputStream out, final int value) throws IOException
+    {
+        int v = value;
+        while ((v & ~0x7F) != 0)
+        {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+    
+    /**
+     * Reads an unsigned variable length int.
+     * 
+     * @param in
+     *            input
+     * @return the value
+     * @throws IOException
+     *             thrown on io errors
+     */
+    private static int readVarInt(final DataInputStream in) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7)
+        {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Malformed var int"); //$NON-NLS-1$
+    }
+    
+    /**
+     * The state of a single arena.
+     */
+    public static final class Entry
+    {
+        
+        /** the minigame (plugin name). */
+        private final String minigame;
+        
+        /** the arena name. */
+        private final String arena;
+        
+        /** the arena state. */
+        private final String state;
+        
+        /** the player count. */
+        private final int    players;
+        
+        /** the max player count. */
+        private final int    maxPlayers;
+        
+        /**
+         * Constructor.
+         * 
+         * @param minigame
+         *            the minigame (plugin name)
+         * @param arena
+         *            the arena name
+         * @param state
+         *            the arena state
+         * @param players
+         *            the player count
+         * @param maxPlayers
+         *            the max player count
+         */
+        public Entry(final String minigame, final String arena, final String state, final int players, final int maxPlayers)
+        {
+            this.minigame = minigame;
+            this.arena = arena;
+            this.state = state;
+            this.players = players;
+            this.maxPlayers = maxPlayers;
+        }
+        
+        /**
+         * @return the minigame (plugin name)
+         */
+        public String getMinigame()
+        {
+            return this.minigame;
+        }
+        
+        /**
+         * @return the arena name
+         */
+        public String getArena()
+        {
+            return this.arena;
+        }
+        
+        /**
+         * @return the arena state
+         */
+        public String getState()
+        {
+            return this.state;
+        }
+        
+        /**
+         * @return the player count
+         */
+        public int getPlayers()
+        {
+            return this.players;
+        }
+        
+        /**
+         * @return the max player count
+         */
+        public int getMaxPlayers()
+        {
+            return this.maxPlayers;
+        }
+        
+        /**
+         * @return the key identifying the arena within a server
+         */
+        String getKey()
+        {
+            return key(this.minigame, this.arena);
+        }
+        
+        /**
+         * Checks if given entry shows the same values.
+         * 
+         * @param other
+         *            other entry
+         * @return {@code true} if state and counts are equal
+         */
+        boolean sameValues(final Entry other)
+        {
+            return other != null && this.players == other.players && this.maxPlayers == other.maxPlayers && this.state.equals(other.state);
+        }
+        
+        @Override
+        public String toString()
+        {
+            return this.minigame + ":" + this.arena + ":" + this.state + ":" + this.players + ":" + this.maxPlayers; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        }
+        
+    }
+    
+    /**
+     * Returns the key identifying an arena within a server.
+     * 
+     * @param minigame
+     *            the minigame (plugin name)
+     * @param arena
+     *            the arena name
+     * @return key
+     */
+    static String key(final String minigame, final String arena)
+    {
+        return minigame + ":" + arena; //$NON-NLS-1$
+    }
+    
+    /**
+     * Publisher side delta encoder; remembers the published values and creates snapshots containing the changed arenas only.
+     */
+    public static final class Delta
+    {
+        
+        /** the epoch of this server. */
+        private final long               epoch;
+        
+        /** the published values. */
+        private final Map<String, Entry> published = new HashMap<>();
+        
+        /** the pending values. */
+        private final Map<String, Entry> pending   = new LinkedHashMap<>();
+        
+        /** the last sequence number. */
+        private int                      sequence;
+        
+        /** {@code true} if the next snapshot must be a full snapshot. */
+        private boolean                  fullRequested;
+        
+        /** {@code true} if the next snapshot must be sent even if nothing changed. */
+        private boolean                  heartbeat;
+        
+        /**
+         * Constructor.
+         * 
+         * @param epoch
+         *            the epoch of this server; must change on every restart
+         */
+        public Delta(final long epoch)
+        {
+            this.epoch = epoch;
+        }
+        
+        /**
+         * Records the current values of an arena.
+         * 
+         * @param entry
+         *            arena values
+         */
+        public void update(final Entry entry)
+        {
+            this.pending.put(entry.getKey(), entry);
+        }
+        
+        /**
+         * Requests the next snapshot to be a full snapshot, f.e. after a new lobby server subscribed.
+         */
+        public void requestFull()
+        {
+            this.fullRequested = true;
+        }
+        
+        /**
+         * Requests the next snapshot to be sent even if nothing changed; tells the lobbies this server is still alive.
+         */
+        public void requestHeartbeat()
+        {
+            this.heartbeat = true;
+        }
+        
+        /**
+         * @return {@code true} if the next snapshot must be a full snapshot
+         */
+        public boolean isFullRequested()
+        {
+            return this.fullRequested;
+        }
+        
+        /**
+         * Creates the next snapshot from the recorded values.
+         * 
+         * <p>
+         * For full snapshots the caller is expected to record every arena before.
+         * </p>
+         * 
+         * @param server
+         *            the name of this server
+         * @return the snapshot or {@code null} if nothing changed and no heartbeat was requested
+         */
+        public SignSnapshot next(final String server)
+        {
+            final boolean full = this.fullRequested;
+            final List<Entry> changed = new ArrayList<>(this.pending.size());
+            for (final Entry entry : this.pending.values())
+            {
+                final Entry old = this.published.put(entry.getKey(), entry);
+                if (!full && !entry.sameValues(old))
+                {
+                    changed.add(entry);
+                }
+            }
+            this.pending.clear();
+            if (full)
+            {
+                changed.addAll(this.published.values());
+            }
+            else if (changed.isEmpty() && !this.heartbeat)
+            {
+                return null;
+            }
+            this.fullRequested = false;
+            this.heartbeat = false;
+            this.sequence++;
+            return new SignSnapshot(server, this.epoch, this.sequence, full, changed);
+        }
+        
+    }
+    
+    /**
+     * Receiver side sequence tracking of a single publishing server.
+     */
+    public static final class Sequence
+    {
+        
+        /** result of {@link Sequence#accept(SignSnapshot)}. */
+        public enum Result
+        {
+            /** the snapshot is to be applied. */
+            APPLY,
+            /** the snapshot is stale or a duplicate and must be ignored. */
+            STALE,
+            /** a delta was lost; the snapshot must be ignored and a full snapshot requested. */
+            RESYNC
+        }
+        
+        /** the known epoch; {@code Long.MIN_VALUE} before the first snapshot. */
+        private long epoch    = Long.MIN_VALUE;
+        
+        /** the last applied sequence number. */
+        private int  sequence = 0;
+        
+        /**
+         * Checks the snapshot against the last applied snapshot.
+         * 
+         * @param snapshot
+         *            received snapshot
+         * @return result
+         */
+        public Result accept(final SignSnapshot snapshot)
+        {
+            if (snapshot.getEpoch() < this.epoch || (snapshot.getEpoch() == this.epoch && snapshot.getSequence() - this.sequence <= 0))
+            {
+                return Result.STALE;
+            }
+            if (!snapshot.isFull() && (snapshot.getEpoch() != this.epoch || snapshot.getSequence() != this.sequence + 1))
+            {
+                return Result.RESYNC;
+            }
+            this.epoch = snapshot.getEpoch();
+            this.sequence = snapshot.getSequence();
+            return Result.APPLY;
+        }
+        
+        /**
+         * @return {@code true} if at least one snapshot was applied
+         */
+        public boolean isKnown()
+        {
+            return this.epoch != Long.MIN_VALUE;
+        }
+        
+    }
+    
+}
@@ -0,0 +1,205 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.logging.Level;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Game server side of the lobby sign snapshot protocol.
+ *
+ * <p>
+ * Lobby servers subscribe once per game server (see {@link LobbySignManager}). As long as a subscription is alive arena changes are only marked dirty; once per second the changed arenas are
+ * published to all servers as a single {@link SignSnapshot}. Without subscribers the legacy per arena sign messages are used.
+ * </p>
+ *
+ * @author mepeisen
+ */
+public final class SignSnapshotPublisher
+{
+    
+    /** subscriptions expire if the lobby does not renew them within this time (millis). */
+    static final long             SUBSCRIPTION_LEASE = 90000L;
+    
+    /** the plugin sending the messages. */
+    private final Plugin          plugin;
+    
+    /** the delta encoder. */
+    private final SignSnapshot.Delta delta           = new SignSnapshot.Delta(System.currentTimeMillis());
+    
+    /** the arenas changed since the last snapshot. */
+    private final Set<Arena>      dirty              = Collections.newSetFromMap(new IdentityHashMap<>());
+    
+    /** the name of this server as known by the lobbies; {@code null} before the first subscription. */
+    private String                serverName;
+    
+    /** the time the last subscription expires. */
+    private long                  subscribedUntil;
+    
+    /**
+     * Constructor.
+     * 
+     * @param plugin
+     *            the plugin sending the messages.
+     */
+    public SignSnapshotPublisher(final Plugin plugin)
+    {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Checks for alive subscriptions.
+     * 
+     * @return {@code true} if at least one lobby subscribed within the lease time.
+     */
+    public boolean hasSubscribers()
+    {
+        return this.serverName != null && System.currentTimeMillis() < this.subscribedUntil;
+    }
+    
+    /**
+     * Marks an arena as changed; it is published with the next snapshot.
+     * 
+     * @param arena
+     *            the changed arena
+     */
+    public void markDirty(final Arena arena)
+    {
+        this.dirty.add(arena);
+    }
+    
+    /**
+     * Handles a subscription message of a lobby server.
+     * 
+     * @param payload
+     *            the message payload
+     * @throws IOException
+     *             thrown on malformed messages
+     */
+    public void onSubscribe(final byte[] payload) throws IOException
+    {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        if (in.readUnsignedByte() != SignSnapshot.PROTOCOL_VERSION)
+        {
+            return;
+        }
+        final String name = in.readUTF();
+        final boolean full = in.readBoolean();
+        if (full || !this.hasSubscribers() || !name.equals(this.serverName))
+        {
+            this.delta.requestFull();
+        }
+        else
+        {
+            this.delta.requestHeartbeat();
+        }
+        this.serverName = name;
+        this.subscribedUntil = System.currentTimeMillis() + SUBSCRIPTION_LEASE;
+    }
+    
+    /**
+     * Creates the payload of a subscription message.
+     * 
+     * @param server
+     *            the name of the game server to subscribe
+     * @param full
+     *            {@code true} to request a full snapshot
+     * @return message payload
+     * @throws IOException
+     *             thrown on encoding errors
+     */
+    static byte[] createSubscription(final String server, final boolean full) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(SignSnapshot.PROTOCOL_VERSION);
+        out.writeUTF(server);
+        out.writeBoolean(full);
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Publishes the changed arenas; invoked once per second.
+     */
+    public void tick()
+    {
+        if (!this.hasSubscribers())
+        {
+            this.dirty.clear();
+            return;
+        }
+        if (this.delta.isFullRequested())
+        {
+            for (final PluginInstance pli : MinigamesAPI.pinstances.values())
+            {
+                for (final Arena arena : pli.getArenas())
+                {
+                    this.delta.update(toEntry(arena));
+                }
+            }
+        }
+        else
+        {
+            for (final Arena arena : this.dirty)
+            {
+                this.delta.update(toEntry(arena));
+            }
+        }
+        this.dirty.clear();
+        
+        final SignSnapshot snapshot = this.delta.next(this.serverName);
+        if (snapshot == null)
+        {
+            return;
+        }
+        try
+        {
+            final byte[] payload = snapshot.encode();
+            if (payload.length > Short.MAX_VALUE)
+            {
+                this.plugin.getLogger().warning("Arena snapshot too big for bungee cord (" + payload.length + " bytes); lobby signs will not be updated."); //$NON-NLS-1$ //$NON-NLS-2$
+                return;
+            }
+            MinigamesAPI.getAPI().getBungeeTransport().send("ALL", ChannelStrings.SUBCHANNEL_MINIGAMESLIB_SNAPSHOT, payload); //$NON-NLS-1$
+        }
+        catch (final Exception e)
+        {
+            this.plugin.getLogger().log(Level.WARNING, "Error occurred while sending arena snapshot: ", e); //$NON-NLS-1$
+        }
+    }
+    
+    /**
+     * Converts the arena to a snapshot entry.
+     * 
+     * @param arena
+     *            the arena
+     * @return snapshot entry
+     */
+    private static SignSnapshot.Entry toEntry(final Arena arena)
+    {
+        return new SignSnapshot.Entry(arena.getPlugin().getName(), arena.getInternalName(), arena.getArenaState().toString(), arena.getAllPlayers().size(), arena.getMaxPlayers());
+    }
+    
+}
@@ -0,0 +1,693 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.material.Attachable;
+
+import com.comze_instancelabs.minigamesapi.util.SmartArenaBlock;
+
+/**
+ * Compact change log of the smart reset.
+ * 
+ * <p>
+ * Changed blocks are grouped per chunk section (16x16x16 blocks). Each entry is packed into a single int holding the position within the section and the original material/data; a
+ * bitset per section answers "already recorded" lookups. Only blocks with tile state (chests, signs, skulls etc.) keep a {@link SmartArenaBlock} snapshot in a side table.
+ * </p>
+ * 
+ * <p>
+ * The first recorded state of a block wins; later changes of the same block are ignored.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class SmartBlockLog
+{
+    
+    /** the materials by ordinal. */
+    private static final Material[]              MATERIALS     = Material.values();
+    
+    /** maximum material ordinal that can be packed; other materials are stored in the side table. */
+    private static final int                     MAX_PACKED    = 0xFFF;
+    
+    /** materials attached to a neighbour block by ordinal; see {@link #isAttached(Material)}. */
+    private static final boolean[]               ATTACHED      = new boolean[MATERIALS.length];
+    
+    static
+    {
+        for (final Material m : MATERIALS)
+        {
+            ATTACHED[m.ordinal()] = isAttached(m);
+        }
+    }
+    
+    /** comparator for section order within a pass: chunk by chunk, bottom sections first. */
+    private static final Comparator<Section>     RESET_ORDER   = Comparator.<Section, String> comparing(s -> s.world).thenComparingInt(s -> s.chunkX).thenComparingInt(s -> s.chunkZ)
+            .thenComparingInt(s -> s.sectionY);
+    
+    /** the sections; world name to section key to section. */
+    private final Map<String, Map<Long, Section>> worlds        = new HashMap<>();
+    
+    /** the section of the last lookup; changes tend to be close to each other. */
+    private Section                              last;
+    
+    /** number of recorded blocks. */
+    private int                                  size;
+    
+    /** number of tile state snapshots. */
+    private int                                  tiles;
+    
+    /**
+     * Checks if given block was already recorded.
+     * 
+     * @param world
+     *            world name
+     * @param x
+     *            block x coordinate
+     * @param y
+     *            block y coordinate
+     * @param z
+     *            block z coordinate
+     * @return {@code true} if the block is known
+     */
+    public boolean contains(final String world, final int x, final int y, final int z)
+    {
+        final Section section = this.getSection(world, x, y, z, false);
+        return section != null && section.contains(pos(x, y, z));
+    }
+    
+    /**
+     * Checks if given location was already recorded.
+     * 
+     * @param l
+     *            location
+     * @return {@code true} if the block is known
+     */
+    public boolean contains(final Location l)
+    {
+        return this.contains(l.getWorld().getName(), l.getBlockX(), l.getBlockY(), l.getBlockZ());
+    }
+    
+    /**
+     * Records the original state of a block unless the block was already recorded.
+     * 
+     * @param world
+     *            world name
+     * @param x
+     *            block x coordinate
+     * @param y
+     *            block y coordinate
+     * @param z
+     *            block z coordinate
+     * @param m
+     *            original material
+     * @param data
+     *            original data value
+     * @param tile
+     *            tile state snapshot or {@code null} for plain blocks
+     * @return {@code true} if the block was added, {@code false} if it already was recorded
+     */
+    public boolean add(final String world, final int x, final int y, final int z, final Material m, final byte data, final SmartArenaBlock tile)
+    {
+        final Section section = this.getSection(world, x, y, z, true);
+        final int pos = pos(x, y, z);
+        if (section.contains(pos))
+        {
+            return false;
+        }
+        SmartArenaBlock snapshot = tile;
+        if (snapshot == null && m.ordinal() > MAX_PACKED)
+        {
+            final World w = Bukkit.getWorld(world);
+            snapshot = new SmartArenaBlock(new Location(w, x, y, z), m, data);
+        }
+        section.add(pos, snapshot == null ? (m.ordinal() << 4) | (data & 0xF) : 0);
+        if (snapshot != null)
+        {
+            section.putTile(pos, snapshot);
+            this.tiles++;
+        }
+        this.size++;
+        return true;
+    }
+    
+    /**
+     * Returns the number of recorded blocks.
+     * 
+     * @return number of blocks
+     */
+    public int size()
+    {
+        return this.size;
+    }
+    
+    /**
+     * Returns the number of tile state snapshots.
+     * 
+     * @return number of snapshots
+     */
+    public int getTileCount()
+    {
+        return this.tiles;
+    }
+    
+    /**
+     * Checks if the log is empty.
+     * 
+     * @return {@code true} if no block was recorded
+     */
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+    
+    /**
+     * Removes all recorded blocks.
+     */
+    public void clear()
+    {
+        this.worlds.clear();
+        this.last = null;
+        this.size = 0;
+        this.tiles = 0;
+    }
+    
+    /**
+     * Returns a cursor over the recorded blocks in reset order.
+     * 
+     * <p>
+     * The blocks are visited in two passes. The first pass restores all blocks but the ones attached to a neighbour block (wall signs, torches, ladders etc.). Sections are visited chunk by
+     * chunk so that each chunk is touched in one go; within a chunk the sections are visited bottom-up and the blocks of each section are sorted by y coordinate so that supporting blocks are
+     * restored before the blocks resting on them. The second pass restores the attached blocks in the same order; their supporting block is in place by then, even if it lies in a
+     * neighbouring chunk.
+     * </p>
+     * 
+     * @return cursor
+     */
+    public Cursor cursor()
+    {
+        final List<Section> sections = new ArrayList<>();
+        for (final Map<Long, Section> map : this.worlds.values())
+        {
+            sections.addAll(map.values());
+        }
+        sections.sort(RESET_ORDER);
+        return new Cursor(sections.toArray(new Section[sections.size()]));
+    }
+    
+    /**
+     * Returns the section for given block.
+     * 
+     * @param world
+     * @param x
+     * @param y
+     * @param z
+     * @param create
+     *            {@code true} to create missing sections
+     * @return section or {@code null} if the section does not exist and create is {@code false}
+     */
+    private Section getSection(final String world, final int x, final int y, final int z, final boolean create)
+    {
+        final int chunkX = x >> 4;
+        final int sectionY = y >> 4;
+        final int chunkZ = z >> 4;
+        final Section cached = this.last;
+        if (cached != null && cached.chunkX == chunkX && cached.sectionY == sectionY && cached.chunkZ == chunkZ && cached.world.equals(world))
+        {
+            return cached;
+        }
+        Map<Long, Section> sections = this.worlds.get(world);
+        if (sections == null)
+        {
+            if (!create)
+            {
+                return null;
+            }
+            sections = new HashMap<>();
+            this.worlds.put(world, sections);
+        }
+        final Long key = sectionKey(chunkX, sectionY, chunkZ);
+        Section section = sections.get(key);
+        if (section == null)
+        {
+            if (!create)
+            {
+                return null;
+            }
+            section = new Section(world, chunkX, sectionY, chunkZ);
+            sections.put(key, section);
+        }
+        this.last = section;
+        return section;
+    }
+    
+    /**
+     * Checks if blocks of given material are attached to a neighbour block and break if that block is missing.
+     * 
+     * @param m
+     *            material
+     * @return {@code true} for signs, torches, ladders, levers, buttons, vines etc.
+     */
+    static boolean isAttached(final Material m)
+    {
+        final Class<?> data = m.getData();
+        return m == Material.VINE || (data != null && Attachable.class.isAssignableFrom(data));
+    }
+    
+    /**
+     * Packs the position within a section; ordered by y, z and x.
+     * 
+     * @param x
+     * @param y
+     * @param z
+     * @return position (0 to 4095)
+     */
+    static int pos(final int x, final int y, final int z)
+    {
+        return ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+    }
+    
+    /**
+     * Packs section coordinates into a single key.
+     * 
+     * @param chunkX
+     * @param sectionY
+     * @param chunkZ
+     * @return section key
+     */
+    static long sectionKey(final int chunkX, final int sectionY, final int chunkZ)
+    {
+        return ((chunkX & 0x3FFFFFFL) << 38) | ((chunkZ & 0x3FFFFFFL) << 12) | (sectionY & 0xFFFL);
+    }
+    
+    /**
+     * Changed blocks of a single chunk section.
+     */
+    private static final class Section
+    {
+        
+        /** world name. */
+        final String                        world;
+        
+        /** chunk x coordinate. */
+        final int                           chunkX;
+        
+        /** section y coordinate. */
+        final int                           sectionY;
+        
+        /** chunk z coordinate. */
+        final int                           chunkZ;
+        
+        /** bitset of recorded positions. */
+        final long[]                        present = new long[64];
+        
+        /** entries; position in upper 16 bits, material ordinal and data in lower 16 bits. */
+        int[]                               entries = new int[8];
+        
+        /** number of entries. */
+        int                                 size;
+        
+        /** {@code true} if entries are in reset order; see {@link #order()}. */
+        boolean                             ordered = true;
+        
+        /** number of entries restored in the first pass; the attached blocks follow. */
+        int                                 solid;
+        
+        /** tile state snapshots by position; {@code null} if there are none. */
+        Map<Integer, SmartArenaBlock>       tiles;
+        
+        /**
+         * Constructor.
+         * 
+         * @param world
+         * @param chunkX
+         * @param sectionY
+         * @param chunkZ
+         */
+        Section(final String world, final int chunkX, final int sectionY, final int chunkZ)
+        {
+            this.world = world;
+            this.chunkX = chunkX;
+            this.sectionY = sectionY;
+            this.chunkZ = chunkZ;
+        }
+        
+        /**
+         * Checks if position is recorded.
+         * 
+         * @param pos
+         * @return {@code true} if position is recorded
+         */
+        boolean contains(final int pos)
+        {
+            return (this.present[pos >> 6] & (1L << pos)) != 0;
+        }
+        
+        /**
+         * Adds an entry.
+         * 
+         * @param pos
+         * @param state
+         *            material ordinal and data
+         */
+        void add(final int pos, final int state)
+        {
+            this.present[pos >> 6] |= 1L << pos;
+            if (this.size == this.entries.length)
+            {
+                this.entries = Arrays.copyOf(this.entries, this.size * 2);
+            }
+            this.entries[this.size++] = (pos << 16) | state;
+            this.ordered = false;
+        }
+        
+        /**
+         * Stores a tile state snapshot.
+         * 
+         * @param pos
+         * @param tile
+         */
+        void putTile(final int pos, final SmartArenaBlock tile)
+        {
+            if (this.tiles == null)
+            {
+                this.tiles = new HashMap<>(4);
+            }
+            this.tiles.put(pos, tile);
+        }
+        
+        /**
+         * Puts the entries in reset order: the blocks of the first pass by position followed by the attached blocks by position.
+         */
+        void order()
+        {
+            if (this.ordered)
+            {
+                return;
+            }
+            Arrays.sort(this.entries, 0, this.size);
+            int[] attached = null;
+            int count = 0;
+            int first = 0;
+            for (int i = 0; i < this.size; i++)
+            {
+                final int entry = this.entries[i];
+                if (ATTACHED[this.getMaterial(entry).ordinal()])
+                {
+                    if (attached == null)
+                    {
+                        attached = new int[this.size - i];
+                    }
+                    attached[count++] = entry;
+                }
+                else
+                {
+                    this.entries[first++] = entry;
+                }
+            }
+            if (attached != null)
+            {
+                System.arraycopy(attached, 0, this.entries, first, count);
+            }
+            this.solid = first;
+            this.ordered = true;
+        }
+        
+        /**
+         * Returns the original material of an entry.
+         * 
+         * @param entry
+         * @return material
+         */
+        Material getMaterial(final int entry)
+        {
+            final SmartArenaBlock tile = this.tiles == null ? null : this.tiles.get(entry >>> 16);
+            return tile != null ? tile.getMaterial() : MATERIALS[(entry & 0xFFFF) >>> 4];
+        }
+        
+    }
+    
+    /**
+     * Cursor over the recorded blocks.
+     */
+    public static final class Cursor
+    {
+        
+        /** the sections in reset order. */
+        private final Section[] sections;
+        
+        /** current section index. */
+        private int             sectionIndex = -1;
+        
+        /** current section. */
+        private Section         section;
+        
+        /** world of the current section; resolved on first access. */
+        private World           world;
+        
+        /** {@code true} if {@link #world} was resolved for current section. */
+        private boolean         worldResolved;
+        
+        /** current entry index. */
+        private int             index;
+        
+        /** end of the entries of current section within the current pass. */
+        private int             end;
+        
+        /** {@code true} while visiting the attached blocks. */
+        private boolean         attachedPass;
+        
+        /** current entry. */
+        private int             entry;
+        
+        /**
+         * Constructor.
+         * 
+         * @param sections
+         */
+        Cursor(final Section[] sections)
+        {
+            this.sections = sections;
+        }
+        
+        /**
+         * Moves to next block.
+         * 
+         * @return {@code true} if there is a current block, {@code false} if all blocks were visited
+         */
+        public boolean next()
+        {
+            if (this.section != null && ++this.index < this.end)
+            {
+                this.entry = this.section.entries[this.index];
+                return true;
+            }
+            while (true)
+            {
+                while (++this.sectionIndex < this.sections.length)
+                {
+                    final Section next = this.sections[this.sectionIndex];
+                    next.order();
+                    final int start = this.attachedPass ? next.solid : 0;
+                    final int stop = this.attachedPass ? next.size : next.solid;
+                    if (start < stop)
+                    {
+                        if (this.section == null || !this.section.world.equals(next.world))
+                        {
+                            this.worldResolved = false;
+                        }
+                        this.section = next;
+                        this.index = start;
+                        this.end = stop;
+                        this.entry = next.entries[start];
+                        return true;
+                    }
+                }
+                if (this.attachedPass)
+                {
+                    this.section = null;
+                    return false;
+                }
+                this.attachedPass = true;
+                this.sectionIndex = -1;
+            }
+        }
+        
+        /**
+         * Checks if there are more blocks after the current one.
+         * 
+         * @return {@code true} if {@link #next()} will return {@code true}
+         */
+        public boolean hasNext()
+        {
+            if (this.section != null && this.index + 1 < this.end)
+            {
+                return true;
+            }
+            if (this.attachedPass)
+            {
+                // all sections were ordered within the first pass
+                for (int i = this.sectionIndex + 1; i < this.sections.length; i++)
+                {
+                    if (this.sections[i].solid < this.sections[i].size)
+                    {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            for (int i = 0; i < this.sections.length; i++)
+            {
+                final Section s = this.sections[i];
+                // visited sections only have attached blocks left; the others were not ordered yet
+                if (i <= this.sectionIndex ? s.solid < s.size : s.size > 0)
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        /**
+         * Returns the world name of current block.
+         * 
+         * @return world name
+         */
+        public String getWorldName()
+        {
+            return this.section.world;
+        }
+        
+        /**
+         * Returns the x coordinate of current block.
+         * 
+         * @return x coordinate
+         */
+        public int getX()
+        {
+            return (this.section.chunkX << 4) | ((this.entry >>> 16) & 0xF);
+        }
+        
+        /**
+         * Returns the y coordinate of current block.
+         * 
+         * @return y coordinate
+         */
+        public int getY()
+        {
+            return (this.section.sectionY << 4) | ((this.entry >>> 24) & 0xF);
+        }
+        
+        /**
+         * Returns the z coordinate of current block.
+         * 
+         * @return z coordinate
+         */
+        public int getZ()
+        {
+            return (this.section.chunkZ << 4) | ((this.entry >>> 20) & 0xF);
+        }
+        
+        /**
+         * Returns the current block.
+         * 
+         * @return block or {@code null} if the world is not loaded
+         */
+        public Block getBlock()
+        {
+            final World w = this.getWorld();
+            return w == null ? null : w.getBlockAt(this.getX(), this.getY(), this.getZ());
+        }
+        
+        /**
+         * Returns the world of current block.
+         * 
+         * @return world or {@code null} if the world is not loaded
+         */
+        private World getWorld()
+        {
+            if (!this.worldResolved)
+            {
+                this.world = Bukkit.getWorld(this.section.world);
+                this.worldResolved = true;
+            }
+            return this.world;
+        }
+        
+        /**
+         * Returns the tile state snapshot of current block.
+         * 
+         * @return snapshot or {@code null} for plain blocks
+         */
+        public SmartArenaBlock getTile()
+        {
+            return this.section.tiles == null ? null : this.section.tiles.get(this.entry >>> 16);
+        }
+        
+        /**
+         * Returns the original material of current block.
+         * 
+         * @return material
+         */
+        public Material getMaterial()
+        {
+            return this.section.getMaterial(this.entry);
+        }
+        
+        /**
+         * Returns the original data value of current block.
+         * 
+         * @return data value
+         */
+        public byte getData()
+        {
+            final SmartArenaBlock tile = this.getTile();
+            return tile != null ? tile.getData().byteValue() : (byte) (this.entry & 0xF);
+        }
+        
+        /**
+         * Returns the current block as smart arena block.
+         * 
+         * @return the tile state snapshot or a new smart arena block for plain blocks; {@code null} if the world is not loaded
+         */
+        public SmartArenaBlock toSmartArenaBlock()
+        {
+            final SmartArenaBlock tile = this.getTile();
+            if (tile != null)
+            {
+                return tile;
+            }
+            final World w = this.getWorld();
+            if (w == null)
+            {
+                return null;
+            }
+            return new SmartArenaBlock(new Location(w, this.getX(), this.getY(), this.getZ()), this.getMaterial(), this.getData());
+        }
+        
+    }
+    
+}
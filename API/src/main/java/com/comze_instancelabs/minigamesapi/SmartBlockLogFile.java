@@ -0,0 +1,726 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import org.bukkit.Material;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+import com.comze_instancelabs.minigamesapi.util.SmartArenaBlock;
+
+/**
+ * Binary file format of the smart reset change log.
+ * 
+ * <p>
+ * The file starts with a header (magic and version) followed by any number of segments. Each segment carries its length and a CRC32 checksum, so new segments can be appended to an
+ * existing file and a half-written segment at the end is detected and skipped while all segments before it are still restored.
+ * </p>
+ * 
+ * <p>
+ * A segment payload starts with a palette of material names followed by chunk section records. Plain blocks are encoded with four bytes each: the position within the section and the
+ * data value in one short and the palette index in another short. Blocks with tile state (chests, signs etc.) are stored as serialized {@link SmartArenaBlock}.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class SmartBlockLogFile
+{
+    
+    /** file magic ("MGSR"). */
+    static final int            MAGIC          = 0x4D475352;
+    
+    /** segment magic ("SEGM"). */
+    static final int            SEGMENT_MAGIC  = 0x5345474D;
+    
+    /** current format version. */
+    static final int            VERSION        = 1;
+    
+    /** payload size at which a segment is written. */
+    private static final int    SEGMENT_SIZE   = 64 * 1024;
+    
+    /** maximum payload size accepted while reading. */
+    private static final int    MAX_SEGMENT    = 64 * 1024 * 1024;
+    
+    /** segment header size: magic, length, checksum. */
+    private static final int    SEGMENT_HEADER = 12;
+    
+    /** number of blocks read from legacy files per {@link Reader#next(SmartBlockLog)}. */
+    static final int            LEGACY_BATCH   = 1024;
+    
+    /**
+     * Hidden constructor.
+     */
+    private SmartBlockLogFile()
+    {
+        // empty
+    }
+    
+    /**
+     * Appends the blocks of given log to a file; the file is created if it does not exist.
+     * 
+     * @param file
+     *            target file
+     * @param log
+     *            the change log
+     * @return number of written blocks
+     * @throws IOException
+     *             thrown on io errors
+     */
+    public static int write(final File file, final SmartBlockLog log) throws IOException
+    {
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND))
+        {
+            if (channel.size() == 0)
+            {
+                final ByteBuffer header = ByteBuffer.allocate(8);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                writeFully(channel, header);
+            }
+            final SegmentWriter segment = new SegmentWriter();
+            final SmartBlockLog.Cursor it = log.cursor();
+            int count = 0;
+            while (it.next())
+            {
+                segment.add(it);
+                count++;
+                if (segment.size() >= SEGMENT_SIZE)
+                {
+                    segment.writeTo(channel);
+                }
+            }
+            segment.writeTo(channel);
+            channel.force(true);
+            return count;
+        }
+    }
+    
+    /**
+     * Reads a file into given log; blocks already present in the log are kept (first write wins).
+     * 
+     * <p>
+     * Segments are read one at a time. Reading stops at the first truncated or corrupted segment; the blocks of all segments before are kept.
+     * </p>
+     * 
+     * @param file
+     *            source file
+     * @param log
+     *            the change log
+     * @param logger
+     *            logger for reporting damaged files
+     * @return number of blocks added to the log
+     * @throws IOException
+     *             thrown if the file cannot be read or is not a smart reset file
+     */
+    public static int read(final File file, final SmartBlockLog log, final Logger logger) throws IOException
+    {
+        try (final Reader reader = open(file, logger))
+        {
+            while (reader.next(log))
+            {
+                // read all segments
+            }
+            return reader.getCount();
+        }
+    }
+    
+    /**
+     * Reads a legacy smart reset file (serialized {@link SmartArenaBlock} objects) into given log.
+     * 
+     * @param file
+     *            source file
+     * @param log
+     *            the change log
+     * @param logger
+     *            logger for reporting damaged files
+     * @return number of blocks read
+     * @throws IOException
+     *             thrown if the file cannot be opened
+     */
+    public static int readLegacy(final File file, final SmartBlockLog log, final Logger logger) throws IOException
+    {
+        try (final Reader reader = openLegacy(file, logger))
+        {
+            while (reader.next(log))
+            {
+                // read all objects
+            }
+            return reader.getCount();
+        }
+    }
+    
+    /**
+     * Opens a file for reading segment by segment; see {@link Reader#next(SmartBlockLog)}.
+     * 
+     * @param file
+     *            source file
+     * @param logger
+     *            logger for reporting damaged files
+     * @return reader; must be closed by the caller
+     * @throws IOException
+     *             thrown if the file cannot be read or is not a smart reset file
+     */
+    public static Reader open(final File file, final Logger logger) throws IOException
+    {
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try
+        {
+            final ByteBuffer header = ByteBuffer.allocate(8);
+            if (!readFully(channel, header) || header.getInt(0) != MAGIC)
+            {
+                throw new IOException("Not a smart reset file: " + file); //$NON-NLS-1$
+            }
+            final int version = header.getInt(4);
+            if (version != VERSION)
+            {
+                throw new IOException("Unsupported smart reset file version " + version + ": " + file); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            return new Reader(file, logger, channel, null);
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Opens a legacy smart reset file (serialized {@link SmartArenaBlock} objects) for reading in batches; see {@link Reader#next(SmartBlockLog)}.
+     * 
+     * @param file
+     *            source file
+     * @param logger
+     *            logger for reporting damaged files
+     * @return reader; must be closed by the caller
+     * @throws IOException
+     *             thrown if the file cannot be opened
+     */
+    public static Reader openLegacy(final File file, final Logger logger) throws IOException
+    {
+        final InputStream fis = new FileInputStream(file);
+        try
+        {
+            return new Reader(file, logger, null, new BukkitObjectInputStream(fis));
+        }
+        catch (final IOException e)
+        {
+            fis.close();
+            logger.log(Level.WARNING, "Something is wrong with your SmartReset file " + file + " and the reset might not be successful.", e); //$NON-NLS-1$ //$NON-NLS-2$
+            return new Reader(file, logger, null, null);
+        }
+    }
+    
+    /**
+     * Reads the payload of a segment.
+     * 
+     * @param in
+     *            payload
+     * @param log
+     *            target log
+     * @param logger
+     *            logger for reporting damaged entries
+     * @return number of blocks read
+     * @throws IOException
+     *             thrown if the payload is malformed
+     */
+    private static int readSegment(final DataInputStream in, final SmartBlockLog log, final Logger logger) throws IOException
+    {
+        final int paletteSize = in.readUnsignedShort();
+        final Material[] palette = new Material[paletteSize];
+        for (int i = 0; i < paletteSize; i++)
+        {
+            final String name = in.readUTF();
+            palette[i] = Material.getMaterial(name);
+            if (palette[i] == null)
+            {
+                logger.warning("Unknown material " + name + " in smart reset file."); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+        int count = 0;
+        while (in.available() > 0)
+        {
+            final String world = in.readUTF();
+            final int baseX = in.readInt() << 4;
+            final int baseY = in.readInt() << 4;
+            final int baseZ = in.readInt() << 4;
+            final int plain = in.readInt();
+            for (int i = 0; i < plain; i++)
+            {
+                final int posData = in.readUnsignedShort();
+                final Material m = palette[in.readUnsignedShort()];
+                final int pos = posData & 0xFFF;
+                if (m != null && log.add(world, baseX | (pos & 0xF), baseY | (pos >> 8), baseZ | ((pos >> 4) & 0xF), m, (byte) (posData >>> 12), null))
+                {
+                    count++;
+                }
+            }
+            final int tiles = in.readInt();
+            for (int i = 0; i < tiles; i++)
+            {
+                final int pos = in.readUnsignedShort();
+                final byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (final ObjectInputStream ois = new BukkitObjectInputStream(new ByteArrayInputStream(bytes)))
+                {
+                    final SmartArenaBlock tile = (SmartArenaBlock) ois.readObject();
+                    if (log.add(world, baseX | (pos & 0xF), baseY | (pos >> 8), baseZ | ((pos >> 4) & 0xF), tile.getMaterial(), tile.getData().byteValue(), tile))
+                    {
+                        count++;
+                    }
+                }
+                catch (final IOException | ClassNotFoundException | ClassCastException e)
+                {
+                    logger.log(Level.WARNING, "Failed reading tile state from smart reset file.", e); //$NON-NLS-1$
+                }
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Writes the buffer to channel.
+     * 
+     * @param channel
+     * @param buffer
+     * @throws IOException
+     */
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+    }
+    
+    /**
+     * Reads from channel until the buffer is full.
+     * 
+     * @param channel
+     * @param buffer
+     * @return {@code true} if the buffer was filled; {@code false} if the end of file was reached before
+     * @throws IOException
+     */
+    private static boolean readFully(final FileChannel channel, final ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer) < 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Reads a smart reset file one segment at a time, so the restore of large files can be spread over several ticks.
+     * 
+     * <p>
+     * Legacy files have no segments; they are read in batches of {@value SmartBlockLogFile#LEGACY_BATCH} blocks instead.
+     * </p>
+     */
+    public static final class Reader implements Closeable
+    {
+        
+        /** the source file. */
+        private final File              file;
+        
+        /** logger for reporting damaged files. */
+        private final Logger            logger;
+        
+        /** the file channel; {@code null} for legacy files. */
+        private final FileChannel       channel;
+        
+        /** the object stream of legacy files; {@code null} for current files. */
+        private final ObjectInputStream legacy;
+        
+        /** segment header buffer. */
+        private final ByteBuffer        header = ByteBuffer.allocate(SEGMENT_HEADER);
+        
+        /** checksum of the current segment. */
+        private final CRC32             crc    = new CRC32();
+        
+        /** segment payload buffer. */
+        private ByteBuffer              payload;
+        
+        /** number of blocks added to the log. */
+        private int                     count;
+        
+        /** {@code true} after the end of file or the first damaged segment was reached. */
+        private boolean                 done;
+        
+        /**
+         * Constructor.
+         * 
+         * @param file
+         *            the source file
+         * @param logger
+         *            logger for reporting damaged files
+         * @param channel
+         *            the file channel; {@code null} for legacy files
+         * @param legacy
+         *            the object stream of legacy files; {@code null} for current files
+         */
+        Reader(final File file, final Logger logger, final FileChannel channel, final ObjectInputStream legacy)
+        {
+            this.file = file;
+            this.logger = logger;
+            this.channel = channel;
+            this.legacy = legacy;
+            this.done = channel == null && legacy == null;
+        }
+        
+        /**
+         * Reads the next segment into given log; blocks already present in the log are kept (first write wins).
+         * 
+         * <p>
+         * Reading stops at the first truncated or corrupted segment; the blocks of all segments before are kept.
+         * </p>
+         * 
+         * @param log
+         *            the change log
+         * @return {@code true} if there might be more segments; {@code false} if the file was read completely
+         * @throws IOException
+         *             thrown if the file cannot be read
+         */
+        public boolean next(final SmartBlockLog log) throws IOException
+        {
+            if (this.done)
+            {
+                return false;
+            }
+            if (this.legacy != null)
+            {
+                this.nextLegacy(log);
+            }
+            else
+            {
+                this.nextSegment(log);
+            }
+            return !this.done;
+        }
+        
+        /**
+         * Returns the source file.
+         * 
+         * @return source file
+         */
+        public File getFile()
+        {
+            return this.file;
+        }
+        
+        /**
+         * Returns the number of blocks added to the log so far.
+         * 
+         * @return number of blocks
+         */
+        public int getCount()
+        {
+            return this.count;
+        }
+        
+        @Override
+        public void close() throws IOException
+        {
+            this.done = true;
+            if (this.channel != null)
+            {
+                this.channel.close();
+            }
+            if (this.legacy != null)
+            {
+                this.legacy.close();
+            }
+        }
+        
+        /**
+         * Reads the next segment of a current file.
+         * 
+         * @param log
+         *            the change log
+         * @throws IOException
+         *             thrown if the file cannot be read
+         */
+        private void nextSegment(final SmartBlockLog log) throws IOException
+        {
+            this.header.clear();
+            if (!readFully(this.channel, this.header))
+            {
+                if (this.header.position() > 0)
+                {
+                    this.logger.warning("Truncated segment at end of smart reset file " + this.file + "; the reset might not be complete."); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                this.done = true;
+                return;
+            }
+            final int magic = this.header.getInt(0);
+            final int length = this.header.getInt(4);
+            final int checksum = this.header.getInt(8);
+            if (magic != SEGMENT_MAGIC || length < 0 || length > MAX_SEGMENT)
+            {
+                this.logger.warning("Corrupted segment in smart reset file " + this.file + "; the reset might not be complete."); //$NON-NLS-1$ //$NON-NLS-2$
+                this.done = true;
+                return;
+            }
+            if (this.payload == null || this.payload.capacity() < length)
+            {
+                this.payload = ByteBuffer.allocate(Math.max(length, SEGMENT_SIZE * 2));
+            }
+            this.payload.clear();
+            this.payload.limit(length);
+            if (!readFully(this.channel, this.payload))
+            {
+                this.logger.warning("Truncated segment at end of smart reset file " + this.file + "; the reset might not be complete."); //$NON-NLS-1$ //$NON-NLS-2$
+                this.done = true;
+                return;
+            }
+            this.crc.reset();
+            this.crc.update(this.payload.array(), 0, length);
+            if ((int) this.crc.getValue() != checksum)
+            {
+                this.logger.warning("Checksum mismatch in smart reset file " + this.file + "; the reset might not be complete."); //$NON-NLS-1$ //$NON-NLS-2$
+                this.done = true;
+                return;
+            }
+            this.count += readSegment(new DataInputStream(new ByteArrayInputStream(this.payload.array(), 0, length)), log, this.logger);
+        }
+        
+        /**
+         * Reads the next batch of blocks of a legacy file.
+         * 
+         * @param log
+         *            the change log
+         */
+        private void nextLegacy(final SmartBlockLog log)
+        {
+            try
+            {
+                for (int i = 0; i < LEGACY_BATCH; i++)
+                {
+                    final SmartArenaBlock ablock = (SmartArenaBlock) this.legacy.readObject();
+                    final Material m = ablock.getMaterial();
+                    if (log.add(ablock.getWorldName(), ablock.getX(), ablock.getY(), ablock.getZ(), m, ablock.getData().byteValue(), SmartReset.hasTileState(m) ? ablock : null))
+                    {
+                        this.count++;
+                    }
+                }
+            }
+            catch (final EOFException e)
+            {
+                // end of file reached
+                this.done = true;
+            }
+            catch (final IOException | ClassNotFoundException | ClassCastException e)
+            {
+                this.logger.log(Level.WARNING, "Something is wrong with your SmartReset file " + this.file + " and the reset might not be successful.", e); //$NON-NLS-1$ //$NON-NLS-2$
+                this.done = true;
+            }
+        }
+        
+    }
+    
+    /**
+     * Collects the blocks of a single segment.
+     */
+    private static final class SegmentWriter
+    {
+        
+        /** material palette indices. */
+        private final Map<Material, Integer> palette     = new HashMap<>();
+        
+        /** material palette. */
+        private final List<Material>         materials   = new ArrayList<>();
+        
+        /** finished section records. */
+        private final ByteArrayOutputStream  body        = new ByteArrayOutputStream(SEGMENT_SIZE + 4096);
+        
+        /** plain blocks of current section. */
+        private final ByteArrayOutputStream  plainBytes  = new ByteArrayOutputStream();
+        
+        /** plain blocks of current section. */
+        private final DataOutputStream       plain       = new DataOutputStream(this.plainBytes);
+        
+        /** tile states of current section. */
+        private final ByteArrayOutputStream  tileBytes   = new ByteArrayOutputStream();
+        
+        /** tile states of current section. */
+        private final DataOutputStream       tiles       = new DataOutputStream(this.tileBytes);
+        
+        /** number of plain blocks in current section. */
+        private int                          plainCount;
+        
+        /** number of tile states in current section. */
+        private int                          tileCount;
+        
+        /** world of current section; {@code null} if there is no current section. */
+        private String                       world;
+        
+        /** chunk x of current section. */
+        private int                          chunkX;
+        
+        /** section y of current section. */
+        private int                          sectionY;
+        
+        /** chunk z of current section. */
+        private int                          chunkZ;
+        
+        /**
+         * Returns the approximate payload size.
+         * 
+         * @return payload size
+         */
+        int size()
+        {
+            return this.body.size() + this.plainBytes.size() + this.tileBytes.size();
+        }
+        
+        /**
+         * Adds the current block of given cursor.
+         * 
+         * @param it
+         * @throws IOException
+         */
+        void add(final SmartBlockLog.Cursor it) throws IOException
+        {
+            final int x = it.getX();
+            final int y = it.getY();
+            final int z = it.getZ();
+            if (this.world == null || (x >> 4) != this.chunkX || (y >> 4) != this.sectionY || (z >> 4) != this.chunkZ || !this.world.equals(it.getWorldName()))
+            {
+                this.finishSection();
+                this.world = it.getWorldName();
+                this.chunkX = x >> 4;
+                this.sectionY = y >> 4;
+                this.chunkZ = z >> 4;
+            }
+            final int pos = SmartBlockLog.pos(x, y, z);
+            final SmartArenaBlock tile = it.getTile();
+            if (tile == null)
+            {
+                final Material m = it.getMaterial();
+                Integer index = this.palette.get(m);
+                if (index == null)
+                {
+                    index = this.materials.size();
+                    this.palette.put(m, index);
+                    this.materials.add(m);
+                }
+                this.plain.writeShort(pos | ((it.getData() & 0xF) << 12));
+                this.plain.writeShort(index);
+                this.plainCount++;
+            }
+            else
+            {
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (final ObjectOutputStream oos = new BukkitObjectOutputStream(bytes))
+                {
+                    oos.writeObject(tile);
+                }
+                this.tiles.writeShort(pos);
+                this.tiles.writeInt(bytes.size());
+                bytes.writeTo(this.tiles);
+                this.tileCount++;
+            }
+        }
+        
+        /**
+         * Appends the current section record to the body.
+         * 
+         * @throws IOException
+         */
+        private void finishSection() throws IOException
+        {
+            if (this.world == null)
+            {
+                return;
+            }
+            final DataOutputStream out = new DataOutputStream(this.body);
+            out.writeUTF(this.world);
+            out.writeInt(this.chunkX);
+            out.writeInt(this.sectionY);
+            out.writeInt(this.chunkZ);
+            out.writeInt(this.plainCount);
+            this.plainBytes.writeTo(out);
+            out.writeInt(this.tileCount);
+            this.tileBytes.writeTo(out);
+            out.flush();
+            this.plainBytes.reset();
+            this.tileBytes.reset();
+            this.plainCount = 0;
+            this.tileCount = 0;
+            this.world = null;
+        }
+        
+        /**
+         * Writes the collected blocks as a segment and resets this writer.
+         * 
+         * @param channel
+         * @throws IOException
+         */
+        void writeTo(final FileChannel channel) throws IOException
+        {
+            this.finishSection();
+            if (this.body.size() == 0)
+            {
+                return;
+            }
+            final ByteArrayOutputStream payload = new ByteArrayOutputStream(this.body.size() + this.materials.size() * 16 + 2);
+            final DataOutputStream out = new DataOutputStream(payload);
+            out.writeShort(this.materials.size());
+            for (final Material m : this.materials)
+            {
+                out.writeUTF(m.name());
+            }
+            this.body.writeTo(out);
+            out.flush();
+            
+            final byte[] bytes = payload.toByteArray();
+            final CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length);
+            final ByteBuffer buffer = ByteBuffer.allocate(SEGMENT_HEADER + bytes.length);
+            buffer.putInt(SEGMENT_MAGIC).putInt(bytes.length).putInt((int) crc.getValue()).put(bytes).flip();
+            writeFully(channel, buffer);
+            
+            this.body.reset();
+            this.palette.clear();
+            this.materials.clear();
+        }
+        
+    }
+    
+}
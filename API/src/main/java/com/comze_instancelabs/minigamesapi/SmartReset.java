@@ -14,20 +14,16 @@
 */
 package com.comze_instancelabs.minigamesapi;
 
-import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.TreeMap;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -44,9 +40,8 @@ import org.bukkit.block.Furnace;
 import org.bukkit.block.Sign;
 import org.bukkit.block.Skull;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.util.io.BukkitObjectInputStream;
-import org.bukkit.util.io.BukkitObjectOutputStream;
 
+import com.comze_instancelabs.minigamesapi.SmartBlockLogFile.Reader;
 import com.comze_instancelabs.minigamesapi.util.SmartArenaBlock;
 import com.comze_instancelabs.minigamesapi.util.Util;
 
@@ -58,17 +53,41 @@ import com.comze_instancelabs.minigamesapi.util.Util;
 public class SmartReset implements Runnable
 {
     
+    /** blocks between two clock reads while resetting. */
+    private static final int                 CLOCK_INTERVAL = 16;
+    
     /** the changed blocks. */
-    private final SmartBlockMap              changed      = new SmartBlockMap();
+    private final SmartBlockLog              changed        = new SmartBlockLog();
     
     /** the underlying arena. */
     private Arena                            a;
     
     /** the blocks that failed while resetting. */
-    private final ArrayList<SmartArenaBlock> failedblocks = new ArrayList<>();
+    private final ArrayList<SmartArenaBlock> failedblocks   = new ArrayList<>();
     
     /** time for reset progress. */
-    private long                             time         = 0L;
+    private long                             time           = 0L;
+    
+    /** the cursor of the running reset; {@code null} if no reset is running. */
+    private SmartBlockLog.Cursor             cursor;
+    
+    /** number of blocks to reset. */
+    private int                              total;
+    
+    /** number of blocks already reset. */
+    private int                              processed;
+    
+    /** nanoseconds spent on resetting blocks; used for the eta. */
+    private long                             spentNanos;
+    
+    /** {@code true} if the running reset restores the blocks of the smart reset files. */
+    private boolean                          restoringFiles;
+    
+    /** the smart reset files still being read; see {@link #loadSmartBlocksFromFile()}. */
+    private final ArrayDeque<Reader>         loading        = new ArrayDeque<>();
+    
+    /** number of blocks read from the smart reset files. */
+    private int                              loaded;
     
     /**
      * Constructor.
@@ -86,23 +105,41 @@ public class SmartReset implements Runnable
      * 
      * @param b
      *            block to be added
-     * @return the smart arena block or {@code null} if the block already was added before
+     * @return the tile state snapshot of chests, signs, skulls, droppers and dispensers; {@code null} for plain blocks or if the block already was added before
      */
     public SmartArenaBlock addChanged(final Block b)
     {
-        if (!this.changed.hasBlock(b.getLocation()))
+        final String world = b.getWorld().getName();
+        if (!this.changed.contains(world, b.getX(), b.getY(), b.getZ()))
         {
             if (MinigamesAPI.debug)
             {
                 MinigamesAPI.getAPI().getLogger().info("(1) adding changed block for location " + b.getLocation());
             }
-            final SmartArenaBlock sablock = new SmartArenaBlock(b, b.getType() == Material.CHEST, b.getType() == Material.WALL_SIGN || b.getType() == Material.SIGN_POST);
-            this.changed.putBlock(b.getLocation(), sablock);
+            final Material m = b.getType();
+            SmartArenaBlock sablock = null;
+            if (SmartReset.hasTileState(m))
+            {
+                sablock = new SmartArenaBlock(b, m == Material.CHEST, m == Material.WALL_SIGN || m == Material.SIGN_POST);
+            }
+            this.changed.add(world, b.getX(), b.getY(), b.getZ(), m, b.getData(), sablock);
             return sablock;
         }
         return null;
     }
 
+    /**
+     * Checks if blocks of given material need a tile state snapshot (inventory, sign lines or skull owner) to be reset.
+     * 
+     * @param m
+     *            material
+     * @return {@code true} for chests, signs, skulls, droppers and dispensers
+     */
+    static boolean hasTileState(final Material m)
+    {
+        return m == Material.CHEST || m == Material.WALL_SIGN || m == Material.SIGN_POST || m == Material.SKULL || m == Material.DROPPER || m == Material.DISPENSER;
+    }
+
     /**
      * Adds changed blocks
      * @param loc
@@ -141,61 +178,117 @@ public class SmartReset implements Runnable
      *            original material.
      * @param data
      *            original data value.
-     * @return the smart arena block or {@code null} if the block already was added before
+     * @return the tile state snapshot of chests; {@code null} for other blocks or if the block already was added before
      */
     public SmartArenaBlock addChanged(final Location l, final Material m, final byte data)
     {
-        if (!this.changed.hasBlock(l))
+        final String world = l.getWorld().getName();
+        if (!this.changed.contains(world, l.getBlockX(), l.getBlockY(), l.getBlockZ()))
         {
             if (MinigamesAPI.debug)
             {
                 MinigamesAPI.getAPI().getLogger().info("(5) adding changed block for location " + l);
             }
-            final SmartArenaBlock sab = new SmartArenaBlock(l, m, data);
+            SmartArenaBlock sab = null;
             if (m == Material.CHEST)
             {
+                sab = new SmartArenaBlock(l, m, data);
                 sab.setInventory(((Chest)l.getBlock().getState()).getInventory());
             }
-            this.changed.putBlock(l, sab);
+            this.changed.add(world, l.getBlockX(), l.getBlockY(), l.getBlockZ(), m, data, sab);
             return sab;
         }
         return null;
     }
     
+    /**
+     * Runs a single reset slice; running resets are driven by the {@link SmartResetScheduler}.
+     */
     @Override
     public void run()
     {
-        int rolledBack = 0;
-        
-        // Rollback 70 blocks at a time
-        final Iterator<SmartArenaBlock> it = this.changed.getBlocks().iterator();
-        while (it.hasNext() && rolledBack <= 70)
+        if (!this.isResetting())
+        {
+            return;
+        }
+        if (this.step(System.nanoTime() + SmartResetScheduler.DEFAULT_BUDGET_MICROS * 1000L))
+        {
+            MinigamesAPI.getAPI().getResetScheduler().cancel(this);
+        }
+    }
+    
+    /**
+     * Resets blocks until given deadline; at least one block is reset per call.
+     * 
+     * @param deadline
+     *            the {@link System#nanoTime()} to stop at.
+     * @return {@code true} if the reset is complete
+     */
+    boolean step(final long deadline)
+    {
+        if (!this.loading.isEmpty())
+        {
+            // the smart reset files are read within the same budget before the blocks are restored
+            if (!this.readFiles(deadline))
+            {
+                return false;
+            }
+            if (this.changed.isEmpty())
+            {
+                this.deleteSaveFiles();
+                this.a.setArenaState(ArenaState.JOIN);
+                Util.updateSign(this.a.getPlugin(), this.a);
+                return true;
+            }
+            this.reset();
+            return false;
+        }
+        final SmartBlockLog.Cursor it = this.cursor;
+        if (it == null)
+        {
+            return true;
+        }
+        final long start = System.nanoTime();
+        int count = 0;
+        while (it.next())
         {
-            final SmartArenaBlock ablock = it.next();
-            
             try
             {
-                if (MinigamesAPI.debug) MinigamesAPI.getAPI().getLogger().info("resetting block " + ablock.getBlock().getLocation());
-                this.resetSmartResetBlock(ablock);
-                it.remove();
+                if (MinigamesAPI.debug) MinigamesAPI.getAPI().getLogger().info("resetting block " + it.getWorldName() + "/" + it.getX() + "/" + it.getY() + "/" + it.getZ());
+                final Block b_ = it.getBlock();
+                if (b_ == null)
+                {
+                    throw new IllegalStateException("world " + it.getWorldName() + " not loaded"); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                this.resetBlock(b_, it.getMaterial(), it.getData(), it.getTile());
             }
             catch (final Exception e)
             {
                 if (MinigamesAPI.debug)
                 {
-                    MinigamesAPI.getAPI().getLogger().log(Level.INFO, "failed block " + ablock.getBlock().getLocation(), e);
+                    MinigamesAPI.getAPI().getLogger().log(Level.INFO, "failed block " + it.getWorldName() + "/" + it.getX() + "/" + it.getY() + "/" + it.getZ(), e);
+                }
+                final SmartArenaBlock ablock = it.toSmartArenaBlock();
+                if (ablock != null)
+                {
+                    this.failedblocks.add(ablock);
                 }
-                this.failedblocks.add(ablock);
             }
             
-            rolledBack++;
+            this.processed++;
+            if (++count % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline >= 0)
+            {
+                break;
+            }
         }
+        this.spentNanos += System.nanoTime() - start;
         
         if (it.hasNext())
         {
-            Bukkit.getScheduler().runTaskLater(this.a.getPlugin(), this, 2L);
-            return;
+            return false;
         }
+        this.cursor = null;
+        this.deleteSaveFiles();
         
         this.a.setArenaState(ArenaState.JOIN);
         Util.updateSign(this.a.getPlugin(), this.a);
@@ -224,16 +317,84 @@ public class SmartReset implements Runnable
         }, 25L);
         
         ArenaLogger.debug("Reset time: " + (System.currentTimeMillis() - this.time) + "ms");
+        return true;
     }
     
     /**
-     * Resets all changed blocks in tasks each 70 blocks
+     * Resets all changed blocks within the tick budget of the {@link SmartResetScheduler}.
      */
     public void reset()
     {
         this.time = System.currentTimeMillis();
-        this.a.getPlugin().getLogger().info(this.changed.size() + " to reset for arena " + this.a.getInternalName() + ".");
-        Bukkit.getScheduler().runTask(this.a.getPlugin(), this);
+        this.cursor = this.changed.cursor();
+        this.total = this.changed.size();
+        this.processed = 0;
+        this.spentNanos = 0;
+        this.a.getPlugin().getLogger().info(this.total + " to reset for arena " + this.a.getInternalName() + ".");
+        MinigamesAPI.getAPI().getResetScheduler().schedule(this);
+    }
+    
+    /**
+     * Checks if a reset is running.
+     * 
+     * @return {@code true} if blocks are being read from the smart reset files or being reset
+     */
+    public boolean isResetting()
+    {
+        return this.cursor != null || !this.loading.isEmpty();
+    }
+    
+    /**
+     * Returns the progress of the running reset.
+     * 
+     * @return progress from 0 to 1; 1 if no reset is running
+     */
+    public double getProgress()
+    {
+        if (!this.loading.isEmpty())
+        {
+            return 0D;
+        }
+        if (this.cursor == null || this.total == 0)
+        {
+            return 1D;
+        }
+        return Math.min(1D, (double) this.processed / this.total);
+    }
+    
+    /**
+     * Returns the estimated time until the running reset is complete.
+     * 
+     * <p>
+     * The estimate is based on the time spent per block so far and the current tick budget of the scheduler.
+     * </p>
+     * 
+     * @return remaining milliseconds; 0 if no reset is running, -1 if unknown yet
+     */
+    public long getEta()
+    {
+        if (this.cursor == null && this.loading.isEmpty())
+        {
+            return 0;
+        }
+        if (this.cursor == null || this.processed == 0)
+        {
+            return -1;
+        }
+        final SmartResetScheduler scheduler = MinigamesAPI.getAPI().getResetScheduler();
+        final long remainingNanos = (long) ((double) this.spentNanos / this.processed * Math.max(0, this.total - this.processed));
+        // each tick (50ms) grants a share of the tick budget
+        final long sharePerTick = Math.max(1L, scheduler.getTickBudget() / Math.max(1, scheduler.getActiveCount()));
+        final double msPerTick = 1000D / Math.max(1D, scheduler.getTps());
+        return (long) Math.ceil((double) remainingNanos / sharePerTick * msPerTick);
+    }
+    
+    /**
+     * Updates the join sign to display the reset progress.
+     */
+    void updateProgressSign()
+    {
+        Util.updateSign(this.a.getPlugin(), this.a);
     }
     
     /**
@@ -241,11 +402,21 @@ public class SmartReset implements Runnable
      */
     public void resetRaw()
     {
-        for (final SmartArenaBlock ablock : this.changed.getBlocks())
+        if (this.isResetting())
+        {
+            this.cursor = null;
+            MinigamesAPI.getAPI().getResetScheduler().cancel(this);
+        }
+        while (!this.loading.isEmpty())
+        {
+            this.readFiles(System.nanoTime());
+        }
+        final SmartBlockLog.Cursor it = this.changed.cursor();
+        while (it.next())
         {
             try
             {
-                this.resetSmartResetBlock(ablock);
+                this.resetBlock(it.getBlock(), it.getMaterial(), it.getData(), it.getTile());
             }
             catch (final Exception e)
             {
@@ -255,13 +426,30 @@ public class SmartReset implements Runnable
         }
         
         this.changed.clear();
+        this.deleteSaveFiles();
         this.a.setArenaState(ArenaState.JOIN);
         Util.updateSign(this.a.getPlugin(), this.a);
     }
     
     public void resetSmartResetBlock(final SmartArenaBlock ablock)
     {
-        final Block b_ = ablock.getBlock().getWorld().getBlockAt(ablock.getBlock().getLocation());
+        this.resetBlock(ablock.getBlock(), ablock.getMaterial(), ablock.getData(), ablock);
+    }
+    
+    /**
+     * Resets a single block.
+     * 
+     * @param b_
+     *            the block in world
+     * @param material
+     *            the original material
+     * @param data
+     *            the original data value
+     * @param ablock
+     *            the tile state snapshot or {@code null} for plain blocks
+     */
+    private void resetBlock(final Block b_, final Material material, final byte data, final SmartArenaBlock ablock)
+    {
         if (b_.getType() == Material.FURNACE)
         {
             if (MinigamesAPI.debug)
@@ -297,16 +485,21 @@ public class SmartReset implements Runnable
             ((BrewingStand) b_.getState()).getInventory().clear();
             ((BrewingStand) b_.getState()).update();
         }
-        if (!b_.getType().equals(ablock.getMaterial()) || b_.getData() != ablock.getData())
+        if (!b_.getType().equals(material) || b_.getData() != data)
         {
             if (MinigamesAPI.debug)
-                MinigamesAPI.getAPI().getLogger().info("Rolling back block material/data to " + ablock.getMaterial() + "/" + ablock.getData());
-            b_.setType(ablock.getMaterial());
-            b_.setData(ablock.getData());
+                MinigamesAPI.getAPI().getLogger().info("Rolling back block material/data to " + material + "/" + data);
+            b_.setType(material);
+            b_.setData(data);
         }
         else if (MinigamesAPI.debug)
         {
-            MinigamesAPI.getAPI().getLogger().info("Skipping block rollback from " + b_.getType() + "/" + b_.getData() + " to " + ablock.getMaterial() + "/" + ablock.getData());
+            MinigamesAPI.getAPI().getLogger().info("Skipping block rollback from " + b_.getType() + "/" + b_.getData() + " to " + material + "/" + data);
+        }
+        if (ablock == null)
+        {
+            // plain block without tile state
+            return;
         }
         if (b_.getType() == Material.CHEST)
         {
@@ -421,176 +614,157 @@ public class SmartReset implements Runnable
         }
     }
     
+    /**
+     * Appends the changed blocks to the smart reset file of the arena; see {@link SmartBlockLogFile}.
+     */
     public void saveSmartBlocksToFile()
     {
-        final File f = new File(this.a.getPlugin().getDataFolder() + "/" + this.a.getInternalName() + "_smart");
-        
-        FileOutputStream fos;
-        ObjectOutputStream oos = null;
+        if (!this.loading.isEmpty())
+        {
+            // the files are still being read; they already contain all blocks of the log
+            return;
+        }
         try
         {
-            fos = new FileOutputStream(f);
-            oos = new BukkitObjectOutputStream(fos);
+            final int count = SmartBlockLogFile.write(this.getSaveFile(), this.changed);
+            MinigamesAPI.getAPI().getLogger().info("Saved " + count + " SmartBlocks of " + this.a.getInternalName());
         }
         catch (final IOException e)
         {
-            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e);
+            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "Failed saving SmartBlocks of " + this.a.getInternalName(), e);
         }
-        
-        for (final SmartArenaBlock bl : this.changed.getBlocks())
+    }
+    
+    /**
+     * Restores the blocks of an interrupted game from the smart reset files.
+     * 
+     * <p>
+     * The files are only opened here. The {@link SmartResetScheduler} reads them segment by segment within its tick budget and restores the blocks afterwards while the arena is
+     * restarting. The files are deleted after the reset completed.
+     * </p>
+     */
+    public void loadSmartBlocksFromFile()
+    {
+        final File f = this.getSaveFile();
+        final File legacy = this.getLegacySaveFile();
+        if (!f.exists() && !legacy.exists())
+        {
+            return;
+        }
+        final Logger logger = MinigamesAPI.getAPI().getLogger();
+        if (f.exists())
         {
             try
             {
-                oos.writeObject(bl);
+                this.loading.add(SmartBlockLogFile.open(f, logger));
             }
             catch (final IOException e)
             {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "io exception", e);
+                logger.log(Level.WARNING, "Failed reading SmartReset file " + f, e);
             }
         }
-        
-        try
+        if (legacy.exists())
         {
-            oos.close();
+            try
+            {
+                this.loading.add(SmartBlockLogFile.openLegacy(legacy, logger));
+            }
+            catch (final IOException e)
+            {
+                logger.log(Level.WARNING, "Failed reading SmartReset file " + legacy, e);
+            }
         }
-        catch (final IOException e)
+        
+        this.restoringFiles = true;
+        if (this.loading.isEmpty())
         {
-            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e);
+            this.deleteSaveFiles();
+            return;
         }
-        
-        MinigamesAPI.getAPI().getLogger().info("Saved SmartBlocks of " + this.a.getInternalName());
+        this.loaded = 0;
+        this.a.setArenaState(ArenaState.RESTARTING);
+        Util.updateSign(this.a.getPlugin(), this.a);
+        MinigamesAPI.getAPI().getResetScheduler().schedule(this);
     }
     
-    public void loadSmartBlocksFromFile()
+    /**
+     * Reads segments of the smart reset files until given deadline; at least one segment is read per call.
+     * 
+     * @param deadline
+     *            the {@link System#nanoTime()} to stop at.
+     * @return {@code true} if all files were read
+     */
+    private boolean readFiles(final long deadline)
     {
-        final File f = new File(this.a.getPlugin().getDataFolder() + "/" + this.a.getInternalName() + "_smart");
-        if (!f.exists())
-        {
-            return;
-        }
-        FileInputStream fis = null;
-        BukkitObjectInputStream ois = null;
-        try
-        {
-            fis = new FileInputStream(f);
-            ois = new BukkitObjectInputStream(fis);
-        }
-        catch (final IOException e)
+        final Logger logger = MinigamesAPI.getAPI().getLogger();
+        do
         {
-            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e);
-        }
-        
-        try
-        {
-            while (true)
+            final Reader reader = this.loading.peek();
+            boolean more;
+            try
             {
-                Object b = null;
+                more = reader.next(this.changed);
+            }
+            catch (final IOException e)
+            {
+                logger.log(Level.WARNING, "Failed reading SmartReset file " + reader.getFile(), e);
+                more = false;
+            }
+            if (!more)
+            {
+                this.loading.poll();
+                this.loaded += reader.getCount();
                 try
                 {
-                    b = ois.readObject();
+                    reader.close();
                 }
-                catch (final EOFException e)
+                catch (final IOException e)
                 {
-                    MinigamesAPI.getAPI().getLogger().info("Finished restoring SmartReset blocks for " + this.a.getInternalName() + ".");
-                }
-                catch (final ClosedChannelException e)
-                {
-                    MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "Something is wrong with your SmartReset file and the reset might not be successful.", e);
-                }
-                
-                if (b != null)
-                {
-                    final SmartArenaBlock ablock = (SmartArenaBlock) b;
-                    this.resetSmartResetBlock(ablock);
-                }
-                else
-                {
-                    break;
+                    logger.log(Level.WARNING, "Failed closing SmartReset file " + reader.getFile(), e);
                 }
             }
         }
-        catch (final IOException e)
-        {
-            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e);
-        }
-        catch (final ClassNotFoundException e)
-        {
-            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e);
-        }
-        
-        try
-        {
-            ois.close();
-        }
-        catch (final IOException e)
-        {
-            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e);
-        }
+        while (!this.loading.isEmpty() && System.nanoTime() - deadline < 0);
         
-        if (f.exists())
+        if (this.loading.isEmpty())
         {
-            f.delete();
+            logger.info("Restoring " + this.loaded + " SmartReset blocks for " + this.a.getInternalName() + ".");
+            return true;
         }
+        return false;
     }
     
     /**
-     * A map holding smart reset blocks per Y coordinate (level).
+     * Returns the smart reset file of the arena.
+     * 
+     * @return smart reset file
      */
-    private static final class SmartBlockMap extends TreeMap<Integer, Map<Location, SmartArenaBlock>>
+    private File getSaveFile()
     {
-        
-        /**
-         * serial version uid.
-         */
-        private static final long serialVersionUID = 8336943154139693760L;
-
-        /**
-         * Puts a block into map.
-         * 
-         * @param l
-         *            location
-         * @param block
-         *            smart reset block
-         */
-        public void putBlock(Location l, SmartArenaBlock block)
-        {
-            this.computeIfAbsent(l.getBlockY(), (key) -> new HashMap<>()).put(l, block);
-        }
-        
-        /**
-         * Checks if given location is already present within map.
-         * 
-         * @param l
-         *            location to check
-         * @return {@code true} if location is known
-         */
-        public boolean hasBlock(Location l)
-        {
-            final Map<Location, SmartArenaBlock> map = this.get(l.getBlockY());
-            if (map != null)
-            {
-                return map.containsKey(l);
-            }
-            return false;
-        }
-        
-        /**
-         * Returns an iterable over all blocks within this map.
-         * 
-         * @return iterable over all blocks.
-         */
-        public Iterable<SmartArenaBlock> getBlocks()
+        return new File(this.a.getPlugin().getDataFolder(), this.a.getInternalName() + "_smart.dat"); //$NON-NLS-1$
+    }
+    
+    /**
+     * Returns the legacy smart reset file (serialized java objects) of the arena.
+     * 
+     * @return legacy smart reset file
+     */
+    private File getLegacySaveFile()
+    {
+        return new File(this.a.getPlugin().getDataFolder(), this.a.getInternalName() + "_smart"); //$NON-NLS-1$
+    }
+    
+    /**
+     * Deletes the smart reset files after they were restored.
+     */
+    private void deleteSaveFiles()
+    {
+        if (this.restoringFiles)
         {
-            return new Iterable<SmartArenaBlock>() {
-                
-                @Override
-                public Iterator<SmartArenaBlock> iterator()
-                {
-                    return new NestedIterator<>(SmartBlockMap.this.values().iterator());
-                }
-            };
+            this.restoringFiles = false;
+            this.getSaveFile().delete();
+            this.getLegacySaveFile().delete();
         }
-        
     }
     
     /**
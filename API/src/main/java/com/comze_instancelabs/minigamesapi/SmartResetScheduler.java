@@ -0,0 +1,225 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Drives all running smart resets from a single tick task.
+ * 
+ * <p>
+ * Every tick the scheduler spends a fixed time budget on restoring blocks. The budget is shared round-robin by all arenas currently resetting; time left over by an arena that finished
+ * early is given to the remaining ones. The budget shrinks while the measured server TPS is low so that resets do not push an already lagging server further behind.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class SmartResetScheduler implements Runnable
+{
+    
+    /** default tick budget in microseconds. */
+    public static final int          DEFAULT_BUDGET_MICROS = 10000;
+    
+    /** minimum tick budget in nanoseconds even on a lagging server. */
+    private static final long        MIN_BUDGET_NANOS      = 1000000L;
+    
+    /** tps at and above which the full budget is used. */
+    private static final double      FULL_BUDGET_TPS       = 19D;
+    
+    /** tps at which the budget reaches its minimum. */
+    private static final double      MIN_BUDGET_TPS        = 15D;
+    
+    /** weight of a new tick in the tps average. */
+    private static final double      TPS_SMOOTHING         = 0.1D;
+    
+    /** ticks between sign updates of the resetting arenas. */
+    private static final int         SIGN_UPDATE_TICKS     = 20;
+    
+    /** the owning plugin. */
+    private final Plugin             plugin;
+    
+    /** the full tick budget in nanoseconds. */
+    private final long               budgetNanos;
+    
+    /** the running resets. */
+    private final List<SmartReset>   active                = new ArrayList<>();
+    
+    /** the running task; {@code null} if there is no reset. */
+    private BukkitTask               task;
+    
+    /** index of the reset getting the first slice within next tick. */
+    private int                      next;
+    
+    /** start of last tick; 0 if the task was just started. */
+    private long                     lastTick;
+    
+    /** the measured tps. */
+    private double                   tps                   = 20D;
+    
+    /** tick counter for sign updates. */
+    private int                      ticks;
+    
+    /**
+     * Constructor.
+     * 
+     * @param plugin
+     *            the owning plugin
+     * @param budgetMicros
+     *            the time to spend on resets per tick in microseconds
+     */
+    public SmartResetScheduler(final Plugin plugin, final int budgetMicros)
+    {
+        this.plugin = plugin;
+        this.budgetNanos = Math.max(MIN_BUDGET_NANOS, budgetMicros * 1000L);
+    }
+    
+    /**
+     * Adds a reset to the running resets.
+     * 
+     * @param reset
+     *            the reset to be driven by this scheduler.
+     */
+    public void schedule(final SmartReset reset)
+    {
+        if (!this.active.contains(reset))
+        {
+            this.active.add(reset);
+        }
+        if (this.task == null)
+        {
+            this.lastTick = 0;
+            this.task = Bukkit.getScheduler().runTaskTimer(this.plugin, this, 1L, 1L);
+        }
+    }
+    
+    /**
+     * Removes a reset from the running resets.
+     * 
+     * @param reset
+     *            the reset to be removed.
+     */
+    public void cancel(final SmartReset reset)
+    {
+        final int index = this.active.indexOf(reset);
+        if (index >= 0)
+        {
+            this.active.remove(index);
+            if (index < this.next)
+            {
+                this.next--;
+            }
+        }
+        if (this.active.isEmpty())
+        {
+            this.stop();
+        }
+    }
+    
+    /**
+     * Returns the number of running resets.
+     * 
+     * @return number of resets
+     */
+    public int getActiveCount()
+    {
+        return this.active.size();
+    }
+    
+    /**
+     * Returns the measured server tps.
+     * 
+     * @return tps (up to 20)
+     */
+    public double getTps()
+    {
+        return this.tps;
+    }
+    
+    /**
+     * Returns the budget for the current tick.
+     * 
+     * @return budget in nanoseconds
+     */
+    long getTickBudget()
+    {
+        if (this.tps >= FULL_BUDGET_TPS)
+        {
+            return this.budgetNanos;
+        }
+        final double factor = Math.max(0D, (this.tps - MIN_BUDGET_TPS) / (FULL_BUDGET_TPS - MIN_BUDGET_TPS));
+        return Math.max(MIN_BUDGET_NANOS, (long) (this.budgetNanos * factor));
+    }
+    
+    @Override
+    public void run()
+    {
+        if (this.active.isEmpty())
+        {
+            this.stop();
+            return;
+        }
+        final long start = System.nanoTime();
+        if (this.lastTick != 0)
+        {
+            final double sample = Math.min(20D, 1000000000D / Math.max(1L, start - this.lastTick));
+            this.tps += (sample - this.tps) * TPS_SMOOTHING;
+        }
+        this.lastTick = start;
+        
+        final boolean updateSigns = ++this.ticks % SIGN_UPDATE_TICKS == 0;
+        final long deadline = start + this.getTickBudget();
+        final SmartReset[] resets = this.active.toArray(new SmartReset[this.active.size()]);
+        final int first = this.next % resets.length;
+        for (int i = 0; i < resets.length; i++)
+        {
+            final SmartReset reset = resets[(first + i) % resets.length];
+            final long now = System.nanoTime();
+            // fair share of the remaining time
+            final long slice = Math.max(0L, deadline - now) / (resets.length - i);
+            if (reset.step(now + slice))
+            {
+                this.active.remove(reset);
+            }
+            else if (updateSigns)
+            {
+                reset.updateProgressSign();
+            }
+        }
+        this.next = this.active.isEmpty() ? 0 : (first + 1) % this.active.size();
+        if (this.active.isEmpty())
+        {
+            this.stop();
+        }
+    }
+    
+    /**
+     * Stops the tick task.
+     */
+    private void stop()
+    {
+        if (this.task != null)
+        {
+            this.task.cancel();
+            this.task = null;
+        }
+        this.next = 0;
+    }
+    
+}
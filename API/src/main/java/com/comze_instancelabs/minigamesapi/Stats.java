@@ -16,6 +16,7 @@ package com.comze_instancelabs.minigamesapi;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.logging.Level;
@@ -33,7 +34,6 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.SkullMeta;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import com.comze_instancelabs.minigamesapi.config.StatsConfig;
 import com.comze_instancelabs.minigamesapi.util.Util.ValueComparator;
 
 /**
@@ -55,11 +55,25 @@ public class Stats
     int                      stats_kill_points = 2;
     int                      stats_win_points  = 10;
     
+    /** the in-memory stats; written to stats config in background. */
+    private final StatsStore store;
+    
     public Stats(final PluginInstance pli, final JavaPlugin plugin)
     {
         this.plugin = plugin;
         this.reloadVariables();
         this.pli = pli;
+        this.store = new StatsStore(plugin.getLogger(), pli.getStatsConfig()::getConfig, pli.getStatsConfig().getFile());
+    }
+    
+    /**
+     * Returns the in-memory stats store.
+     * 
+     * @return stats store.
+     */
+    public StatsStore getStore()
+    {
+        return this.store;
     }
     
     public void reloadVariables()
@@ -111,21 +125,39 @@ public class Stats
     public void update(final String playername)
     {
         final Player p = Bukkit.getPlayer(playername);
-        final String uuid = p.getUniqueId().toString();
-        if (this.pli.getStatsConfig().getConfig().isSet("players." + uuid + ".wins"))
+        final UUID uuid = p.getUniqueId();
+        if (this.store.isSet(uuid, StatsKey.WINS))
         {
-            final int wins = this.getWins(playername);
-            final int sqlwins = this.pli.getSQLInstance().getWins(p);
-            this.setWins(playername, Math.max(wins, sqlwins));
+            this.pli.getSQLInstance().getWinsAsync(p).thenAccept(sqlwins -> this.updateFromSQL(uuid, StatsKey.WINS, sqlwins));
         }
-        if (this.pli.getStatsConfig().getConfig().isSet("players." + uuid + ".points"))
+        if (this.store.isSet(uuid, StatsKey.POINTS))
         {
-            final int points = this.getPoints(playername);
-            final int sqlpoints = this.pli.getSQLInstance().getPoints(p);
-            this.setPoints(playername, Math.max(points, sqlpoints));
+            this.pli.getSQLInstance().getPointsAsync(p).thenAccept(sqlpoints -> this.updateFromSQL(uuid, StatsKey.POINTS, sqlpoints));
         }
     }
     
+    /**
+     * Raises a file stat to the value read from sql; invoked from the sql thread.
+     * 
+     * @param uuid
+     * @param key
+     * @param sqlvalue
+     */
+    private void updateFromSQL(final UUID uuid, final StatsKey key, final int sqlvalue)
+    {
+        if (sqlvalue <= 0 || !this.plugin.isEnabled())
+        {
+            return;
+        }
+        // the yml tree is not thread safe; continue on the server thread
+        Bukkit.getScheduler().runTask(this.plugin, () -> {
+            if (sqlvalue > this.store.get(uuid, key))
+            {
+                this.store.set(uuid, key, sqlvalue, null);
+            }
+        });
+    }
+    
     public void updateSQLKillsDeathsAfter(final Player p, final Arena a)
     {
         if (!a.getPlugin().isEnabled())
@@ -157,65 +189,37 @@ public class Stats
     
     public void setWins(final String playername, final int count)
     {
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        this.pli.getStatsConfig().getConfig().set("players." + uuid + ".wins", count);
-        this.pli.getStatsConfig().saveConfig();
+        final UUID uuid = Bukkit.getPlayer(playername).getUniqueId();
+        this.store.set(uuid, StatsKey.WINS, count, null);
     }
     
     public void setPoints(final String playername, final int count)
     {
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        this.pli.getStatsConfig().getConfig().set("players." + uuid + ".points", count);
-        this.pli.getStatsConfig().saveConfig();
+        final UUID uuid = Bukkit.getPlayer(playername).getUniqueId();
+        this.store.set(uuid, StatsKey.POINTS, count, null);
     }
     
     public void addWin(final String playername)
     {
-        final StatsConfig config = this.pli.getStatsConfig();
-        int temp = 0;
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        if (config.getConfig().isSet("players." + uuid + ".wins"))
-        {
-            temp = config.getConfig().getInt("players." + uuid + ".wins");
-        }
-        temp++;
+        final UUID uuid = Bukkit.getPlayer(playername).getUniqueId();
+        final int temp = this.store.add(uuid, StatsKey.WINS, 1, playername);
         this.pli.getArenaAchievements().setAchievementDone(playername, "first_win", false);
         if (temp >= 10)
         {
             this.pli.getArenaAchievements().setAchievementDone(playername, "ten_wins", false);
         }
-        config.getConfig().set("players." + uuid + ".wins", temp);
-        config.getConfig().set("players." + uuid + ".playername", playername);
-        config.saveConfig();
     }
     
     public void addLose(final String playername)
     {
-        final StatsConfig config = this.pli.getStatsConfig();
-        int temp = 0;
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        if (config.getConfig().isSet("players." + uuid + ".loses"))
-        {
-            temp = config.getConfig().getInt("players." + uuid + ".loses");
-        }
-        config.getConfig().set("players." + uuid + ".loses", temp + 1);
-        config.getConfig().set("players." + uuid + ".playername", playername);
-        config.saveConfig();
+        final UUID uuid = Bukkit.getPlayer(playername).getUniqueId();
+        this.store.add(uuid, StatsKey.LOSES, 1, playername);
     }
     
     public void addKill(final String playername)
     {
-        final StatsConfig config = this.pli.getStatsConfig();
-        int temp = 0;
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        if (config.getConfig().isSet("players." + uuid + ".kills"))
-        {
-            temp = config.getConfig().getInt("players." + uuid + ".kills");
-        }
-        temp++;
-        config.getConfig().set("players." + uuid + ".kills", temp);
-        config.getConfig().set("players." + uuid + ".playername", playername);
-        config.saveConfig();
+        final UUID uuid = Bukkit.getPlayer(playername).getUniqueId();
+        final int temp = this.store.add(uuid, StatsKey.KILLS, 1, playername);
         this.pli.getArenaAchievements().setAchievementDone(playername, "first_blood", false);
         if (temp >= 10 && temp < 100)
         {
@@ -231,139 +235,78 @@ public class Stats
     
     public void addDeath(final String playername)
     {
-        final StatsConfig config = this.pli.getStatsConfig();
-        int temp = 0;
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        if (config.getConfig().isSet("players." + uuid + ".deaths"))
-        {
-            temp = config.getConfig().getInt("players." + uuid + ".deaths");
-        }
-        temp++;
-        config.getConfig().set("players." + uuid + ".deaths", temp);
-        config.getConfig().set("players." + uuid + ".playername", playername);
-        config.saveConfig();
+        final UUID uuid = Bukkit.getPlayer(playername).getUniqueId();
+        this.store.add(uuid, StatsKey.DEATHS, 1, playername);
         // Moved to Rewards.java:265
         // pli.getSQLInstance().updateDeathStats(Bukkit.getPlayer(playername));
     }
     
     public void addPoints(final String playername, final int count)
     {
-        final StatsConfig config = this.pli.getStatsConfig();
-        int temp = 0;
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        if (config.getConfig().isSet("players." + uuid + ".points"))
-        {
-            temp = config.getConfig().getInt("players." + uuid + ".points");
-        }
+        final UUID uuid = Bukkit.getPlayer(playername).getUniqueId();
+        final int temp = this.store.get(uuid, StatsKey.POINTS);
+        final StatsStore global = MinigamesAPI.getAPI().getGlobalStatsStore();
         int temp_ = 0;
-        if (MinigamesAPI.getAPI().statsglobal.getConfig().isSet("players." + uuid + ".points"))
+        if (global.isSet(uuid, StatsKey.POINTS))
         {
-            temp_ = MinigamesAPI.getAPI().statsglobal.getConfig().getInt("players." + uuid + ".points");
+            temp_ = global.get(uuid, StatsKey.POINTS);
         }
         else
         {
             temp_ = temp;
         }
-        MinigamesAPI.getAPI().statsglobal.getConfig().set("players." + uuid + ".points", temp_ + count);
-        MinigamesAPI.getAPI().statsglobal.saveConfig();
-        config.getConfig().set("players." + uuid + ".points", temp + count);
-        config.saveConfig();
+        global.set(uuid, StatsKey.POINTS, temp_ + count, null);
+        this.store.set(uuid, StatsKey.POINTS, temp + count, null);
     }
     
     public int getPoints(final String playername)
     {
-        final FileConfiguration config = this.pli.getStatsConfig().getConfig();
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        if (config.isSet("players." + uuid + ".points"))
-        {
-            final int points = config.getInt("players." + uuid + ".points");
-            return points;
-        }
-        return 0;
+        return this.store.get(Bukkit.getPlayer(playername).getUniqueId(), StatsKey.POINTS);
     }
     
     public int getWins(final String playername)
     {
-        final FileConfiguration config = this.pli.getStatsConfig().getConfig();
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        if (config.isSet("players." + uuid + ".wins"))
-        {
-            return config.getInt("players." + uuid + ".wins");
-        }
-        return 0;
+        return this.store.get(Bukkit.getPlayer(playername).getUniqueId(), StatsKey.WINS);
     }
     
     public int getLoses(final String playername)
     {
-        final FileConfiguration config = this.pli.getStatsConfig().getConfig();
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        if (config.isSet("players." + uuid + ".loses"))
-        {
-            return config.getInt("players." + uuid + ".loses");
-        }
-        return 0;
+        return this.store.get(Bukkit.getPlayer(playername).getUniqueId(), StatsKey.LOSES);
     }
     
     public int getKills(final String playername)
     {
-        final FileConfiguration config = this.pli.getStatsConfig().getConfig();
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        if (config.isSet("players." + uuid + ".kills"))
-        {
-            return config.getInt("players." + uuid + ".kills");
-        }
-        return 0;
+        return this.store.get(Bukkit.getPlayer(playername).getUniqueId(), StatsKey.KILLS);
     }
     
     public int getDeaths(final String playername)
     {
-        final FileConfiguration config = this.pli.getStatsConfig().getConfig();
-        final String uuid = Bukkit.getPlayer(playername).getUniqueId().toString();
-        if (config.isSet("players." + uuid + ".deaths"))
-        {
-            return config.getInt("players." + uuid + ".deaths");
-        }
-        return 0;
+        return this.store.get(Bukkit.getPlayer(playername).getUniqueId(), StatsKey.DEATHS);
     }
     
     public TreeMap<String, Double> getTop(final int count, final boolean wins)
     {
-        int c = 0;
-        String key = "wins";
-        if (!wins)
-        {
-            key = "points";
-        }
-        final FileConfiguration config = this.pli.getStatsConfig().getConfig();
-        final HashMap<String, Double> pwins = new HashMap<>();
-        if (config.isSet("players."))
-        {
-            for (final String p : config.getConfigurationSection("players.").getKeys(false))
-            {
-                c++;
-                if (c > 100)
-                {
-                    break;
-                }
-                pwins.put(config.getString("players." + p + ".playername"), (double) config.getInt("players." + p + "." + key));
-            }
-        }
-        final ValueComparator bvc = new ValueComparator(pwins);
-        final TreeMap<String, Double> sorted_wins = new TreeMap<>(bvc);
-        sorted_wins.putAll(pwins);
-        return sorted_wins;
+        return this.getTop(wins ? StatsKey.WINS : StatsKey.POINTS, count);
     }
     
     public TreeMap<String, Double> getTop()
     {
-        final FileConfiguration config = this.pli.getStatsConfig().getConfig();
+        return this.getTop(StatsKey.WINS, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Returns the best players for given stat, read from the ranking of the stats store.
+     * 
+     * @param key
+     * @param count
+     * @return player names with stat values, sorted by value
+     */
+    public TreeMap<String, Double> getTop(final StatsKey key, final int count)
+    {
         final HashMap<String, Double> pwins = new HashMap<>();
-        if (config.isSet("players."))
+        for (final UUID uuid : this.store.getTop(key, count))
         {
-            for (final String p : config.getConfigurationSection("players.").getKeys(false))
-            {
-                pwins.put(config.getString("players." + p + ".playername"), (double) config.getInt("players." + p + ".wins"));
-            }
+            pwins.put(this.store.getPlayerName(uuid), (double) this.store.get(uuid, key));
         }
         final ValueComparator bvc = new ValueComparator(pwins);
         final TreeMap<String, Double> sorted_wins = new TreeMap<>(bvc);
@@ -371,6 +314,19 @@ public class Stats
         return sorted_wins;
     }
     
+    /**
+     * Returns the rank of given player.
+     * 
+     * @param playername
+     * @param wins
+     *            {@code true} for the wins ranking, {@code false} for the points ranking
+     * @return rank starting with 1 or 0 if the player has no stats
+     */
+    public int getRank(final String playername, final boolean wins)
+    {
+        return this.store.getRank(Bukkit.getPlayer(playername).getUniqueId(), wins ? StatsKey.WINS : StatsKey.POINTS);
+    }
+    
     public static ItemStack giveSkull(final String name)
     {
         final ItemStack item = new ItemStack(Material.SKULL_ITEM, 1, (short) 3);
@@ -401,7 +357,7 @@ public class Stats
             config.set(base + "dir", "SELF");
         }
         
-        this.pli.getStatsConfig().saveConfig();
+        this.store.markDirty();
     }
     
     /*
@@ -409,10 +365,15 @@ public class Stats
      */
     public void updateSkulls()
     {
-        final TreeMap<String, Double> sorted_wins = this.getTop();
         final FileConfiguration config = this.pli.getStatsConfig().getConfig();
         if (config.isSet("skulls."))
         {
+            int maxpos = 0;
+            for (final String skull : config.getConfigurationSection("skulls.").getKeys(false))
+            {
+                maxpos = Math.max(maxpos, config.getInt("skulls." + skull + ".pos"));
+            }
+            final List<UUID> top = this.store.getTop(StatsKey.WINS, maxpos);
             for (final String skull : config.getConfigurationSection("skulls.").getKeys(false))
             {
                 final String base = "skulls." + skull;
@@ -428,10 +389,10 @@ public class Stats
                     final Skull skull_ = (Skull) state;
                     skull_.setRotation(BlockFace.valueOf(dir));
                     skull_.setSkullType(SkullType.PLAYER);
-                    this.plugin.getLogger().fine(pos + " " + sorted_wins.keySet().size());
-                    if (pos <= sorted_wins.keySet().size())
+                    this.plugin.getLogger().fine(pos + " " + top.size());
+                    if (pos >= 1 && pos <= top.size())
                     {
-                        final String name = (String) sorted_wins.keySet().toArray()[pos - 1];
+                        final String name = this.store.getPlayerName(top.get(pos - 1));
                         skull_.setOwner(name);
                         this.plugin.getLogger().fine(name);
                     }
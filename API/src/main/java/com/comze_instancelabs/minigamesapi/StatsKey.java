@@ -0,0 +1,64 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+/**
+ * The numeric statistics stored per player.
+ * 
+ * @author instancelabs
+ */
+public enum StatsKey
+{
+    
+    /** won games. */
+    WINS("wins"), //$NON-NLS-1$
+    
+    /** lost games. */
+    LOSES("loses"), //$NON-NLS-1$
+    
+    /** killed players. */
+    KILLS("kills"), //$NON-NLS-1$
+    
+    /** deaths. */
+    DEATHS("deaths"), //$NON-NLS-1$
+    
+    /** stats points. */
+    POINTS("points"); //$NON-NLS-1$
+    
+    /** the config key below "players.&lt;uuid&gt;". */
+    private final String path;
+    
+    /**
+     * Constructor.
+     * 
+     * @param path
+     *            the config key.
+     */
+    private StatsKey(final String path)
+    {
+        this.path = path;
+    }
+    
+    /**
+     * Returns the config key below "players.&lt;uuid&gt;".
+     * 
+     * @return config key.
+     */
+    public String getPath()
+    {
+        return this.path;
+    }
+    
+}
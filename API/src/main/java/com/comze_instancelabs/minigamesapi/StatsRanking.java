@@ -0,0 +1,411 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Ranking of players by a single stat value.
+ * 
+ * <p>
+ * The ranking is an order statistic tree (a treap keeping subtree sizes) ordered by value descending and uuid ascending. Updating a player, reading the rank of a player and selecting the
+ * player at a given rank take logarithmic time; reading the top n players takes logarithmic time plus n.
+ * </p>
+ * 
+ * <p>
+ * All methods are synchronized.
+ * </p>
+ * 
+ * @author instancelabs
+ */
+public class StatsRanking
+{
+    
+    /**
+     * A tree node.
+     */
+    private static final class Node
+    {
+        /** the player. */
+        final UUID uuid;
+        
+        /** the stat value. */
+        final int  value;
+        
+        /** the random heap priority. */
+        final int  priority;
+        
+        /** number of nodes in this subtree. */
+        int        size = 1;
+        
+        /** left child (better ranks). */
+        Node       left;
+        
+        /** right child (worse ranks). */
+        Node       right;
+        
+        /**
+         * Constructor.
+         * 
+         * @param uuid
+         *            the player.
+         * @param value
+         *            the stat value.
+         * @param priority
+         *            the heap priority.
+         */
+        Node(final UUID uuid, final int value, final int priority)
+        {
+            this.uuid = uuid;
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+    
+    /** random priorities. */
+    private final Random random = new Random();
+    
+    /** the tree root. */
+    private Node         root;
+    
+    /**
+     * Compares two keys by ranking order.
+     * 
+     * @param value1
+     *            first value
+     * @param uuid1
+     *            first player
+     * @param value2
+     *            second value
+     * @param uuid2
+     *            second player
+     * @return negative if the first key ranks better.
+     */
+    private static int compare(final int value1, final UUID uuid1, final int value2, final UUID uuid2)
+    {
+        if (value1 != value2)
+        {
+            return value1 > value2 ? -1 : 1;
+        }
+        return uuid1.compareTo(uuid2);
+    }
+    
+    /**
+     * Returns the subtree size.
+     * 
+     * @param node
+     *            the node or {@code null}
+     * @return size
+     */
+    private static int size(final Node node)
+    {
+        return node == null ? 0 : node.size;
+    }
+    
+    /**
+     * Recalculates the subtree size.
+     * 
+     * @param node
+     *            the node.
+     * @return the node.
+     */
+    private static Node fix(final Node node)
+    {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+    
+    /**
+     * Returns the number of ranked players.
+     * 
+     * @return number of players.
+     */
+    public synchronized int size()
+    {
+        return size(this.root);
+    }
+    
+    /**
+     * Removes all players.
+     */
+    public synchronized void clear()
+    {
+        this.root = null;
+    }
+    
+    /**
+     * Adds a player; the player must not be ranked already.
+     * 
+     * @param uuid
+     *            the player.
+     * @param value
+     *            the stat value.
+     */
+    public synchronized void add(final UUID uuid, final int value)
+    {
+        this.root = insert(this.root, new Node(uuid, value, this.random.nextInt()));
+    }
+    
+    /**
+     * Changes the value of a ranked player.
+     * 
+     * @param uuid
+     *            the player.
+     * @param oldValue
+     *            the value the player is currently ranked with.
+     * @param newValue
+     *            the new value.
+     */
+    public synchronized void update(final UUID uuid, final int oldValue, final int newValue)
+    {
+        if (oldValue == newValue)
+        {
+            return;
+        }
+        this.root = delete(this.root, uuid, oldValue);
+        this.root = insert(this.root, new Node(uuid, newValue, this.random.nextInt()));
+    }
+    
+    /**
+     * Returns the rank of a player.
+     * 
+     * @param uuid
+     *            the player.
+     * @param value
+     *            the value the player is ranked with.
+     * @return rank starting with 1 or 0 if the player is not ranked.
+     */
+    public synchronized int getRank(final UUID uuid, final int value)
+    {
+        int rank = 0;
+        Node node = this.root;
+        while (node != null)
+        {
+            final int cmp = compare(value, uuid, node.value, node.uuid);
+            if (cmp == 0)
+            {
+                return rank + size(node.left) + 1;
+            }
+            if (cmp < 0)
+            {
+                node = node.left;
+            }
+            else
+            {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Returns the player at given rank.
+     * 
+     * @param rank
+     *            rank starting with 1.
+     * @return player or {@code null} if there are less players.
+     */
+    public synchronized UUID get(final int rank)
+    {
+        int index = rank - 1;
+        Node node = this.root;
+        while (node != null)
+        {
+            final int left = size(node.left);
+            if (index == left)
+            {
+                return node.uuid;
+            }
+            if (index < left)
+            {
+                node = node.left;
+            }
+            else
+            {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the best ranked players.
+     * 
+     * @param count
+     *            maximum number of players.
+     * @return players ordered by rank.
+     */
+    public synchronized List<UUID> getTop(final int count)
+    {
+        final List<UUID> result = new ArrayList<>(Math.max(0, Math.min(count, size(this.root))));
+        collect(this.root, count, result);
+        return result;
+    }
+    
+    /**
+     * In-order traversal collecting up to count players.
+     * 
+     * @param node
+     *            subtree
+     * @param count
+     *            maximum number of players
+     * @param result
+     *            target list
+     */
+    private static void collect(final Node node, final int count, final List<UUID> result)
+    {
+        if (node == null || result.size() >= count)
+        {
+            return;
+        }
+        collect(node.left, count, result);
+        if (result.size() < count)
+        {
+            result.add(node.uuid);
+            collect(node.right, count, result);
+        }
+    }
+    
+    /**
+     * Inserts a node.
+     * 
+     * @param node
+     *            subtree
+     * @param added
+     *            the node to insert
+     * @return new subtree
+     */
+    private static Node insert(final Node node, final Node added)
+    {
+        if (node == null)
+        {
+            return added;
+        }
+        if (compare(added.value, added.uuid, node.value, node.uuid) < 0)
+        {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority)
+            {
+                return rotateRight(node);
+            }
+        }
+        else
+        {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority)
+            {
+                return rotateLeft(node);
+            }
+        }
+        return fix(node);
+    }
+    
+    /**
+     * Deletes a node.
+     * 
+     * @param node
+     *            subtree
+     * @param uuid
+     *            the player
+     * @param value
+     *            the value the player is ranked with
+     * @return new subtree
+     */
+    private static Node delete(final Node node, final UUID uuid, final int value)
+    {
+        if (node == null)
+        {
+            return null;
+        }
+        final int cmp = compare(value, uuid, node.value, node.uuid);
+        if (cmp < 0)
+        {
+            node.left = delete(node.left, uuid, value);
+        }
+        else if (cmp > 0)
+        {
+            node.right = delete(node.right, uuid, value);
+        }
+        else
+        {
+            return merge(node.left, node.right);
+        }
+        return fix(node);
+    }
+    
+    /**
+     * Merges two subtrees; all nodes of the left subtree rank better.
+     * 
+     * @param left
+     *            left subtree
+     * @param right
+     *            right subtree
+     * @return merged subtree
+     */
+    private static Node merge(final Node left, final Node right)
+    {
+        if (left == null)
+        {
+            return right;
+        }
+        if (right == null)
+        {
+            return left;
+        }
+        if (left.priority > right.priority)
+        {
+            left.right = merge(left.right, right);
+            return fix(left);
+        }
+        right.left = merge(left, right.left);
+        return fix(right);
+    }
+    
+    /**
+     * Rotates the left child up.
+     * 
+     * @param node
+     *            subtree
+     * @return new subtree
+     */
+    private static Node rotateRight(final Node node)
+    {
+        final Node left = node.left;
+        node.left = left.right;
+        left.right = fix(node);
+        return fix(left);
+    }
+    
+    /**
+     * Rotates the right child up.
+     * 
+     * @param node
+     *            subtree
+     * @return new subtree
+     */
+    private static Node rotateLeft(final Node node)
+    {
+        final Node right = node.right;
+        node.right = right.left;
+        right.left = fix(node);
+        return fix(right);
+    }
+    
+}
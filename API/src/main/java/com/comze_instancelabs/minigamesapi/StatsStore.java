@@ -0,0 +1,746 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * In-memory player statistics backed by a stats yml file (stats.yml or global_stats.yml).
+ *
+ * <p>
+ * Changes are applied to the memory and to the loaded yml configuration but are not saved immediately. The store is marked dirty instead and written by {@link #flushAsync(Plugin)} (invoked
+ * periodically) or {@link #flush()} (on shutdown). The file is written to a temporary file first and renamed afterwards so that a crash never leaves a half written stats file.
+ * </p>
+ *
+ * <p>
+ * Reading is safe from any thread; changes have to be made on the server thread.
+ * </p>
+ *
+ * <p>
+ * For each stat the store maintains a {@link StatsRanking} of all known players so that leaderboards and player ranks do not need to walk the yml configuration.
+ * </p>
+ *
+ * @author instancelabs
+ */
+public class StatsStore
+{
+    
+    /** the players section. */
+    private static final String                 PLAYERS    = "players";                  //$NON-NLS-1$
+    
+    /** the player name key. */
+    private static final String                 PLAYERNAME = "playername";               //$NON-NLS-1$
+    
+    /** the logger. */
+    private final Logger                        logger;
+    
+    /** the yml configuration holding the stats. */
+    private final Supplier<FileConfiguration>   config;
+    
+    /** the stats file. */
+    private final File                          file;
+    
+    /** the player stats by uuid. */
+    private final Map<UUID, Entry>              players    = new ConcurrentHashMap<>();
+    
+    /** player values not managed by this store (unknown keys or entries not keyed by a valid uuid); kept to be written back unchanged. */
+    private final Map<String, Object>           unparsed   = new LinkedHashMap<>();
+    
+    /** {@code true} if there are changes not yet written to disk. */
+    private volatile boolean                    dirty      = false;
+    
+    /** lock serializing the file writes and loads. */
+    private final Object                        writeLock  = new Object();
+    
+    /** token of the scheduled or running asynchronous flush; {@code null} if there is none. Guarded by {@link #writeLock}. */
+    private Object                              pendingWrite;
+    
+    /** the player rankings by stat. */
+    private final Map<StatsKey, StatsRanking>   rankings   = new EnumMap<>(StatsKey.class);
+    
+    /**
+     * Stats of a single player.
+     */
+    private static final class Entry
+    {
+        /** values by {@link StatsKey#ordinal()}. */
+        final int[] values = new int[StatsKey.values().length];
+        
+        /** bit mask of the values being set. */
+        int         set;
+        
+        /** last known player name. */
+        String      playername;
+        
+        /** {@code true} if the player was added to the rankings. */
+        boolean     ranked;
+    }
+    
+    /**
+     * Constructor; loads the stats from given configuration.
+     * 
+     * @param logger
+     *            the logger for reporting write failures.
+     * @param config
+     *            supplier for the yml configuration holding the stats.
+     * @param file
+     *            the stats file.
+     */
+    public StatsStore(final Logger logger, final Supplier<FileConfiguration> config, final File file)
+    {
+        this.logger = logger;
+        this.config = config;
+        this.file = file;
+        for (final StatsKey stat : StatsKey.values())
+        {
+            this.rankings.put(stat, new StatsRanking());
+        }
+        this.load();
+    }
+    
+    /**
+     * (Re-)Loads the player stats from the yml configuration; unsaved changes are dropped. Waits for a running asynchronous flush.
+     */
+    public void load()
+    {
+        synchronized (this.writeLock)
+        {
+            this.doLoad();
+        }
+    }
+    
+    /**
+     * Loads the player stats; invoked while holding the write lock.
+     */
+    private void doLoad()
+    {
+        this.players.clear();
+        for (final StatsRanking ranking : this.rankings.values())
+        {
+            ranking.clear();
+        }
+        synchronized (this.unparsed)
+        {
+            this.unparsed.clear();
+        }
+        final ConfigurationSection section = this.config.get().getConfigurationSection(PLAYERS);
+        if (section == null)
+        {
+            return;
+        }
+        for (final String key : section.getKeys(false))
+        {
+            final ConfigurationSection player = section.getConfigurationSection(key);
+            if (player == null)
+            {
+                continue;
+            }
+            UUID uuid;
+            try
+            {
+                uuid = UUID.fromString(key);
+            }
+            catch (@SuppressWarnings("unused") final IllegalArgumentException ex)
+            {
+                this.keepUnparsed(key, player, false);
+                continue;
+            }
+            this.keepUnparsed(key, player, true);
+            final Entry entry = new Entry();
+            for (final StatsKey stat : StatsKey.values())
+            {
+                if (player.isSet(stat.getPath()))
+                {
+                    entry.values[stat.ordinal()] = player.getInt(stat.getPath());
+                    entry.set |= 1 << stat.ordinal();
+                }
+            }
+            entry.playername = player.getString(PLAYERNAME);
+            this.rank(uuid, entry);
+            this.players.put(uuid, entry);
+        }
+    }
+    
+    /**
+     * Remembers the player values not managed by this store so that they are written back unchanged.
+     * 
+     * @param key
+     *            the player key within the players section
+     * @param player
+     *            the player section
+     * @param skipKnown
+     *            {@code true} to skip the stats and the player name; they are written from the parsed entry
+     */
+    private void keepUnparsed(final String key, final ConfigurationSection player, final boolean skipKnown)
+    {
+        synchronized (this.unparsed)
+        {
+            for (final Map.Entry<String, Object> value : player.getValues(true).entrySet())
+            {
+                if (value.getValue() instanceof ConfigurationSection)
+                {
+                    continue;
+                }
+                if (skipKnown && isKnown(value.getKey()))
+                {
+                    continue;
+                }
+                this.unparsed.put(key + "." + value.getKey(), value.getValue()); //$NON-NLS-1$
+            }
+        }
+    }
+    
+    /**
+     * Checks if given player key is managed by this store.
+     * 
+     * @param path
+     *            config key below "players.&lt;uuid&gt;"
+     * @return {@code true} for the stats and the player name
+     */
+    private static boolean isKnown(final String path)
+    {
+        if (PLAYERNAME.equals(path))
+        {
+            return true;
+        }
+        for (final StatsKey stat : StatsKey.values())
+        {
+            if (stat.getPath().equals(path))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Checks if the given stat was ever set for given player.
+     * 
+     * @param uuid
+     *            player uuid
+     * @param stat
+     *            the stat
+     * @return {@code true} if the stat is set.
+     */
+    public boolean isSet(final UUID uuid, final StatsKey stat)
+    {
+        final Entry entry = this.players.get(uuid);
+        if (entry == null)
+        {
+            return false;
+        }
+        synchronized (entry)
+        {
+            return (entry.set & (1 << stat.ordinal())) != 0;
+        }
+    }
+    
+    /**
+     * Returns the stat value for given player.
+     * 
+     * @param uuid
+     *            player uuid
+     * @param stat
+     *            the stat
+     * @return stat value; {@code 0} if the stat is not set.
+     */
+    public int get(final UUID uuid, final StatsKey stat)
+    {
+        final Entry entry = this.players.get(uuid);
+        if (entry == null)
+        {
+            return 0;
+        }
+        synchronized (entry)
+        {
+            return entry.values[stat.ordinal()];
+        }
+    }
+    
+    /**
+     * Returns the last known name of given player.
+     * 
+     * @param uuid
+     *            player uuid
+     * @return player name or {@code null} if the player is not known.
+     */
+    public String getPlayerName(final UUID uuid)
+    {
+        final Entry entry = this.players.get(uuid);
+        if (entry == null)
+        {
+            return null;
+        }
+        synchronized (entry)
+        {
+            return entry.playername;
+        }
+    }
+    
+    /**
+     * Sets the stat value for given player.
+     * 
+     * @param uuid
+     *            player uuid
+     * @param stat
+     *            the stat
+     * @param value
+     *            new value
+     * @param playername
+     *            player name to be remembered or {@code null} to keep the current one
+     */
+    public void set(final UUID uuid, final StatsKey stat, final int value, final String playername)
+    {
+        final Entry entry = this.players.computeIfAbsent(uuid, k -> new Entry());
+        synchronized (entry)
+        {
+            this.rerank(uuid, entry, stat, value);
+            entry.values[stat.ordinal()] = value;
+            entry.set |= 1 << stat.ordinal();
+            if (playername != null)
+            {
+                entry.playername = playername;
+            }
+        }
+        this.writeThrough(uuid, stat, value, playername);
+    }
+    
+    /**
+     * Adds given amount to the stat value of given player.
+     * 
+     * @param uuid
+     *            player uuid
+     * @param stat
+     *            the stat
+     * @param amount
+     *            amount to add
+     * @param playername
+     *            player name to be remembered or {@code null} to keep the current one
+     * @return the new value
+     */
+    public int add(final UUID uuid, final StatsKey stat, final int amount, final String playername)
+    {
+        final Entry entry = this.players.computeIfAbsent(uuid, k -> new Entry());
+        final int value;
+        synchronized (entry)
+        {
+            value = entry.values[stat.ordinal()] + amount;
+            this.rerank(uuid, entry, stat, value);
+            entry.values[stat.ordinal()] = value;
+            entry.set |= 1 << stat.ordinal();
+            if (playername != null)
+            {
+                entry.playername = playername;
+            }
+        }
+        this.writeThrough(uuid, stat, value, playername);
+        return value;
+    }
+    
+    /**
+     * Returns the best ranked players with a known player name for given stat.
+     * 
+     * @param stat
+     *            the stat
+     * @param count
+     *            maximum number of players
+     * @return player uuids ordered by rank (highest value first).
+     */
+    public List<UUID> getTop(final StatsKey stat, final int count)
+    {
+        final StatsRanking ranking = this.rankings.get(stat);
+        int fetch = count;
+        while (true)
+        {
+            final List<UUID> top = ranking.getTop(fetch);
+            final List<UUID> result = new ArrayList<>(top.size());
+            for (final UUID uuid : top)
+            {
+                if (this.getPlayerName(uuid) != null)
+                {
+                    result.add(uuid);
+                    if (result.size() == count)
+                    {
+                        return result;
+                    }
+                }
+            }
+            if (top.size() < fetch || fetch > Integer.MAX_VALUE / 2)
+            {
+                return result;
+            }
+            // unnamed players were skipped; fetch more
+            fetch *= 2;
+        }
+    }
+    
+    /**
+     * Returns the rank of given player for given stat.
+     * 
+     * @param uuid
+     *            player uuid
+     * @param stat
+     *            the stat
+     * @return rank starting with 1 (highest value) or 0 if the player is not known.
+     */
+    public int getRank(final UUID uuid, final StatsKey stat)
+    {
+        final Entry entry = this.players.get(uuid);
+        if (entry == null)
+        {
+            return 0;
+        }
+        synchronized (entry)
+        {
+            return this.rankings.get(stat).getRank(uuid, entry.values[stat.ordinal()]);
+        }
+    }
+    
+    /**
+     * Returns the number of known players.
+     * 
+     * @return number of players.
+     */
+    public int getPlayerCount()
+    {
+        return this.players.size();
+    }
+    
+    /**
+     * Adds a new entry to all rankings; invoke while holding the entry lock.
+     * 
+     * @param uuid
+     *            player uuid
+     * @param entry
+     *            the entry
+     */
+    private void rank(final UUID uuid, final Entry entry)
+    {
+        for (final StatsKey stat : StatsKey.values())
+        {
+            this.rankings.get(stat).add(uuid, entry.values[stat.ordinal()]);
+        }
+        entry.ranked = true;
+    }
+    
+    /**
+     * Updates the ranking before a value is changed; invoke while holding the entry lock.
+     * 
+     * @param uuid
+     *            player uuid
+     * @param entry
+     *            the entry
+     * @param stat
+     *            the stat
+     * @param value
+     *            the new value
+     */
+    private void rerank(final UUID uuid, final Entry entry, final StatsKey stat, final int value)
+    {
+        if (!entry.ranked)
+        {
+            this.rank(uuid, entry);
+        }
+        this.rankings.get(stat).update(uuid, entry.values[stat.ordinal()], value);
+    }
+    
+    /**
+     * Marks the store dirty after other (non player) sections of the yml configuration were changed.
+     */
+    public void markDirty()
+    {
+        this.dirty = true;
+    }
+    
+    /**
+     * Checks for unsaved changes.
+     * 
+     * @return {@code true} if there are changes not yet written to disk.
+     */
+    public boolean isDirty()
+    {
+        return this.dirty;
+    }
+    
+    /**
+     * Applies a change to the loaded yml configuration so that it stays in sync for direct readers.
+     * 
+     * @param uuid
+     *            player uuid
+     * @param stat
+     *            the stat
+     * @param value
+     *            new value
+     * @param playername
+     *            player name or {@code null}
+     */
+    private void writeThrough(final UUID uuid, final StatsKey stat, final int value, final String playername)
+    {
+        final FileConfiguration cfg = this.config.get();
+        final String base = PLAYERS + "." + uuid + "."; //$NON-NLS-1$ //$NON-NLS-2$
+        cfg.set(base + stat.getPath(), value);
+        if (playername != null)
+        {
+            cfg.set(base + PLAYERNAME, playername);
+        }
+        this.dirty = true;
+    }
+    
+    /**
+     * Writes pending changes in background; invoke on the server thread.
+     * 
+     * @param owner
+     *            the plugin owning the background task.
+     */
+    public void flushAsync(final Plugin owner)
+    {
+        this.flushAsync(task -> Bukkit.getScheduler().runTaskAsynchronously(owner, task));
+    }
+    
+    /**
+     * Writes pending changes in background; invoke on the server thread.
+     * 
+     * <p>
+     * A write that did not start before the next {@link #flush()} is superseded by the synchronous write and skipped.
+     * </p>
+     * 
+     * @param executor
+     *            the executor running the write.
+     */
+    public void flushAsync(final Executor executor)
+    {
+        if (!this.dirty)
+        {
+            return;
+        }
+        final Object token = new Object();
+        synchronized (this.writeLock)
+        {
+            if (this.pendingWrite != null)
+            {
+                return;
+            }
+            this.pendingWrite = token;
+        }
+        this.dirty = false;
+        final Map<String, Object> extras = this.snapshotExtras();
+        final String header = this.config.get().options().header();
+        try
+        {
+            executor.execute(() -> {
+                synchronized (this.writeLock)
+                {
+                    if (this.pendingWrite != token)
+                    {
+                        // superseded by a synchronous flush
+                        return;
+                    }
+                    try
+                    {
+                        this.write(extras, header);
+                    }
+                    catch (final IOException ex)
+                    {
+                        this.dirty = true;
+                        this.logger.log(Level.WARNING, "Failed writing stats file " + this.file, ex); //$NON-NLS-1$
+                    }
+                    finally
+                    {
+                        this.pendingWrite = null;
+                    }
+                }
+            });
+        }
+        catch (final RuntimeException ex)
+        {
+            // plugin disabled; keep the changes for the synchronous flush
+            synchronized (this.writeLock)
+            {
+                this.pendingWrite = null;
+            }
+            this.dirty = true;
+        }
+    }
+    
+    /**
+     * Writes pending changes synchronously; invoke on the server thread, f.e. on shutdown or before reloading.
+     * 
+     * <p>
+     * Waits for a running asynchronous flush; a scheduled flush that did not start yet is written now.
+     * </p>
+     */
+    public void flush()
+    {
+        synchronized (this.writeLock)
+        {
+            if (this.pendingWrite != null)
+            {
+                // not started yet; its changes are written now
+                this.pendingWrite = null;
+                this.dirty = true;
+            }
+            if (!this.dirty)
+            {
+                return;
+            }
+            this.dirty = false;
+            try
+            {
+                this.write(this.snapshotExtras(), this.config.get().options().header());
+            }
+            catch (final IOException ex)
+            {
+                this.dirty = true;
+                this.logger.log(Level.WARNING, "Failed writing stats file " + this.file, ex); //$NON-NLS-1$
+            }
+        }
+    }
+    
+    /**
+     * Copies all values outside of the players section; invoke on the server thread.
+     * 
+     * @return values by full path.
+     */
+    private Map<String, Object> snapshotExtras()
+    {
+        final FileConfiguration cfg = this.config.get();
+        final Map<String, Object> result = new LinkedHashMap<>();
+        for (final String key : cfg.getKeys(false))
+        {
+            if (PLAYERS.equals(key))
+            {
+                continue;
+            }
+            final Object value = cfg.get(key);
+            if (value instanceof ConfigurationSection)
+            {
+                for (final Map.Entry<String, Object> child : ((ConfigurationSection) value).getValues(true).entrySet())
+                {
+                    if (!(child.getValue() instanceof ConfigurationSection))
+                    {
+                        result.put(key + "." + child.getKey(), copy(child.getValue())); //$NON-NLS-1$
+                    }
+                }
+            }
+            else
+            {
+                result.put(key, copy(value));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Copies mutable list values.
+     * 
+     * @param value
+     *            config value
+     * @return value safe to be used from another thread.
+     */
+    private static Object copy(final Object value)
+    {
+        if (value instanceof List)
+        {
+            return new ArrayList<>((List<?>) value);
+        }
+        return value;
+    }
+    
+    /**
+     * Writes the stats file; the content is saved to a temporary file and renamed afterwards.
+     * 
+     * @param extras
+     *            values outside of the players section
+     * @param header
+     *            the file header
+     * @throws IOException
+     *             thrown on write errors.
+     */
+    private void write(final Map<String, Object> extras, final String header) throws IOException
+    {
+        synchronized (this.writeLock)
+        {
+            final YamlConfiguration out = new YamlConfiguration();
+            if (header != null)
+            {
+                out.options().header(header);
+            }
+            for (final Map.Entry<String, Object> extra : extras.entrySet())
+            {
+                out.set(extra.getKey(), extra.getValue());
+            }
+            synchronized (this.unparsed)
+            {
+                for (final Map.Entry<String, Object> value : this.unparsed.entrySet())
+                {
+                    out.set(PLAYERS + "." + value.getKey(), value.getValue()); //$NON-NLS-1$
+                }
+            }
+            for (final Map.Entry<UUID, Entry> player : this.players.entrySet())
+            {
+                final String base = PLAYERS + "." + player.getKey() + "."; //$NON-NLS-1$ //$NON-NLS-2$
+                final Entry entry = player.getValue();
+                synchronized (entry)
+                {
+                    for (final StatsKey stat : StatsKey.values())
+                    {
+                        if ((entry.set & (1 << stat.ordinal())) != 0)
+                        {
+                            out.set(base + stat.getPath(), entry.values[stat.ordinal()]);
+                        }
+                    }
+                    if (entry.playername != null)
+                    {
+                        out.set(base + PLAYERNAME, entry.playername);
+                    }
+                }
+            }
+            
+            final File tmp = new File(this.file.getPath() + ".tmp"); //$NON-NLS-1$
+            Files.write(tmp.toPath(), out.saveToString().getBytes(StandardCharsets.UTF_8));
+            try
+            {
+                Files.move(tmp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (@SuppressWarnings("unused") final AtomicMoveNotSupportedException ex)
+            {
+                Files.move(tmp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,576 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * A hierarchical timing wheel driven by a single bukkit task.
+ * 
+ * <p>
+ * Arena countdowns, match timers and delayed actions register on this wheel instead of creating their own bukkit tasks. Scheduling and cancelling are O(1); each tick only touches the tasks due
+ * in that tick. Tasks far in the future are kept in coarser wheels and cascade down as they approach.
+ * </p>
+ * 
+ * <p>
+ * Every task belongs to an owner (typically the arena). The wheel records the number of runs and the time spent per owner and is able to cancel all tasks of an owner at once.
+ * </p>
+ * 
+ * <p>
+ * The wheel is not thread safe; it must only be used from the server thread.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class TickWheel
+{
+    
+    /**
+     * A scheduled task.
+     */
+    public static final class Task
+    {
+        /** the owner timing. */
+        final Timing   timing;
+        
+        /** the runnable. */
+        final Runnable runnable;
+        
+        /** the period in ticks; 0 for one-shot tasks. */
+        final long     period;
+        
+        /** the tick this task is due. */
+        long           expires;
+        
+        /** {@code true} if the task was cancelled or finished. */
+        boolean        cancelled;
+        
+        /** the wheel holding this task; {@code null} if the task is not linked. */
+        Task[]         bucket;
+        
+        /** the slot within the bucket. */
+        int            slot;
+        
+        /** previous task within the slot. */
+        Task           prev;
+        
+        /** next task within the slot. */
+        Task           next;
+        
+        /**
+         * Constructor.
+         * 
+         * @param timing
+         *            the owner timing
+         * @param runnable
+         *            the runnable
+         * @param period
+         *            the period in ticks
+         */
+        Task(final Timing timing, final Runnable runnable, final long period)
+        {
+            this.timing = timing;
+            this.runnable = runnable;
+            this.period = period;
+        }
+        
+        /**
+         * Cancels this task. Repeating tasks may cancel themselves while running.
+         */
+        public void cancel()
+        {
+            if (!this.cancelled)
+            {
+                this.cancelled = true;
+                this.unlink();
+                this.timing.tasks.remove(this);
+            }
+        }
+        
+        /**
+         * Checks if the task was cancelled or a one-shot task already ran.
+         * 
+         * @return {@code true} if the task will not run again
+         */
+        public boolean isCancelled()
+        {
+            return this.cancelled;
+        }
+        
+        /**
+         * Returns the owner.
+         * 
+         * @return owner
+         */
+        public Object getOwner()
+        {
+            return this.timing.owner;
+        }
+        
+        /**
+         * Removes this task from its slot.
+         */
+        void unlink()
+        {
+            if (this.bucket != null)
+            {
+                if (this.prev == null)
+                {
+                    this.bucket[this.slot] = this.next;
+                }
+                else
+                {
+                    this.prev.next = this.next;
+                }
+                if (this.next != null)
+                {
+                    this.next.prev = this.prev;
+                }
+                this.bucket = null;
+                this.prev = null;
+                this.next = null;
+            }
+        }
+    }
+    
+    /**
+     * Timing metrics of an owner.
+     */
+    public static final class Timing
+    {
+        /** the owner. */
+        final Object    owner;
+        
+        /** the pending tasks. */
+        final Set<Task> tasks = new LinkedHashSet<>();
+        
+        /** number of runs. */
+        long            runs;
+        
+        /** nano seconds spent in the tasks. */
+        long            totalNanos;
+        
+        /** maximum nano seconds of a single run. */
+        long            maxNanos;
+        
+        /**
+         * Constructor.
+         * 
+         * @param owner
+         *            the owner
+         */
+        Timing(final Object owner)
+        {
+            this.owner = owner;
+        }
+        
+        /**
+         * Returns the number of task runs.
+         * 
+         * @return runs
+         */
+        public long getRuns()
+        {
+            return this.runs;
+        }
+        
+        /**
+         * Returns the time spent in the tasks.
+         * 
+         * @return nano seconds
+         */
+        public long getTotalNanos()
+        {
+            return this.totalNanos;
+        }
+        
+        /**
+         * Returns the longest single run.
+         * 
+         * @return nano seconds
+         */
+        public long getMaxNanos()
+        {
+            return this.maxNanos;
+        }
+        
+        /**
+         * Returns the average time of a run.
+         * 
+         * @return nano seconds
+         */
+        public long getAverageNanos()
+        {
+            return this.runs == 0 ? 0 : this.totalNanos / this.runs;
+        }
+        
+        /**
+         * Returns the number of pending tasks.
+         * 
+         * @return pending tasks
+         */
+        public int getPending()
+        {
+            return this.tasks.size();
+        }
+    }
+    
+    /** logger. */
+    private static final Logger       LOGGER  = Logger.getLogger(TickWheel.class.getName());
+    
+    /** bits of the first wheel. */
+    private static final int          BITS0   = 8;
+    
+    /** bits of the outer wheels. */
+    private static final int          BITS    = 6;
+    
+    /** span of the wheels in ticks; the last wheel holds everything beyond. */
+    private static final long[]       SPANS   = { 1L << BITS0, 1L << (BITS0 + BITS), 1L << (BITS0 + 2 * BITS), 1L << (BITS0 + 3 * BITS) };
+    
+    /** the wheels; 256 slots of one tick followed by 64 slots of 256, 16384 and 1048576 ticks. */
+    private final Task[][]            wheels  = { new Task[1 << BITS0], new Task[1 << BITS], new Task[1 << BITS], new Task[1 << BITS] };
+    
+    /** timings by owner. */
+    private final Map<Object, Timing> timings = new HashMap<>();
+    
+    /** tasks detached from a slot; reused between ticks. */
+    private final List<Task>          due     = new ArrayList<>();
+    
+    /** the current tick. */
+    private long                      tick;
+    
+    /** the bukkit task driving the wheel. */
+    private BukkitTask                driver;
+    
+    /**
+     * Starts driving the wheel once per server tick.
+     * 
+     * @param plugin
+     *            the plugin owning the driver task
+     */
+    public void start(final Plugin plugin)
+    {
+        if (this.driver == null)
+        {
+            this.driver = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+    
+    /**
+     * Stops driving the wheel; pending tasks are kept.
+     */
+    public void stop()
+    {
+        if (this.driver != null)
+        {
+            this.driver.cancel();
+            this.driver = null;
+        }
+    }
+    
+    /**
+     * Returns the number of ticks the wheel advanced.
+     * 
+     * @return current tick
+     */
+    public long getCurrentTick()
+    {
+        return this.tick;
+    }
+    
+    /**
+     * Runs a task once after given delay.
+     * 
+     * @param owner
+     *            the owner, f.e. the arena
+     * @param delay
+     *            delay in ticks; values below 1 run on next tick
+     * @param runnable
+     *            the runnable
+     * @return task
+     */
+    public Task schedule(final Object owner, final long delay, final Runnable runnable)
+    {
+        return this.add(owner, delay, 0, runnable);
+    }
+    
+    /**
+     * Runs a task repeatedly until it is cancelled.
+     * 
+     * @param owner
+     *            the owner, f.e. the arena
+     * @param delay
+     *            delay of the first run in ticks; values below 1 run on next tick
+     * @param period
+     *            ticks between runs
+     * @param runnable
+     *            the runnable
+     * @return task
+     */
+    public Task scheduleRepeating(final Object owner, final long delay, final long period, final Runnable runnable)
+    {
+        if (period < 1)
+        {
+            throw new IllegalArgumentException("period must be positive"); //$NON-NLS-1$
+        }
+        return this.add(owner, delay, period, runnable);
+    }
+    
+    /**
+     * Cancels all tasks of given owner.
+     * 
+     * @param owner
+     *            the owner
+     * @return number of cancelled tasks
+     */
+    public int cancelAll(final Object owner)
+    {
+        final Timing timing = this.timings.get(owner);
+        if (timing == null)
+        {
+            return 0;
+        }
+        final List<Task> tasks = new ArrayList<>(timing.tasks);
+        for (final Task task : tasks)
+        {
+            task.cancel();
+        }
+        return tasks.size();
+    }
+    
+    /**
+     * Returns the timing metrics of given owner.
+     * 
+     * @param owner
+     *            the owner
+     * @return timing; {@code null} if the owner never scheduled a task
+     */
+    public Timing getTiming(final Object owner)
+    {
+        return this.timings.get(owner);
+    }
+    
+    /**
+     * Returns the timing metrics of all owners.
+     * 
+     * @return timings by owner
+     */
+    public Map<Object, Timing> getTimings()
+    {
+        return Collections.unmodifiableMap(this.timings);
+    }
+    
+    /**
+     * Forgets the timing metrics of given owner; pending tasks are cancelled.
+     * 
+     * @param owner
+     *            the owner
+     */
+    public void removeTiming(final Object owner)
+    {
+        this.cancelAll(owner);
+        this.timings.remove(owner);
+    }
+    
+    /**
+     * Advances the wheel by one tick and runs the due tasks.
+     */
+    public void tick()
+    {
+        final long now = ++this.tick;
+        final int slot = (int) (now & (SPANS[0] - 1));
+        if (slot == 0)
+        {
+            // cascade the outer wheels whenever the inner wheel completed a round
+            for (int level = 1; level < this.wheels.length; level++)
+            {
+                final int outer = (int) ((now >> (BITS0 + (level - 1) * BITS)) & ((1 << BITS) - 1));
+                this.detach(this.wheels[level], outer);
+                for (final Task task : this.due)
+                {
+                    this.insert(task);
+                }
+                if (outer != 0)
+                {
+                    break;
+                }
+            }
+        }
+        
+        this.detach(this.wheels[0], slot);
+        if (this.due.isEmpty())
+        {
+            return;
+        }
+        final Task[] tasks = this.due.toArray(new Task[this.due.size()]);
+        for (final Task task : tasks)
+        {
+            if (task.cancelled)
+            {
+                continue;
+            }
+            if (task.expires > now)
+            {
+                // clamped task of the last wheel
+                this.insert(task);
+                continue;
+            }
+            this.run(task);
+            if (task.period > 0 && !task.cancelled)
+            {
+                task.expires = now + task.period;
+                this.insert(task);
+            }
+            else if (!task.cancelled)
+            {
+                task.cancelled = true;
+                task.timing.tasks.remove(task);
+            }
+        }
+    }
+    
+    /**
+     * Returns the number of pending tasks.
+     * 
+     * @return pending tasks
+     */
+    public int size()
+    {
+        int result = 0;
+        for (final Timing timing : this.timings.values())
+        {
+            result += timing.tasks.size();
+        }
+        return result;
+    }
+    
+    /**
+     * Creates and inserts a task.
+     * 
+     * @param owner
+     *            owner
+     * @param delay
+     *            delay in ticks
+     * @param period
+     *            period in ticks; 0 for one-shot tasks
+     * @param runnable
+     *            the runnable
+     * @return task
+     */
+    private Task add(final Object owner, final long delay, final long period, final Runnable runnable)
+    {
+        final Timing timing = this.timings.computeIfAbsent(owner, Timing::new);
+        final Task task = new Task(timing, runnable, period);
+        task.expires = this.tick + Math.max(1L, delay);
+        timing.tasks.add(task);
+        this.insert(task);
+        return task;
+    }
+    
+    /**
+     * Inserts a task into the wheel covering its expiry.
+     * 
+     * @param task
+     *            task
+     */
+    private void insert(final Task task)
+    {
+        final long delta = task.expires - this.tick;
+        int level = 0;
+        while (level < SPANS.length - 1 && delta >= SPANS[level])
+        {
+            level++;
+        }
+        // tasks beyond the last wheel are parked at its far end and re-inserted when they cascade
+        final long at = delta < 0 ? this.tick : Math.min(task.expires, this.tick + SPANS[SPANS.length - 1] - 1);
+        final int shift = level == 0 ? 0 : BITS0 + (level - 1) * BITS;
+        final Task[] bucket = this.wheels[level];
+        final int slot = (int) ((at >> shift) & (bucket.length - 1));
+        
+        task.bucket = bucket;
+        task.slot = slot;
+        task.prev = null;
+        task.next = bucket[slot];
+        if (task.next != null)
+        {
+            task.next.prev = task;
+        }
+        bucket[slot] = task;
+    }
+    
+    /**
+     * Moves all tasks of a slot to the due list.
+     * 
+     * @param bucket
+     *            the wheel
+     * @param slot
+     *            the slot
+     */
+    private void detach(final Task[] bucket, final int slot)
+    {
+        this.due.clear();
+        Task task = bucket[slot];
+        bucket[slot] = null;
+        while (task != null)
+        {
+            final Task next = task.next;
+            task.bucket = null;
+            task.prev = null;
+            task.next = null;
+            this.due.add(task);
+            task = next;
+        }
+    }
+    
+    /**
+     * Runs a task and records its timing.
+     * 
+     * @param task
+     *            task
+     */
+    private void run(final Task task)
+    {
+        final long start = System.nanoTime();
+        try
+        {
+            task.runnable.run();
+        }
+        catch (final Exception e)
+        {
+            LOGGER.log(Level.WARNING, "Failed running scheduled task of " + task.timing.owner, e); //$NON-NLS-1$
+        }
+        final long nanos = System.nanoTime() - start;
+        final Timing timing = task.timing;
+        timing.runs++;
+        timing.totalNanos += nanos;
+        if (nanos > timing.maxNanos)
+        {
+            timing.maxNanos = nanos;
+        }
+    }
+    
+}
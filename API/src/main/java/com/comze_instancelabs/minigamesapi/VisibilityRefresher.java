@@ -0,0 +1,205 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import com.comze_instancelabs.minigamesapi.util.SpatialGrid;
+
+/**
+ * Refreshes the player visibility after teleports.
+ * 
+ * <p>
+ * Clients sometimes do not show players after a teleport; hiding and showing them again fixes this. Teleports are collected by due tick and each batch is processed once, a few ticks after
+ * the teleports: the online players are bucketed by chunk once per batch and only the pairs involving a teleported player and the players near it are refreshed, each pair only once even
+ * if both players teleported. A player teleported again before its refresh is moved to the batch of its latest teleport.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class VisibilityRefresher
+{
+    
+    /** players within this distance (blocks) of a teleported player are refreshed. */
+    private static final double                          VISIBLE_DISTANCE = 16D;
+    
+    /** ticks between the teleport and the refresh. */
+    private static final long                            DELAY            = 5L;
+    
+    /** the plugin instance. */
+    private final PluginInstance                         pli;
+    
+    /** the tick wheel. */
+    private final Supplier<TickWheel>                    wheel;
+    
+    /** the online players. */
+    private final Supplier<Collection<? extends Player>> online;
+    
+    /** the teleported players waiting for their refresh by due tick. */
+    private final Map<Long, Map<UUID, Player>>           batches          = new HashMap<>();
+    
+    /** the due tick of the waiting players. */
+    private final Map<UUID, Long>                        due              = new HashMap<>();
+    
+    /**
+     * Constructor.
+     * 
+     * @param pli
+     *            the plugin instance
+     */
+    public VisibilityRefresher(final PluginInstance pli)
+    {
+        this(pli, () -> MinigamesAPI.getAPI().getTickWheel(), () -> Bukkit.getServer().getOnlinePlayers());
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param pli
+     *            the plugin instance
+     * @param wheel
+     *            the tick wheel
+     * @param online
+     *            the online players
+     */
+    public VisibilityRefresher(final PluginInstance pli, final Supplier<TickWheel> wheel, final Supplier<Collection<? extends Player>> online)
+    {
+        this.pli = pli;
+        this.wheel = wheel;
+        this.online = online;
+    }
+    
+    /**
+     * Marks the player as teleported; the player is refreshed {@link #DELAY} ticks after its latest teleport.
+     * 
+     * @param player
+     *            the teleported player
+     */
+    public void teleported(final Player player)
+    {
+        final TickWheel tickWheel = this.wheel.get();
+        final long tick = tickWheel.getCurrentTick() + DELAY;
+        final Long old = this.due.put(player.getUniqueId(), tick);
+        if (old != null && old.longValue() != tick)
+        {
+            // the refresh scheduled for the old batch finds it empty
+            final Map<UUID, Player> batch = this.batches.get(old);
+            if (batch != null)
+            {
+                batch.remove(player.getUniqueId());
+            }
+        }
+        Map<UUID, Player> batch = this.batches.get(tick);
+        if (batch == null)
+        {
+            batch = new LinkedHashMap<>();
+            this.batches.put(tick, batch);
+            tickWheel.schedule(this, DELAY, () -> this.refresh(tick));
+        }
+        batch.put(player.getUniqueId(), player);
+    }
+    
+    /**
+     * Hides the changed pairs of a batch and shows them again one tick later.
+     * 
+     * @param tick
+     *            the due tick of the batch
+     */
+    private void refresh(final long tick)
+    {
+        final Map<UUID, Player> batch = this.batches.remove(tick);
+        if (batch == null || batch.isEmpty())
+        {
+            return;
+        }
+        final List<Player> teleported = new ArrayList<>(batch.values());
+        for (final UUID uuid : batch.keySet())
+        {
+            this.due.remove(uuid);
+        }
+        
+        final SpatialGrid<Player> index = new SpatialGrid<>(4);
+        for (final Player p : this.online.get())
+        {
+            final Location l = p.getLocation();
+            index.update(p, l.getWorld().getName(), l.getX(), l.getY(), l.getZ());
+        }
+        
+        // observer entity id and target entity id to observer and target
+        final Map<Long, Player[]> pairs = new LinkedHashMap<>();
+        for (final Player player : teleported)
+        {
+            if (!player.isOnline())
+            {
+                continue;
+            }
+            final Location l = player.getLocation();
+            for (final Player other : index.getNear(l.getWorld().getName(), l.getX(), l.getY(), l.getZ(), VISIBLE_DISTANCE))
+            {
+                if (other.getEntityId() != player.getEntityId())
+                {
+                    addPair(pairs, player, other);
+                    addPair(pairs, other, player);
+                }
+            }
+        }
+        if (pairs.isEmpty())
+        {
+            return;
+        }
+        
+        for (final Player[] pair : pairs.values())
+        {
+            pair[0].hidePlayer(pair[1]);
+        }
+        this.wheel.get().schedule(this, 1L, () -> {
+            for (final Player[] pair : pairs.values())
+            {
+                // spectators stay hidden
+                if (pair[0].isOnline() && pair[1].isOnline() && !VisibilityRefresher.this.pli.containsGlobalLost(pair[1]))
+                {
+                    pair[0].showPlayer(pair[1]);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Adds an observer/target pair.
+     * 
+     * @param pairs
+     *            the pairs
+     * @param observer
+     *            the observer
+     * @param target
+     *            the target
+     */
+    private static void addPair(final Map<Long, Player[]> pairs, final Player observer, final Player target)
+    {
+        pairs.putIfAbsent(((long) observer.getEntityId() << 32) | (target.getEntityId() & 0xFFFFFFFFL), new Player[] { observer, target });
+    }
+    
+}
@@ -27,6 +27,7 @@ import com.comze_instancelabs.minigamesapi.ArenaConfigStrings;
 import com.comze_instancelabs.minigamesapi.ArenaState;
 import com.comze_instancelabs.minigamesapi.MinigamesAPI;
 import com.comze_instancelabs.minigamesapi.PluginInstance;
+import com.comze_instancelabs.minigamesapi.TickWheel;
 import com.comze_instancelabs.minigamesapi.util.Util;
 import com.comze_instancelabs.minigamesapi.util.Validator;
 
@@ -190,7 +191,9 @@ public class ArcadeInstance
     }
     
     int currentlobbycount = 31;
-    int currenttaskid     = 0;
+    
+    /** the arcade lobby countdown; {@code null} if there is no countdown. */
+    TickWheel.Task countdownTask;
     
     public void startArcade()
     {
@@ -205,17 +208,18 @@ public class ArcadeInstance
         final ArcadeInstance ai = this;
         final PluginInstance pli = MinigamesAPI.getAPI().getPluginInstance(this.plugin);
         
-        this.currenttaskid = Bukkit.getScheduler().runTaskTimer(MinigamesAPI.getAPI(), () -> {
+        this.countdownTask = MinigamesAPI.getAPI().getTickWheel().scheduleRepeating(this, 5L, 20L, () -> {
             ArcadeInstance.this.currentlobbycount--;
             if (ArcadeInstance.this.currentlobbycount == 60 || ArcadeInstance.this.currentlobbycount == 30 || ArcadeInstance.this.currentlobbycount == 15 || ArcadeInstance.this.currentlobbycount == 10
                     || ArcadeInstance.this.currentlobbycount < 6)
             {
+                final String msg = pli.getMessagesConfig().getStartingInTemplate().render(ArcadeInstance.this.currentlobbycount);
                 for (final String p_ : ai.players)
                 {
                     if (Validator.isPlayerOnline(p_))
                     {
                         final Player p = Bukkit.getPlayer(p_);
-                        p.sendMessage(pli.getMessagesConfig().starting_in.replaceAll("<count>", Integer.toString(ArcadeInstance.this.currentlobbycount)));
+                        p.sendMessage(msg);
                     }
                 }
             }
@@ -223,28 +227,26 @@ public class ArcadeInstance
             {
                 ArcadeInstance.this.currentindex--;
                 ai.nextMinigame();
-                try
-                {
-                    Bukkit.getScheduler().cancelTask(ArcadeInstance.this.currenttaskid);
-                }
-                catch (final Exception e)
-                {
-                    // silently ignore
-                }
+                ArcadeInstance.this.cancelCountdown();
             }
-        }, 5L, 20).getTaskId();
+        });
     }
     
-    public void stopArcade(final boolean stopOfGame)
+    /**
+     * Cancels the arcade lobby countdown.
+     */
+    void cancelCountdown()
     {
-        try
+        if (this.countdownTask != null)
         {
-            Bukkit.getScheduler().cancelTask(this.currenttaskid);
-        }
-        catch (final Exception e)
-        {
-            // silently ignore
+            this.countdownTask.cancel();
+            this.countdownTask = null;
         }
+    }
+    
+    public void stopArcade(final boolean stopOfGame)
+    {
+        this.cancelCountdown();
         final ArrayList<String> temp = new ArrayList<>(this.players);
         for (final String p_ : temp)
         {
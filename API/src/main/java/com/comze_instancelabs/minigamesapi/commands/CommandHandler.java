@@ -233,7 +233,9 @@ public class CommandHandler
                 pli.getArenasConfig().reloadConfig();
                 pli.getClassesConfig().reloadConfig();
                 pli.getAchievementsConfig().reloadConfig();
+                pli.getStatsInstance().getStore().flush();
                 pli.getStatsConfig().reloadConfig();
+                pli.getStatsInstance().getStore().load();
                 pli.getShopConfig().reloadConfig();
                 pli.getMessagesConfig().init();
                 pli.reloadVariables();
@@ -827,7 +829,7 @@ public class CommandHandler
         }
         if (args.length > 1)
         {
-            pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + args[1], null);
+            pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + args[1], null);
             pli.getArenasConfig().saveConfig();
             if (pli.removeArena(pli.getArenaByName(args[1])))
             {
@@ -999,7 +1001,7 @@ public class CommandHandler
             final String author = args[2];
             if (Validator.isArenaValid(plugin, args[1]))
             {
-                pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + args[1] + ArenaConfigStrings.AUTHOR_SUFFIX, author);
+                pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + args[1] + ArenaConfigStrings.AUTHOR_SUFFIX, author);
                 pli.getArenasConfig().saveConfig();
                 sender.sendMessage(pli.getMessagesConfig().successfully_set.replaceAll("<component>", "author"));
             }
@@ -1024,7 +1026,7 @@ public class CommandHandler
             final String desc = args[2];
             if (Validator.isArenaValid(plugin, args[1]))
             {
-                pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + args[1] + ArenaConfigStrings.DESCRIPTION_SUFFIX, desc);
+                pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + args[1] + ArenaConfigStrings.DESCRIPTION_SUFFIX, desc);
                 pli.getArenasConfig().saveConfig();
                 sender.sendMessage(pli.getMessagesConfig().successfully_set.replaceAll("<component>", "description"));
             }
@@ -1049,7 +1051,7 @@ public class CommandHandler
             final String displayname = args[2];
             if (Validator.isArenaValid(plugin, args[1]))
             {
-                pli.getArenasConfig().getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + args[1] + ArenaConfigStrings.DISPLAYNAME_SUFFIX, displayname);
+                pli.getArenasConfig().set(ArenaConfigStrings.ARENAS_PREFIX + args[1] + ArenaConfigStrings.DISPLAYNAME_SUFFIX, displayname);
                 pli.getArenasConfig().saveConfig();
                 pli.reloadArena(args[1]);
                 sender.sendMessage(pli.getMessagesConfig().successfully_set.replaceAll("<component>", "displayname"));
@@ -18,17 +18,30 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import com.comze_instancelabs.minigamesapi.ArenaConfigStrings;
+
 public class ArenasConfig
 {
     
-    private FileConfiguration arenaConfig = null;
-    private File              arenaFile   = null;
-    private JavaPlugin        plugin      = null;
+    private FileConfiguration          arenaConfig    = null;
+    private File                       arenaFile      = null;
+    private JavaPlugin                 plugin         = null;
+    
+    /** incremented on every change; cached arena layouts are outdated once the revision of their arena changed. */
+    private volatile int               revision;
+    
+    /** the revision of the last reload; applies to all arenas. */
+    private volatile int               reloadRevision;
+    
+    /** the revision of the last change by arena name. */
+    private final Map<String, Integer> arenaRevisions = new ConcurrentHashMap<>();
     
     public ArenasConfig(final JavaPlugin plugin)
     {
@@ -47,12 +60,16 @@ public class ArenasConfig
         return this.arenaConfig;
     }
     
+    /**
+     * Saves the config and marks all arenas as changed; values written directly to {@link #getConfig()} become visible to the cached arena layouts.
+     */
     public void saveConfig()
     {
         if (this.arenaConfig == null || this.arenaFile == null)
         {
             return;
         }
+        this.invalidateAll();
         try
         {
             this.getConfig().save(this.arenaFile);
@@ -65,6 +82,8 @@ public class ArenasConfig
     
     public void reloadConfig()
     {
+        this.reloadRevision = ++this.revision;
+        this.arenaRevisions.clear();
         if (this.arenaFile == null)
         {
             this.arenaFile = new File(this.plugin.getDataFolder(), "arenas.yml");
@@ -79,4 +98,63 @@ public class ArenasConfig
         }
     }
     
+    /**
+     * Sets a config value and marks the arena the path belongs to as changed; the config is not saved.
+     * 
+     * <p>
+     * Arena values should be changed through this method (or followed by {@link #invalidate(String)} or {@link #saveConfig()}), otherwise the cached arena layouts do not see the change.
+     * </p>
+     * 
+     * @param path
+     *            the config path
+     * @param value
+     *            the new value; {@code null} to remove the path
+     */
+    public void set(final String path, final Object value)
+    {
+        this.getConfig().set(path, value);
+        if (path.startsWith(ArenaConfigStrings.ARENAS_PREFIX))
+        {
+            final int end = path.indexOf('.', ArenaConfigStrings.ARENAS_PREFIX.length());
+            this.invalidate(end == -1 ? path.substring(ArenaConfigStrings.ARENAS_PREFIX.length()) : path.substring(ArenaConfigStrings.ARENAS_PREFIX.length(), end));
+        }
+        else if (path.equals("arenas")) //$NON-NLS-1$
+        {
+            this.invalidateAll();
+        }
+    }
+    
+    /**
+     * Marks an arena as changed.
+     * 
+     * @param arena
+     *            the arena name
+     */
+    public void invalidate(final String arena)
+    {
+        this.arenaRevisions.put(arena, ++this.revision);
+    }
+    
+    /**
+     * Marks all arenas as changed.
+     */
+    public void invalidateAll()
+    {
+        this.reloadRevision = ++this.revision;
+        this.arenaRevisions.clear();
+    }
+    
+    /**
+     * Returns the revision of an arena; changes whenever the values of the arena were changed through {@link #set(String, Object)} or the config was saved or reloaded.
+     * 
+     * @param arena
+     *            the arena name
+     * @return arena revision
+     */
+    public int getRevision(final String arena)
+    {
+        final Integer result = this.arenaRevisions.get(arena);
+        return result == null ? this.reloadRevision : Math.max(result.intValue(), this.reloadRevision);
+    }
+    
 }
@@ -142,11 +142,14 @@ public class DefaultConfig
             config.addDefault(ArenaConfigStrings.CONFIG_MYSQL_USER, "root");
             config.addDefault(ArenaConfigStrings.CONFIG_MYSQL_PW, "root");
             config.addDefault(ArenaConfigStrings.CONFIG_MYSQL_DATABASE, "mcminigames");
+            config.addDefault(ArenaConfigStrings.CONFIG_MYSQL_POOL_SIZE, 4);
+            config.addDefault(ArenaConfigStrings.CONFIG_MYSQL_IDLE_TIMEOUT, 300);
             
             config.addDefault(ArenaConfigStrings.CONFIG_SQLITE_ENABLED, false);
             config.addDefault(ArenaConfigStrings.CONFIG_SQLITE_USER, "root");
             config.addDefault(ArenaConfigStrings.CONFIG_SQLITE_PW, "root");
             config.addDefault(ArenaConfigStrings.CONFIG_SQLITE_DATABASE, "mcminigames.sqlite");
+            config.addDefault(ArenaConfigStrings.CONFIG_SQL_FLUSH_INTERVAL, 5);
             
             config.addDefault(ArenaConfigStrings.RESET_GAMEMMODE, true);
             config.addDefault(ArenaConfigStrings.RESET_INVENTORY, true);
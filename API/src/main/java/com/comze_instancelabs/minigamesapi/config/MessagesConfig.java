@@ -27,6 +27,7 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import com.comze_instancelabs.minigamesapi.ArenaState;
+import com.comze_instancelabs.minigamesapi.util.MessageTemplate;
 
 public class MessagesConfig
 {
@@ -35,6 +36,12 @@ public class MessagesConfig
     private File              messagesFile   = null;
     private JavaPlugin        plugin         = null;
     
+    /** compiled {@link #teleporting_to_arena_in}; recompiled if the message changes. */
+    private MessageTemplate<Integer> teleportingToArenaInTemplate;
+    
+    /** compiled {@link #starting_in}; recompiled if the message changes. */
+    private MessageTemplate<Integer> startingInTemplate;
+    
     public MessagesConfig(final JavaPlugin plugin)
     {
         this.plugin = plugin;
@@ -52,7 +59,8 @@ public class MessagesConfig
             this.getConfig().addDefault("signs." + state.toLowerCase() + ".0", color + "[]");
             this.getConfig().addDefault("signs." + state.toLowerCase() + ".1", color + "<arena>");
             this.getConfig().addDefault("signs." + state.toLowerCase() + ".2", color + "<count>/<maxcount>");
-            this.getConfig().addDefault("signs." + state.toLowerCase() + ".3", color + "[]");
+            // restarting signs show the smart reset progress
+            this.getConfig().addDefault("signs." + state.toLowerCase() + ".3", color + (ArenaState.RESTARTING.name().equals(state) ? "<progress>%" : "[]"));
         }
         this.getConfig().addDefault("signs.spec.0", "&cSPECTATE");
         this.getConfig().addDefault("signs.spec.1", "&c<arena>");
@@ -339,6 +347,38 @@ public class MessagesConfig
         return this.messagesConfig;
     }
     
+    /**
+     * Returns the compiled {@link #teleporting_to_arena_in} message; rendered once per lobby countdown tick.
+     * 
+     * @return template with {@code <count>} placeholder.
+     */
+    public MessageTemplate<Integer> getTeleportingToArenaInTemplate()
+    {
+        MessageTemplate<Integer> template = this.teleportingToArenaInTemplate;
+        if (template == null || template.getSource() != this.teleporting_to_arena_in)
+        {
+            template = MessageTemplate.compile(this.teleporting_to_arena_in, MessageTemplate.COUNT);
+            this.teleportingToArenaInTemplate = template;
+        }
+        return template;
+    }
+    
+    /**
+     * Returns the compiled {@link #starting_in} message; rendered once per ingame countdown tick.
+     * 
+     * @return template with {@code <count>} placeholder.
+     */
+    public MessageTemplate<Integer> getStartingInTemplate()
+    {
+        MessageTemplate<Integer> template = this.startingInTemplate;
+        if (template == null || template.getSource() != this.starting_in)
+        {
+            template = MessageTemplate.compile(this.starting_in, MessageTemplate.COUNT);
+            this.startingInTemplate = template;
+        }
+        return template;
+    }
+    
     public void saveConfig()
     {
         if (this.messagesConfig == null || this.messagesFile == null)
@@ -70,6 +70,15 @@ public class StatsConfig
         }
     }
 
+    public File getFile()
+    {
+        if (this.statsFile == null)
+        {
+            this.reloadConfig();
+        }
+        return this.statsFile;
+    }
+
     public void reloadConfig()
     {
         if (this.statsFile == null)
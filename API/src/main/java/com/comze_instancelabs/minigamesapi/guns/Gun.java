@@ -16,8 +16,8 @@ package com.comze_instancelabs.minigamesapi.guns;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Egg;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
@@ -38,7 +38,12 @@ public class Gun
     public double                      knockback_multiplier = 1.1D;
     public String                      name                 = "Gun";
     
-    boolean                            canshoot             = true;
+    /**
+     * Not used any more; the cooldowns are stored per player in {@link GunCooldowns}.
+     * 
+     * @deprecated will be removed; use {@link Guns#getRemainingCooldown(Player, Gun)}.
+     */
+    @Deprecated
     public HashMap<String, Boolean>    canshoot_            = new HashMap<>();
     
     ArrayList<ItemStack>               items;
@@ -70,33 +75,25 @@ public class Gun
     
     public void shoot(final Player p)
     {
-        if (this.canshoot)
+        if (GunCooldowns.get().tryStart(p.getUniqueId(), this, (long) (1000D / this.speed), TimeUnit.MILLISECONDS))
         {
             for (int i = 0; i < this.shoot_amount; i++)
             {
                 p.launchProjectile(this.bullet);
                 this.durability -= 1;
             }
-            this.canshoot = false;
-            Bukkit.getScheduler().runTaskLater(this.plugin, () -> Gun.this.canshoot = true, (long) (20D / this.speed));
         }
     }
     
     public void shoot(final Player p, final int shoot_amount, final int durability, final int speed)
     {
-        if (!this.canshoot_.containsKey(p.getName()))
-        {
-            this.canshoot_.put(p.getName(), true);
-        }
-        if (this.canshoot_.get(p.getName()))
+        if (GunCooldowns.get().tryStart(p.getUniqueId(), this, (long) (3000D / speed), TimeUnit.MILLISECONDS))
         {
             for (int i = 0; i < shoot_amount + 1; i++)
             {
                 p.launchProjectile(this.bullet);
                 this.durability -= (int) (10D / durability);
             }
-            this.canshoot_.put(p.getName(), false);
-            Bukkit.getScheduler().runTaskLater(this.plugin, () -> Gun.this.canshoot_.put(p.getName(), true), (long) (60D / speed));
         }
     }
     
@@ -104,9 +101,7 @@ public class Gun
     {
         if (this.name.equalsIgnoreCase("freeze"))
         {
-            final Player p = (Player) ent;
-            p.setWalkSpeed(0.0F);
-            Bukkit.getScheduler().runTaskLater(this.plugin, () -> p.setWalkSpeed(0.2F), 20L + 20L * knockback_multiplier);
+            GunCooldowns.get().freeze(this.plugin, (Player) ent, 20L + 20L * knockback_multiplier);
         }
         else
         {
@@ -117,7 +112,7 @@ public class Gun
     public void reloadGun()
     {
         this.durability = this.max_durability;
-        this.canshoot = true;
+        GunCooldowns.get().reset(this);
     }
     
 }
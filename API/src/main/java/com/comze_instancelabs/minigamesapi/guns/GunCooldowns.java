@@ -0,0 +1,292 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.guns;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Cooldown table for guns.
+ * 
+ * <p>
+ * Stores the time a player may use a gun again as a timestamp per player and gun; checking a cooldown is a map lookup and does not need any scheduled task. Expired entries are removed on
+ * access and by a sweep running after every {@link #SWEEP_INTERVAL} started cooldowns.
+ * </p>
+ * 
+ * <p>
+ * Frozen players are restored by a single task running only while players are frozen.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class GunCooldowns
+{
+    
+    /** the default walk speed restored after freezing. */
+    public static final float               DEFAULT_WALK_SPEED = 0.2F;
+    
+    /** number of started cooldowns between two sweeps. */
+    static final int                        SWEEP_INTERVAL     = 64;
+    
+    /** the shared cooldown table. */
+    private static final GunCooldowns       INSTANCE           = new GunCooldowns(System::nanoTime);
+    
+    /** the clock in nanoseconds. */
+    private final LongSupplier              clock;
+    
+    /** the cooldown end by player and gun. */
+    private final Map<UUID, Map<Gun, Long>> cooldowns          = new HashMap<>();
+    
+    /** the freeze end by player. */
+    private final Map<UUID, Long>           frozen             = new HashMap<>();
+    
+    /** the task restoring frozen players. */
+    private BukkitTask                      freezeTask;
+    
+    /** started cooldowns since last sweep. */
+    private int                             sinceSweep;
+    
+    /**
+     * Constructor.
+     * 
+     * @param clock
+     *            the clock returning nanoseconds
+     */
+    public GunCooldowns(final LongSupplier clock)
+    {
+        this.clock = clock;
+    }
+    
+    /**
+     * Returns the shared cooldown table.
+     * 
+     * @return cooldown table
+     */
+    public static GunCooldowns get()
+    {
+        return INSTANCE;
+    }
+    
+    /**
+     * Starts the cooldown if the player is allowed to use the gun.
+     * 
+     * @param player
+     *            the player uuid
+     * @param gun
+     *            the gun
+     * @param duration
+     *            cooldown duration
+     * @param unit
+     *            unit of the duration
+     * @return {@code true} if the player may use the gun and the cooldown was started; {@code false} if the gun is still cooling down
+     */
+    public boolean tryStart(final UUID player, final Gun gun, final long duration, final TimeUnit unit)
+    {
+        final long now = this.clock.getAsLong();
+        Map<Gun, Long> guns = this.cooldowns.get(player);
+        if (guns != null)
+        {
+            final Long end = guns.get(gun);
+            if (end != null && end.longValue() - now > 0)
+            {
+                return false;
+            }
+        }
+        if (++this.sinceSweep >= SWEEP_INTERVAL)
+        {
+            this.sweep(now);
+            guns = this.cooldowns.get(player);
+        }
+        if (guns == null)
+        {
+            guns = new HashMap<>(4);
+            this.cooldowns.put(player, guns);
+        }
+        guns.put(gun, now + unit.toNanos(duration));
+        return true;
+    }
+    
+    /**
+     * Returns the remaining cooldown.
+     * 
+     * @param player
+     *            the player uuid
+     * @param gun
+     *            the gun
+     * @param unit
+     *            the unit of the result
+     * @return remaining cooldown; 0 if the player may use the gun
+     */
+    public long getRemaining(final UUID player, final Gun gun, final TimeUnit unit)
+    {
+        final Map<Gun, Long> guns = this.cooldowns.get(player);
+        final Long end = guns == null ? null : guns.get(gun);
+        if (end == null)
+        {
+            return 0;
+        }
+        final long remaining = end.longValue() - this.clock.getAsLong();
+        if (remaining <= 0)
+        {
+            guns.remove(gun);
+            if (guns.isEmpty())
+            {
+                this.cooldowns.remove(player);
+            }
+            return 0;
+        }
+        return unit.convert(remaining, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Resets the cooldown of given player and gun.
+     * 
+     * @param player
+     *            the player uuid
+     * @param gun
+     *            the gun
+     */
+    public void reset(final UUID player, final Gun gun)
+    {
+        final Map<Gun, Long> guns = this.cooldowns.get(player);
+        if (guns != null && guns.remove(gun) != null && guns.isEmpty())
+        {
+            this.cooldowns.remove(player);
+        }
+    }
+    
+    /**
+     * Resets the cooldowns of given gun for all players.
+     * 
+     * @param gun
+     *            the gun
+     */
+    public void reset(final Gun gun)
+    {
+        final Iterator<Map<Gun, Long>> iter = this.cooldowns.values().iterator();
+        while (iter.hasNext())
+        {
+            final Map<Gun, Long> guns = iter.next();
+            if (guns.remove(gun) != null && guns.isEmpty())
+            {
+                iter.remove();
+            }
+        }
+    }
+    
+    /**
+     * Resets all cooldowns of given player.
+     * 
+     * @param player
+     *            the player uuid
+     */
+    public void reset(final UUID player)
+    {
+        this.cooldowns.remove(player);
+    }
+    
+    /**
+     * Returns the number of players having cooldowns; may include expired entries not yet swept.
+     * 
+     * @return number of players
+     */
+    public int size()
+    {
+        return this.cooldowns.size();
+    }
+    
+    /**
+     * Removes expired cooldowns.
+     * 
+     * @param now
+     *            current time
+     */
+    private void sweep(final long now)
+    {
+        this.sinceSweep = 0;
+        final Iterator<Map<Gun, Long>> iter = this.cooldowns.values().iterator();
+        while (iter.hasNext())
+        {
+            final Map<Gun, Long> guns = iter.next();
+            guns.values().removeIf(end -> end.longValue() - now <= 0);
+            if (guns.isEmpty())
+            {
+                iter.remove();
+            }
+        }
+    }
+    
+    /**
+     * Freezes given player; the walk speed is restored after given ticks.
+     * 
+     * @param plugin
+     *            the plugin to run the restore task
+     * @param player
+     *            the player
+     * @param ticks
+     *            freeze duration in ticks
+     */
+    public void freeze(final JavaPlugin plugin, final Player player, final long ticks)
+    {
+        final long end = this.clock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(ticks * 50);
+        final Long old = this.frozen.get(player.getUniqueId());
+        if (old == null || end - old.longValue() > 0)
+        {
+            this.frozen.put(player.getUniqueId(), end);
+        }
+        player.setWalkSpeed(0.0F);
+        if (this.freezeTask == null || !Bukkit.getScheduler().isQueued(this.freezeTask.getTaskId()))
+        {
+            this.freezeTask = Bukkit.getScheduler().runTaskTimer(plugin, this::restoreFrozen, 1, 1);
+        }
+    }
+    
+    /**
+     * Restores frozen players whose freeze expired; stops the task if no player is frozen any more.
+     */
+    private void restoreFrozen()
+    {
+        final long now = this.clock.getAsLong();
+        final Iterator<Map.Entry<UUID, Long>> iter = this.frozen.entrySet().iterator();
+        while (iter.hasNext())
+        {
+            final Map.Entry<UUID, Long> entry = iter.next();
+            if (entry.getValue().longValue() - now <= 0)
+            {
+                iter.remove();
+                final Player player = Bukkit.getPlayer(entry.getKey());
+                if (player != null)
+                {
+                    player.setWalkSpeed(DEFAULT_WALK_SPEED);
+                }
+            }
+        }
+        if (this.frozen.isEmpty())
+        {
+            this.freezeTask.cancel();
+            this.freezeTask = null;
+        }
+    }
+    
+}
@@ -18,6 +18,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -416,4 +417,43 @@ public class Guns
         }
     }
     
+    /**
+     * Returns the remaining cooldown of a gun.
+     * 
+     * @param p
+     *            the player
+     * @param g
+     *            the gun
+     * @return remaining cooldown in milliseconds; 0 if the player may shoot
+     */
+    public static long getRemainingCooldown(final Player p, final Gun g)
+    {
+        return GunCooldowns.get().getRemaining(p.getUniqueId(), g, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Checks if the gun is cooling down for given player.
+     * 
+     * @param p
+     *            the player
+     * @param g
+     *            the gun
+     * @return {@code true} if the player has to wait before shooting again
+     */
+    public static boolean isCoolingDown(final Player p, final Gun g)
+    {
+        return GunCooldowns.get().getRemaining(p.getUniqueId(), g, TimeUnit.NANOSECONDS) > 0;
+    }
+    
+    /**
+     * Resets the cooldowns of all guns for given player; f.e. after the player left the arena.
+     * 
+     * @param p
+     *            the player
+     */
+    public static void resetCooldowns(final Player p)
+    {
+        GunCooldowns.get().reset(p.getUniqueId());
+    }
+    
 }
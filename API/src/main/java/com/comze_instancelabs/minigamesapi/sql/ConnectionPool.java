@@ -0,0 +1,263 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.sql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A small bounded jdbc connection pool.
+ * 
+ * <p>
+ * At most {@code maxSize} connections are leased at the same time. Returned connections are kept idle and reused; they are validated before reuse if they were idle for a while and closed
+ * once they exceed the idle timeout. The owner should invoke {@link #evictIdle()} periodically; otherwise idle connections are only closed on next {@link #acquire()}.
+ * </p>
+ * 
+ * @author instancelabs
+ */
+public class ConnectionPool
+{
+    
+    /**
+     * Opens new jdbc connections for the pool.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory
+    {
+        /**
+         * Opens a new connection.
+         * 
+         * @return connection; never {@code null}.
+         * @throws SQLException
+         *             thrown if the connection could not be opened.
+         */
+        Connection connect() throws SQLException;
+    }
+    
+    /** milliseconds to wait for a free connection. */
+    private static final long            ACQUIRE_TIMEOUT     = 10000;
+    
+    /** idle milliseconds after which a connection is validated before reuse. */
+    private static final long            VALIDATION_INTERVAL = 5000;
+    
+    /** seconds to wait for the validation query. */
+    private static final int             VALIDATION_TIMEOUT  = 2;
+    
+    /** the logger. */
+    private final Logger                 logger;
+    
+    /** the connection factory. */
+    private final ConnectionFactory      factory;
+    
+    /** permits for leasing connections; bounds the pool size. */
+    private final Semaphore              permits;
+    
+    /** idle connections; most recently used first. */
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    
+    /** idle milliseconds after which a connection is closed. */
+    private final long                   idleTimeout;
+    
+    /** {@code true} if the pool was closed. */
+    private volatile boolean             closed;
+    
+    /**
+     * Constructor.
+     * 
+     * @param logger
+     *            the logger for connection failures.
+     * @param factory
+     *            the connection factory.
+     * @param maxSize
+     *            the maximum number of open connections.
+     * @param idleTimeout
+     *            idle milliseconds after which a connection is closed.
+     */
+    public ConnectionPool(final Logger logger, final ConnectionFactory factory, final int maxSize, final long idleTimeout)
+    {
+        this.logger = logger;
+        this.factory = factory;
+        this.permits = new Semaphore(Math.max(1, maxSize), true);
+        this.idleTimeout = idleTimeout;
+    }
+    
+    /**
+     * Leases a connection from the pool; blocks until a connection is available.
+     * 
+     * <p>
+     * The connection must be closed after use to return it to the pool.
+     * </p>
+     * 
+     * @return the pooled connection.
+     * @throws SQLException
+     *             thrown if the pool is closed, no connection was available in time or a new connection could not be opened.
+     */
+    public PooledConnection acquire() throws SQLException
+    {
+        if (this.closed)
+        {
+            throw new SQLException("Connection pool closed"); //$NON-NLS-1$
+        }
+        try
+        {
+            if (!this.permits.tryAcquire(ACQUIRE_TIMEOUT, TimeUnit.MILLISECONDS))
+            {
+                throw new SQLException("Timed out waiting for a database connection"); //$NON-NLS-1$
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e); //$NON-NLS-1$
+        }
+        
+        try
+        {
+            this.evictIdle();
+            PooledConnection con;
+            while ((con = this.pollIdle()) != null)
+            {
+                if (System.currentTimeMillis() - con.getLastUsed() < VALIDATION_INTERVAL || con.isValid(VALIDATION_TIMEOUT))
+                {
+                    return con;
+                }
+                con.discard();
+            }
+            return new PooledConnection(this, this.factory.connect());
+        }
+        catch (final SQLException | RuntimeException e)
+        {
+            this.permits.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Returns a leased connection to the pool.
+     * 
+     * @param con
+     *            the connection.
+     * @param broken
+     *            {@code true} to close the connection instead of reusing it.
+     */
+    void release(final PooledConnection con, final boolean broken)
+    {
+        try
+        {
+            if (broken || this.closed)
+            {
+                con.discard();
+            }
+            else
+            {
+                synchronized (this.idle)
+                {
+                    this.idle.push(con);
+                }
+                if (this.closed)
+                {
+                    // raced with close
+                    this.discardIdle();
+                }
+            }
+        }
+        finally
+        {
+            this.permits.release();
+        }
+    }
+    
+    /**
+     * Closes connections exceeding the idle timeout.
+     */
+    public void evictIdle()
+    {
+        final long limit = System.currentTimeMillis() - this.idleTimeout;
+        final List<PooledConnection> evicted = new ArrayList<>();
+        synchronized (this.idle)
+        {
+            final Iterator<PooledConnection> iter = this.idle.descendingIterator();
+            while (iter.hasNext())
+            {
+                final PooledConnection con = iter.next();
+                if (con.getLastUsed() >= limit)
+                {
+                    break;
+                }
+                iter.remove();
+                evicted.add(con);
+            }
+        }
+        for (final PooledConnection con : evicted)
+        {
+            con.discard();
+        }
+    }
+    
+    /**
+     * Closes the pool and all idle connections; leased connections are closed as soon as they are returned.
+     */
+    public void close()
+    {
+        this.closed = true;
+        this.discardIdle();
+    }
+    
+    /**
+     * Closes all idle connections.
+     */
+    private void discardIdle()
+    {
+        PooledConnection con;
+        while ((con = this.pollIdle()) != null)
+        {
+            con.discard();
+        }
+    }
+    
+    /**
+     * Removes the most recently used idle connection.
+     * 
+     * @return idle connection or {@code null} if there is none.
+     */
+    private PooledConnection pollIdle()
+    {
+        synchronized (this.idle)
+        {
+            return this.idle.poll();
+        }
+    }
+    
+    /**
+     * Logs a failure closing a connection.
+     * 
+     * @param e
+     *            the exception.
+     */
+    void logCloseFailure(final SQLException e)
+    {
+        this.logger.log(Level.FINE, "Failed closing pooled connection", e); //$NON-NLS-1$
+    }
+    
+}
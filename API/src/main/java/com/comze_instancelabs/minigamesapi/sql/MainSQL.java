@@ -15,9 +15,14 @@
 package com.comze_instancelabs.minigamesapi.sql;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 import org.bukkit.entity.Player;
@@ -34,6 +39,35 @@ public class MainSQL
     
     // used for rewards and stats
     
+    /**
+     * Work done with a pooled connection.
+     * 
+     * @param <T>
+     *            result type
+     */
+    @FunctionalInterface
+    private interface SqlWork<T>
+    {
+        /**
+         * Runs the work.
+         * 
+         * @param c
+         * @return result
+         * @throws SQLException
+         */
+        T run(PooledConnection c) throws SQLException;
+    }
+    
+    /**
+     * numeric stat columns in insert order
+     */
+    static final String[] STAT_COLUMNS = { "points", "wins", "loses", "kills", "deaths", "gamepoints" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+    
+    /**
+     * seconds between closing idle connections
+     */
+    private static final long EVICT_INTERVAL = 60;
+    
     /**
      * plugin
      */
@@ -49,11 +83,51 @@ public class MainSQL
      */
     SQLite          SQLite;
     
+    /**
+     * connection pool; null if sql is disabled
+     */
+    ConnectionPool  pool;
+    
     /**
      * Set to true if tables don't contain UUIDs
      */
     boolean         oldFormat = false;
     
+    /**
+     * background stat writer; null if sql is disabled
+     */
+    SQLWriteQueue   queue;
+    
+    /**
+     * Set to true if the database supports single statement upserts
+     */
+    boolean         upsert    = false;
+    
+    /**
+     * table name
+     */
+    private final String table;
+    
+    /**
+     * plain insert sql
+     */
+    private String  insertSql;
+    
+    /**
+     * sql to update old format rows
+     */
+    private String  oldFormatSql;
+    
+    /**
+     * sql to add stats
+     */
+    private String  addSql;
+    
+    /**
+     * sql to set game points
+     */
+    private String  setGamePointsSql;
+    
     /**
      * Constructor
      * @param plugin
@@ -61,15 +135,20 @@ public class MainSQL
     public MainSQL(final JavaPlugin plugin)
     {
         this.plugin = plugin;
+        this.table = plugin.getName();
         
         if (plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_MYSQL_ENABLED))
         {
             this.MySQL = new MySQL(plugin.getConfig().getString(ArenaConfigStrings.CONFIG_MYSQL_HOST), "3306", plugin.getConfig().getString(ArenaConfigStrings.CONFIG_MYSQL_DATABASE), plugin.getConfig().getString(ArenaConfigStrings.CONFIG_MYSQL_USER), //$NON-NLS-1$
                     plugin.getConfig().getString(ArenaConfigStrings.CONFIG_MYSQL_PW));
+            this.pool = new ConnectionPool(plugin.getLogger(), this.MySQL::connect, plugin.getConfig().getInt(ArenaConfigStrings.CONFIG_MYSQL_POOL_SIZE, 4),
+                    plugin.getConfig().getLong(ArenaConfigStrings.CONFIG_MYSQL_IDLE_TIMEOUT, 300) * 1000L);
         }
         else if (plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_SQLITE_ENABLED))
         {
             this.SQLite = new SQLite(plugin.getDataFolder() + "/" + plugin.getConfig().getString(ArenaConfigStrings.CONFIG_SQLITE_DATABASE), plugin.getConfig().getString(ArenaConfigStrings.CONFIG_SQLITE_USER), plugin.getConfig().getString(ArenaConfigStrings.CONFIG_SQLITE_PW)); //$NON-NLS-1$
+            // sqlite locks the whole database file on writes; a single connection avoids busy errors
+            this.pool = new ConnectionPool(plugin.getLogger(), this.SQLite::connect, 1, 300000L);
         }
         
         if (this.MySQL != null)
@@ -81,6 +160,7 @@ public class MainSQL
             catch (final Exception e)
             {
                 this.MySQL = null;
+                this.closePool();
                 plugin.getLogger().log(Level.SEVERE, "Failed initializing MySQL. Disabling!", e); //$NON-NLS-1$
                 plugin.getConfig().set(ArenaConfigStrings.CONFIG_MYSQL_ENABLED, false);
                 plugin.saveConfig();
@@ -95,653 +175,714 @@ public class MainSQL
             catch (final Exception e)
             {
                 this.SQLite = null;
+                this.closePool();
                 plugin.getLogger().log(Level.SEVERE, "Failed initializing SqLite. Disabling!", e); //$NON-NLS-1$
                 plugin.getConfig().set(ArenaConfigStrings.CONFIG_SQLITE_ENABLED, false);
                 plugin.saveConfig();
             }
         }
+        
+        this.buildStatements();
+        if (this.pool != null)
+        {
+            this.queue = new SQLWriteQueue(plugin.getLogger(), plugin.getName() + " SQL", this::writeBatch, plugin.getConfig().getLong(ArenaConfigStrings.CONFIG_SQL_FLUSH_INTERVAL, 5)); //$NON-NLS-1$
+            // idle connections are closed even without database traffic
+            this.queue.schedule(this::evictIdle, EVICT_INTERVAL);
+        }
+    }
+    
+    /**
+     * Closes pooled connections exceeding the idle timeout.
+     */
+    private void evictIdle()
+    {
+        final ConnectionPool current = this.pool;
+        if (current != null)
+        {
+            current.evictIdle();
+        }
+    }
+    
+    /**
+     * Writes all queued stat changes and closes the connection pool; invoked on plugin disable.
+     */
+    public void close()
+    {
+        if (this.queue != null)
+        {
+            this.queue.shutdown();
+        }
+        this.closePool();
+    }
+    
+    /**
+     * Closes and removes the connection pool.
+     */
+    private void closePool()
+    {
+        if (this.pool != null)
+        {
+            this.pool.close();
+            this.pool = null;
+        }
     }
     
     /**
      * Creates database tables
+     * @throws SQLException thrown if the database cannot be connected
      */
-    private void createTables()
+    private void createTables() throws SQLException
     {
-        if (this.MySQL != null)
+        try (final PooledConnection pc = this.pool.acquire())
         {
-            try (final Connection c = this.MySQL.open())
+            final Connection c = pc.getConnection();
+            if (this.MySQL != null)
             {
-                c.createStatement().execute("CREATE DATABASE IF NOT EXISTS `" + this.plugin.getConfig().getString(ArenaConfigStrings.CONFIG_MYSQL_DATABASE) + "`"); //$NON-NLS-1$ //$NON-NLS-2$
-                c.createStatement()
-                        .execute("CREATE TABLE IF NOT EXISTS " + this.plugin.getName() + " (id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, player VARCHAR(100), points INT, wins INT, loses INT, kills INT)");  //$NON-NLS-1$//$NON-NLS-2$
-                try (final ResultSet res = c.createStatement().executeQuery("SHOW COLUMNS FROM `" + this.plugin.getName() + "` LIKE 'kills'")) //$NON-NLS-1$ //$NON-NLS-2$
+                try
                 {
-                    if (!res.isBeforeFirst())
-                    {
-                        // old table format without kills column -> add kills column
-                        c.createStatement().execute("ALTER TABLE " + this.plugin.getName() + " ADD kills INT"); //$NON-NLS-1$ //$NON-NLS-2$
-                    }
+                    createMySQLTables(c);
                 }
-                try (final ResultSet res2 = c.createStatement().executeQuery("SHOW COLUMNS FROM `" + this.plugin.getName() + "` LIKE 'deaths'")) //$NON-NLS-1$ //$NON-NLS-2$
+                catch (final SQLException e)
                 {
-                    if (!res2.isBeforeFirst())
-                    {
-                        // old table format without deaths column -> add deaths column
-                        c.createStatement().execute("ALTER TABLE " + this.plugin.getName() + " ADD deaths INT"); //$NON-NLS-1$ //$NON-NLS-2$
-                    }
+                    MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
                 }
-                try (final ResultSet res3 = c.createStatement().executeQuery("SHOW COLUMNS FROM `" + this.plugin.getName() + "` LIKE 'uuid'")) //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            else
+            {
+                try
                 {
-                    if (!res3.isBeforeFirst())
-                    {
-                        // old table format without uuid column -> add uuid column
-                        c.createStatement().execute("ALTER TABLE " + this.plugin.getName() + " ADD uuid VARCHAR(100)"); //$NON-NLS-1$ //$NON-NLS-2$
-                        this.oldFormat = true;
-                    }
+                    createSQLiteTables(c);
                 }
-                try (final ResultSet res3 = c.createStatement().executeQuery("SHOW COLUMNS FROM `" + this.plugin.getName() + "` LIKE 'gamepoints'")) //$NON-NLS-1$ //$NON-NLS-2$
+                catch (final SQLException e)
                 {
-                    if (!res3.isBeforeFirst())
-                    {
-                        // old table format without gamepoints column -> add gamepoints column
-                        c.createStatement().execute("ALTER TABLE " + this.plugin.getName() + " ADD gamepoints INT"); //$NON-NLS-1$ //$NON-NLS-2$
-                    }
+                    MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
                 }
             }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
-        }
-        else if (this.SQLite != null)
-        {
-            try (final Connection c = this.SQLite.open())
-            {
-                c.createStatement()
-                        .execute("CREATE TABLE IF NOT EXISTS " + this.plugin.getName() + " (id INTEGER PRIMARY KEY AUTOINCREMENT, player VARCHAR(100), points INT, wins INT, loses INT, kills INT, deaths INT, uuid VARCHAR(100), gamepoints INT)"); //$NON-NLS-1$ //$NON-NLS-2$
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
         }
     }
-
+    
     /**
-     * Update old format database
-     * @param p
-     * @param uuid
+     * Creates mysql tables
      * @param c
      * @throws SQLException
      */
-    private void updateOldFormat(final Player p, final String uuid, final Connection c) throws SQLException
+    private void createMySQLTables(final Connection c) throws SQLException
     {
-        if (this.oldFormat)
+        try (final Statement stmt = c.createStatement())
         {
-            try (final Statement stmt = c.createStatement())
+            stmt.execute("CREATE DATABASE IF NOT EXISTS `" + this.plugin.getConfig().getString(ArenaConfigStrings.CONFIG_MYSQL_DATABASE) + "`"); //$NON-NLS-1$ //$NON-NLS-2$
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + this.table + " (id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, player VARCHAR(100), points INT, wins INT, loses INT, kills INT)");  //$NON-NLS-1$//$NON-NLS-2$
+            if (!hasMySQLColumn(stmt, "kills")) //$NON-NLS-1$
             {
-                stmt.executeUpdate("UPDATE " + this.plugin.getName() + " SET uuid='" + uuid + "' WHERE player='" + p.getName() + "'"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                // old table format without kills column -> add kills column
+                stmt.execute("ALTER TABLE " + this.table + " ADD kills INT"); //$NON-NLS-1$ //$NON-NLS-2$
             }
-        }
-    }
-    
-    /**
-     * Updates winner stats
-     * @param p
-     * @param reward
-     * @param addwin
-     */
-    public void updateWinnerStats(final Player p, final int reward, final boolean addwin)
-    {
-        final String uuid = p.getUniqueId().toString();
-        
-        final int wincount = addwin ? 1 : 0;
-        if (this.MySQL != null)
-        {
-            try (final Connection c = this.MySQL.open())
+            if (!hasMySQLColumn(stmt, "deaths")) //$NON-NLS-1$
             {
-                updateOldFormat(p, uuid, c);
-                updateWinnerStats(p, reward, uuid, wincount, c);
+                // old table format without deaths column -> add deaths column
+                stmt.execute("ALTER TABLE " + this.table + " ADD deaths INT"); //$NON-NLS-1$ //$NON-NLS-2$
             }
-            catch (final SQLException e)
+            if (!hasMySQLColumn(stmt, "uuid")) //$NON-NLS-1$
             {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
+                // old table format without uuid column -> add uuid column
+                stmt.execute("ALTER TABLE " + this.table + " ADD uuid VARCHAR(100)"); //$NON-NLS-1$ //$NON-NLS-2$
+                this.oldFormat = true;
             }
-        }
-        else if (this.SQLite != null)
-        {
-            try (final Connection c = this.SQLite.open())
+            if (!hasMySQLColumn(stmt, "gamepoints")) //$NON-NLS-1$
             {
-                updateWinnerStats(p, reward, uuid, wincount, c);
+                // old table format without gamepoints column -> add gamepoints column
+                stmt.execute("ALTER TABLE " + this.table + " ADD gamepoints INT"); //$NON-NLS-1$ //$NON-NLS-2$
             }
-            catch (final SQLException e)
+            
+            try (final ResultSet res = stmt.executeQuery("SHOW INDEX FROM `" + this.table + "` WHERE Key_name = 'uuid_unique'")) //$NON-NLS-1$ //$NON-NLS-2$
             {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
+                this.upsert = res.isBeforeFirst();
             }
-        }
-    }
-
-    /**
-     * Update winner stats
-     * @param p
-     * @param reward
-     * @param uuid
-     * @param wincount
-     * @param c
-     * @throws SQLException
-     */
-    private void updateWinnerStats(final Player p, final int reward, final String uuid, final int wincount, final Connection c) throws SQLException
-    {
-        try (final Statement stmt = c.createStatement())
-        {
-            try (final ResultSet res3 = stmt.executeQuery("SELECT * FROM " + this.plugin.getName() + " WHERE uuid='" + uuid + "'")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            if (!this.upsert)
             {
-                if (!res3.isBeforeFirst())
+                try
                 {
-                    // there's no such user
-                    c.createStatement().executeUpdate("INSERT INTO `" + this.plugin.getName() + "` (`player`, `points`, `wins`, `loses`, `kills`, `deaths`, `uuid`, `gamepoints`) " //$NON-NLS-1$ //$NON-NLS-2$
-                            + "VALUES('" + p.getName() + "', " + reward + ", " + wincount   //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$
-                            + ", 0, 0, 0, '" + uuid + "', 0)"); //$NON-NLS-1$ //$NON-NLS-2$
+                    stmt.execute("ALTER TABLE `" + this.table + "` ADD UNIQUE INDEX uuid_unique (uuid)"); //$NON-NLS-1$ //$NON-NLS-2$
+                    this.upsert = true;
                 }
-                else
+                catch (final SQLException e)
                 {
-                    res3.next();
-                    final int points = res3.getInt("points") + reward; //$NON-NLS-1$
-                    final int wins = res3.getInt("wins") + wincount; //$NON-NLS-1$
-                    
-                    c.createStatement().executeUpdate("UPDATE " + this.plugin.getName() + " SET points=" + points + ", wins=" + wins + " WHERE uuid='" + uuid + "'"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+                    // most likely duplicate uuids from older versions
+                    this.plugin.getLogger().log(Level.INFO, "Could not add unique uuid index to table " + this.table + "; using separate update and insert statements.", e); //$NON-NLS-1$ //$NON-NLS-2$
                 }
             }
         }
     }
     
     /**
-     * Update loser stats
-     * @param p
+     * Checks for mysql table column
+     * @param stmt
+     * @param column
+     * @return true if the column exists
+     * @throws SQLException
      */
-    public void updateLoserStats(final Player p)
+    private boolean hasMySQLColumn(final Statement stmt, final String column) throws SQLException
     {
-        final String uuid = p.getUniqueId().toString();
-        if (this.MySQL != null)
+        try (final ResultSet res = stmt.executeQuery("SHOW COLUMNS FROM `" + this.table + "` LIKE '" + column + "'")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
         {
-            try (Connection c = this.MySQL.open())
-            {
-                updateOldFormat(p, uuid, c);
-                updateLosterStats(p, uuid, c);
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
-        }
-        else if (this.SQLite != null)
-        {
-            try (Connection c = this.SQLite.open())
-            {
-                updateLosterStats(p, uuid, c);
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
+            return res.isBeforeFirst();
         }
     }
-
+    
     /**
-     * Update loser stats
-     * @param p
-     * @param uuid
+     * Creates sqlite tables
      * @param c
      * @throws SQLException
      */
-    private void updateLosterStats(final Player p, final String uuid, final Connection c) throws SQLException
+    private void createSQLiteTables(final Connection c) throws SQLException
     {
         try (final Statement stmt = c.createStatement())
         {
-            try (final ResultSet res3 = stmt.executeQuery("SELECT * FROM " + this.plugin.getName() + " WHERE uuid='" + uuid + "'")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + this.table + " (id INTEGER PRIMARY KEY AUTOINCREMENT, player VARCHAR(100), points INT, wins INT, loses INT, kills INT, deaths INT, uuid VARCHAR(100), gamepoints INT)"); //$NON-NLS-1$ //$NON-NLS-2$
+            
+            // upsert (ON CONFLICT ... DO UPDATE) is available since sqlite 3.24.0
+            boolean supported = false;
+            try (final ResultSet res = stmt.executeQuery("SELECT sqlite_version()")) //$NON-NLS-1$
             {
-                if (!res3.isBeforeFirst())
+                if (res.next())
                 {
-                    // there's no such user
-                    stmt.executeUpdate("INSERT INTO `" + this.plugin.getName() + "` (`player`, `points`, `wins`, `loses`, `kills`, `deaths`, `uuid`, `gamepoints`) " //$NON-NLS-1$ //$NON-NLS-2$
-                            + "VALUES('" + p.getName() + "', 0, 0, 1, 0, 0, '" + uuid + "', 0)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-                }
-                else
-                {
-                    res3.next();
-                    final int loses = res3.getInt("loses") + 1; //$NON-NLS-1$
-                    
-                    stmt.executeUpdate("UPDATE " + this.plugin.getName() + " SET loses=" + loses + " WHERE uuid='" + uuid + "'"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                    final String[] version = res.getString(1).split("\\."); //$NON-NLS-1$
+                    final int major = Integer.parseInt(version[0]);
+                    final int minor = version.length > 1 ? Integer.parseInt(version[1]) : 0;
+                    supported = major > 3 || (major == 3 && minor >= 24);
                 }
             }
+            catch (final NumberFormatException e)
+            {
+                supported = false;
+            }
+            
+            try
+            {
+                stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + this.table + "_uuid_unique ON " + this.table + " (uuid)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                this.upsert = supported;
+            }
+            catch (final SQLException e)
+            {
+                // most likely duplicate uuids from older versions
+                this.plugin.getLogger().log(Level.INFO, "Could not add unique uuid index to table " + this.table + "; using separate update and insert statements.", e); //$NON-NLS-1$ //$NON-NLS-2$
+            }
         }
     }
     
     /**
-     * Update killer stats
-     * @param p
-     * @param kills_
+     * Builds the sql strings for stat changes
      */
-    public void updateKillerStats(final Player p, final int kills_)
+    private void buildStatements()
     {
-        final String uuid = p.getUniqueId().toString();
-        if (this.MySQL != null)
+        final StringBuilder insert = new StringBuilder("INSERT INTO `").append(this.table).append("` (`player`, `uuid`"); //$NON-NLS-1$ //$NON-NLS-2$
+        for (final String column : STAT_COLUMNS)
         {
-            try (Connection c = this.MySQL.open())
-            {
-                updateOldFormat(p, uuid, c);
-                updateKillerStats(p, kills_, uuid, c);
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
+            insert.append(", `").append(column).append('`'); //$NON-NLS-1$
         }
-        else if (this.SQLite != null)
+        insert.append(") VALUES (?, ?"); //$NON-NLS-1$
+        for (int i = 0; i < STAT_COLUMNS.length; i++)
+        {
+            insert.append(", ?"); //$NON-NLS-1$
+        }
+        insert.append(')');
+        
+        if (this.upsert)
         {
-            try (Connection c = this.SQLite.open())
+            final boolean mysql = this.MySQL != null;
+            final StringBuilder add = new StringBuilder(insert).append(mysql ? " ON DUPLICATE KEY UPDATE " : " ON CONFLICT(`uuid`) DO UPDATE SET "); //$NON-NLS-1$ //$NON-NLS-2$
+            for (int i = 0; i < STAT_COLUMNS.length; i++)
             {
-                updateKillerStats(p, kills_, uuid, c);
+                final String column = STAT_COLUMNS[i];
+                add.append(i == 0 ? "" : ", ").append('`').append(column).append("` = COALESCE(`").append(column).append("`, 0) + ") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                        .append(mysql ? "VALUES(`" + column + "`)" : "excluded.`" + column + "`"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
             }
-            catch (final SQLException e)
+            this.addSql = add.toString();
+            this.setGamePointsSql = insert + (mysql ? " ON DUPLICATE KEY UPDATE `gamepoints` = VALUES(`gamepoints`)" : " ON CONFLICT(`uuid`) DO UPDATE SET `gamepoints` = excluded.`gamepoints`"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        else
+        {
+            // separate update; followed by the insert if no row was updated
+            final StringBuilder add = new StringBuilder("UPDATE `").append(this.table).append("` SET "); //$NON-NLS-1$ //$NON-NLS-2$
+            for (int i = 0; i < STAT_COLUMNS.length; i++)
             {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
+                final String column = STAT_COLUMNS[i];
+                add.append(i == 0 ? "" : ", ").append('`').append(column).append("` = COALESCE(`").append(column).append("`, 0) + ?"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
             }
+            this.addSql = add.append(" WHERE `uuid` = ?").toString(); //$NON-NLS-1$
+            this.setGamePointsSql = "UPDATE `" + this.table + "` SET `gamepoints` = ? WHERE `uuid` = ?"; //$NON-NLS-1$ //$NON-NLS-2$
         }
+        this.insertSql = insert.toString();
+        this.oldFormatSql = "UPDATE `" + this.table + "` SET `uuid` = ? WHERE `player` = ? AND `uuid` IS NULL"; //$NON-NLS-1$ //$NON-NLS-2$
     }
-
+    
     /**
-     * Update killer stats
-     * @param p
-     * @param kills_
+     * Runs work with a pooled connection
+     * @param <T> result type
      * @param uuid
-     * @param c
+     * @param name
+     * @param work
+     * @param fallback
+     * @return work result or fallback if sql is disabled
      * @throws SQLException
      */
-    private void updateKillerStats(final Player p, final int kills_, final String uuid, final Connection c) throws SQLException
+    private <T> T execute(final String uuid, final String name, final SqlWork<T> work, final T fallback) throws SQLException
     {
-        try (final Statement stmt = c.createStatement())
+        final ConnectionPool current = this.pool;
+        if (current == null)
         {
-            try (final ResultSet res3 = stmt.executeQuery("SELECT * FROM " + this.plugin.getName() + " WHERE uuid='" + uuid + "'")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            return fallback;
+        }
+        try (final PooledConnection c = current.acquire())
+        {
+            try
             {
-                if (!res3.isBeforeFirst())
+                if (this.oldFormat)
                 {
-                    // there's no such user
-                    stmt.executeUpdate("INSERT INTO " + this.plugin.getName() + " (`player`, `points`, `wins`, `loses`, `kills`, `deaths`, `uuid`, `gamepoints`) " //$NON-NLS-1$ //$NON-NLS-2$
-                            + "VALUES('" + p.getName() + "', 0, 0, 0, 1, 0, '" + uuid + "', 0)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    final PreparedStatement stmt = c.prepare(this.oldFormatSql);
+                    setOldFormatParameters(stmt, uuid, name);
+                    stmt.executeUpdate();
                 }
-                else
+                return work.run(c);
+            }
+            catch (final SQLException e)
+            {
+                if (!c.isValid(1))
                 {
-                    res3.next();
-                    final int kills = res3.getInt("kills") + kills_; //$NON-NLS-1$
-                    
-                    stmt.executeUpdate("UPDATE " + this.plugin.getName() + " SET kills=" + kills + " WHERE uuid='" + uuid + "'"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                    c.markBroken();
                 }
+                throw e;
             }
         }
     }
     
     /**
-     * update killer stats
-     * @param p
-     * @param deaths_
+     * Sets the parameters of the old format update statement
+     * @param stmt
+     * @param uuid
+     * @param name
+     * @throws SQLException
      */
-    public void updateDeathStats(final Player p, final int deaths_)
+    private static void setOldFormatParameters(final PreparedStatement stmt, final String uuid, final String name) throws SQLException
     {
-        final String uuid = p.getUniqueId().toString();
-        if (this.MySQL != null)
+        stmt.setString(1, uuid);
+        stmt.setString(2, name);
+    }
+    
+    /**
+     * Writes a batch of stat changes in a single transaction; invoked by the write queue
+     * @param batch
+     * @throws SQLException
+     */
+    void writeBatch(final Collection<SQLWriteQueue.Delta> batch) throws SQLException
+    {
+        final ConnectionPool current = this.pool;
+        if (current == null || batch.isEmpty())
         {
-            try (final Connection c = this.MySQL.open())
-            {
-                updateOldFormat(p, uuid, c);
-                updateDeathStats(p, deaths_, uuid, c);
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
+            return;
         }
-        else if (this.SQLite != null)
+        try (final PooledConnection pc = current.acquire())
         {
-            try (final Connection c = this.SQLite.open())
+            final Connection c = pc.getConnection();
+            c.setAutoCommit(false);
+            try
             {
-                updateDeathStats(p, deaths_, uuid, c);
+                if (this.oldFormat)
+                {
+                    final PreparedStatement stmt = pc.prepare(this.oldFormatSql);
+                    for (final SQLWriteQueue.Delta delta : batch)
+                    {
+                        setOldFormatParameters(stmt, delta.uuid, delta.name);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                if (this.upsert)
+                {
+                    this.upsertBatch(pc, batch);
+                }
+                else
+                {
+                    this.updateInsertBatch(pc, batch);
+                }
+                c.commit();
             }
             catch (final SQLException e)
             {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
+                try
+                {
+                    c.rollback();
+                }
+                catch (final SQLException ex)
+                {
+                    e.addSuppressed(ex);
+                }
+                if (!pc.isValid(1))
+                {
+                    pc.markBroken();
+                }
+                throw e;
             }
-        }
-    }
-
-    /**
-     * Update death stats
-     * @param p
-     * @param deaths_
-     * @param uuid
-     * @param c
-     * @throws SQLException
-     */
-    private void updateDeathStats(final Player p, final int deaths_, final String uuid, final Connection c) throws SQLException
-    {
-        try (final Statement stmt = c.createStatement())
-        {
-            try (final ResultSet res3 = stmt.executeQuery("SELECT * FROM " + this.plugin.getName() + " WHERE uuid='" + uuid + "'")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            finally
             {
-                if (!res3.isBeforeFirst())
+                try
                 {
-                    // there's no such user
-                    stmt.executeUpdate("INSERT INTO " + this.plugin.getName() + " (`player`, `points`, `wins`, `loses`, `kills`, `deaths`, `uuid`, `gamepoints`) "  //$NON-NLS-1$//$NON-NLS-2$
-                            + "VALUES('" + p.getName() + "', 0, 0, 0, 0, 1, '" + uuid + "', 0)");  //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$
+                    c.setAutoCommit(true);
                 }
-                else
+                catch (final SQLException e)
                 {
-                    res3.next();
-                    final int deaths = res3.getInt("deaths") + deaths_; //$NON-NLS-1$
-                    
-                    stmt.executeUpdate("UPDATE " + this.plugin.getName() + " SET deaths=" + Integer.toString(deaths) + " WHERE uuid='" + uuid + "'"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                    pc.markBroken();
                 }
             }
         }
     }
     
     /**
-     * Get points
-     * @param p
-     * @return points
+     * Writes stat changes with upserts
+     * @param pc
+     * @param batch
+     * @throws SQLException
      */
-    public int getPoints(final Player p)
+    private void upsertBatch(final PooledConnection pc, final Collection<SQLWriteQueue.Delta> batch) throws SQLException
     {
-        final String uuid = p.getUniqueId().toString();
-        int result = -1;
-        if (this.MySQL != null)
+        final PreparedStatement set = pc.prepare(this.setGamePointsSql);
+        final PreparedStatement add = pc.prepare(this.addSql);
+        boolean hasSet = false;
+        boolean hasAdd = false;
+        for (final SQLWriteQueue.Delta delta : batch)
         {
-            try (final Connection c = this.MySQL.open())
+            if (delta.setGamePoints)
             {
-                updateOldFormat(p, uuid, c);
-                result = getPoints(uuid, c);
+                setInsertParameters(set, delta.name, delta.uuid, 0, 0, 0, 0, 0, delta.gamepoints);
+                set.addBatch();
+                hasSet = true;
             }
-            catch (final SQLException e)
+            if (delta.hasValues())
             {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
+                setInsertParameters(add, delta.name, delta.uuid, delta.values);
+                add.addBatch();
+                hasAdd = true;
             }
         }
-        else if (this.SQLite != null)
+        // game points are set before adding the values queued after setting
+        if (hasSet)
         {
-            try (final Connection c = this.SQLite.open())
-            {
-                result = getPoints(uuid, c);
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
+            set.executeBatch();
+        }
+        if (hasAdd)
+        {
+            add.executeBatch();
         }
-        return result;
     }
-
+    
     /**
-     * Get points
-     * @param uuid
-     * @param c
-     * @return points
+     * Writes stat changes with updates followed by inserts for new players
+     * @param pc
+     * @param batch
      * @throws SQLException
      */
-    private int getPoints(final String uuid, final Connection c) throws SQLException
+    private void updateInsertBatch(final PooledConnection pc, final Collection<SQLWriteQueue.Delta> batch) throws SQLException
     {
-        int result = -1;
-        try (final Statement stmt = c.createStatement())
+        final List<SQLWriteQueue.Delta> sets = new ArrayList<>();
+        final List<SQLWriteQueue.Delta> adds = new ArrayList<>();
+        for (final SQLWriteQueue.Delta delta : batch)
         {
-            try (final ResultSet res3 = stmt.executeQuery("SELECT * FROM " + this.plugin.getName() + " WHERE uuid='" + uuid + "'")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            if (delta.setGamePoints)
             {
-                if (res3.isBeforeFirst())
-                {
-                    res3.next();
-                    result = res3.getInt("points"); //$NON-NLS-1$
-                }
+                sets.add(delta);
+            }
+            else if (delta.hasValues())
+            {
+                adds.add(delta);
             }
         }
-        return result;
-    }
-    
-    /**
-     * Get wins
-     * @param p
-     * @return wins
-     */
-    public int getWins(final Player p)
-    {
-        final String uuid = p.getUniqueId().toString();
-        int result = -1;
-        if (this.MySQL != null)
+        
+        final List<SQLWriteQueue.Delta> inserts = new ArrayList<>();
+        if (!sets.isEmpty())
         {
-            try (final Connection c = this.MySQL.open())
+            final PreparedStatement set = pc.prepare(this.setGamePointsSql);
+            for (final SQLWriteQueue.Delta delta : sets)
             {
-                updateOldFormat(p, uuid, c);
-                result = getWins(uuid, c);
+                set.setInt(1, delta.gamepoints);
+                set.setString(2, delta.uuid);
+                set.addBatch();
             }
-            catch (final SQLException e)
+            final int[] counts = set.executeBatch();
+            for (int i = 0; i < counts.length; i++)
             {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
+                if (counts[i] == 0)
+                {
+                    // there's no such user; the insert contains the added values too
+                    inserts.add(sets.get(i));
+                }
+                else if (sets.get(i).hasValues())
+                {
+                    adds.add(sets.get(i));
+                }
             }
         }
-        else if (this.SQLite != null)
+        
+        if (!adds.isEmpty())
         {
-            try (final Connection c = this.SQLite.open())
+            final PreparedStatement add = pc.prepare(this.addSql);
+            for (final SQLWriteQueue.Delta delta : adds)
             {
-                result = getWins(uuid, c);
+                int index = 1;
+                for (final int value : delta.values)
+                {
+                    add.setInt(index++, value);
+                }
+                add.setString(index, delta.uuid);
+                add.addBatch();
             }
-            catch (final SQLException e)
+            final int[] counts = add.executeBatch();
+            for (int i = 0; i < counts.length; i++)
             {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
+                if (counts[i] == 0)
+                {
+                    // there's no such user
+                    inserts.add(adds.get(i));
+                }
             }
         }
-        return result;
-    }
-
-    /**
-     * Get wins
-     * @param uuid
-     * @param c
-     * @return wins
-     * @throws SQLException
-     */
-    private int getWins(final String uuid, final Connection c) throws SQLException
-    {
-        int result = -1;
-        try (final Statement stmt = c.createStatement())
+        
+        if (!inserts.isEmpty())
         {
-            try (final ResultSet res3 = stmt.executeQuery("SELECT * FROM " + this.plugin.getName() + " WHERE uuid='" + uuid + "'")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            final PreparedStatement insert = pc.prepare(this.insertSql);
+            for (final SQLWriteQueue.Delta delta : inserts)
             {
-                if (res3.isBeforeFirst())
+                final int[] values = delta.values.clone();
+                if (delta.setGamePoints)
                 {
-                    res3.next();
-                    result = res3.getInt("wins"); //$NON-NLS-1$
+                    values[SQLWriteQueue.Delta.GAMEPOINTS] += delta.gamepoints;
                 }
+                setInsertParameters(insert, delta.name, delta.uuid, values);
+                insert.addBatch();
             }
+            insert.executeBatch();
         }
-        return result;
     }
     
     /**
-     * Get game points
-     * @param p
-     * @return wins
+     * Sets the parameters of the insert statement
+     * @param stmt
+     * @param name
+     * @param uuid
+     * @param values
+     * @throws SQLException
      */
-    public int getGamePoints(final Player p)
+    private static void setInsertParameters(final PreparedStatement stmt, final String name, final String uuid, final int... values) throws SQLException
     {
-        final String uuid = p.getUniqueId().toString();
-        int result = -1;
-        if (this.MySQL != null)
+        stmt.setString(1, name);
+        stmt.setString(2, uuid);
+        for (int i = 0; i < values.length; i++)
         {
-            try (final Connection c = this.MySQL.open())
-            {
-                updateOldFormat(p, uuid, c);
-                result = getGamePoints(uuid, c);
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
+            stmt.setInt(3 + i, values[i]);
         }
-        else if (this.SQLite != null)
-        {
-            try (final Connection c = this.SQLite.open())
-            {
-                result = getGamePoints(uuid, c);
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
-        }
-        return result;
     }
-
+    
     /**
-     * Get game points
+     * Reads a single stat including pending changes
      * @param uuid
-     * @param c
-     * @return wins
+     * @param name
+     * @param column index in STAT_COLUMNS
+     * @return stat value or -1 if there's no such user
      * @throws SQLException
      */
-    private int getGamePoints(final String uuid, final Connection c) throws SQLException
+    private int readStat(final String uuid, final String name, final int column) throws SQLException
     {
-        int result = -1;
-        try (final Statement stmt = c.createStatement())
-        {
-            try (final ResultSet res3 = stmt.executeQuery("SELECT * FROM " + this.plugin.getName() + " WHERE uuid='" + uuid + "'")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        final int value = this.execute(uuid, name, c -> {
+            final PreparedStatement stmt = c.prepare("SELECT `" + STAT_COLUMNS[column] + "` FROM `" + this.table + "` WHERE `uuid` = ?"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            stmt.setString(1, uuid);
+            try (final ResultSet res = stmt.executeQuery())
             {
-                if (res3.isBeforeFirst())
-                {
-                    res3.next();
-                    result = res3.getInt("gamepoints"); //$NON-NLS-1$
-                }
+                return res.next() ? res.getInt(1) : -1;
             }
-        }
-        return result;
+        }, -1);
+        return this.queue == null ? value : this.queue.adjust(uuid, column, value);
     }
     
     /**
-     * Set game points
+     * Reads a single stat; blocks until the database answered
      * @param p
-     * @param points
+     * @param column index in STAT_COLUMNS
+     * @return stat value or -1 if there's no such user
      */
-    public void setGamePoints(final Player p, int points)
+    private int readStatSync(final Player p, final int column)
     {
-        final String uuid = p.getUniqueId().toString();
-        if (this.MySQL != null)
+        try
         {
-            try (final Connection c = this.MySQL.open())
-            {
-                updateOldFormat(p, uuid, c);
-                setGamePoints(p, c, points);
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
+            return this.readStat(p.getUniqueId().toString(), p.getName(), column);
         }
-        else if (this.SQLite != null)
+        catch (final SQLException e)
         {
-            try (final Connection c = this.SQLite.open())
-            {
-                setGamePoints(p, c, points);
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
+            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
+            return -1;
         }
     }
-
+    
     /**
-     * Set game points
+     * Reads a single stat on the sql thread
      * @param p
-     * @param c
-     * @param points
-     * @throws SQLException
+     * @param column index in STAT_COLUMNS
+     * @return future stat value; -1 if there's no such user
      */
-    private void setGamePoints(final Player p, final Connection c, int points) throws SQLException
+    private CompletableFuture<Integer> readStatAsync(final Player p, final int column)
     {
-        final String uuid = p.getUniqueId().toString();
-        try (final Statement stmt = c.createStatement())
+        if (this.queue == null)
         {
-            try (final ResultSet res3 = stmt.executeQuery("SELECT * FROM " + this.plugin.getName() + " WHERE uuid='" + uuid + "'")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-            {
-                if (!res3.isBeforeFirst())
-                {
-                    // there's no such user
-                    stmt.executeUpdate("INSERT INTO " + this.plugin.getName() + " (`player`, `points`, `wins`, `loses`, `kills`, `deaths`, `uuid`, `gamepoints`) "  //$NON-NLS-1$//$NON-NLS-2$
-                            + "VALUES('" + p.getName() + "', 0, 0, 0, 0, 1, '" + uuid + "', " + points + ")");  //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-                }
-                else
-                {
-                    stmt.executeUpdate("UPDATE " + this.plugin.getName() + " SET gamepoints=" + points + " WHERE uuid='" + uuid + "'"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-                }
-            }
+            return CompletableFuture.completedFuture(-1);
         }
+        final String uuid = p.getUniqueId().toString();
+        final String name = p.getName();
+        return this.queue.read(() -> this.readStat(uuid, name, column), -1);
     }
     
     /**
-     * Set game points
+     * Queues values to add
      * @param p
-     * @param points
+     * @param values values in order of STAT_COLUMNS
      */
-    public void addGamePoints(final Player p, int points)
+    private void add(final Player p, final int... values)
     {
-        final String uuid = p.getUniqueId().toString();
-        if (this.MySQL != null)
+        if (this.queue != null)
         {
-            try (final Connection c = this.MySQL.open())
-            {
-                updateOldFormat(p, uuid, c);
-                addGamePoints(p, c, points);
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
+            this.queue.add(p.getUniqueId().toString(), p.getName(), values);
         }
-        else if (this.SQLite != null)
+    }
+    
+    /**
+     * Requests writing all queued stat changes in the background
+     */
+    public void flush()
+    {
+        if (this.queue != null)
         {
-            try (final Connection c = this.SQLite.open())
-            {
-                addGamePoints(p, c, points);
-            }
-            catch (final SQLException e)
-            {
-                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "exception", e); //$NON-NLS-1$
-            }
+            this.queue.flush();
         }
     }
-
+    
+    /**
+     * Updates winner stats
+     * @param p
+     * @param reward
+     * @param addwin
+     */
+    public void updateWinnerStats(final Player p, final int reward, final boolean addwin)
+    {
+        this.add(p, reward, addwin ? 1 : 0, 0, 0, 0, 0);
+    }
+    
+    /**
+     * Update loser stats
+     * @param p
+     */
+    public void updateLoserStats(final Player p)
+    {
+        this.add(p, 0, 0, 1, 0, 0, 0);
+    }
+    
+    /**
+     * Update killer stats
+     * @param p
+     * @param kills_
+     */
+    public void updateKillerStats(final Player p, final int kills_)
+    {
+        this.add(p, 0, 0, 0, kills_, 0, 0);
+    }
+    
+    /**
+     * update killer stats
+     * @param p
+     * @param deaths_
+     */
+    public void updateDeathStats(final Player p, final int deaths_)
+    {
+        this.add(p, 0, 0, 0, 0, deaths_, 0);
+    }
+    
+    /**
+     * Get points; blocks until the database answered, prefer {@link #getPointsAsync(Player)}
+     * @param p
+     * @return points
+     */
+    public int getPoints(final Player p)
+    {
+        return this.readStatSync(p, SQLWriteQueue.Delta.POINTS);
+    }
+    
+    /**
+     * Get points without blocking
+     * @param p
+     * @return future points
+     */
+    public CompletableFuture<Integer> getPointsAsync(final Player p)
+    {
+        return this.readStatAsync(p, SQLWriteQueue.Delta.POINTS);
+    }
+    
+    /**
+     * Get wins; blocks until the database answered, prefer {@link #getWinsAsync(Player)}
+     * @param p
+     * @return wins
+     */
+    public int getWins(final Player p)
+    {
+        return this.readStatSync(p, SQLWriteQueue.Delta.WINS);
+    }
+    
+    /**
+     * Get wins without blocking
+     * @param p
+     * @return future wins
+     */
+    public CompletableFuture<Integer> getWinsAsync(final Player p)
+    {
+        return this.readStatAsync(p, SQLWriteQueue.Delta.WINS);
+    }
+    
+    /**
+     * Get game points; blocks until the database answered, prefer {@link #getGamePointsAsync(Player)}
+     * @param p
+     * @return wins
+     */
+    public int getGamePoints(final Player p)
+    {
+        return this.readStatSync(p, SQLWriteQueue.Delta.GAMEPOINTS);
+    }
+    
+    /**
+     * Get game points without blocking
+     * @param p
+     * @return future game points
+     */
+    public CompletableFuture<Integer> getGamePointsAsync(final Player p)
+    {
+        return this.readStatAsync(p, SQLWriteQueue.Delta.GAMEPOINTS);
+    }
+    
     /**
      * Set game points
      * @param p
-     * @param c
      * @param points
-     * @throws SQLException
      */
-    private void addGamePoints(final Player p, final Connection c, int points) throws SQLException
+    public void setGamePoints(final Player p, int points)
     {
-        final String uuid = p.getUniqueId().toString();
-        try (final Statement stmt = c.createStatement())
+        if (this.queue != null)
         {
-            try (final ResultSet res3 = stmt.executeQuery("SELECT * FROM " + this.plugin.getName() + " WHERE uuid='" + uuid + "'")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-            {
-                if (!res3.isBeforeFirst())
-                {
-                    // there's no such user
-                    stmt.executeUpdate("INSERT INTO " + this.plugin.getName() + " (`player`, `points`, `wins`, `loses`, `kills`, `deaths`, `uuid`, `gamepoints`) "  //$NON-NLS-1$//$NON-NLS-2$
-                            + "VALUES('" + p.getName() + "', 0, 0, 0, 0, 1, '" + uuid + "', " + points + ")");  //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-                }
-                else
-                {
-                    stmt.executeUpdate("UPDATE " + this.plugin.getName() + " SET gamepoints=" + (points + res3.getInt("gamepoints") ) + " WHERE uuid='" + uuid + "'"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
-                }
-            }
+            this.queue.setGamePoints(p.getUniqueId().toString(), p.getName(), points);
         }
     }
     
+    /**
+     * Set game points
+     * @param p
+     * @param points
+     */
+    public void addGamePoints(final Player p, int points)
+    {
+        this.add(p, 0, 0, 0, 0, 0, points);
+    }
+    
 }
@@ -43,19 +43,34 @@ public class MySQL
     {
         try
         {
-            Class.forName("com.mysql.jdbc.Driver");
-            this.c = DriverManager.getConnection("jdbc:mysql://" + this.hostname + ":" + this.port + "/" + this.database, this.user, this.password);
+            this.c = this.connect();
             return this.c;
         }
         catch (final SQLException e)
         {
             MinigamesAPI.getAPI().getLogger().log(Level.SEVERE, "Could not connect to MySQL server!", e);
         }
+        return this.c;
+    }
+    
+    /**
+     * Opens a new connection.
+     * 
+     * @return connection.
+     * @throws SQLException
+     *             thrown if the driver is missing or the connection could not be established.
+     */
+    public Connection connect() throws SQLException
+    {
+        try
+        {
+            Class.forName("com.mysql.jdbc.Driver");
+        }
         catch (final ClassNotFoundException e)
         {
-            MinigamesAPI.getAPI().getLogger().severe("JDBC Driver not found!");
+            throw new SQLException("JDBC Driver not found!", e);
         }
-        return this.c;
+        return DriverManager.getConnection("jdbc:mysql://" + this.hostname + ":" + this.port + "/" + this.database, this.user, this.password);
     }
     
 }
@@ -0,0 +1,185 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A connection leased from a {@link ConnectionPool}.
+ * 
+ * <p>
+ * Prepared statements are cached per connection and reused by later leases; they must not be closed by the caller. Closing the pooled connection returns it to the pool.
+ * </p>
+ * 
+ * @author instancelabs
+ */
+public class PooledConnection implements AutoCloseable
+{
+    
+    /** maximum number of cached statements per connection. */
+    private static final int                     MAX_STATEMENTS = 32;
+    
+    /** the owning pool. */
+    private final ConnectionPool                 pool;
+    
+    /** the jdbc connection. */
+    private final Connection                     connection;
+    
+    /** cached prepared statements by sql. */
+    private final Map<String, PreparedStatement> statements     = new HashMap<>();
+    
+    /** last time the connection was returned to the pool. */
+    private long                                 lastUsed       = System.currentTimeMillis();
+    
+    /** {@code true} if the connection failed and must not be reused. */
+    private boolean                              broken;
+    
+    /**
+     * Constructor.
+     * 
+     * @param pool
+     *            the owning pool.
+     * @param connection
+     *            the jdbc connection.
+     */
+    PooledConnection(final ConnectionPool pool, final Connection connection)
+    {
+        this.pool = pool;
+        this.connection = connection;
+    }
+    
+    /**
+     * Returns the underlying jdbc connection; it must not be closed by the caller.
+     * 
+     * @return jdbc connection.
+     */
+    public Connection getConnection()
+    {
+        return this.connection;
+    }
+    
+    /**
+     * Returns a cached prepared statement for given sql, preparing it on first use.
+     * 
+     * @param sql
+     *            the sql statement.
+     * @return prepared statement with cleared parameters.
+     * @throws SQLException
+     *             thrown if the statement could not be prepared.
+     */
+    public PreparedStatement prepare(final String sql) throws SQLException
+    {
+        PreparedStatement stmt = this.statements.get(sql);
+        if (stmt != null && !stmt.isClosed())
+        {
+            stmt.clearParameters();
+            return stmt;
+        }
+        if (this.statements.size() >= MAX_STATEMENTS)
+        {
+            this.closeStatements();
+        }
+        stmt = this.connection.prepareStatement(sql);
+        this.statements.put(sql, stmt);
+        return stmt;
+    }
+    
+    /**
+     * Marks this connection as broken; it is closed instead of being returned to the pool.
+     */
+    public void markBroken()
+    {
+        this.broken = true;
+    }
+    
+    /**
+     * Returns this connection to the pool.
+     */
+    @Override
+    public void close()
+    {
+        this.lastUsed = System.currentTimeMillis();
+        this.pool.release(this, this.broken);
+    }
+    
+    /**
+     * Returns the last time the connection was returned to the pool.
+     * 
+     * @return time in milliseconds.
+     */
+    long getLastUsed()
+    {
+        return this.lastUsed;
+    }
+    
+    /**
+     * Checks if the connection is still alive.
+     * 
+     * @param timeout
+     *            timeout in seconds.
+     * @return {@code true} if the connection is valid.
+     */
+    boolean isValid(final int timeout)
+    {
+        try
+        {
+            return this.connection.isValid(timeout);
+        }
+        catch (final SQLException e)
+        {
+            return false;
+        }
+    }
+    
+    /**
+     * Closes the cached statements and the jdbc connection.
+     */
+    void discard()
+    {
+        this.closeStatements();
+        try
+        {
+            this.connection.close();
+        }
+        catch (final SQLException e)
+        {
+            this.pool.logCloseFailure(e);
+        }
+    }
+    
+    /**
+     * Closes all cached statements.
+     */
+    private void closeStatements()
+    {
+        for (final PreparedStatement stmt : this.statements.values())
+        {
+            try
+            {
+                stmt.close();
+            }
+            catch (final SQLException e)
+            {
+                this.pool.logCloseFailure(e);
+            }
+        }
+        this.statements.clear();
+    }
+    
+}
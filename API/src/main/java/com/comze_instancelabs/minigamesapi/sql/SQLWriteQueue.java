@@ -0,0 +1,556 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.sql;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects stat changes and writes them in batches on a background thread.
+ * 
+ * <p>
+ * Changes are coalesced per player; a player receiving ten kills in a round results in a single row update. The pending changes are written every {@code interval} seconds or as soon as
+ * {@link #BATCH_SIZE} players are pending. Failed batches are merged back and retried with the next flush; after {@link #MAX_RETRIES} failures the changes are dropped.
+ * </p>
+ * 
+ * <p>
+ * Reads are executed on the same thread so that they never block the server thread; pending changes are applied to the values read (see {@link #adjust(String, int, int)}).
+ * </p>
+ * 
+ * @author instancelabs
+ */
+public class SQLWriteQueue
+{
+    
+    /**
+     * Writes a batch of stat changes.
+     */
+    @FunctionalInterface
+    interface BatchWriter
+    {
+        /**
+         * Writes the changes.
+         * 
+         * @param batch
+         *            the changes.
+         * @throws SQLException
+         *             thrown if the batch could not be written.
+         */
+        void write(Collection<Delta> batch) throws SQLException;
+    }
+    
+    /** number of pending players triggering an early flush. */
+    static final int                       BATCH_SIZE       = 500;
+    
+    /** maximum number of pending players; changes for further players are dropped. */
+    static final int                       MAX_PENDING      = 20000;
+    
+    /** number of retries before a change is dropped. */
+    static final int                       MAX_RETRIES      = 3;
+    
+    /** seconds to wait for the final flush on shutdown. */
+    private static final long              SHUTDOWN_TIMEOUT = 10;
+    
+    /** milliseconds between two warnings about dropped changes. */
+    private static final long              WARN_INTERVAL    = 60000;
+    
+    /** the logger. */
+    private final Logger                   logger;
+    
+    /** the batch writer. */
+    private final BatchWriter              writer;
+    
+    /** the background thread. */
+    private final ScheduledExecutorService executor;
+    
+    /** lock for pending and inflight changes. */
+    private final Object                   lock             = new Object();
+    
+    /** pending changes by player uuid. */
+    private Map<String, Delta>             pending          = new LinkedHashMap<>();
+    
+    /** changes currently being written; empty if no write is running. */
+    private Map<String, Delta>             inflight         = new LinkedHashMap<>();
+    
+    /** number of changes dropped since the last warning. */
+    private int                            dropped;
+    
+    /** time of the last warning about dropped changes. */
+    private long                           lastDropWarning;
+    
+    /** {@code true} if an early flush was already submitted. */
+    private boolean                        flushQueued;
+    
+    /** {@code true} after shutdown; changes are written synchronously afterwards. */
+    private volatile boolean               shutdown;
+    
+    /**
+     * Constructor.
+     * 
+     * @param logger
+     *            the logger.
+     * @param name
+     *            the name of the background thread.
+     * @param writer
+     *            the batch writer.
+     * @param interval
+     *            flush interval in seconds.
+     */
+    SQLWriteQueue(final Logger logger, final String name, final BatchWriter writer, final long interval)
+    {
+        this.logger = logger;
+        this.writer = writer;
+        this.executor = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long delay = Math.max(1, interval);
+        this.executor.scheduleWithFixedDelay(this::flushPending, delay, delay, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Adds values to the stats of given player.
+     * 
+     * @param uuid
+     *            player uuid.
+     * @param name
+     *            player name.
+     * @param values
+     *            values to add in order of {@link MainSQL#STAT_COLUMNS}.
+     */
+    public void add(final String uuid, final String name, final int... values)
+    {
+        final Delta delta = new Delta(uuid, name);
+        System.arraycopy(values, 0, delta.values, 0, delta.values.length);
+        this.enqueue(delta);
+    }
+    
+    /**
+     * Sets the game points of given player.
+     * 
+     * @param uuid
+     *            player uuid.
+     * @param name
+     *            player name.
+     * @param gamepoints
+     *            new game points.
+     */
+    public void setGamePoints(final String uuid, final String name, final int gamepoints)
+    {
+        final Delta delta = new Delta(uuid, name);
+        delta.setGamePoints = true;
+        delta.gamepoints = gamepoints;
+        this.enqueue(delta);
+    }
+    
+    /**
+     * Queues a change.
+     * 
+     * @param delta
+     *            the change.
+     */
+    private void enqueue(final Delta delta)
+    {
+        if (this.shutdown)
+        {
+            // plugin is disabling; the background thread is gone
+            this.writeNow(delta);
+            return;
+        }
+        boolean flush = false;
+        synchronized (this.lock)
+        {
+            final Delta existing = this.pending.get(delta.uuid);
+            if (existing != null)
+            {
+                existing.append(delta);
+                return;
+            }
+            if (this.pending.size() >= MAX_PENDING)
+            {
+                // count the drops; a warning per change would flood the log while the database is down
+                this.dropped++;
+                final long now = System.currentTimeMillis();
+                if (now - this.lastDropWarning >= WARN_INTERVAL)
+                {
+                    this.logger.warning("Too many pending sql stat changes; dropped " + this.dropped + " changes"); //$NON-NLS-1$ //$NON-NLS-2$
+                    this.dropped = 0;
+                    this.lastDropWarning = now;
+                }
+                return;
+            }
+            this.pending.put(delta.uuid, delta);
+            if (this.pending.size() >= BATCH_SIZE && !this.flushQueued)
+            {
+                this.flushQueued = true;
+                flush = true;
+            }
+        }
+        if (flush)
+        {
+            this.executor.execute(this::flushPending);
+        }
+    }
+    
+    /**
+     * Requests writing all pending changes on the background thread.
+     */
+    public void flush()
+    {
+        if (!this.shutdown)
+        {
+            this.executor.execute(this::flushPending);
+        }
+    }
+    
+    /**
+     * Runs a task periodically on the background thread, f.e. closing idle connections.
+     * 
+     * @param task
+     *            the task.
+     * @param period
+     *            period in seconds.
+     */
+    void schedule(final Runnable task, final long period)
+    {
+        final long delay = Math.max(1, period);
+        this.executor.scheduleWithFixedDelay(() -> {
+            try
+            {
+                task.run();
+            }
+            catch (final RuntimeException e)
+            {
+                // an exception would cancel further executions
+                this.logger.log(Level.WARNING, "exception", e); //$NON-NLS-1$
+            }
+        }, delay, delay, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Runs a read on the background thread.
+     * 
+     * @param <T>
+     *            result type.
+     * @param read
+     *            the read.
+     * @param fallback
+     *            result if the read fails.
+     * @return future result.
+     */
+    public <T> CompletableFuture<T> read(final Callable<T> read, final T fallback)
+    {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final Runnable task = () -> {
+            try
+            {
+                result.complete(read.call());
+            }
+            catch (final Exception e)
+            {
+                this.logger.log(Level.WARNING, "exception", e); //$NON-NLS-1$
+                result.complete(fallback);
+            }
+        };
+        if (this.shutdown)
+        {
+            task.run();
+        }
+        else
+        {
+            this.executor.execute(task);
+        }
+        return result;
+    }
+    
+    /**
+     * Applies pending changes to a value read from the database.
+     * 
+     * @param uuid
+     *            player uuid.
+     * @param column
+     *            column index in {@link MainSQL#STAT_COLUMNS}.
+     * @param value
+     *            database value; -1 if there's no such user.
+     * @return value including pending changes.
+     */
+    public int adjust(final String uuid, final int column, final int value)
+    {
+        synchronized (this.lock)
+        {
+            return this.adjust(this.pending.get(uuid), column, this.adjust(this.inflight.get(uuid), column, value));
+        }
+    }
+    
+    /**
+     * Applies a change to a value.
+     * 
+     * @param delta
+     *            the change or {@code null}.
+     * @param column
+     *            column index.
+     * @param value
+     *            the value; -1 for missing.
+     * @return new value.
+     */
+    private int adjust(final Delta delta, final int column, final int value)
+    {
+        if (delta == null)
+        {
+            return value;
+        }
+        if (column == Delta.GAMEPOINTS && delta.setGamePoints)
+        {
+            return delta.gamepoints + delta.values[column];
+        }
+        return Math.max(0, value) + delta.values[column];
+    }
+    
+    /**
+     * Writes pending changes; invoked on the background thread.
+     */
+    private void flushPending()
+    {
+        final Map<String, Delta> batch;
+        synchronized (this.lock)
+        {
+            this.flushQueued = false;
+            if (this.pending.isEmpty())
+            {
+                return;
+            }
+            batch = this.pending;
+            this.pending = new LinkedHashMap<>();
+            this.inflight = batch;
+        }
+        try
+        {
+            this.writer.write(batch.values());
+            synchronized (this.lock)
+            {
+                this.inflight = new LinkedHashMap<>();
+            }
+        }
+        catch (final SQLException | RuntimeException e)
+        {
+            this.logger.log(Level.WARNING, "Failed writing " + batch.size() + " sql stat changes", e); //$NON-NLS-1$ //$NON-NLS-2$
+            this.requeue(batch);
+        }
+    }
+    
+    /**
+     * Merges a failed batch back into the pending changes.
+     * 
+     * @param batch
+     *            the failed batch.
+     */
+    private void requeue(final Map<String, Delta> batch)
+    {
+        synchronized (this.lock)
+        {
+            final Map<String, Delta> merged = new LinkedHashMap<>();
+            for (final Delta delta : batch.values())
+            {
+                delta.retries++;
+                if (delta.retries > MAX_RETRIES)
+                {
+                    this.logger.warning("Dropping sql stat changes for " + delta.name + " after " + MAX_RETRIES + " retries"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    continue;
+                }
+                merged.put(delta.uuid, delta);
+            }
+            // changes queued during the failed write are newer
+            for (final Delta delta : this.pending.values())
+            {
+                final Delta older = merged.get(delta.uuid);
+                if (older == null)
+                {
+                    merged.put(delta.uuid, delta);
+                }
+                else
+                {
+                    older.append(delta);
+                }
+            }
+            this.pending = merged;
+            this.inflight = new LinkedHashMap<>();
+        }
+    }
+    
+    /**
+     * Writes a single change synchronously.
+     * 
+     * @param delta
+     *            the change.
+     */
+    private void writeNow(final Delta delta)
+    {
+        try
+        {
+            this.writer.write(Collections.singletonList(delta));
+        }
+        catch (final SQLException | RuntimeException e)
+        {
+            this.logger.log(Level.WARNING, "exception", e); //$NON-NLS-1$
+        }
+    }
+    
+    /**
+     * Writes all pending changes and stops the background thread; waits up to {@link #SHUTDOWN_TIMEOUT} seconds.
+     */
+    public void shutdown()
+    {
+        if (this.shutdown)
+        {
+            return;
+        }
+        this.executor.execute(this::flushPending);
+        this.executor.shutdown();
+        try
+        {
+            if (!this.executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS))
+            {
+                this.logger.warning("Timed out writing sql stat changes on shutdown"); //$NON-NLS-1$
+                this.executor.shutdownNow();
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            this.executor.shutdownNow();
+        }
+        this.shutdown = true;
+        final Map<String, Delta> rest;
+        synchronized (this.lock)
+        {
+            rest = this.pending;
+            this.pending = new LinkedHashMap<>();
+        }
+        if (!rest.isEmpty())
+        {
+            // last attempt after a failed final flush
+            try
+            {
+                this.writer.write(rest.values());
+            }
+            catch (final SQLException | RuntimeException e)
+            {
+                this.logger.log(Level.WARNING, "Lost " + rest.size() + " pending sql stat changes on shutdown", e); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+    }
+    
+    /**
+     * Coalesced stat changes of a single player.
+     */
+    static final class Delta
+    {
+        /** index of the points column. */
+        static final int POINTS     = 0;
+        
+        /** index of the wins column. */
+        static final int WINS       = 1;
+        
+        /** index of the game points column. */
+        static final int GAMEPOINTS = 5;
+        
+        /** player uuid. */
+        final String     uuid;
+        
+        /** player name. */
+        final String     name;
+        
+        /** values to add in order of {@link MainSQL#STAT_COLUMNS}. */
+        final int[]      values = new int[MainSQL.STAT_COLUMNS.length];
+        
+        /** {@code true} if game points are set before adding. */
+        boolean          setGamePoints;
+        
+        /** game points to set. */
+        int              gamepoints;
+        
+        /** number of failed writes. */
+        int              retries;
+        
+        /**
+         * Constructor.
+         * 
+         * @param uuid
+         *            player uuid.
+         * @param name
+         *            player name.
+         */
+        Delta(final String uuid, final String name)
+        {
+            this.uuid = uuid;
+            this.name = name;
+        }
+        
+        /**
+         * Appends a newer change.
+         * 
+         * @param newer
+         *            the newer change.
+         */
+        void append(final Delta newer)
+        {
+            for (int i = 0; i < this.values.length; i++)
+            {
+                if (i == GAMEPOINTS && newer.setGamePoints)
+                {
+                    this.values[i] = newer.values[i];
+                }
+                else
+                {
+                    this.values[i] += newer.values[i];
+                }
+            }
+            if (newer.setGamePoints)
+            {
+                this.setGamePoints = true;
+                this.gamepoints = newer.gamepoints;
+            }
+        }
+        
+        /**
+         * Checks for values to add.
+         * 
+         * @return {@code true} if any value is not zero.
+         */
+        boolean hasValues()
+        {
+            for (final int value : this.values)
+            {
+                if (value != 0)
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+}
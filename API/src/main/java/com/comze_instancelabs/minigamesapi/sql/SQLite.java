@@ -39,19 +39,34 @@ public class SQLite
     {
         try
         {
-            Class.forName("org.sqlite.JDBC");
-            this.c = DriverManager.getConnection("jdbc:sqlite:" + this.database);
+            this.c = this.connect();
             return this.c;
         }
         catch (final SQLException e)
         {
             MinigamesAPI.getAPI().getLogger().log(Level.SEVERE, "Could not connect to SQLite database!", e);
         }
+        return this.c;
+    }
+    
+    /**
+     * Opens a new connection.
+     * 
+     * @return connection.
+     * @throws SQLException
+     *             thrown if the driver is missing or the connection could not be established.
+     */
+    public Connection connect() throws SQLException
+    {
+        try
+        {
+            Class.forName("org.sqlite.JDBC");
+        }
         catch (final ClassNotFoundException e)
         {
-            MinigamesAPI.getAPI().getLogger().log(Level.SEVERE, "JDBC Driver not found!");
+            throw new SQLException("JDBC Driver not found!", e);
         }
-        return this.c;
+        return DriverManager.getConnection("jdbc:sqlite:" + this.database);
     }
     
 }
@@ -14,9 +14,6 @@
 */
 package com.comze_instancelabs.minigamesapi.statsholograms;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.logging.Level;
@@ -27,6 +24,7 @@ import org.bukkit.entity.Player;
 
 import com.comze_instancelabs.minigamesapi.ArenaLogger;
 import com.comze_instancelabs.minigamesapi.MinigamesAPI;
+import com.comze_instancelabs.minigamesapi.NmsAccess;
 import com.comze_instancelabs.minigamesapi.PluginInstance;
 import com.comze_instancelabs.minigamesapi.config.HologramsConfig;
 
@@ -123,20 +121,11 @@ public class Holograms
     
     public void destroyHologram(final Player p, final Hologram h)
     {
-        final String version = MinigamesAPI.getAPI().internalServerVersion;
         try
         {
-            // TODO Do not use reflection :-(
-            final Method getPlayerHandle = Class.forName("org.bukkit.craftbukkit." + version + ".entity.CraftPlayer").getMethod("getHandle");
-            final Field playerConnection = Class.forName("net.minecraft.server." + version + ".EntityPlayer").getField("playerConnection");
-            playerConnection.setAccessible(true);
-            final Method sendPacket = playerConnection.getType().getMethod("sendPacket", Class.forName("net.minecraft.server." + version + ".Packet"));
-            
-            final Constructor<?> packetPlayOutEntityDestroyConstr = Class.forName("net.minecraft.server." + version + ".PacketPlayOutEntityDestroy").getConstructor(int[].class);
-            
-            final Object destroyPacket = packetPlayOutEntityDestroyConstr.newInstance(this.convertIntegers(h.getIds()));
-            sendPacket.invoke(playerConnection.get(getPlayerHandle.invoke(p)), destroyPacket);
-            
+            final NmsAccess nms = NmsAccess.get();
+            final Object destroyPacket = nms.getPackets().getEntityDestroy().invoke(this.convertIntegers(h.getIds()));
+            nms.sendPacket(p, destroyPacket);
         }
         catch (final Exception e)
         {
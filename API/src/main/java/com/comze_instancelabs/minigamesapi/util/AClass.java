@@ -28,6 +28,7 @@ public class AClass
     private ArrayList<ItemStack> items   = new ArrayList<>();
     private final ItemStack      icon;
     private boolean              enabled = true;
+    private KitLoadout           loadout;
     
     @Deprecated
     public AClass(final JavaPlugin plugin, final String name, final ArrayList<ItemStack> items)
@@ -67,6 +68,20 @@ public class AClass
         return ret;
     }
     
+    /**
+     * Returns the precompiled loadout of this kit; the loadout is compiled on first access.
+     * 
+     * @return loadout
+     */
+    public KitLoadout getLoadout()
+    {
+        if (this.loadout == null)
+        {
+            this.loadout = KitLoadout.compile(this.getItems(), this.plugin.getLogger());
+        }
+        return this.loadout;
+    }
+    
     public ItemStack getIcon()
     {
         return this.icon;
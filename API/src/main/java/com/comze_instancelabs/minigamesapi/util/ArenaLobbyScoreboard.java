@@ -16,6 +16,9 @@ package com.comze_instancelabs.minigamesapi.util;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 
 import org.bukkit.Bukkit;
@@ -45,6 +48,21 @@ public class ArenaLobbyScoreboard
     
     ArrayList<String>           loaded_custom_strings = new ArrayList<>();
     
+    /** the parsed custom lines. */
+    private List<ScoreboardLine>                  parsed_custom_lines;
+    
+    /** number of custom strings the lines were parsed from. */
+    private int                                   parsed_custom_count;
+    
+    /** the last rendered state by player name. */
+    private final Map<String, ScoreboardSnapshot> snapshots           = new HashMap<>();
+    
+    /** arenas waiting for the next render. */
+    private final Map<Arena, JavaPlugin>          pending             = new LinkedHashMap<>();
+    
+    /** {@code true} if a render task is scheduled. */
+    private boolean                               scheduled;
+    
     public ArenaLobbyScoreboard(final PluginInstance pli, final JavaPlugin plugin)
     {
         this.custom = plugin.getConfig().getBoolean(ArenaConfigStrings.CONFIG_USE_CUSTOM_SCOREBOARD);
@@ -60,6 +78,14 @@ public class ArenaLobbyScoreboard
         }
     }
     
+    /**
+     * Requests a lobby scoreboard update for given arena; multiple requests within the same tick are rendered once.
+     * 
+     * @param plugin
+     *            the minigame plugin
+     * @param arena
+     *            the arena
+     */
     public void updateScoreboard(final JavaPlugin plugin, final Arena arena)
     {
         if (!arena.getShowScoreboard())
@@ -72,94 +98,101 @@ public class ArenaLobbyScoreboard
             this.pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
         }
         
-        Bukkit.getScheduler().runTask(MinigamesAPI.getAPI(), () -> {
-            for (final String playername : arena.getAllPlayers())
+        synchronized (this.pending)
+        {
+            this.pending.put(arena, plugin);
+            if (this.scheduled)
             {
-                if (!Validator.isPlayerValid(plugin, playername, arena))
-                {
-                    return;
-                }
-                final Player p = Bukkit.getPlayer(playername);
-                if (!ArenaLobbyScoreboard.this.ascore.containsKey(playername))
-                {
-                    final ScoreboardManager sbm = Bukkit.getScoreboardManager();
-                    if (sbm != null)
-                    {
-                        ArenaLobbyScoreboard.this.ascore.put(playername, sbm.getNewScoreboard());
-                    }
-                }
-                if (!ArenaLobbyScoreboard.this.aobjective.containsKey(playername))
-                {
-                    ArenaLobbyScoreboard.this.aobjective.put(playername, ArenaLobbyScoreboard.this.ascore.get(playername).registerNewObjective(playername, "dummy"));
-                    ArenaLobbyScoreboard.this.aobjective.get(playername).setDisplaySlot(DisplaySlot.SIDEBAR);
-                    ArenaLobbyScoreboard.this.aobjective.get(playername)
-                            .setDisplayName(ArenaLobbyScoreboard.this.pli.getMessagesConfig().scoreboard_lobby_title.replaceAll("<arena>", arena.getDisplayName()));
-                }
-                else
+                return;
+            }
+            this.scheduled = true;
+        }
+        Bukkit.getScheduler().runTask(MinigamesAPI.getAPI(), this::renderPending);
+    }
+    
+    /**
+     * Renders the scoreboards of all arenas requested since last tick.
+     */
+    private void renderPending()
+    {
+        final List<Map.Entry<Arena, JavaPlugin>> arenas;
+        synchronized (this.pending)
+        {
+            arenas = new ArrayList<>(this.pending.entrySet());
+            this.pending.clear();
+            this.scheduled = false;
+        }
+        for (final Map.Entry<Arena, JavaPlugin> entry : arenas)
+        {
+            this.render(entry.getValue(), entry.getKey());
+        }
+    }
+    
+    /**
+     * Renders the lobby scoreboards of the arena players; each player owns a scoreboard.
+     * 
+     * @param plugin
+     *            the minigame plugin
+     * @param arena
+     *            the arena
+     */
+    private void render(final JavaPlugin plugin, final Arena arena)
+    {
+        if (this.loaded_custom_strings.size() < 1)
+        {
+            return;
+        }
+        if (this.parsed_custom_lines == null || this.parsed_custom_count != this.loaded_custom_strings.size())
+        {
+            this.parsed_custom_lines = ScoreboardLine.parseAll(this.loaded_custom_strings, true, plugin.getLogger());
+            this.parsed_custom_count = this.loaded_custom_strings.size();
+        }
+        final String title = this.pli.getMessagesConfig().scoreboard_lobby_title.replace("<arena>", arena.getDisplayName());
+        for (final String playername : arena.getAllPlayers())
+        {
+            if (!Validator.isPlayerValid(plugin, playername, arena))
+            {
+                continue;
+            }
+            final Player p = Bukkit.getPlayer(playername);
+            Scoreboard board = this.ascore.get(playername);
+            if (board == null)
+            {
+                final ScoreboardManager sbm = Bukkit.getScoreboardManager();
+                if (sbm == null)
                 {
-                    ArenaLobbyScoreboard.this.aobjective.get(playername).setDisplayName(ArenaLobbyScoreboard.this.pli.getMessagesConfig().scoreboard_lobby_title.replaceAll("<arena>", arena.getDisplayName()));
+                    continue;
                 }
-                
-                try
+                board = sbm.getNewScoreboard();
+                this.ascore.put(playername, board);
+                this.aobjective.remove(playername);
+            }
+            if (!this.aobjective.containsKey(playername))
+            {
+                final Objective objective = board.registerNewObjective(playername, "dummy");
+                objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+                this.aobjective.put(playername, objective);
+                this.snapshots.remove(playername);
+            }
+            
+            try
+            {
+                final Map<String, Integer> lines = new HashMap<>();
+                for (final ScoreboardLine line : this.parsed_custom_lines)
                 {
-                    if (ArenaLobbyScoreboard.this.loaded_custom_strings.size() < 1)
-                    {
-                        return;
-                    }
-                    for (final String line : ArenaLobbyScoreboard.this.loaded_custom_strings)
-                    {
-                        final String[] line_arr = line.split(":");
-                        String line_ = line_arr[0];
-                        final String score_identifier = line_arr[line_arr.length - 1];
-                        if (line_arr.length > 2)
-                        {
-                            line_ += ":" + line_arr[1];
-                        }
-                        int score = 0;
-                        if (score_identifier.equalsIgnoreCase("<playercount>"))
-                        {
-                            score = arena.getAllPlayers().size();
-                        }
-                        else if (score_identifier.equalsIgnoreCase("<maxplayercount>"))
-                        {
-                            score = arena.getMaxPlayers();
-                        }
-                        else if (score_identifier.equalsIgnoreCase("<points>"))
-                        {
-                            score = ArenaLobbyScoreboard.this.pli.getStatsInstance().getPoints(playername);
-                        }
-                        else if (score_identifier.equalsIgnoreCase("<wins>"))
-                        {
-                            score = ArenaLobbyScoreboard.this.pli.getStatsInstance().getWins(playername);
-                        }
-                        else if (score_identifier.equalsIgnoreCase("<money>"))
-                        {
-                            score = (int) MinigamesAPI.econ.getBalance(playername);
-                        }
-                        else if (score_identifier.equalsIgnoreCase("<kills>"))
-                        {
-                            score = ArenaLobbyScoreboard.this.pli.getStatsInstance().getKills(playername);
-                        }
-                        if (line_.length() < 15)
-                        {
-                            // ascore.get(arena.getInternalName()).resetScores(Bukkit.getOfflinePlayer(ChatColor.GREEN + line_));
-                            Util.getScore(ArenaLobbyScoreboard.this.aobjective.get(playername), ChatColor.GREEN + line_).setScore(score);
-                        }
-                        else
-                        {
-                            // ascore.get(arena.getInternalName()).resetScores(Bukkit.getOfflinePlayer(ChatColor.GREEN + line_.substring(0,
-                            // Math.min(line_.length() - 3, 13))));
-                            Util.getScore(ArenaLobbyScoreboard.this.aobjective.get(playername), ChatColor.GREEN + line_.substring(0, Math.min(line_.length() - 3, 13))).setScore(score);
-                        }
-                    }
-                    p.setScoreboard(ArenaLobbyScoreboard.this.ascore.get(playername));
+                    lines.put(line.getEntry(), line.getScore(this.pli, arena, playername));
                 }
-                catch (final Exception e)
+                this.snapshots.computeIfAbsent(playername, k -> new ScoreboardSnapshot()).render(ScoreboardSnapshot.of(board, this.aobjective.get(playername)), title, lines);
+                if (p.getScoreboard() != board)
                 {
-                    pli.getPlugin().getLogger().log(Level.SEVERE, "Failed to set custom scoreboard", e);
+                    p.setScoreboard(board);
                 }
             }
-        });
+            catch (final Exception e)
+            {
+                this.pli.getPlugin().getLogger().log(Level.SEVERE, "Failed to set custom scoreboard", e);
+            }
+        }
     }
     
     public void removeScoreboard(final String arena, final Player p)
@@ -16,6 +16,9 @@ package com.comze_instancelabs.minigamesapi.util;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 
 import org.bukkit.Bukkit;
@@ -50,6 +53,21 @@ public class ArenaScoreboard
     
     ArrayList<String>           loaded_custom_strings = new ArrayList<>();
     
+    /** the parsed custom lines. */
+    private List<ScoreboardLine>                  parsed_custom_lines;
+    
+    /** number of custom strings the lines were parsed from. */
+    private int                                   parsed_custom_count;
+    
+    /** the last rendered state by scoreboard key. */
+    private final Map<String, ScoreboardSnapshot> snapshots           = new HashMap<>();
+    
+    /** arenas waiting for the next render. */
+    private final Map<Arena, JavaPlugin>          pending             = new LinkedHashMap<>();
+    
+    /** {@code true} if a render task is scheduled. */
+    private boolean                               scheduled;
+    
     public static Scoreboard getMainScoreboard()
     {
         final ScoreboardManager sbm = Bukkit.getScoreboardManager();
@@ -120,6 +138,14 @@ public class ArenaScoreboard
         }
     }
     
+    /**
+     * Requests a scoreboard update for given arena; multiple requests within the same tick are rendered once.
+     * 
+     * @param plugin
+     *            the minigame plugin
+     * @param arena
+     *            the arena
+     */
     public void updateScoreboard(final JavaPlugin plugin, final Arena arena)
     {
         if (!arena.getShowScoreboard())
@@ -137,187 +163,181 @@ public class ArenaScoreboard
             this.pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
         }
         
-        Bukkit.getScheduler().runTask(MinigamesAPI.getAPI(), () -> {
-            for (final String playername : arena.getAllPlayers())
+        synchronized (this.pending)
+        {
+            this.pending.put(arena, plugin);
+            if (this.scheduled)
             {
-                if (!Validator.isPlayerValid(plugin, playername, arena))
-                {
-                    return;
-                }
-                final Player p = Bukkit.getPlayer(playername);
-                final ScoreboardManager scoreboardManager = Bukkit.getScoreboardManager();
-                if (!ArenaScoreboard.this.custom)
+                return;
+            }
+            this.scheduled = true;
+        }
+        Bukkit.getScheduler().runTask(MinigamesAPI.getAPI(), this::renderPending);
+    }
+    
+    /**
+     * Renders the scoreboards of all arenas requested since last tick.
+     */
+    private void renderPending()
+    {
+        final List<Map.Entry<Arena, JavaPlugin>> arenas;
+        synchronized (this.pending)
+        {
+            arenas = new ArrayList<>(this.pending.entrySet());
+            this.pending.clear();
+            this.scheduled = false;
+        }
+        for (final Map.Entry<Arena, JavaPlugin> entry : arenas)
+        {
+            if (this.custom)
+            {
+                this.renderCustom(entry.getValue(), entry.getKey());
+            }
+            else
+            {
+                this.renderArena(entry.getValue(), entry.getKey());
+            }
+        }
+    }
+    
+    /**
+     * Renders the custom scoreboards of the arena players; each player owns a scoreboard.
+     * 
+     * @param plugin
+     *            the minigame plugin
+     * @param arena
+     *            the arena
+     */
+    private void renderCustom(final JavaPlugin plugin, final Arena arena)
+    {
+        if (this.parsed_custom_lines == null || this.parsed_custom_count != this.loaded_custom_strings.size())
+        {
+            this.parsed_custom_lines = ScoreboardLine.parseAll(this.loaded_custom_strings, false, plugin.getLogger());
+            this.parsed_custom_count = this.loaded_custom_strings.size();
+        }
+        final String title = this.pli.getMessagesConfig().scoreboard_title.replace("<arena>", arena.getDisplayName());
+        for (final String playername : arena.getAllPlayers())
+        {
+            if (!Validator.isPlayerValid(plugin, playername, arena))
+            {
+                continue;
+            }
+            final Player p = Bukkit.getPlayer(playername);
+            final Scoreboard board = this.getOrCreateScoreboard(playername, title);
+            if (board == null)
+            {
+                continue;
+            }
+            try
+            {
+                final Map<String, Integer> lines = new HashMap<>();
+                for (final ScoreboardLine line : this.parsed_custom_lines)
                 {
-                    if (!ArenaScoreboard.this.ascore.containsKey(arena.getInternalName()))
-                    {
-                        if (scoreboardManager != null)
-                        {
-                            ArenaScoreboard.this.ascore.put(arena.getInternalName(), scoreboardManager.getNewScoreboard());
-                        }
-                    }
-                    if (!ArenaScoreboard.this.aobjective.containsKey(arena.getInternalName()))
-                    {
-                        ArenaScoreboard.this.aobjective.put(arena.getInternalName(), ArenaScoreboard.this.ascore.get(arena.getInternalName()).registerNewObjective(arena.getInternalName(), "dummy"));
-                        ArenaScoreboard.this.aobjective.get(arena.getInternalName()).setDisplaySlot(DisplaySlot.SIDEBAR);
-                        ArenaScoreboard.this.aobjective.get(arena.getInternalName())
-                                .setDisplayName(ArenaScoreboard.this.pli.getMessagesConfig().scoreboard_title.replaceAll("<arena>", arena.getDisplayName()));
-                    }
+                    lines.put(line.getEntry(), line.getScore(this.pli, arena, playername));
                 }
-                else
+                this.snapshots.computeIfAbsent(playername, k -> new ScoreboardSnapshot()).render(ScoreboardSnapshot.of(board, this.aobjective.get(playername)), title, lines);
+                if (p.getScoreboard() != board)
                 {
-                    if (!ArenaScoreboard.this.ascore.containsKey(playername))
-                    {
-                        if (scoreboardManager != null)
-                        {
-                            ArenaScoreboard.this.ascore.put(playername, scoreboardManager.getNewScoreboard());
-                        }
-                    }
-                    if (!ArenaScoreboard.this.aobjective.containsKey(playername))
-                    {
-                        ArenaScoreboard.this.aobjective.put(playername, ArenaScoreboard.this.ascore.get(playername).registerNewObjective(playername, "dummy"));
-                        ArenaScoreboard.this.aobjective.get(playername).setDisplaySlot(DisplaySlot.SIDEBAR);
-                        ArenaScoreboard.this.aobjective.get(playername).setDisplayName(ArenaScoreboard.this.pli.getMessagesConfig().scoreboard_title.replaceAll("<arena>", arena.getDisplayName()));
-                    }
-                    else
-                    {
-                        ArenaScoreboard.this.aobjective.get(playername).setDisplayName(ArenaScoreboard.this.pli.getMessagesConfig().scoreboard_title.replaceAll("<arena>", arena.getDisplayName()));
-                    }
+                    p.setScoreboard(board);
                 }
-                
-                if (ArenaScoreboard.this.custom)
-                {
-                    try
-                    {
-                        for (final String line : ArenaScoreboard.this.loaded_custom_strings)
-                        {
-                            final String[] line_arr = line.split(":");
-                            final String line_ = line_arr[0];
-                            final String score_identifier = line_arr[1];
-                            int score1 = 0;
-                            if (score_identifier.equalsIgnoreCase("<playercount>"))
-                            {
-                                score1 = arena.getAllPlayers().size();
-                            }
-                            else if (score_identifier.equalsIgnoreCase("<lostplayercount>"))
-                            {
-                                score1 = arena.getAllPlayers().size() - arena.getPlayerAlive();
-                            }
-                            else if (score_identifier.equalsIgnoreCase("<playeralivecount>"))
-                            {
-                                score1 = arena.getPlayerAlive();
-                            }
-                            else if (score_identifier.equalsIgnoreCase("<points>"))
-                            {
-                                score1 = ArenaScoreboard.this.pli.getStatsInstance().getPoints(playername);
-                            }
-                            else if (score_identifier.equalsIgnoreCase("<wins>"))
-                            {
-                                score1 = ArenaScoreboard.this.pli.getStatsInstance().getWins(playername);
-                            }
-                            else if (score_identifier.equalsIgnoreCase("<money>"))
-                            {
-                                score1 = (int) MinigamesAPI.econ.getBalance(playername);
-                            }
-                            if (line_.length() < 15)
-                            {
-                                Util.resetScores(ArenaScoreboard.this.ascore.get(playername), ChatColor.GREEN + line_);
-                                Util.getScore(ArenaScoreboard.this.aobjective.get(playername), ChatColor.GREEN + line_).setScore(score1);
-                            }
-                            else
-                            {
-                                Util.resetScores(ArenaScoreboard.this.ascore.get(playername), ChatColor.GREEN + line_.substring(0, Math.min(line_.length() - 3, 13)));
-                                Util.getScore(ArenaScoreboard.this.aobjective.get(playername), ChatColor.GREEN + line_.substring(0, Math.min(line_.length() - 3, 13))).setScore(score1);
-                            }
-                        }
-                        
-                        if (ArenaScoreboard.this.ascore.get(playername) != null)
-                        {
-                            p.setScoreboard(ArenaScoreboard.this.ascore.get(playername));
-                        }
-                    }
-                    catch (final Exception e1)
-                    {
-                        pli.getPlugin().getLogger().log(Level.SEVERE, "Failed to set custom scoreboard", e1);
-                    }
-                }
-                else
+            }
+            catch (final Exception e1)
+            {
+                this.pli.getPlugin().getLogger().log(Level.SEVERE, "Failed to set custom scoreboard", e1);
+            }
+        }
+    }
+    
+    /**
+     * Renders the shared arena scoreboard listing the players.
+     * 
+     * @param plugin
+     *            the minigame plugin
+     * @param arena
+     *            the arena
+     */
+    private void renderArena(final JavaPlugin plugin, final Arena arena)
+    {
+        final String arenaname = arena.getInternalName();
+        final Scoreboard board = this.getOrCreateScoreboard(arenaname, this.pli.getMessagesConfig().scoreboard_title.replace("<arena>", arena.getDisplayName()));
+        if (board == null)
+        {
+            return;
+        }
+        final ScoreboardSnapshot snapshot = this.snapshots.computeIfAbsent(arenaname, k -> new ScoreboardSnapshot());
+        // players are never removed from the arena scoreboard; players that lost change their color.
+        final Map<String, Integer> lines = new HashMap<>(snapshot.getScores());
+        for (final String playername_ : arena.getAllPlayers())
+        {
+            if (!Validator.isPlayerOnline(playername_))
+            {
+                continue;
+            }
+            if (!this.pli.containsGlobalLost(playername_))
+            {
+                this.currentscore.putIfAbsent(playername_, 0);
+                lines.put(ScoreboardLine.toEntry(ChatColor.GREEN, playername_), 0);
+            }
+            else if (this.currentscore.containsKey(playername_))
+            {
+                lines.remove(ScoreboardLine.toEntry(ChatColor.GREEN, playername_));
+                lines.put(ScoreboardLine.toEntry(ChatColor.RED, playername_), 0);
+            }
+        }
+        try
+        {
+            snapshot.render(ScoreboardSnapshot.of(board, this.aobjective.get(arenaname)), null, lines);
+        }
+        catch (final Exception e2)
+        {
+            // silently ignore
+        }
+        
+        for (final String playername : arena.getAllPlayers())
+        {
+            if (Validator.isPlayerValid(plugin, playername, arena))
+            {
+                final Player p = Bukkit.getPlayer(playername);
+                if (p.getScoreboard() != board)
                 {
-                    for (final String playername_ : arena.getAllPlayers())
-                    {
-                        if (!Validator.isPlayerOnline(playername_))
-                        {
-                            continue;
-                        }
-                        final Player p_ = Bukkit.getPlayer(playername_);
-                        if (!ArenaScoreboard.this.pli.global_lost.containsKey(playername_))
-                        {
-                            int score2 = 0;
-                            if (ArenaScoreboard.this.currentscore.containsKey(playername_))
-                            {
-                                final int oldscore = ArenaScoreboard.this.currentscore.get(playername_);
-                                if (score2 > oldscore)
-                                {
-                                    ArenaScoreboard.this.currentscore.put(playername_, score2);
-                                }
-                                else
-                                {
-                                    score2 = oldscore;
-                                }
-                            }
-                            else
-                            {
-                                ArenaScoreboard.this.currentscore.put(playername_, score2);
-                            }
-                            try
-                            {
-                                if (p_.getName().length() < 15)
-                                {
-                                    Util.getScore(ArenaScoreboard.this.aobjective.get(arena.getInternalName()), ChatColor.GREEN + p_.getName()).setScore(0);
-                                }
-                                else
-                                {
-                                    Util.getScore(ArenaScoreboard.this.aobjective.get(arena.getInternalName()), ChatColor.GREEN + p_.getName().substring(0, p_.getName().length() - 3)).setScore(0);
-                                }
-                            }
-                            catch (final Exception e2)
-                            {
-                                // silently ignore
-                            }
-                        }
-                        else if (ArenaScoreboard.this.pli.global_lost.containsKey(playername_))
-                        {
-                            try
-                            {
-                                if (ArenaScoreboard.this.currentscore.containsKey(playername_))
-                                {
-                                    final int score3 = ArenaScoreboard.this.currentscore.get(playername_);
-                                    if (p_.getName().length() < 15)
-                                    {
-                                        Util.resetScores(ArenaScoreboard.this.ascore.get(arena.getInternalName()), ChatColor.GREEN + p_.getName());
-                                        Util.getScore(ArenaScoreboard.this.aobjective.get(arena.getInternalName()), ChatColor.RED + p_.getName()).setScore(0);
-                                    }
-                                    else
-                                    {
-                                        Util.resetScores(ArenaScoreboard.this.ascore.get(arena.getInternalName()), ChatColor.GREEN + p_.getName().substring(0, p_.getName().length() - 3));
-                                        Util.getScore(ArenaScoreboard.this.aobjective.get(arena.getInternalName()), ChatColor.RED + p_.getName().substring(0, p_.getName().length() - 3)).setScore(0);
-                                    }
-                                }
-                            }
-                            catch (final Exception e3)
-                            {
-                                // silently ignore
-                            }
-                        }
-                    }
-                    
-                    if (ArenaScoreboard.this.ascore.get(arena.getInternalName()) != null)
-                    {
-                        p.setScoreboard(ArenaScoreboard.this.ascore.get(arena.getInternalName()));
-                    }
+                    p.setScoreboard(board);
                 }
-                
             }
-        });
+        }
+    }
+    
+    /**
+     * Returns the scoreboard with sidebar objective for given key; creates it on first access.
+     * 
+     * @param key
+     *            the arena name (shared scoreboard) or player name (custom scoreboard)
+     * @param title
+     *            the initial title
+     * @return scoreboard or {@code null} if the scoreboard manager is not available
+     */
+    private Scoreboard getOrCreateScoreboard(final String key, final String title)
+    {
+        Scoreboard board = this.ascore.get(key);
+        if (board == null)
+        {
+            final ScoreboardManager scoreboardManager = Bukkit.getScoreboardManager();
+            if (scoreboardManager == null)
+            {
+                return null;
+            }
+            board = scoreboardManager.getNewScoreboard();
+            this.ascore.put(key, board);
+            this.aobjective.remove(key);
+        }
+        if (!this.aobjective.containsKey(key))
+        {
+            final Objective objective = board.registerNewObjective(key, "dummy");
+            objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+            objective.setDisplayName(title);
+            this.aobjective.put(key, objective);
+            this.snapshots.remove(key);
+        }
+        return board;
     }
     
     public void removeScoreboard(final String arena, final Player p)
@@ -394,6 +414,7 @@ public class ArenaScoreboard
         {
             this.aobjective.remove(arenaname);
         }
+        this.snapshots.remove(arenaname);
         
         // ascore.put(arenaname, Bukkit.getScoreboardManager().getNewScoreboard());
     }
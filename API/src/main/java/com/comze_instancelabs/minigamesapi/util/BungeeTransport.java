@@ -0,0 +1,78 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.util;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Transport for minigames lib messages between the servers of a bungee cord network.
+ * 
+ * <p>
+ * The default transport uses the bungee cord plugin channel; tests may replace it by an in-memory stand-in connecting servers running in the same vm.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public interface BungeeTransport
+{
+    
+    /**
+     * Forwards a minigames lib message to another server.
+     * 
+     * @param server
+     *            target server name or {@code "ALL"}
+     * @param subchannel
+     *            the minigames lib sub channel
+     * @param payload
+     *            the message payload
+     */
+    void send(String server, String subchannel, byte[] payload);
+    
+    /**
+     * Sends a player to another server.
+     * 
+     * @param player
+     *            the player name
+     * @param server
+     *            target server name
+     */
+    void connect(String player, String server);
+    
+    /**
+     * Returns the transport using the bungee cord plugin channel.
+     * 
+     * @param plugin
+     *            the plugin sending the messages
+     * @return bungee cord transport
+     */
+    static BungeeTransport forPlugin(final JavaPlugin plugin)
+    {
+        return new BungeeTransport() {
+            
+            @Override
+            public void send(final String server, final String subchannel, final byte[] payload)
+            {
+                BungeeUtil.forward(plugin, server, subchannel, payload);
+            }
+            
+            @Override
+            public void connect(final String player, final String server)
+            {
+                BungeeUtil.connectToServer(plugin, player, server);
+            }
+        };
+    }
+    
+}
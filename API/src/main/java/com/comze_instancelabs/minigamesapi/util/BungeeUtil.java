@@ -20,12 +20,14 @@ import java.io.IOException;
 import java.util.logging.Level;
 
 import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import com.comze_instancelabs.minigamesapi.Arena;
 import com.comze_instancelabs.minigamesapi.ChannelStrings;
 import com.comze_instancelabs.minigamesapi.MinigamesAPI;
 import com.comze_instancelabs.minigamesapi.PluginInstance;
+import com.comze_instancelabs.minigamesapi.SignSnapshotPublisher;
 import com.google.common.io.ByteArrayDataOutput;
 import com.google.common.io.ByteStreams;
 
@@ -50,8 +52,38 @@ public class BungeeUtil
     
     public static void sendSignUpdateRequest(final JavaPlugin plugin, final String minigame, final Arena arena)
     {
+        final SignSnapshotPublisher publisher = MinigamesAPI.getAPI().getSignPublisher();
+        if (publisher.hasSubscribers())
+        {
+            // lobbies speaking the snapshot protocol get the change with the next batch
+            publisher.markDirty(arena);
+            return;
+        }
         final PluginInstance pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
         MinigamesAPI.getAPI().sendSignUpdate(pli, arena);
     }
     
+    /**
+     * Forwards a minigames lib message to another server (or to {@code "ALL"} servers) through the bungee cord channel.
+     * 
+     * @param plugin
+     *            the sending plugin
+     * @param server
+     *            target server name or {@code "ALL"}
+     * @param subchannel
+     *            the minigames lib sub channel
+     * @param payload
+     *            the message payload
+     */
+    public static void forward(final Plugin plugin, final String server, final String subchannel, final byte[] payload)
+    {
+        final ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        out.writeUTF("Forward"); //$NON-NLS-1$
+        out.writeUTF(server);
+        out.writeUTF(subchannel);
+        out.writeShort(payload.length);
+        out.write(payload);
+        Bukkit.getServer().sendPluginMessage(plugin, ChannelStrings.CHANNEL_BUNGEE_CORD, out.toByteArray());
+    }
+    
 }
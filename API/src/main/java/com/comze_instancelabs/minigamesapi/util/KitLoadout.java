@@ -0,0 +1,276 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.LeatherArmorMeta;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+/**
+ * Precompiled loadout of a kit.
+ * 
+ * <p>
+ * The kit items are analyzed once: armour is assigned to its slot (leather armour colored by {@code #rrggbb} display names), {@code crackshot:} items become gun bindings and
+ * {@code potioneffect:} items become potion effects. Applying the loadout only copies the prepared items; the loadout itself is immutable and shared by all players using the kit.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class KitLoadout
+{
+    
+    /** the helmet slot. */
+    public static final int           HELMET         = 0;
+    
+    /** the chestplate slot. */
+    public static final int           CHESTPLATE     = 1;
+    
+    /** the leggings slot. */
+    public static final int           LEGGINGS       = 2;
+    
+    /** the boots slot. */
+    public static final int           BOOTS          = 3;
+    
+    /** first armour type id (leather helmet). */
+    private static final int          FIRST_ARMOR_ID = 298;
+    
+    /** last armour type id (golden boots). */
+    private static final int          LAST_ARMOR_ID  = 317;
+    
+    /** the armour by slot; {@code null} for empty slots. */
+    private final ItemStack[]         armor;
+    
+    /** the inventory contents. */
+    private final ItemStack[]         contents;
+    
+    /** the potion effects. */
+    private final PotionEffect[]      potions;
+    
+    /** the crackshot weapons. */
+    private final String[]            guns;
+    
+    /**
+     * Constructor.
+     * 
+     * @param armor
+     *            the armour by slot
+     * @param contents
+     *            the inventory contents
+     * @param potions
+     *            the potion effects
+     * @param guns
+     *            the crackshot weapons
+     */
+    private KitLoadout(final ItemStack[] armor, final ItemStack[] contents, final PotionEffect[] potions, final String[] guns)
+    {
+        this.armor = armor;
+        this.contents = contents;
+        this.potions = potions;
+        this.guns = guns;
+    }
+    
+    /**
+     * Compiles the loadout of given kit items.
+     * 
+     * @param items
+     *            the kit items
+     * @param logger
+     *            logger to report invalid items
+     * @return compiled loadout
+     */
+    public static KitLoadout compile(final ItemStack[] items, final Logger logger)
+    {
+        final ItemStack[] armor = new ItemStack[4];
+        final List<ItemStack> contents = new ArrayList<>();
+        final List<PotionEffect> potions = new ArrayList<>();
+        final List<String> guns = new ArrayList<>();
+        for (final ItemStack source : items)
+        {
+            if (source == null)
+            {
+                continue;
+            }
+            final String displayName = source.hasItemMeta() && source.getItemMeta().hasDisplayName() ? source.getItemMeta().getDisplayName() : null;
+            if (displayName != null && displayName.startsWith("crackshot:")) //$NON-NLS-1$
+            {
+                guns.add(displayName.split(":")[1]); //$NON-NLS-1$
+                continue;
+            }
+            if (displayName != null && displayName.startsWith("potioneffect:")) //$NON-NLS-1$
+            {
+                final PotionEffect effect = parsePotionEffect(displayName, logger);
+                if (effect != null)
+                {
+                    potions.add(effect);
+                }
+                continue;
+            }
+            
+            @SuppressWarnings("deprecation")
+            final int typeId = source.getTypeId();
+            if (typeId >= FIRST_ARMOR_ID && typeId <= LAST_ARMOR_ID)
+            {
+                final ItemStack item = source.clone();
+                final int slot = (typeId - FIRST_ARMOR_ID) % 4;
+                if (typeId - FIRST_ARMOR_ID < 4)
+                {
+                    // leather armour
+                    final LeatherArmorMeta lam = (LeatherArmorMeta) item.getItemMeta();
+                    if (displayName != null && displayName.startsWith("#") && displayName.length() == 7) //$NON-NLS-1$
+                    {
+                        lam.setColor(Util.hexToRgb(displayName));
+                    }
+                    item.setItemMeta(lam);
+                }
+                armor[slot] = item;
+                continue;
+            }
+            if (source.getType() != Material.AIR)
+            {
+                contents.add(source.clone());
+            }
+        }
+        return new KitLoadout(armor, contents.toArray(new ItemStack[contents.size()]), potions.toArray(new PotionEffect[potions.size()]), guns.toArray(new String[guns.size()]));
+    }
+    
+    /**
+     * Parses a potion effect item name ({@code potioneffect:<type>:<duration>#<level>}).
+     * 
+     * @param displayName
+     *            the display name
+     * @param logger
+     *            logger to report invalid items
+     * @return potion effect or {@code null} if the effect is unknown or invalid
+     */
+    private static PotionEffect parsePotionEffect(final String displayName, final Logger logger)
+    {
+        try
+        {
+            final String[] split = displayName.split(":"); //$NON-NLS-1$
+            final String data = split[2];
+            final int time = Integer.parseInt(data.substring(0, data.indexOf('#')));
+            final int lv = Integer.parseInt(data.split("#")[1]); //$NON-NLS-1$
+            final PotionEffectType type = PotionEffectType.getByName(split[1]);
+            return type == null ? null : new PotionEffect(type, time, lv);
+        }
+        catch (final RuntimeException ex)
+        {
+            logger.log(Level.WARNING, "Invalid potion effect in kit: " + displayName, ex); //$NON-NLS-1$
+            return null;
+        }
+    }
+    
+    /**
+     * Returns a copy of the armour item in given slot.
+     * 
+     * @param slot
+     *            the armour slot; one of {@link #HELMET}, {@link #CHESTPLATE}, {@link #LEGGINGS} or {@link #BOOTS}
+     * @return copy of the armour item or {@code null} if the slot is empty
+     */
+    public ItemStack getArmor(final int slot)
+    {
+        return this.armor[slot] == null ? null : this.armor[slot].clone();
+    }
+    
+    /**
+     * Returns a copy of the inventory contents.
+     * 
+     * @return inventory contents
+     */
+    public ItemStack[] getContents()
+    {
+        final ItemStack[] result = new ItemStack[this.contents.length];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = this.contents[i].clone();
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the potion effects.
+     * 
+     * @return potion effects
+     */
+    public PotionEffect[] getPotionEffects()
+    {
+        return this.potions.clone();
+    }
+    
+    /**
+     * Returns the crackshot weapons.
+     * 
+     * @return crackshot weapon names
+     */
+    public String[] getGuns()
+    {
+        return this.guns.clone();
+    }
+    
+    /**
+     * Gives the armour and items to given player.
+     * 
+     * @param p
+     *            the player
+     */
+    public void applyItems(final Player p)
+    {
+        final PlayerInventory inv = p.getInventory();
+        if (this.armor[HELMET] != null)
+        {
+            inv.setHelmet(this.armor[HELMET].clone());
+        }
+        if (this.armor[CHESTPLATE] != null)
+        {
+            inv.setChestplate(this.armor[CHESTPLATE].clone());
+        }
+        if (this.armor[LEGGINGS] != null)
+        {
+            inv.setLeggings(this.armor[LEGGINGS].clone());
+        }
+        if (this.armor[BOOTS] != null)
+        {
+            inv.setBoots(this.armor[BOOTS].clone());
+        }
+        if (this.contents.length > 0)
+        {
+            inv.addItem(this.getContents());
+        }
+    }
+    
+    /**
+     * Adds the potion effects to given player.
+     * 
+     * @param p
+     *            the player
+     */
+    public void applyPotionEffects(final Player p)
+    {
+        for (final PotionEffect effect : this.potions)
+        {
+            p.addPotionEffect(effect);
+        }
+    }
+    
+}
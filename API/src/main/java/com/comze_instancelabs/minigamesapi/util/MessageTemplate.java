@@ -0,0 +1,195 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message template parsed once and rendered many times.
+ * 
+ * <p>
+ * The source string is split into literal text and placeholder slots (f.e. {@code <count>}) when the template is compiled. Color codes and other formatting have to be applied to the
+ * source before compiling so that rendering only appends the literals and the placeholder values. Rendering uses a per-thread {@link StringBuilder}; templates without placeholders return
+ * the constant string without any allocation.
+ * </p>
+ * 
+ * <p>
+ * Unknown placeholders are kept as literal text.
+ * </p>
+ * 
+ * @author mepeisen
+ * 
+ * @param <C>
+ *            the render context, f.e. the arena.
+ */
+public final class MessageTemplate<C>
+{
+    
+    /**
+     * Appends a placeholder value.
+     * 
+     * @param <C>
+     *            the render context.
+     */
+    @FunctionalInterface
+    public interface Placeholder<C>
+    {
+        /**
+         * Appends the value for given context.
+         * 
+         * @param target
+         *            the target builder.
+         * @param context
+         *            the render context.
+         */
+        void append(StringBuilder target, C context);
+    }
+    
+    /** placeholders for messages only containing a {@code <count>}. */
+    public static final Map<String, Placeholder<Integer>> COUNT  = Collections.singletonMap("<count>", (sb, count) -> sb.append(count.intValue())); //$NON-NLS-1$
+    
+    /** the render buffer. */
+    private static final ThreadLocal<StringBuilder>       BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(64));
+    
+    /** the source string. */
+    private final String                                  source;
+    
+    /** literal text; one more than slots. */
+    private final String[]                                literals;
+    
+    /** placeholder slots. */
+    private final Placeholder<C>[]                        slots;
+    
+    /**
+     * Constructor.
+     * 
+     * @param source
+     *            the source string.
+     * @param literals
+     *            literal text.
+     * @param slots
+     *            placeholder slots.
+     */
+    private MessageTemplate(final String source, final String[] literals, final Placeholder<C>[] slots)
+    {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+    }
+    
+    /**
+     * Compiles a template.
+     * 
+     * @param source
+     *            the (already formatted) source string; {@code null} is treated as empty string.
+     * @param placeholders
+     *            the known placeholders by name including the angle brackets.
+     * @return template.
+     */
+    @SuppressWarnings("unchecked")
+    public static <C> MessageTemplate<C> compile(final String source, final Map<String, ? extends Placeholder<C>> placeholders)
+    {
+        final String src = source == null ? "" : source; //$NON-NLS-1$
+        final List<String> literals = new ArrayList<>();
+        final List<Placeholder<C>> slots = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
+        int pos = 0;
+        while (pos < src.length())
+        {
+            final int start = src.indexOf('<', pos);
+            final int end = start < 0 ? -1 : src.indexOf('>', start);
+            if (end < 0)
+            {
+                literal.append(src, pos, src.length());
+                break;
+            }
+            final Placeholder<C> placeholder = placeholders.get(src.substring(start, end + 1));
+            if (placeholder == null)
+            {
+                literal.append(src, pos, start + 1);
+                pos = start + 1;
+                continue;
+            }
+            literal.append(src, pos, start);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            slots.add(placeholder);
+            pos = end + 1;
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate<>(source, literals.toArray(new String[literals.size()]), slots.toArray(new Placeholder[slots.size()]));
+    }
+    
+    /**
+     * Returns the source string the template was compiled from.
+     * 
+     * @return source string.
+     */
+    public String getSource()
+    {
+        return this.source;
+    }
+    
+    /**
+     * Checks if the template contains placeholders.
+     * 
+     * @return {@code true} if the template renders to a constant string.
+     */
+    public boolean isConstant()
+    {
+        return this.slots.length == 0;
+    }
+    
+    /**
+     * Renders the template.
+     * 
+     * @param context
+     *            the render context.
+     * @return rendered string.
+     */
+    public String render(final C context)
+    {
+        if (this.slots.length == 0)
+        {
+            return this.literals[0];
+        }
+        final StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        this.appendTo(sb, context);
+        return sb.toString();
+    }
+    
+    /**
+     * Renders the template into given builder.
+     * 
+     * @param target
+     *            target builder.
+     * @param context
+     *            the render context.
+     */
+    public void appendTo(final StringBuilder target, final C context)
+    {
+        target.append(this.literals[0]);
+        for (int i = 0; i < this.slots.length; i++)
+        {
+            this.slots[i].append(target, context);
+            target.append(this.literals[i + 1]);
+        }
+    }
+    
+}
@@ -0,0 +1,256 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.ChatColor;
+
+import com.comze_instancelabs.minigamesapi.Arena;
+import com.comze_instancelabs.minigamesapi.MinigamesAPI;
+import com.comze_instancelabs.minigamesapi.PluginInstance;
+
+/**
+ * A parsed line of a custom scoreboard.
+ * 
+ * <p>
+ * Custom scoreboard lines are configured as {@code label:<value>}. Lines are parsed once when the scoreboard is loaded; rendering only evaluates the value.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class ScoreboardLine
+{
+    
+    /**
+     * The values a scoreboard line can display.
+     */
+    public enum Value
+    {
+        /** player count. */
+        PLAYER_COUNT("<playercount>"), //$NON-NLS-1$
+        /** players that already lost. */
+        LOST_PLAYER_COUNT("<lostplayercount>"), //$NON-NLS-1$
+        /** players alive. */
+        PLAYER_ALIVE_COUNT("<playeralivecount>"), //$NON-NLS-1$
+        /** maximum player count. */
+        MAX_PLAYER_COUNT("<maxplayercount>"), //$NON-NLS-1$
+        /** points of the viewer. */
+        POINTS("<points>"), //$NON-NLS-1$
+        /** wins of the viewer. */
+        WINS("<wins>"), //$NON-NLS-1$
+        /** kills of the viewer. */
+        KILLS("<kills>"), //$NON-NLS-1$
+        /** money of the viewer. */
+        MONEY("<money>"), //$NON-NLS-1$
+        /** unknown placeholder; always 0. */
+        NONE(null);
+        
+        /** the placeholder. */
+        private final String placeholder;
+        
+        /**
+         * Constructor.
+         * 
+         * @param placeholder
+         *            the placeholder
+         */
+        private Value(final String placeholder)
+        {
+            this.placeholder = placeholder;
+        }
+        
+        /**
+         * Returns the value for given placeholder.
+         * 
+         * @param placeholder
+         *            the placeholder
+         * @return value; {@link #NONE} for unknown placeholders
+         */
+        public static Value forPlaceholder(final String placeholder)
+        {
+            for (final Value value : values())
+            {
+                if (value.placeholder != null && value.placeholder.equalsIgnoreCase(placeholder))
+                {
+                    return value;
+                }
+            }
+            return NONE;
+        }
+    }
+    
+    /** the scoreboard entry. */
+    private final String entry;
+    
+    /** the value. */
+    private final Value  value;
+    
+    /**
+     * Constructor.
+     * 
+     * @param entry
+     *            the scoreboard entry
+     * @param value
+     *            the value
+     */
+    private ScoreboardLine(final String entry, final Value value)
+    {
+        this.entry = entry;
+        this.value = value;
+    }
+    
+    /**
+     * Parses a configured line.
+     * 
+     * <p>
+     * The arena scoreboard uses the first segment as label and the second as placeholder. The lobby scoreboard uses the last segment as placeholder and keeps colons within the label.
+     * </p>
+     * 
+     * @param line
+     *            the configured line
+     * @param lobby
+     *            {@code true} to parse a lobby scoreboard line
+     * @return parsed line or {@code null} if the line does not contain a placeholder
+     */
+    public static ScoreboardLine parse(final String line, final boolean lobby)
+    {
+        final String[] lineArr = line.split(":"); //$NON-NLS-1$
+        String label = lineArr[0];
+        final String identifier;
+        if (lobby)
+        {
+            identifier = lineArr[lineArr.length - 1];
+            if (lineArr.length > 2)
+            {
+                label += ":" + lineArr[1]; //$NON-NLS-1$
+            }
+        }
+        else
+        {
+            if (lineArr.length < 2)
+            {
+                return null;
+            }
+            identifier = lineArr[1];
+        }
+        return new ScoreboardLine(toEntry(ChatColor.GREEN, label), Value.forPlaceholder(identifier));
+    }
+    
+    /**
+     * Parses the configured lines.
+     * 
+     * @param lines
+     *            the configured lines
+     * @param lobby
+     *            {@code true} to parse lobby scoreboard lines
+     * @param logger
+     *            logger to report invalid lines
+     * @return parsed lines
+     */
+    public static List<ScoreboardLine> parseAll(final List<String> lines, final boolean lobby, final Logger logger)
+    {
+        final List<ScoreboardLine> result = new ArrayList<>(lines.size());
+        for (final String line : lines)
+        {
+            final ScoreboardLine parsed = parse(line, lobby);
+            if (parsed == null)
+            {
+                logger.log(Level.WARNING, "Ignoring invalid custom scoreboard line " + line); //$NON-NLS-1$
+            }
+            else
+            {
+                result.add(parsed);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+    
+    /**
+     * Builds a scoreboard entry; long labels are shortened to fit into the scoreboard.
+     * 
+     * @param color
+     *            the entry color
+     * @param label
+     *            the label
+     * @return scoreboard entry
+     */
+    public static String toEntry(final ChatColor color, final String label)
+    {
+        return color + (label.length() < 15 ? label : label.substring(0, Math.min(label.length() - 3, 13)));
+    }
+    
+    /**
+     * Returns the scoreboard entry.
+     * 
+     * @return scoreboard entry
+     */
+    public String getEntry()
+    {
+        return this.entry;
+    }
+    
+    /**
+     * Returns the value.
+     * 
+     * @return value
+     */
+    public Value getValue()
+    {
+        return this.value;
+    }
+    
+    /**
+     * Calculates the score of this line.
+     * 
+     * @param pli
+     *            the plugin instance
+     * @param arena
+     *            the arena
+     * @param playername
+     *            the viewer
+     * @return score
+     */
+    public int getScore(final PluginInstance pli, final Arena arena, final String playername)
+    {
+        switch (this.value)
+        {
+            case PLAYER_COUNT:
+                return arena.getAllPlayers().size();
+            case LOST_PLAYER_COUNT:
+                return arena.getAllPlayers().size() - arena.getPlayerAlive();
+            case PLAYER_ALIVE_COUNT:
+                return arena.getPlayerAlive();
+            case MAX_PLAYER_COUNT:
+                return arena.getMaxPlayers();
+            case POINTS:
+                return pli.getStatsInstance().getPoints(playername);
+            case WINS:
+                return pli.getStatsInstance().getWins(playername);
+            case KILLS:
+                return pli.getStatsInstance().getKills(playername);
+            case MONEY:
+                return MinigamesAPI.econ == null ? 0 : (int) MinigamesAPI.econ.getBalance(playername);
+            default:
+            case NONE:
+                return 0;
+        }
+    }
+    
+}
@@ -0,0 +1,169 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+import org.bukkit.scoreboard.Objective;
+import org.bukkit.scoreboard.Score;
+import org.bukkit.scoreboard.Scoreboard;
+
+/**
+ * The last rendered state of a sidebar scoreboard.
+ * 
+ * <p>
+ * Rendering compares the new lines against the snapshot and only sends the changed lines to the scoreboard. The snapshot must be dropped whenever the scoreboard is replaced.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public final class ScoreboardSnapshot
+{
+    
+    /**
+     * Receiver of scoreboard changes.
+     */
+    public interface Target
+    {
+        
+        /**
+         * Sets the scoreboard title.
+         * 
+         * @param title
+         *            new title
+         */
+        void setTitle(String title);
+        
+        /**
+         * Sets the score of given entry.
+         * 
+         * @param entry
+         *            scoreboard entry
+         * @param score
+         *            new score
+         */
+        void setScore(String entry, int score);
+        
+        /**
+         * Removes given entry.
+         * 
+         * @param entry
+         *            scoreboard entry
+         */
+        void resetScore(String entry);
+        
+    }
+    
+    /** the rendered title. */
+    private String                     title;
+    
+    /** the rendered scores. */
+    private final Map<String, Integer> scores = new HashMap<>();
+    
+    /**
+     * Returns the rendered scores.
+     * 
+     * @return rendered scores
+     */
+    public Map<String, Integer> getScores()
+    {
+        return Collections.unmodifiableMap(this.scores);
+    }
+    
+    /**
+     * Renders given lines and sends the differences to the target.
+     * 
+     * @param target
+     *            the target
+     * @param newTitle
+     *            the title; {@code null} to leave the title untouched
+     * @param lines
+     *            the scores by entry
+     * @return number of changes sent to the target
+     */
+    public int render(final Target target, final String newTitle, final Map<String, Integer> lines)
+    {
+        int changes = 0;
+        if (newTitle != null && !newTitle.equals(this.title))
+        {
+            target.setTitle(newTitle);
+            this.title = newTitle;
+            changes++;
+        }
+        final Iterator<Map.Entry<String, Integer>> iter = this.scores.entrySet().iterator();
+        while (iter.hasNext())
+        {
+            final String entry = iter.next().getKey();
+            if (!lines.containsKey(entry))
+            {
+                target.resetScore(entry);
+                iter.remove();
+                changes++;
+            }
+        }
+        for (final Map.Entry<String, Integer> line : lines.entrySet())
+        {
+            final Integer old = this.scores.put(line.getKey(), line.getValue());
+            if (!Objects.equals(old, line.getValue()))
+            {
+                target.setScore(line.getKey(), line.getValue());
+                changes++;
+            }
+        }
+        return changes;
+    }
+    
+    /**
+     * Returns a target writing to given sidebar objective.
+     * 
+     * @param board
+     *            the scoreboard
+     * @param objective
+     *            the sidebar objective
+     * @return target
+     */
+    public static Target of(final Scoreboard board, final Objective objective)
+    {
+        return new Target() {
+            
+            @Override
+            public void setTitle(final String title)
+            {
+                objective.setDisplayName(title);
+            }
+            
+            @Override
+            public void setScore(final String entry, final int score)
+            {
+                final Score s = Util.getScore(objective, entry);
+                if (s != null)
+                {
+                    s.setScore(score);
+                }
+            }
+            
+            @Override
+            public void resetScore(final String entry)
+            {
+                Util.resetScores(board, entry);
+            }
+        };
+    }
+    
+}
@@ -0,0 +1,175 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hash index of values stored at block positions, f.e. join signs.
+ * 
+ * <p>
+ * Block coordinates are packed into a single long per world (26 bits x, 26 bits z, 12 bits y) so that a lookup is a single hash access instead of comparing the distance to every known
+ * position.
+ * </p>
+ * 
+ * @author mepeisen
+ * @param <T>
+ *            value type
+ */
+public final class SignLocationIndex<T>
+{
+    
+    /** values by world name and block key. */
+    private final Map<String, Map<Long, T>> worlds = new HashMap<>();
+    
+    /** number of stored values. */
+    private int                             size;
+    
+    /**
+     * Returns the value stored at given block.
+     * 
+     * @param world
+     *            the world name
+     * @param x
+     *            block x coordinate
+     * @param y
+     *            block y coordinate
+     * @param z
+     *            block z coordinate
+     * @return value or {@code null} if nothing is stored at given block
+     */
+    public T get(final String world, final int x, final int y, final int z)
+    {
+        final Map<Long, T> blocks = this.worlds.get(world);
+        return blocks == null ? null : blocks.get(blockKey(x, y, z));
+    }
+    
+    /**
+     * Stores a value at given block.
+     * 
+     * @param world
+     *            the world name
+     * @param x
+     *            block x coordinate
+     * @param y
+     *            block y coordinate
+     * @param z
+     *            block z coordinate
+     * @param value
+     *            the value
+     * @return previous value or {@code null} if nothing was stored at given block
+     */
+    public T put(final String world, final int x, final int y, final int z, final T value)
+    {
+        final T old = this.worlds.computeIfAbsent(world, k -> new HashMap<>()).put(blockKey(x, y, z), value);
+        if (old == null)
+        {
+            this.size++;
+        }
+        return old;
+    }
+    
+    /**
+     * Stores a value at given block unless the block already holds a value.
+     * 
+     * @param world
+     *            the world name
+     * @param x
+     *            block x coordinate
+     * @param y
+     *            block y coordinate
+     * @param z
+     *            block z coordinate
+     * @param value
+     *            the value
+     * @return {@code true} if the value was stored
+     */
+    public boolean putIfAbsent(final String world, final int x, final int y, final int z, final T value)
+    {
+        if (this.worlds.computeIfAbsent(world, k -> new HashMap<>()).putIfAbsent(blockKey(x, y, z), value) == null)
+        {
+            this.size++;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Removes the value stored at given block.
+     * 
+     * @param world
+     *            the world name
+     * @param x
+     *            block x coordinate
+     * @param y
+     *            block y coordinate
+     * @param z
+     *            block z coordinate
+     * @return removed value or {@code null} if nothing was stored at given block
+     */
+    public T remove(final String world, final int x, final int y, final int z)
+    {
+        final Map<Long, T> blocks = this.worlds.get(world);
+        if (blocks == null)
+        {
+            return null;
+        }
+        final T old = blocks.remove(blockKey(x, y, z));
+        if (old != null)
+        {
+            this.size--;
+            if (blocks.isEmpty())
+            {
+                this.worlds.remove(world);
+            }
+        }
+        return old;
+    }
+    
+    /**
+     * Removes all values.
+     */
+    public void clear()
+    {
+        this.worlds.clear();
+        this.size = 0;
+    }
+    
+    /**
+     * @return number of stored values
+     */
+    public int size()
+    {
+        return this.size;
+    }
+    
+    /**
+     * Packs block coordinates into a single key.
+     * 
+     * @param x
+     *            block x coordinate
+     * @param y
+     *            block y coordinate
+     * @param z
+     *            block z coordinate
+     * @return block key
+     */
+    public static long blockKey(final int x, final int y, final int z)
+    {
+        return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+    }
+    
+}
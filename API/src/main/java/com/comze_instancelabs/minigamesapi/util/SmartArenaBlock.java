@@ -191,6 +191,26 @@ public class SmartArenaBlock implements Serializable
         return b;
     }
     
+    public String getWorldName()
+    {
+        return this.world;
+    }
+    
+    public int getX()
+    {
+        return this.x;
+    }
+    
+    public int getY()
+    {
+        return this.y;
+    }
+    
+    public int getZ()
+    {
+        return this.z;
+    }
+    
     public Material getMaterial()
     {
         return this.m;
@@ -0,0 +1,281 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform grid bucketing elements by their horizontal position.
+ * 
+ * <p>
+ * Each element is stored in the square cell (x/z) covering its last reported position. Range queries only visit the cells around the query position instead of all elements. Moving an
+ * element within its cell only updates the stored position.
+ * </p>
+ * 
+ * @author mepeisen
+ * @param <T>
+ *            element type
+ */
+public final class SpatialGrid<T>
+{
+    
+    /** cell size as power of two (blocks). */
+    private final int                             shift;
+    
+    /** cells by world name and cell key. */
+    private final Map<String, Map<Long, List<T>>> worlds    = new HashMap<>();
+    
+    /** the position of each element. */
+    private final Map<T, Position>                positions = new HashMap<>();
+    
+    /**
+     * Constructor.
+     * 
+     * @param shift
+     *            cell size as power of two; f.e. {@code 4} for chunk sized cells.
+     */
+    public SpatialGrid(final int shift)
+    {
+        this.shift = shift;
+    }
+    
+    /**
+     * Adds an element or updates its position.
+     * 
+     * @param element
+     *            the element
+     * @param world
+     *            the world name
+     * @param x
+     *            x coordinate
+     * @param y
+     *            y coordinate
+     * @param z
+     *            z coordinate
+     * @return {@code true} if the element was added or moved to another cell
+     */
+    public boolean update(final T element, final String world, final double x, final double y, final double z)
+    {
+        final long cell = this.cellKey(x, z);
+        Position pos = this.positions.get(element);
+        if (pos != null && pos.cell == cell && pos.world.equals(world))
+        {
+            pos.x = x;
+            pos.y = y;
+            pos.z = z;
+            return false;
+        }
+        if (pos != null)
+        {
+            this.unlink(element, pos);
+        }
+        else
+        {
+            pos = new Position();
+            this.positions.put(element, pos);
+        }
+        pos.world = world;
+        pos.cell = cell;
+        pos.x = x;
+        pos.y = y;
+        pos.z = z;
+        this.worlds.computeIfAbsent(world, k -> new HashMap<>()).computeIfAbsent(cell, k -> new ArrayList<>(4)).add(element);
+        return true;
+    }
+    
+    /**
+     * Removes an element.
+     * 
+     * @param element
+     *            the element
+     * @return {@code true} if the element was found
+     */
+    public boolean remove(final T element)
+    {
+        final Position pos = this.positions.remove(element);
+        if (pos == null)
+        {
+            return false;
+        }
+        this.unlink(element, pos);
+        return true;
+    }
+    
+    /**
+     * Removes all elements.
+     */
+    public void clear()
+    {
+        this.worlds.clear();
+        this.positions.clear();
+    }
+    
+    /**
+     * @return number of elements
+     */
+    public int size()
+    {
+        return this.positions.size();
+    }
+    
+    /**
+     * Checks if the element is stored.
+     * 
+     * @param element
+     *            the element
+     * @return {@code true} if the grid contains the element
+     */
+    public boolean contains(final T element)
+    {
+        return this.positions.containsKey(element);
+    }
+    
+    /**
+     * Returns the elements whose last position is within given radius.
+     * 
+     * @param world
+     *            the world name
+     * @param x
+     *            x coordinate
+     * @param y
+     *            y coordinate
+     * @param z
+     *            z coordinate
+     * @param radius
+     *            the radius (blocks)
+     * @return elements; may be an immutable empty list
+     */
+    public List<T> getNear(final String world, final double x, final double y, final double z, final double radius)
+    {
+        final Map<Long, List<T>> cells = this.worlds.get(world);
+        if (cells == null)
+        {
+            return Collections.emptyList();
+        }
+        final double radiusSquared = radius * radius;
+        final int minX = (int) Math.floor(x - radius) >> this.shift;
+        final int maxX = (int) Math.floor(x + radius) >> this.shift;
+        final int minZ = (int) Math.floor(z - radius) >> this.shift;
+        final int maxZ = (int) Math.floor(z + radius) >> this.shift;
+        List<T> result = null;
+        for (int cx = minX; cx <= maxX; cx++)
+        {
+            for (int cz = minZ; cz <= maxZ; cz++)
+            {
+                final List<T> cell = cells.get(key(cx, cz));
+                if (cell == null)
+                {
+                    continue;
+                }
+                for (final T element : cell)
+                {
+                    final Position pos = this.positions.get(element);
+                    final double dx = pos.x - x;
+                    final double dy = pos.y - y;
+                    final double dz = pos.z - z;
+                    if (dx * dx + dy * dy + dz * dz <= radiusSquared)
+                    {
+                        if (result == null)
+                        {
+                            result = new ArrayList<>();
+                        }
+                        result.add(element);
+                    }
+                }
+            }
+        }
+        return result == null ? Collections.<T> emptyList() : result;
+    }
+    
+    /**
+     * Removes the element from its cell.
+     * 
+     * @param element
+     *            the element
+     * @param pos
+     *            its position
+     */
+    private void unlink(final T element, final Position pos)
+    {
+        final Map<Long, List<T>> cells = this.worlds.get(pos.world);
+        final List<T> cell = cells.get(pos.cell);
+        final int index = cell.indexOf(element);
+        final int last = cell.size() - 1;
+        cell.set(index, cell.get(last));
+        cell.remove(last);
+        if (cell.isEmpty())
+        {
+            cells.remove(pos.cell);
+            if (cells.isEmpty())
+            {
+                this.worlds.remove(pos.world);
+            }
+        }
+    }
+    
+    /**
+     * Returns the key of the cell covering given coordinates.
+     * 
+     * @param x
+     *            x coordinate
+     * @param z
+     *            z coordinate
+     * @return cell key
+     */
+    private long cellKey(final double x, final double z)
+    {
+        return key((int) Math.floor(x) >> this.shift, (int) Math.floor(z) >> this.shift);
+    }
+    
+    /**
+     * Packs cell coordinates into a single key.
+     * 
+     * @param cellX
+     *            cell x coordinate
+     * @param cellZ
+     *            cell z coordinate
+     * @return cell key
+     */
+    private static long key(final int cellX, final int cellZ)
+    {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * The last position of an element.
+     */
+    private static final class Position
+    {
+        /** world name. */
+        String world;
+        
+        /** cell key. */
+        long   cell;
+        
+        /** x coordinate. */
+        double x;
+        
+        /** y coordinate. */
+        double y;
+        
+        /** z coordinate. */
+        double z;
+    }
+    
+}
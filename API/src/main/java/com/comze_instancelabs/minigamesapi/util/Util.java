@@ -23,6 +23,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
@@ -71,12 +72,15 @@ import org.bukkit.util.io.BukkitObjectOutputStream;
 
 import com.comze_instancelabs.minigamesapi.Arena;
 import com.comze_instancelabs.minigamesapi.ArenaConfigStrings;
+import com.comze_instancelabs.minigamesapi.ArenaLayout;
 import com.comze_instancelabs.minigamesapi.ArenaLogger;
 import com.comze_instancelabs.minigamesapi.ArenaSetup;
+import com.comze_instancelabs.minigamesapi.ArenaSignCache;
 import com.comze_instancelabs.minigamesapi.ArenaState;
 import com.comze_instancelabs.minigamesapi.MinecraftVersionsType;
 import com.comze_instancelabs.minigamesapi.MinigamesAPI;
 import com.comze_instancelabs.minigamesapi.PluginInstance;
+import com.comze_instancelabs.minigamesapi.SmartReset;
 import com.comze_instancelabs.minigamesapi.config.ArenasConfig;
 
 public class Util
@@ -88,6 +92,23 @@ public class Util
     public static HashMap<String, Integer>     xplevel           = new HashMap<>();
     public static HashMap<String, GameMode>    gamemode          = new HashMap<>();
     
+    /**
+     * placeholders available on join and spectator signs: {@code <count>}, {@code <maxcount>}, {@code <arena>} and the smart reset {@code <progress>} (percent) and {@code <eta>}
+     * (seconds).
+     */
+    public static final Map<String, MessageTemplate.Placeholder<Arena>> SIGN_PLACEHOLDERS;
+    
+    static
+    {
+        final Map<String, MessageTemplate.Placeholder<Arena>> placeholders = new HashMap<>();
+        placeholders.put("<count>", (sb, a) -> sb.append(a.getAllPlayers().size())); //$NON-NLS-1$
+        placeholders.put("<maxcount>", (sb, a) -> sb.append(a.getMaxPlayers())); //$NON-NLS-1$
+        placeholders.put("<arena>", (sb, a) -> sb.append(a.getDisplayName())); //$NON-NLS-1$
+        placeholders.put("<progress>", (sb, a) -> sb.append((int) (a.getSmartReset().getProgress() * 100))); //$NON-NLS-1$
+        placeholders.put("<eta>", (sb, a) -> sb.append((Math.max(0L, a.getSmartReset().getEta()) + 999) / 1000)); //$NON-NLS-1$
+        SIGN_PLACEHOLDERS = Collections.unmodifiableMap(placeholders);
+    }
+    
     public static void clearInv(final Player p)
     {
         if (p != null)
@@ -206,34 +227,15 @@ public class Util
     
     public static Location getComponentForArena(final JavaPlugin plugin, final String arenaname, final String component, final String count)
     {
-        if (Validator.isArenaValid(plugin, arenaname))
-        {
-            final String base = ArenaConfigStrings.ARENAS_PREFIX + arenaname + "." + component + count;
-            final PluginInstance pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
-            if (!pli.getArenasConfig().getConfig().isSet(base + ".world") || Bukkit.getWorld(pli.getArenasConfig().getConfig().getString(base + ".world")) == null)
-            {
-                return null;
-            }
-            return new Location(Bukkit.getWorld(pli.getArenasConfig().getConfig().getString(base + ".world")), pli.getArenasConfig().getConfig().getDouble(base + ".location.x"),
-                    pli.getArenasConfig().getConfig().getDouble(base + ".location.y"), pli.getArenasConfig().getConfig().getDouble(base + ".location.z"),
-                    (float) pli.getArenasConfig().getConfig().getDouble(base + ".location.yaw"), (float) pli.getArenasConfig().getConfig().getDouble(base + ".location.pitch"));
-        }
-        return null;
+        return Util.getComponentForArena(plugin, arenaname, component + count);
     }
     
     public static Location getComponentForArena(final JavaPlugin plugin, final String arenaname, final String component)
     {
-        if (Validator.isArenaValid(plugin, arenaname))
+        final ArenaLayout layout = MinigamesAPI.getAPI().getPluginInstance(plugin).getArenaLayout(arenaname);
+        if (layout.isValid())
         {
-            final String base = ArenaConfigStrings.ARENAS_PREFIX + arenaname + "." + component;
-            final PluginInstance pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
-            if (!pli.getArenasConfig().getConfig().isSet(base + ".world") || Bukkit.getWorld(pli.getArenasConfig().getConfig().getString(base + ".world")) == null)
-            {
-                return null;
-            }
-            return new Location(Bukkit.getWorld(pli.getArenasConfig().getConfig().getString(base + ".world")), pli.getArenasConfig().getConfig().getDouble(base + ".location.x"),
-                    pli.getArenasConfig().getConfig().getDouble(base + ".location.y"), pli.getArenasConfig().getConfig().getDouble(base + ".location.z"),
-                    (float) pli.getArenasConfig().getConfig().getDouble(base + ".location.yaw"), (float) pli.getArenasConfig().getConfig().getDouble(base + ".location.pitch"));
+            return layout.getLocation(component);
         }
         return null;
     }
@@ -253,29 +255,25 @@ public class Util
     
     public static boolean isComponentForArenaValid(final JavaPlugin plugin, final String arenaname, final String component)
     {
-        if (Validator.isArenaValid(plugin, arenaname))
-        {
-            return Util.isComponentForArenaValidRaw(plugin, arenaname, component);
-        }
-        return false;
+        final ArenaLayout layout = MinigamesAPI.getAPI().getPluginInstance(plugin).getArenaLayout(arenaname);
+        return layout.isValid() && layout.isSet(component);
     }
     
     public static boolean isComponentForArenaValidRaw(final JavaPlugin plugin, final String arenaname, final String component)
     {
-        final String base = ArenaConfigStrings.ARENAS_PREFIX + arenaname + "." + component;
-        return MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().getConfig().isSet(base);
+        return MinigamesAPI.getAPI().getPluginInstance(plugin).getArenaLayout(arenaname).isSet(component);
     }
     
     public static void saveComponentForArena(final JavaPlugin plugin, final String arenaname, final String component, final Location comploc)
     {
         final String base = ArenaConfigStrings.ARENAS_PREFIX + arenaname + "." + component;
         final ArenasConfig config = MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig();
-        config.getConfig().set(base + ".world", comploc.getWorld().getName());
-        config.getConfig().set(base + ".location.x", comploc.getX());
-        config.getConfig().set(base + ".location.y", comploc.getY());
-        config.getConfig().set(base + ".location.z", comploc.getZ());
-        config.getConfig().set(base + ".location.yaw", comploc.getYaw());
-        config.getConfig().set(base + ".location.pitch", comploc.getPitch());
+        config.set(base + ".world", comploc.getWorld().getName());
+        config.set(base + ".location.x", comploc.getX());
+        config.set(base + ".location.y", comploc.getY());
+        config.set(base + ".location.z", comploc.getZ());
+        config.set(base + ".location.yaw", comploc.getYaw());
+        config.set(base + ".location.pitch", comploc.getPitch());
         config.saveConfig();
     }
     
@@ -283,12 +281,12 @@ public class Util
     {
         final String base = "mainlobby";
         final ArenasConfig config = MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig();
-        config.getConfig().set(base + ".world", comploc.getWorld().getName());
-        config.getConfig().set(base + ".location.x", comploc.getX());
-        config.getConfig().set(base + ".location.y", comploc.getY());
-        config.getConfig().set(base + ".location.z", comploc.getZ());
-        config.getConfig().set(base + ".location.yaw", comploc.getYaw());
-        config.getConfig().set(base + ".location.pitch", comploc.getPitch());
+        config.set(base + ".world", comploc.getWorld().getName());
+        config.set(base + ".location.x", comploc.getX());
+        config.set(base + ".location.y", comploc.getY());
+        config.set(base + ".location.z", comploc.getZ());
+        config.set(base + ".location.yaw", comploc.getYaw());
+        config.set(base + ".location.pitch", comploc.getPitch());
         config.saveConfig();
     }
     
@@ -306,14 +304,10 @@ public class Util
     
     public static ArrayList<Location> getAllSpawns(final JavaPlugin plugin, final String arena)
     {
-        final FileConfiguration config = MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().getConfig();
         final ArrayList<Location> ret = new ArrayList<>();
-        if (config.isSet(ArenaConfigStrings.ARENAS_PREFIX + arena + ".spawns"))
+        for (final String spawn : MinigamesAPI.getAPI().getPluginInstance(plugin).getArenaLayout(arena).getSpawns())
         {
-            for (final String spawn : config.getConfigurationSection(ArenaConfigStrings.ARENAS_PREFIX + arena + ".spawns.").getKeys(false))
-            {
-                ret.add(Util.getComponentForArena(plugin, arena, "spawns." + spawn));
-            }
+            ret.add(Util.getComponentForArena(plugin, arena, "spawns." + spawn));
         }
         return ret;
     }
@@ -380,14 +374,7 @@ public class Util
     
     public static Sign getSignFromArena(final JavaPlugin plugin, final String arena)
     {
-        final PluginInstance pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
-        if (!pli.getArenasConfig().getConfig().isSet(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.world"))
-        {
-            return null;
-        }
-        final Location b_ = new Location(Bukkit.getServer().getWorld(pli.getArenasConfig().getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.world")),
-                pli.getArenasConfig().getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.loc.x"), pli.getArenasConfig().getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.loc.y"),
-                pli.getArenasConfig().getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + arena + ".sign.loc.z"));
+        final Location b_ = MinigamesAPI.getAPI().getPluginInstance(plugin).getArenaLayout(arena).getSignLocation();
         if (b_ != null)
         {
             if (b_.getWorld() != null)
@@ -409,14 +396,7 @@ public class Util
     
     public static Sign getSpecSignFromArena(final JavaPlugin plugin, final String arena)
     {
-        final PluginInstance pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
-        if (!pli.getArenasConfig().getConfig().isSet(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.world"))
-        {
-            return null;
-        }
-        final Location b_ = new Location(Bukkit.getServer().getWorld(pli.getArenasConfig().getConfig().getString(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.world")),
-                pli.getArenasConfig().getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.loc.x"), pli.getArenasConfig().getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.loc.y"),
-                pli.getArenasConfig().getConfig().getInt(ArenaConfigStrings.ARENAS_PREFIX + arena + ".specsign.loc.z"));
+        final Location b_ = MinigamesAPI.getAPI().getPluginInstance(plugin).getArenaLayout(arena).getSpecSignLocation();
         if (b_ != null)
         {
             if (b_.getWorld() != null)
@@ -464,40 +444,25 @@ public class Util
     
     public static Arena getArenaBySignLocation(final JavaPlugin plugin, final Location sign)
     {
-        for (final Arena arena : MinigamesAPI.getAPI().getPluginInstance(plugin).getArenas())
-        {
-            if (sign != null && arena.getSignLocation() != null)
-            {
-                if (sign.getWorld().getName().equalsIgnoreCase(arena.getSignLocation().getWorld().getName()))
-                {
-                    if (sign.distance(arena.getSignLocation()) < 1)
-                    {
-                        return arena;
-                    }
-                }
-            }
-        }
-        return null;
+        return MinigamesAPI.getAPI().getPluginInstance(plugin).getArenaSignIndex().getArena(sign);
     }
     
     public static Arena getArenaBySpecSignLocation(final JavaPlugin plugin, final Location sign)
     {
-        for (final Arena arena : MinigamesAPI.getAPI().getPluginInstance(plugin).getArenas())
-        {
-            if (sign != null && arena.getSpecSignLocation() != null)
-            {
-                if (sign.getWorld().getName().equalsIgnoreCase(arena.getSpecSignLocation().getWorld().getName()))
-                {
-                    if (sign.distance(arena.getSpecSignLocation()) < 1)
-                    {
-                        return arena;
-                    }
-                }
-            }
-        }
-        return null;
+        return MinigamesAPI.getAPI().getPluginInstance(plugin).getArenaSignIndex().getSpecArena(sign);
     }
     
+    /**
+     * Updates the join and spectator signs of given arena and sends the bungee sign update.
+     * 
+     * <p>
+     * Only changes are applied: signs are rendered if arena state, player count or display name changed since the last update and the sign block is only updated if the rendered lines
+     * differ. Signs in unloaded chunks are skipped and rendered on a later update.
+     * </p>
+     * 
+     * @param plugin
+     * @param arena
+     */
     public static void updateSign(final JavaPlugin plugin, final Arena arena)
     {
         if (arena == null)
@@ -505,146 +470,164 @@ public class Util
             return;
         }
         
-        Sign s = Util.getSignFromArena(plugin, arena.getInternalName());
-        if (s != null)
+        final PluginInstance pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
+        final ArenaSignCache cache = arena.getSignCache();
+        final int count = arena.getAllPlayers().size();
+        final int maxcount = arena.getMaxPlayers();
+        final String state = arena.getArenaState().toString().toLowerCase();
+        final String suffix = ":" + count + ":" + maxcount + ":" + arena.getDisplayName(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        
+        String joinKey = state + suffix;
+        final SmartReset sr = arena.getSmartReset();
+        if (sr != null && sr.isResetting())
         {
-            ArenaLogger.debug("Updating sign for arena " + arena.getInternalName() + " in " + plugin.getName());
-            final int count = arena.getAllPlayers().size();
-            final int maxcount = arena.getMaxPlayers();
-            final PluginInstance pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
-            final String state = arena.getArenaState().toString().toLowerCase();
-            if (pli.cached_sign_states.containsKey(state))
-            {
-                s.setLine(0,
-                        Signs.replaceSquares(pli.cached_sign_states.get(state).get(0).replaceAll("&", "§").replace("<count>", Integer.toString(count)).replace("<maxcount>", Integer.toString(maxcount))
-                                .replace("<arena>", arena.getDisplayName())));
-                s.setLine(1,
-                        Signs.replaceSquares(pli.cached_sign_states.get(state).get(1).replaceAll("&", "§").replace("<count>", Integer.toString(count)).replace("<maxcount>", Integer.toString(maxcount))
-                                .replace("<arena>", arena.getDisplayName())));
-                s.setLine(2,
-                        Signs.replaceSquares(pli.cached_sign_states.get(state).get(2).replaceAll("&", "§").replace("<count>", Integer.toString(count)).replace("<maxcount>", Integer.toString(maxcount))
-                                .replace("<arena>", arena.getDisplayName())));
-                s.setLine(3,
-                        Signs.replaceSquares(pli.cached_sign_states.get(state).get(3).replaceAll("&", "§").replace("<count>", Integer.toString(count)).replace("<maxcount>", Integer.toString(maxcount))
-                                .replace("<arena>", arena.getDisplayName())));
-            }
-            else
-            {
-                s.setLine(0,
-                        Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + state + ".0").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                                .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-                s.setLine(1,
-                        Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + state + ".1").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                                .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-                s.setLine(2,
-                        Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + state + ".2").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                                .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-                s.setLine(3,
-                        Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + state + ".3").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                                .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-            }
-            s.getBlock().getChunk().load();
-            s.update();
-            if (pli.color_background_wool_of_signs)
+            joinKey += ":" + (int) (sr.getProgress() * 100) + ":" + (Math.max(0L, sr.getEta()) + 999) / 1000; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (!joinKey.equals(cache.getJoinKey()))
+        {
+            final Location loc = pli.getArenaLayout(arena.getInternalName()).getSignLocation();
+            if (Util.isChunkLoaded(loc))
             {
-                final org.bukkit.material.Sign s_ = (org.bukkit.material.Sign) s.getBlock().getState().getData();
-                final Block attachedBlock = s.getBlock().getRelative(s_.getAttachedFace());
-                byte data = (byte) 5;
-                if (arena.getArenaState() == ArenaState.INGAME)
+                final Sign s = Util.getSign(loc);
+                if (s != null)
                 {
-                    data = (byte) 14;
-                }
-                else if (arena.getArenaState() == ArenaState.RESTARTING)
-                {
-                    data = (byte) 4;
+                    ArenaLogger.debug("Updating sign for arena " + arena.getInternalName() + " in " + plugin.getName());
+                    Util.applySignLines(s, Util.renderSignLines(pli, state, arena));
+                    if (pli.color_background_wool_of_signs)
+                    {
+                        final org.bukkit.material.Sign s_ = (org.bukkit.material.Sign) s.getData();
+                        final Block attachedBlock = s.getBlock().getRelative(s_.getAttachedFace());
+                        byte data = (byte) 5;
+                        if (arena.getArenaState() == ArenaState.INGAME)
+                        {
+                            data = (byte) 14;
+                        }
+                        else if (arena.getArenaState() == ArenaState.RESTARTING)
+                        {
+                            data = (byte) 4;
+                        }
+                        if (attachedBlock.getData() != data)
+                        {
+                            attachedBlock.setData(data);
+                        }
+                    }
                 }
-                attachedBlock.setData(data);
+                cache.setJoinKey(joinKey);
             }
         }
-        try
+        
+        final String specKey = "spec" + suffix; //$NON-NLS-1$
+        if (!specKey.equals(cache.getSpecKey()))
         {
-            if (plugin.isEnabled())
+            final Location loc = pli.getArenaLayout(arena.getInternalName()).getSpecSignLocation();
+            if (Util.isChunkLoaded(loc))
             {
-                BungeeUtil.sendSignUpdateRequest(plugin, plugin.getName(), arena);
+                final Sign s = Util.getSign(loc);
+                if (s != null)
+                {
+                    ArenaLogger.debug("Updating spectator sign for arena " + arena.getInternalName() + " in " + plugin.getName());
+                    Util.applySignLines(s, Util.renderSignLines(pli, "spec", arena)); //$NON-NLS-1$
+                }
+                cache.setSpecKey(specKey);
             }
         }
-        catch (final Exception e)
-        {
-            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "Failed sending bungee sign update: ", e);
-        }
         
-        s = Util.getSpecSignFromArena(plugin, arena.getInternalName());
-        if (s != null)
+        final String bungeeKey = arena.getArenaState() + ":" + count + ":" + maxcount; //$NON-NLS-1$ //$NON-NLS-2$
+        if (!bungeeKey.equals(cache.getBungeeKey()))
         {
-            ArenaLogger.debug("Updating spectator sign for arena " + arena.getInternalName() + " in " + plugin.getName());
-            final int count = arena.getAllPlayers().size();
-            final int maxcount = arena.getMaxPlayers();
-            final PluginInstance pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
-            final String state = "spec";
-            if (pli.cached_sign_states.containsKey(state))
+            try
             {
-                s.setLine(0,
-                        Signs.replaceSquares(pli.cached_sign_states.get(state).get(0).replaceAll("&", "§").replace("<count>", Integer.toString(count)).replace("<maxcount>", Integer.toString(maxcount))
-                                .replace("<arena>", arena.getDisplayName())));
-                s.setLine(1,
-                        Signs.replaceSquares(pli.cached_sign_states.get(state).get(1).replaceAll("&", "§").replace("<count>", Integer.toString(count)).replace("<maxcount>", Integer.toString(maxcount))
-                                .replace("<arena>", arena.getDisplayName())));
-                s.setLine(2,
-                        Signs.replaceSquares(pli.cached_sign_states.get(state).get(2).replaceAll("&", "§").replace("<count>", Integer.toString(count)).replace("<maxcount>", Integer.toString(maxcount))
-                                .replace("<arena>", arena.getDisplayName())));
-                s.setLine(3,
-                        Signs.replaceSquares(pli.cached_sign_states.get(state).get(3).replaceAll("&", "§").replace("<count>", Integer.toString(count)).replace("<maxcount>", Integer.toString(maxcount))
-                                .replace("<arena>", arena.getDisplayName())));
+                if (plugin.isEnabled())
+                {
+                    BungeeUtil.sendSignUpdateRequest(plugin, plugin.getName(), arena);
+                    cache.setBungeeKey(bungeeKey);
+                }
             }
-            else
+            catch (final Exception e)
             {
-                s.setLine(0,
-                        Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + state + ".0").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                                .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-                s.setLine(1,
-                        Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + state + ".1").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                                .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-                s.setLine(2,
-                        Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + state + ".2").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                                .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-                s.setLine(3,
-                        Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + state + ".3").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                                .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
+                MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "Failed sending bungee sign update: ", e);
             }
-            s.getBlock().getChunk().load();
-            s.update();
         }
-        try
+    }
+    
+    /**
+     * Checks if the chunk of given location is loaded.
+     * 
+     * @param loc
+     * @return {@code true} if the location or its world is null (nothing to render) or its chunk is loaded
+     */
+    private static boolean isChunkLoaded(final Location loc)
+    {
+        return loc == null || loc.getWorld() == null || loc.getWorld().isChunkLoaded(loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+    }
+    
+    /**
+     * Returns the sign at given location.
+     * 
+     * @param loc
+     * @return sign or {@code null}
+     */
+    private static Sign getSign(final Location loc)
+    {
+        if (loc == null || loc.getWorld() == null)
+        {
+            return null;
+        }
+        final BlockState bs = loc.getBlock().getState();
+        return bs instanceof Sign ? (Sign) bs : null;
+    }
+    
+    /**
+     * Renders the four sign lines for given sign state.
+     * 
+     * @param pli
+     * @param state
+     *            lower case arena state or "spec"
+     * @param arena
+     * @return sign lines
+     */
+    private static String[] renderSignLines(final PluginInstance pli, final String state, final Arena arena)
+    {
+        final String[] lines = new String[4];
+        for (int i = 0; i < lines.length; i++)
         {
-            if (plugin.isEnabled())
+            lines[i] = pli.getSignTemplate(state, i).render(arena);
+        }
+        return lines;
+    }
+    
+    /**
+     * Sets the sign lines and updates the block if any line changed.
+     * 
+     * @param s
+     * @param lines
+     */
+    private static void applySignLines(final Sign s, final String[] lines)
+    {
+        boolean changed = false;
+        for (int i = 0; i < lines.length; i++)
+        {
+            if (!lines[i].equals(s.getLine(i)))
             {
-                BungeeUtil.sendSignUpdateRequest(plugin, plugin.getName(), arena);
+                s.setLine(i, lines[i]);
+                changed = true;
             }
         }
-        catch (final Exception e)
+        if (changed)
         {
-            MinigamesAPI.getAPI().getLogger().log(Level.WARNING, "Failed sending bungee sign update: ", e);
+            s.update();
         }
     }
     
     public static void updateSign(final JavaPlugin plugin, final Arena arena, final SignChangeEvent event)
     {
-        final int count = arena.getAllPlayers().size();
-        final int maxcount = arena.getMaxPlayers();
+        arena.getSignCache().invalidate();
         final PluginInstance pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
-        final String arenastate = arena.getArenaState().toString().toLowerCase();
-        event.setLine(0,
-                Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + arenastate + ".0").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                        .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-        event.setLine(1,
-                Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + arenastate + ".1").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                        .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-        event.setLine(2,
-                Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + arenastate + ".2").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                        .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-        event.setLine(3,
-                Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs." + arenastate + ".3").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                        .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
+        final String[] lines = Util.renderSignLines(pli, arena.getArenaState().toString().toLowerCase(), arena);
+        for (int i = 0; i < lines.length; i++)
+        {
+            event.setLine(i, lines[i]);
+        }
         if (pli.color_background_wool_of_signs)
         {
             final org.bukkit.material.Sign s_ = (org.bukkit.material.Sign) event.getBlock().getState().getData();
@@ -664,21 +647,13 @@ public class Util
     
     public static void updateSpecSign(final JavaPlugin plugin, final Arena arena, final SignChangeEvent event)
     {
-        final int count = arena.getAllPlayers().size();
-        final int maxcount = arena.getMaxPlayers();
+        arena.getSignCache().invalidate();
         final PluginInstance pli = MinigamesAPI.getAPI().getPluginInstance(plugin);
-        event.setLine(0,
-                Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs.spec.0").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                        .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-        event.setLine(1,
-                Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs.spec.1").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                        .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-        event.setLine(2,
-                Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs.spec.2").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                        .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
-        event.setLine(3,
-                Signs.replaceSquares(pli.getMessagesConfig().getConfig().getString("signs.spec.3").replaceAll("&", "§").replace("<count>", Integer.toString(count))
-                        .replace("<maxcount>", Integer.toString(maxcount)).replace("<arena>", arena.getDisplayName())));
+        final String[] lines = Util.renderSignLines(pli, "spec", arena); //$NON-NLS-1$
+        for (int i = 0; i < lines.length; i++)
+        {
+            event.setLine(i, lines[i]);
+        }
         if (pli.color_background_wool_of_signs)
         {
             final org.bukkit.material.Sign s_ = (org.bukkit.material.Sign) event.getBlock().getState().getData();
@@ -24,6 +24,7 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import com.comze_instancelabs.minigamesapi.Arena;
 import com.comze_instancelabs.minigamesapi.ArenaConfigStrings;
+import com.comze_instancelabs.minigamesapi.ArenaLayout;
 import com.comze_instancelabs.minigamesapi.ArenaLogger;
 import com.comze_instancelabs.minigamesapi.MinigamesAPI;
 import com.comze_instancelabs.minigamesapi.PluginInstance;
@@ -140,8 +141,13 @@ public class Validator
      */
     public static boolean isArenaValid(final JavaPlugin plugin, final String arena)
     {
-        final FileConfiguration config = MinigamesAPI.getAPI().getPluginInstance(plugin).getArenasConfig().getConfig();
-        return isArenaValid(plugin, arena, config);
+        final ArenaLayout layout = MinigamesAPI.getAPI().getPluginInstance(plugin).getArenaLayout(arena);
+        if (!layout.isValid())
+        {
+            ArenaLogger.debug(ChatColor.AQUA + arena + " is invalid! lobby:" + layout.isSet("lobby") + " spawns.spawn0:" + layout.isSet("spawns.spawn0")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            return false;
+        }
+        return true;
     }
     
     /***
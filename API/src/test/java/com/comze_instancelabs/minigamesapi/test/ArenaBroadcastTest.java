@@ -0,0 +1,155 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.UUID;
+
+import org.bukkit.entity.Player;
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.Arena;
+import com.comze_instancelabs.minigamesapi.ArenaBroadcast;
+import com.comze_instancelabs.minigamesapi.testutil.TestUtil;
+
+/**
+ * Test case for the arena broadcasts.
+ * 
+ * @author mepeisen
+ * 
+ * @see ArenaBroadcast
+ */
+public class ArenaBroadcastTest extends TestUtil
+{
+    
+    /** the arena name. */
+    private static final String ARENA = "junit-arena"; //$NON-NLS-1$
+    
+    /** the junit minigame. */
+    private static final String MINIGAME = "$JUNIT-ARENA-BROADCAST-TEST"; //$NON-NLS-1$
+    
+    /** the player name. */
+    private static final String PLAYER1 = "player1"; //$NON-NLS-1$
+    
+    /** the player name. */
+    private static final String PLAYER2 = "player2"; //$NON-NLS-1$
+    
+    /** the player name. */
+    private static final String PLAYER3 = "player3"; //$NON-NLS-1$
+    
+    /**
+     * Tests that the recipients are cached until the members change, including replacements and swaps.
+     */
+    @Test
+    public void testRecipientCaching()
+    {
+        final Minigame minigame = this.minigameTest.setupMinigame(MINIGAME + "Caching"); //$NON-NLS-1$
+        final Arena arena = new Arena(minigame.javaPlugin, ARENA);
+        final Player player1 = this.mockPlayer(PLAYER1);
+        final Player player2 = this.mockPlayer(PLAYER2);
+        final Player player3 = this.mockPlayer(PLAYER3);
+        final List<String> members = arena.getAllPlayers();
+        members.add(PLAYER1);
+        members.add(PLAYER2);
+        
+        final ArenaBroadcast broadcast = arena.getBroadcast();
+        final Player[] recipients = broadcast.getRecipients();
+        assertArrayEquals(new Player[] { player1, player2 }, recipients);
+        assertSame(recipients, broadcast.getRecipients());
+        
+        // swapping holds a member twice for a moment
+        Collections.swap(members, 0, 1);
+        assertArrayEquals(new Player[] { player2, player1 }, broadcast.getRecipients());
+        
+        // replacing does not break the iteration
+        final ListIterator<String> iter = members.listIterator();
+        assertEquals(PLAYER2, iter.next());
+        iter.set(PLAYER3);
+        assertEquals(PLAYER1, iter.next());
+        final Player[] replaced = broadcast.getRecipients();
+        assertNotSame(recipients, replaced);
+        assertArrayEquals(new Player[] { player3, player1 }, replaced);
+        assertSame(replaced, broadcast.getRecipients());
+        
+        members.remove(PLAYER1);
+        assertArrayEquals(new Player[] { player3 }, broadcast.getRecipients());
+    }
+    
+    /**
+     * Tests that queued actions are sent on next tick within a single flush.
+     */
+    @Test
+    public void testNextTick()
+    {
+        final Minigame minigame = this.minigameTest.setupMinigame(MINIGAME + "NextTick"); //$NON-NLS-1$
+        final Arena arena = new Arena(minigame.javaPlugin, ARENA);
+        final Player player1 = this.mockPlayer(PLAYER1);
+        final Player player2 = this.mockPlayer(PLAYER2);
+        arena.getAllPlayers().add(PLAYER1);
+        arena.getAllPlayers().add(PLAYER2);
+        
+        final ArenaBroadcast broadcast = arena.getBroadcast();
+        broadcast.sendMessage("hello <player>"); //$NON-NLS-1$
+        broadcast.sendMessage("first;second"); //$NON-NLS-1$
+        verify(player1, never()).sendMessage(anyString());
+        verify(player1, never()).sendMessage(any(String[].class));
+        verify(player2, never()).sendMessage(anyString());
+        
+        this.tick();
+        verify(player1, times(1)).sendMessage("hello " + PLAYER1); //$NON-NLS-1$
+        verify(player2, times(1)).sendMessage("hello " + PLAYER2); //$NON-NLS-1$
+        verify(player1, times(1)).sendMessage(new String[] { "first", "second" }); //$NON-NLS-1$ //$NON-NLS-2$
+        verify(player2, times(1)).sendMessage(new String[] { "first", "second" }); //$NON-NLS-1$ //$NON-NLS-2$
+        
+        // nothing queued, nothing sent
+        this.tick();
+        verify(player1, times(1)).sendMessage(anyString());
+        
+        // offline players are skipped
+        when(player2.isOnline()).thenReturn(false);
+        broadcast.sendMessage("bye"); //$NON-NLS-1$
+        this.tick();
+        verify(player1, times(1)).sendMessage(new String[] { "bye" }); //$NON-NLS-1$
+        verify(player2, never()).sendMessage(new String[] { "bye" }); //$NON-NLS-1$
+    }
+    
+    /**
+     * Mocks an online player.
+     * 
+     * @param name
+     *            player name
+     * @return player
+     */
+    private Player mockPlayer(final String name)
+    {
+        final Player player = this.mockOnlinePlayer(name, UUID.randomUUID());
+        when(player.isOnline()).thenReturn(true);
+        return player;
+    }
+    
+}
@@ -0,0 +1,125 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.ArenaConfigStrings;
+import com.comze_instancelabs.minigamesapi.ArenaLayout;
+import com.comze_instancelabs.minigamesapi.PluginInstance;
+import com.comze_instancelabs.minigamesapi.config.ArenasConfig;
+import com.comze_instancelabs.minigamesapi.testutil.TestUtil;
+
+/**
+ * Test case for the cached arena layouts.
+ * 
+ * @author mepeisen
+ * 
+ * @see ArenaLayout
+ */
+public class ArenaLayoutTest extends TestUtil
+{
+    
+    /** the arena name. */
+    private static final String ARENA = "junit-arena"; //$NON-NLS-1$
+    
+    /** the second arena name. */
+    private static final String ARENA2 = "junit-arena2"; //$NON-NLS-1$
+    
+    /** the junit minigame. */
+    private static final String MINIGAME = "$JUNIT-ARENA-LAYOUT-TEST"; //$NON-NLS-1$
+    
+    /**
+     * Tests that layouts are cached and only replaced after their own arena changed.
+     */
+    @Test
+    public void testCachingAndInvalidation()
+    {
+        final World world = this.initWorld("world"); //$NON-NLS-1$
+        final Minigame minigame = this.minigameTest.setupMinigame(MINIGAME, (mg) -> {
+            mg.addArenaComponentToConfig(ARENA, "lobby", "world", 1, 1, 1, 80, 80); //$NON-NLS-1$ //$NON-NLS-2$
+            mg.addArenaComponentToConfig(ARENA, "spawns.spawn0", "world", 2, 2, 2, 80, 80); //$NON-NLS-1$ //$NON-NLS-2$
+            mg.addArenaComponentToConfig(ARENA2, "lobby", "world", 3, 3, 3, 80, 80); //$NON-NLS-1$ //$NON-NLS-2$
+            mg.arenasYml.set("arenas." + ARENA + ".author", "JUNIT-AUTHOR"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        });
+        final PluginInstance pli = minigame.pluginInstance;
+        final ArenasConfig config = pli.getArenasConfig();
+        
+        final ArenaLayout layout = pli.getArenaLayout(ARENA);
+        final ArenaLayout layout2 = pli.getArenaLayout(ARENA2);
+        assertTrue(layout.isValid());
+        assertFalse(layout2.isValid());
+        assertEquals("JUNIT-AUTHOR", layout.getAuthor()); //$NON-NLS-1$
+        assertEquals(1, layout.getSpawns().size());
+        assertNull(layout.getSignLocation());
+        assertSame(layout, pli.getArenaLayout(ARENA));
+        
+        // changing an arena only replaces its own layout
+        config.set(ArenaConfigStrings.ARENAS_PREFIX + ARENA + ".sign.world", "world"); //$NON-NLS-1$ //$NON-NLS-2$
+        config.set(ArenaConfigStrings.ARENAS_PREFIX + ARENA + ".sign.loc.x", 10); //$NON-NLS-1$
+        config.set(ArenaConfigStrings.ARENAS_PREFIX + ARENA + ".sign.loc.y", 64); //$NON-NLS-1$
+        config.set(ArenaConfigStrings.ARENAS_PREFIX + ARENA + ".sign.loc.z", -5); //$NON-NLS-1$
+        final ArenaLayout changed = pli.getArenaLayout(ARENA);
+        assertNotSame(layout, changed);
+        assertSame(changed, pli.getArenaLayout(ARENA));
+        assertSame(layout2, pli.getArenaLayout(ARENA2));
+        final Location sign = changed.getSignLocation();
+        assertSame(world, sign.getWorld());
+        assertEquals(10, sign.getBlockX());
+        assertEquals(64, sign.getBlockY());
+        assertEquals(-5, sign.getBlockZ());
+        
+        // raw config changes need an explicit invalidation
+        config.getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + ARENA2 + ArenaConfigStrings.AUTHOR_SUFFIX, "OTHER"); //$NON-NLS-1$
+        assertSame(layout2, pli.getArenaLayout(ARENA2));
+        config.invalidate(ARENA2);
+        final ArenaLayout changed2 = pli.getArenaLayout(ARENA2);
+        assertEquals("OTHER", changed2.getAuthor()); //$NON-NLS-1$
+        assertSame(changed, pli.getArenaLayout(ARENA));
+        
+        // raw config changes followed by a save replace all layouts
+        config.getConfig().set(ArenaConfigStrings.ARENAS_PREFIX + ARENA + ArenaConfigStrings.AUTHOR_SUFFIX, "SAVED"); //$NON-NLS-1$
+        assertSame(changed, pli.getArenaLayout(ARENA));
+        config.saveConfig();
+        final ArenaLayout saved = pli.getArenaLayout(ARENA);
+        assertNotSame(changed, saved);
+        assertEquals("SAVED", saved.getAuthor()); //$NON-NLS-1$
+        assertEquals(10, saved.getSignLocation().getBlockX());
+        assertNotSame(changed2, pli.getArenaLayout(ARENA2));
+        assertEquals("OTHER", pli.getArenaLayout(ARENA2).getAuthor()); //$NON-NLS-1$
+        assertSame(saved, pli.getArenaLayout(ARENA));
+        
+        // removing the arena
+        config.set(ArenaConfigStrings.ARENAS_PREFIX + ARENA, null);
+        assertFalse(pli.getArenaLayout(ARENA).isValid());
+        assertNull(pli.getArenaLayout(ARENA).getAuthor());
+        
+        // invalidating all arenas
+        final ArenaLayout before = pli.getArenaLayout(ARENA2);
+        config.invalidateAll();
+        assertNotSame(before, pli.getArenaLayout(ARENA2));
+        assertEquals("OTHER", pli.getArenaLayout(ARENA2).getAuthor()); //$NON-NLS-1$
+    }
+    
+}
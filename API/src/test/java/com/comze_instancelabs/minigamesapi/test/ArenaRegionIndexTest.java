@@ -0,0 +1,202 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.Arena;
+import com.comze_instancelabs.minigamesapi.ArenaRegionIndex;
+import com.comze_instancelabs.minigamesapi.PluginInstance;
+import com.comze_instancelabs.minigamesapi.util.Cuboid;
+
+/**
+ * Test case for the arena region index.
+ * 
+ * @author mepeisen
+ * 
+ * @see ArenaRegionIndex
+ */
+public class ArenaRegionIndexTest
+{
+    
+    /**
+     * Tests the lookup of small and large arenas in multiple worlds.
+     */
+    @Test
+    public void testLookup()
+    {
+        final World world = world("world"); //$NON-NLS-1$
+        final World nether = world("nether"); //$NON-NLS-1$
+        final Arena small = arena(world, 0, 20);
+        final Arena other = arena(world, 100, 120);
+        final Arena large = arena(world, -5000, 5000);
+        final ArrayList<Arena> arenas = new ArrayList<>(Arrays.asList(small, other, large));
+        final ArenaRegionIndex index = new ArenaRegionIndex(pli(arenas));
+        
+        assertEquals(set(small, large), set(index.getCandidates(world, 5, 5)));
+        assertEquals(set(other, large), set(index.getCandidates(world, 110, 110)));
+        assertEquals(set(large), set(index.getCandidates(world, 3000, 3000)));
+        assertEquals(0, index.getCandidates(nether, 5, 5).length);
+        // large arenas are candidates anywhere in their world
+        assertEquals(set(large), set(index.getCandidates(world, 6000, 6000)));
+        
+        // lookups within the same chunk return the same array
+        assertSame(index.getCandidates(world, 5, 5), index.getCandidates(world, 6, 6));
+        assertSame(index.getCandidates(world, 3000, 3000), index.getCandidates(world, -3000, 3000));
+        
+        // large arenas are kept per world
+        final Arena largeNether = arena(nether, -5000, 5000);
+        arenas.add(largeNether);
+        index.invalidate(largeNether);
+        assertEquals(set(largeNether), set(index.getCandidates(nether, 5, 5)));
+        assertEquals(set(small, large), set(index.getCandidates(world, 5, 5)));
+        
+        assertSame(small, index.getArena(new Location(world, 10, 64, 10)));
+        assertSame(large, index.getArena(new Location(world, 50, 64, 50)));
+        assertNull(index.getArena(new Location(world, 6000, 64, 6000)));
+    }
+    
+    /**
+     * Tests that only invalidated arenas are indexed again.
+     */
+    @Test
+    public void testIncrementalReindex()
+    {
+        final World world = world("world"); //$NON-NLS-1$
+        final Arena small = arena(world, 0, 20);
+        final Arena other = arena(world, 100, 120);
+        final Arena large = arena(world, -5000, 5000);
+        final ArrayList<Arena> arenas = new ArrayList<>(Arrays.asList(small, other, large));
+        final ArenaRegionIndex index = new ArenaRegionIndex(pli(arenas));
+        assertEquals(set(small, large), set(index.getCandidates(world, 5, 5)));
+        verify(other, times(1)).getBoundaries();
+        
+        // moving an arena
+        when(small.getBoundaries()).thenReturn(cuboid(world, 200, 220));
+        index.invalidate(small);
+        assertEquals(set(large), set(index.getCandidates(world, 5, 5)));
+        assertEquals(set(small, large), set(index.getCandidates(world, 210, 210)));
+        assertEquals(set(other, large), set(index.getCandidates(world, 110, 110)));
+        verify(other, times(1)).getBoundaries();
+        
+        // removing the large arena
+        arenas.remove(large);
+        index.remove(large);
+        assertEquals(set(small), set(index.getCandidates(world, 210, 210)));
+        assertEquals(0, index.getCandidates(world, 3000, 3000).length);
+        
+        // removing the last arena of a chunk
+        arenas.remove(small);
+        index.remove(small);
+        assertEquals(0, index.getCandidates(world, 210, 210).length);
+        assertEquals(set(other), set(index.getCandidates(world, 110, 110)));
+        verify(other, times(1)).getBoundaries();
+        
+        // arena list manipulated without invalidation
+        arenas.add(small);
+        assertEquals(set(small), set(index.getCandidates(world, 210, 210)));
+        verify(other, times(2)).getBoundaries();
+    }
+    
+    /**
+     * Creates a world mock.
+     * 
+     * @param name
+     *            world name
+     * @return world
+     */
+    private static World world(final String name)
+    {
+        final World world = mock(World.class);
+        when(world.getName()).thenReturn(name);
+        return world;
+    }
+    
+    /**
+     * Creates an arena mock.
+     * 
+     * @param world
+     *            the world
+     * @param min
+     *            lowest x and z coordinate
+     * @param max
+     *            highest x and z coordinate
+     * @return arena
+     */
+    private static Arena arena(final World world, final int min, final int max)
+    {
+        final Arena arena = mock(Arena.class);
+        when(arena.getBoundaries()).thenReturn(cuboid(world, min, max));
+        return arena;
+    }
+    
+    /**
+     * Creates a cuboid.
+     * 
+     * @param world
+     *            the world
+     * @param min
+     *            lowest x and z coordinate
+     * @param max
+     *            highest x and z coordinate
+     * @return cuboid
+     */
+    private static Cuboid cuboid(final World world, final int min, final int max)
+    {
+        return new Cuboid(new Location(world, min, 0, min), new Location(world, max, 255, max));
+    }
+    
+    /**
+     * Creates a plugin instance mock.
+     * 
+     * @param arenas
+     *            the arenas
+     * @return plugin instance
+     */
+    private static PluginInstance pli(final ArrayList<Arena> arenas)
+    {
+        final PluginInstance pli = mock(PluginInstance.class);
+        when(pli.getArenas()).thenReturn(arenas);
+        return pli;
+    }
+    
+    /**
+     * Converts the candidates to a set.
+     * 
+     * @param arenas
+     *            the arenas
+     * @return set
+     */
+    private static Set<Arena> set(final Arena... arenas)
+    {
+        return new HashSet<>(Arrays.asList(arenas));
+    }
+    
+}
@@ -0,0 +1,123 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.Sign;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import com.comze_instancelabs.minigamesapi.Arena;
+import com.comze_instancelabs.minigamesapi.ArenaSignCache;
+import com.comze_instancelabs.minigamesapi.ArenaState;
+import com.comze_instancelabs.minigamesapi.testutil.TestUtil;
+import com.comze_instancelabs.minigamesapi.util.Util;
+
+/**
+ * Test case for the sign render cache.
+ * 
+ * @author mepeisen
+ * 
+ * @see ArenaSignCache
+ */
+public class ArenaSignCacheTest extends TestUtil
+{
+    
+    /** the arena name. */
+    private static final String ARENA = "junit-arena"; //$NON-NLS-1$
+    
+    /** the junit minigame. */
+    private static final String MINIGAME = "$JUNIT-ARENA-SIGN-CACHE-TEST"; //$NON-NLS-1$
+    
+    /** the world name. */
+    private static final String WORLD = "signworld"; //$NON-NLS-1$
+    
+    /**
+     * Tests that the sign is only rendered again after the player count or state changed or the cache was invalidated.
+     */
+    @Test
+    public void testInvalidation()
+    {
+        final World world = mock(World.class);
+        final Block block = mock(Block.class);
+        final Sign sign = mock(Sign.class);
+        when(world.getName()).thenReturn(WORLD);
+        when(world.isChunkLoaded(anyInt(), anyInt())).thenReturn(true);
+        when(world.getBlockAt(any(Location.class))).thenReturn(block);
+        when(block.getState()).thenReturn(sign);
+        this.addWorld(WORLD, world);
+        
+        final Minigame minigame = this.minigameTest.setupMinigame(MINIGAME, (mg) -> {
+            mg.arenasYml.set("arenas." + ARENA + ".sign.world", WORLD); //$NON-NLS-1$ //$NON-NLS-2$
+            mg.arenasYml.set("arenas." + ARENA + ".sign.loc.x", 10); //$NON-NLS-1$ //$NON-NLS-2$
+            mg.arenasYml.set("arenas." + ARENA + ".sign.loc.y", 64); //$NON-NLS-1$ //$NON-NLS-2$
+            mg.arenasYml.set("arenas." + ARENA + ".sign.loc.z", 10); //$NON-NLS-1$ //$NON-NLS-2$
+        });
+        final Arena arena = new Arena(minigame.javaPlugin, ARENA);
+        final ArenaSignCache cache = arena.getSignCache();
+        
+        Util.updateSign(minigame.javaPlugin, arena);
+        verify(sign, times(1)).update();
+        final String key = cache.getJoinKey();
+        assertNotNull(key);
+        
+        // nothing changed
+        Util.updateSign(minigame.javaPlugin, arena);
+        verify(sign, times(1)).update();
+        verify(world, times(1)).getBlockAt(any(Location.class));
+        
+        // player count changed
+        arena.getAllPlayers().add("player1"); //$NON-NLS-1$
+        Util.updateSign(minigame.javaPlugin, arena);
+        verify(sign, times(2)).update();
+        assertNotEquals(key, cache.getJoinKey());
+        
+        // state changed
+        Whitebox.setInternalState(arena, "currentstate", ArenaState.INGAME); //$NON-NLS-1$
+        Util.updateSign(minigame.javaPlugin, arena);
+        verify(sign, times(3)).update();
+        Util.updateSign(minigame.javaPlugin, arena);
+        verify(sign, times(3)).update();
+        
+        // invalidated
+        cache.invalidate();
+        Util.updateSign(minigame.javaPlugin, arena);
+        verify(sign, times(4)).update();
+        
+        // unloaded chunks are rendered after loading
+        when(world.isChunkLoaded(anyInt(), anyInt())).thenReturn(false);
+        final String loadedKey = cache.getJoinKey();
+        arena.getAllPlayers().add("player2"); //$NON-NLS-1$
+        Util.updateSign(minigame.javaPlugin, arena);
+        verify(sign, times(4)).update();
+        assertEquals(loadedKey, cache.getJoinKey());
+        when(world.isChunkLoaded(anyInt(), anyInt())).thenReturn(true);
+        Util.updateSign(minigame.javaPlugin, arena);
+        verify(sign, times(5)).update();
+    }
+    
+}
@@ -0,0 +1,94 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.bukkit.entity.Player;
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.ChannelStrings;
+import com.comze_instancelabs.minigamesapi.RemoteArenaDirectory;
+import com.comze_instancelabs.minigamesapi.RemoteArenaDirectory.RemoteArena;
+import com.comze_instancelabs.minigamesapi.SignSnapshot;
+import com.comze_instancelabs.minigamesapi.SignSnapshot.Entry;
+import com.comze_instancelabs.minigamesapi.testutil.TestUtil;
+import com.comze_instancelabs.minigamesapi.util.BungeeTransport;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Test case for the bungee cord plugin channel transport.
+ * 
+ * @author mepeisen
+ * 
+ * @see BungeeTransport
+ */
+public class BungeeTransportTest extends TestUtil
+{
+    
+    /** the player name. */
+    private static final String PLAYER1 = "player1"; //$NON-NLS-1$
+    
+    /**
+     * Tests the forward framing of sent messages.
+     */
+    @Test
+    public void testSend()
+    {
+        final BungeeTransport transport = BungeeTransport.forPlugin(this.minigameTest.api);
+        transport.send("ALL", ChannelStrings.SUBCHANNEL_MINIGAMESLIB_PONG, new byte[] { 1, 2, 3 }); //$NON-NLS-1$
+        
+        verifyPluginMessage(this.minigameTest.api, ChannelStrings.CHANNEL_BUNGEE_CORD,
+                "Forward", //$NON-NLS-1$
+                "ALL", //$NON-NLS-1$
+                ChannelStrings.SUBCHANNEL_MINIGAMESLIB_PONG,
+                new Object[] { Byte.valueOf((byte) 1), Byte.valueOf((byte) 2), Byte.valueOf((byte) 3) });
+    }
+    
+    /**
+     * Tests a quick join through the bungee cord plugin channel.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testQuickJoin() throws Exception
+    {
+        final Player player = this.mockOnlinePlayer(PLAYER1, UUID.randomUUID());
+        final RemoteArenaDirectory dir = new RemoteArenaDirectory(() -> BungeeTransport.forPlugin(this.minigameTest.api), System::currentTimeMillis, 60000);
+        dir.apply(new SignSnapshot("game1", 1, 1, true, Arrays.asList(new Entry("mg", "a1", "JOIN", 2, 8)))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        
+        final RemoteArena chosen = dir.quickJoin(PLAYER1, "mg"); //$NON-NLS-1$
+        assertEquals("game1", chosen.getServer()); //$NON-NLS-1$
+        
+        // the join request is forwarded to the target server only
+        verifyPluginMessage(this.minigameTest.api, ChannelStrings.CHANNEL_BUNGEE_CORD,
+                "Forward", //$NON-NLS-1$
+                "game1", //$NON-NLS-1$
+                ChannelStrings.SUBCHANNEL_MINIGAMESLIB_BACK,
+                new Object[] { "mg:a1:join:" + PLAYER1 }); //$NON-NLS-1$
+        
+        // the player is sent through the own connection of the player
+        final ByteArrayDataOutput connect = ByteStreams.newDataOutput();
+        connect.writeUTF("Connect"); //$NON-NLS-1$
+        connect.writeUTF("game1"); //$NON-NLS-1$
+        verify(player).sendPluginMessage(this.minigameTest.api, ChannelStrings.CHANNEL_BUNGEE_CORD, connect.toByteArray());
+    }
+    
+}
@@ -0,0 +1,153 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.sql.ConnectionPool;
+import com.comze_instancelabs.minigamesapi.sql.PooledConnection;
+
+/**
+ * Test case for the sql connection pool.
+ * 
+ * @author mepeisen
+ * 
+ * @see ConnectionPool
+ */
+public class ConnectionPoolTest
+{
+    
+    /**
+     * Creates a mocked connection.
+     * 
+     * @return connection.
+     * @throws SQLException
+     *             thrown on sql errors.
+     */
+    private static Connection mockConnection() throws SQLException
+    {
+        final Connection con = mock(Connection.class);
+        when(con.isValid(2)).thenReturn(true);
+        when(con.prepareStatement("SELECT 1")).thenReturn(mock(PreparedStatement.class)); //$NON-NLS-1$
+        return con;
+    }
+    
+    /**
+     * Tests reusing connections and statements.
+     * 
+     * @throws SQLException
+     *             thrown on sql errors.
+     */
+    @Test
+    public void testReuse() throws SQLException
+    {
+        final Connection con = mockConnection();
+        final ConnectionPool pool = new ConnectionPool(Logger.getAnonymousLogger(), () -> con, 1, 60000);
+        
+        PreparedStatement stmt;
+        try (final PooledConnection pc = pool.acquire())
+        {
+            assertSame(con, pc.getConnection());
+            stmt = pc.prepare("SELECT 1"); //$NON-NLS-1$
+        }
+        try (final PooledConnection pc = pool.acquire())
+        {
+            assertSame(con, pc.getConnection());
+            assertSame(stmt, pc.prepare("SELECT 1")); //$NON-NLS-1$
+        }
+        verify(con, times(1)).prepareStatement("SELECT 1"); //$NON-NLS-1$
+        
+        pool.close();
+        verify(con).close();
+        verify(stmt).close();
+    }
+    
+    /**
+     * Tests discarding broken connections.
+     * 
+     * @throws SQLException
+     *             thrown on sql errors.
+     */
+    @Test
+    public void testBroken() throws SQLException
+    {
+        final Connection con1 = mockConnection();
+        final Connection con2 = mockConnection();
+        final Connection[] next = { con1, con2 };
+        final int[] count = { 0 };
+        final ConnectionPool pool = new ConnectionPool(Logger.getAnonymousLogger(), () -> next[count[0]++], 1, 60000);
+        
+        try (final PooledConnection pc = pool.acquire())
+        {
+            pc.markBroken();
+        }
+        verify(con1).close();
+        try (final PooledConnection pc = pool.acquire())
+        {
+            assertNotSame(con1, pc.getConnection());
+        }
+        pool.close();
+        
+        try
+        {
+            pool.acquire();
+            fail("closed pool returned a connection"); //$NON-NLS-1$
+        }
+        catch (final SQLException ex)
+        {
+            // expected
+        }
+    }
+    
+    /**
+     * Tests closing idle connections without acquiring a connection.
+     * 
+     * @throws Exception
+     *             thrown on errors.
+     */
+    @Test
+    public void testEvictIdle() throws Exception
+    {
+        final Connection con = mockConnection();
+        final ConnectionPool pool = new ConnectionPool(Logger.getAnonymousLogger(), () -> con, 1, 1);
+        try (final PooledConnection pc = pool.acquire())
+        {
+            assertSame(con, pc.getConnection());
+        }
+        verify(con, never()).close();
+        
+        Thread.sleep(10);
+        pool.evictIdle();
+        verify(con, times(1)).close();
+        
+        pool.close();
+        verify(con, times(1)).close();
+    }
+    
+}
@@ -0,0 +1,93 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.guns.Gun;
+import com.comze_instancelabs.minigamesapi.guns.GunCooldowns;
+
+/**
+ * Test case for the gun cooldown table.
+ * 
+ * @author mepeisen
+ * 
+ * @see GunCooldowns
+ */
+public class GunCooldownsTest
+{
+    
+    /**
+     * Tests cooldowns per player and gun.
+     */
+    @Test
+    public void testCooldowns()
+    {
+        final AtomicLong clock = new AtomicLong();
+        final GunCooldowns cooldowns = new GunCooldowns(clock::get);
+        final Gun gun1 = mock(Gun.class);
+        final Gun gun2 = mock(Gun.class);
+        final UUID player1 = UUID.randomUUID();
+        final UUID player2 = UUID.randomUUID();
+        
+        assertTrue(cooldowns.tryStart(player1, gun1, 1000, TimeUnit.MILLISECONDS));
+        assertFalse(cooldowns.tryStart(player1, gun1, 1000, TimeUnit.MILLISECONDS));
+        assertTrue(cooldowns.tryStart(player1, gun2, 1000, TimeUnit.MILLISECONDS));
+        assertTrue(cooldowns.tryStart(player2, gun1, 1000, TimeUnit.MILLISECONDS));
+        
+        clock.set(TimeUnit.MILLISECONDS.toNanos(400));
+        assertEquals(600, cooldowns.getRemaining(player1, gun1, TimeUnit.MILLISECONDS));
+        
+        clock.set(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(0, cooldowns.getRemaining(player1, gun1, TimeUnit.MILLISECONDS));
+        assertTrue(cooldowns.tryStart(player1, gun1, 1000, TimeUnit.MILLISECONDS));
+        
+        cooldowns.reset(gun1);
+        assertEquals(0, cooldowns.getRemaining(player2, gun1, TimeUnit.MILLISECONDS));
+        assertTrue(cooldowns.tryStart(player2, gun1, 1000, TimeUnit.MILLISECONDS));
+        
+        cooldowns.reset(player2);
+        assertEquals(1, cooldowns.size());
+    }
+    
+    /**
+     * Tests that expired cooldowns are swept.
+     */
+    @Test
+    public void testSweep()
+    {
+        final AtomicLong clock = new AtomicLong();
+        final GunCooldowns cooldowns = new GunCooldowns(clock::get);
+        final Gun gun = mock(Gun.class);
+        for (int i = 0; i < 63; i++)
+        {
+            cooldowns.tryStart(UUID.randomUUID(), gun, 50, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(63, cooldowns.size());
+        clock.set(TimeUnit.MILLISECONDS.toNanos(100));
+        cooldowns.tryStart(UUID.randomUUID(), gun, 50, TimeUnit.MILLISECONDS);
+        assertEquals(1, cooldowns.size());
+    }
+    
+}
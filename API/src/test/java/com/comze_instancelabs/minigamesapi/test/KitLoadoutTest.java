@@ -0,0 +1,95 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.logging.Logger;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.util.KitLoadout;
+
+/**
+ * Test case for precompiled kit loadouts.
+ * 
+ * @author mepeisen
+ * 
+ * @see KitLoadout
+ */
+public class KitLoadoutTest
+{
+    
+    /**
+     * Tests the compilation of kit items.
+     */
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testCompile()
+    {
+        final ItemStack sword = mockItem(Material.IRON_SWORD, 267, null);
+        final ItemStack helmet = mockItem(Material.IRON_HELMET, 306, null);
+        final ItemStack boots = mockItem(Material.DIAMOND_BOOTS, 313, null);
+        final ItemStack gun = mockItem(Material.STONE_HOE, 291, "crackshot:AK-47"); //$NON-NLS-1$
+        final ItemStack air = mockItem(Material.AIR, 0, null);
+        
+        final KitLoadout loadout = KitLoadout.compile(new ItemStack[] { sword, helmet, null, gun, boots, air }, Logger.getAnonymousLogger());
+        assertSame(helmet, loadout.getArmor(KitLoadout.HELMET));
+        assertNull(loadout.getArmor(KitLoadout.CHESTPLATE));
+        assertNull(loadout.getArmor(KitLoadout.LEGGINGS));
+        assertSame(boots, loadout.getArmor(KitLoadout.BOOTS));
+        assertArrayEquals(new ItemStack[] { sword }, loadout.getContents());
+        assertArrayEquals(new String[] { "AK-47" }, loadout.getGuns()); //$NON-NLS-1$
+        assertEquals(0, loadout.getPotionEffects().length);
+    }
+    
+    /**
+     * Creates a mocked item stack.
+     * 
+     * @param type
+     *            the material
+     * @param typeId
+     *            the type id
+     * @param displayName
+     *            the display name or {@code null}
+     * @return item stack
+     */
+    @SuppressWarnings("deprecation")
+    private static ItemStack mockItem(final Material type, final int typeId, final String displayName)
+    {
+        final ItemStack item = mock(ItemStack.class);
+        when(item.getType()).thenReturn(type);
+        when(item.getTypeId()).thenReturn(typeId);
+        when(item.clone()).thenReturn(item);
+        if (displayName != null)
+        {
+            final ItemMeta meta = mock(ItemMeta.class);
+            when(meta.hasDisplayName()).thenReturn(true);
+            when(meta.getDisplayName()).thenReturn(displayName);
+            when(item.hasItemMeta()).thenReturn(true);
+            when(item.getItemMeta()).thenReturn(meta);
+        }
+        return item;
+    }
+    
+}
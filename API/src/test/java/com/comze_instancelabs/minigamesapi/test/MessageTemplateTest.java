@@ -0,0 +1,67 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.util.MessageTemplate;
+
+/**
+ * Test case for the message templates.
+ * 
+ * @author mepeisen
+ * 
+ * @see MessageTemplate
+ */
+public class MessageTemplateTest
+{
+    
+    /**
+     * Tests rendering placeholders.
+     */
+    @Test
+    public void testRender()
+    {
+        final MessageTemplate<Integer> template = MessageTemplate.compile("§aStarting in <count>! <count>", MessageTemplate.COUNT); //$NON-NLS-1$
+        assertFalse(template.isConstant());
+        assertEquals("§aStarting in 5! 5", template.render(5)); //$NON-NLS-1$
+        assertEquals("§aStarting in 10! 10", template.render(10)); //$NON-NLS-1$
+        assertEquals("0", MessageTemplate.compile("<count>", MessageTemplate.COUNT).render(0)); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+    /**
+     * Tests unknown placeholders and unbalanced brackets being kept.
+     */
+    @Test
+    public void testLiterals()
+    {
+        final Map<String, MessageTemplate.Placeholder<String>> placeholders = new HashMap<>();
+        placeholders.put("<arena>", (sb, arena) -> sb.append(arena)); //$NON-NLS-1$
+        assertEquals("<player> joined <arena1> > foo <", MessageTemplate.compile("<player> joined <<arena>> > foo <", placeholders).render("arena1")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        
+        final MessageTemplate<String> constant = MessageTemplate.compile("§cSPECTATE", placeholders); //$NON-NLS-1$
+        assertTrue(constant.isConstant());
+        assertEquals("§cSPECTATE", constant.render("arena1")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("", MessageTemplate.compile(null, placeholders).render("arena1")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+}
@@ -0,0 +1,123 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.Arena;
+import com.comze_instancelabs.minigamesapi.ArenaState;
+import com.comze_instancelabs.minigamesapi.MotdRotation;
+import com.comze_instancelabs.minigamesapi.util.MessageTemplate;
+
+/**
+ * Test case for the motd rotation.
+ * 
+ * @author mepeisen
+ * 
+ * @see MotdRotation
+ */
+public class MotdRotationTest
+{
+    
+    /**
+     * Tests the rotation and that arenas are only rendered on changes.
+     */
+    @Test
+    public void testRotation()
+    {
+        final ArrayList<String> players1 = new ArrayList<>();
+        final Arena arena1 = mockArena("a1", players1); //$NON-NLS-1$
+        final Arena arena2 = mockArena("a2", new ArrayList<>()); //$NON-NLS-1$
+        final List<Arena> arenas = new ArrayList<>(Arrays.asList(arena1, arena2));
+        final AtomicInteger renders = new AtomicInteger();
+        
+        final Map<String, MessageTemplate.Placeholder<Arena>> placeholders = new HashMap<>();
+        placeholders.put("<arena>", (sb, a) -> { //$NON-NLS-1$
+            renders.incrementAndGet();
+            sb.append(a.getInternalName());
+        });
+        placeholders.put("<state>", (sb, a) -> sb.append(a.getArenaState())); //$NON-NLS-1$
+        placeholders.put("<players>", (sb, a) -> sb.append(a.getAllPlayers().size())); //$NON-NLS-1$
+        final MotdRotation rotation = new MotdRotation(MessageTemplate.compile("<arena> <state> <players>", placeholders), () -> arenas, 2); //$NON-NLS-1$
+        
+        assertNull(rotation.getMotd());
+        rotation.tick();
+        assertEquals("a1 JOIN 0", rotation.getMotd()); //$NON-NLS-1$
+        rotation.tick();
+        assertEquals("a1 JOIN 0", rotation.getMotd()); //$NON-NLS-1$
+        assertEquals(1, renders.get());
+        
+        rotation.tick();
+        assertEquals("a2 JOIN 0", rotation.getMotd()); //$NON-NLS-1$
+        rotation.tick();
+        rotation.tick();
+        assertEquals("a1 JOIN 0", rotation.getMotd()); //$NON-NLS-1$
+        assertEquals(2, renders.get());
+        
+        // player count changes are shown without waiting for the next rotation
+        players1.add("player"); //$NON-NLS-1$
+        rotation.tick();
+        assertEquals("a1 JOIN 1", rotation.getMotd()); //$NON-NLS-1$
+        assertEquals(3, renders.get());
+        
+        when(arena2.getArenaState()).thenReturn(ArenaState.INGAME);
+        rotation.tick();
+        assertEquals("a2 INGAME 0", rotation.getMotd()); //$NON-NLS-1$
+        assertEquals(4, renders.get());
+        
+        rotation.invalidate();
+        assertEquals(5, renders.get());
+        
+        arenas.clear();
+        rotation.tick();
+        rotation.tick();
+        assertNull(rotation.getMotd());
+    }
+    
+    /**
+     * Creates an arena mock.
+     * 
+     * @param name
+     *            arena name
+     * @param players
+     *            player list
+     * @return arena
+     */
+    @SuppressWarnings("deprecation")
+    private static Arena mockArena(final String name, final ArrayList<String> players)
+    {
+        final Arena arena = mock(Arena.class);
+        when(arena.getInternalName()).thenReturn(name);
+        when(arena.getArenaState()).thenReturn(ArenaState.JOIN);
+        when(arena.getAllPlayers()).thenReturn(players);
+        when(arena.isSuccessfullyInit()).thenReturn(true);
+        when(arena.getMinPlayers()).thenReturn(2);
+        when(arena.getMaxPlayers()).thenReturn(10);
+        return arena;
+    }
+    
+}
@@ -0,0 +1,214 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.NmsAccess;
+
+/**
+ * Test case for the cached nms accessor.
+ * 
+ * @author mepeisen
+ * 
+ * @see NmsAccess
+ */
+public class NmsAccessTest
+{
+    
+    /** iterations per benchmark round. */
+    private static final int ITERATIONS = 100000;
+    
+    /** benchmark rounds; the fastest round of each path is compared. */
+    private static final int ROUNDS     = 5;
+    
+    /**
+     * A fake packet.
+     */
+    static class DummyPacket
+    {
+        /** field a. */
+        private Object a;
+        
+        /** field b. */
+        private int    b;
+        
+        /**
+         * Constructor.
+         */
+        private DummyPacket()
+        {
+            // empty
+        }
+        
+        /**
+         * Constructor.
+         * 
+         * @param b
+         *            field b
+         */
+        DummyPacket(final int b)
+        {
+            this.b = b;
+        }
+        
+        /**
+         * Returns the sum.
+         * 
+         * @param add
+         *            value to add
+         * @return b + add
+         */
+        private int sum(final int add)
+        {
+            return this.b + add;
+        }
+    }
+    
+    /**
+     * A fake packet sub class.
+     */
+    static class DummySubPacket extends DummyPacket
+    {
+        /**
+         * Constructor.
+         */
+        DummySubPacket()
+        {
+            super(5);
+        }
+    }
+    
+    /**
+     * Tests constructors, methods and fields.
+     * 
+     * @throws Exception
+     *             thrown on problems
+     */
+    @Test
+    public void testAccess() throws Exception
+    {
+        final NmsAccess nms = NmsAccess.forVersion("v_test"); //$NON-NLS-1$
+        assertEquals("v_test", nms.getVersion()); //$NON-NLS-1$
+        
+        final DummyPacket packet = (DummyPacket) nms.constructor(DummyPacket.class).invoke();
+        nms.setField(packet, "a", "foo"); //$NON-NLS-1$ //$NON-NLS-2$
+        nms.setField(packet, "b", 7); //$NON-NLS-1$
+        assertEquals("foo", nms.getField(packet, "a")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(7, nms.getField(packet, "b")); //$NON-NLS-1$
+        assertEquals(10, nms.method(DummyPacket.class, "sum", int.class).invoke(packet, 3)); //$NON-NLS-1$
+        assertSame(nms.method(DummyPacket.class, "sum", int.class), nms.method(DummyPacket.class, "sum", int.class)); //$NON-NLS-1$ //$NON-NLS-2$
+        
+        final DummyPacket sub = (DummyPacket) nms.constructor(DummySubPacket.class).invoke();
+        assertEquals(5, nms.getField(sub, "b")); //$NON-NLS-1$
+        nms.setField(sub, "b", 1); //$NON-NLS-1$
+        assertEquals(2, nms.method(DummySubPacket.class, "sum", int.class).invoke(sub, 1)); //$NON-NLS-1$
+        assertEquals(4, ((DummyPacket) nms.constructor(DummyPacket.class, int.class).invoke(4)).b);
+    }
+    
+    /**
+     * Tests that an unknown field is reported.
+     * 
+     * @throws Exception
+     *             thrown on problems
+     */
+    @Test(expected = NoSuchFieldException.class)
+    public void testUnknownField() throws Exception
+    {
+        NmsAccess.forVersion("v_test").setField(new DummyPacket(1), "c", null); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+    /**
+     * Compares the cached handles with a lookup per call, the way the packet code used to set fields; the cached path must not be slower than twice the
+     * reflective one.
+     * 
+     * @throws Exception
+     *             thrown on problems
+     */
+    @Test
+    public void testBenchmark() throws Exception
+    {
+        final NmsAccess nms = NmsAccess.forVersion("v_test"); //$NON-NLS-1$
+        final DummyPacket packet = new DummyPacket(0);
+        
+        // warm up
+        for (int i = 0; i < ITERATIONS; i++)
+        {
+            nms.setField(packet, "b", i); //$NON-NLS-1$
+            reflectiveSet(packet, "b", i); //$NON-NLS-1$
+        }
+        
+        long reflective = Long.MAX_VALUE;
+        long cached = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++)
+            {
+                reflectiveSet(packet, "b", i); //$NON-NLS-1$
+            }
+            reflective = Math.min(reflective, System.nanoTime() - start);
+            
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++)
+            {
+                nms.setField(packet, "b", i); //$NON-NLS-1$
+            }
+            cached = Math.min(cached, System.nanoTime() - start);
+        }
+        
+        assertEquals(ITERATIONS - 1, packet.b);
+        assertTrue("cached " + cached + "ns, reflective " + reflective + "ns", cached <= reflective * 2); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+    
+    /**
+     * Sets a field the way the packet code did before caching.
+     * 
+     * @param instance
+     *            object
+     * @param name
+     *            field name
+     * @param value
+     *            value
+     * @throws Exception
+     *             thrown on problems
+     */
+    private static void reflectiveSet(final Object instance, final String name, final Object value) throws Exception
+    {
+        final Field field = instance.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+    
+    /**
+     * Tests that packet members missing on the server version are reported on invocation.
+     * 
+     * @throws Exception
+     *             thrown on problems
+     */
+    @Test(expected = ClassNotFoundException.class)
+    public void testMissingPacket() throws Exception
+    {
+        final NmsAccess.Packets packets = NmsAccess.forVersion("v_test").getPackets(); //$NON-NLS-1$
+        packets.getTitle().invoke();
+    }
+    
+}
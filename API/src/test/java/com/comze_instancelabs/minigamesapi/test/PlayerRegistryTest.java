@@ -0,0 +1,111 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.Arena;
+import com.comze_instancelabs.minigamesapi.PlayerRegistry;
+import com.comze_instancelabs.minigamesapi.PlayerSession;
+import com.comze_instancelabs.minigamesapi.PlayerSession.Role;
+import com.comze_instancelabs.minigamesapi.PluginInstance;
+
+/**
+ * Test case for the player registry.
+ * 
+ * @author mepeisen
+ * 
+ * @see PlayerRegistry
+ */
+public class PlayerRegistryTest
+{
+    
+    /**
+     * Tests setting and removing roles.
+     */
+    @Test
+    public void testRoles()
+    {
+        final PlayerRegistry registry = PlayerRegistry.get();
+        final PluginInstance pli = mock(PluginInstance.class);
+        final Arena arena = mock(Arena.class);
+        
+        assertNull(registry.set("roles", pli, Role.LOST, null)); //$NON-NLS-1$
+        assertNull(registry.getUuid("roles")); //$NON-NLS-1$
+        
+        assertNull(registry.set("roles", pli, Role.PLAYING, arena)); //$NON-NLS-1$
+        final UUID uuid = registry.getUuid("roles"); //$NON-NLS-1$
+        assertNotNull(uuid);
+        assertSame(arena, registry.getArena("roles", pli, Role.PLAYING)); //$NON-NLS-1$
+        assertNull(registry.getArena("roles", pli, Role.LOST)); //$NON-NLS-1$
+        assertEquals(Role.PLAYING, registry.getSession(uuid, pli).getRole());
+        
+        registry.set("roles", pli, Role.LOST, arena); //$NON-NLS-1$
+        final PlayerSession session = registry.getSession("roles", pli); //$NON-NLS-1$
+        assertEquals(Role.LOST, session.getRole());
+        assertTrue(session.hasRole(Role.PLAYING));
+        assertSame(pli, session.getPluginInstance());
+        assertEquals("roles", session.getName()); //$NON-NLS-1$
+        
+        assertSame(arena, registry.set("roles", pli, Role.PLAYING, null)); //$NON-NLS-1$
+        assertNull(registry.getArena(uuid));
+        assertSame(arena, registry.getArena("roles", pli, Role.LOST)); //$NON-NLS-1$
+        
+        registry.set("roles", pli, Role.LOST, null); //$NON-NLS-1$
+        assertNull(registry.getSession(uuid, pli));
+        assertNull(registry.getUuid("roles")); //$NON-NLS-1$
+    }
+    
+    /**
+     * Tests players registered in multiple plugin instances.
+     */
+    @Test
+    public void testMultiplePluginInstances()
+    {
+        final PlayerRegistry registry = PlayerRegistry.get();
+        final PluginInstance pli1 = mock(PluginInstance.class);
+        final PluginInstance pli2 = mock(PluginInstance.class);
+        final Arena arena1 = mock(Arena.class);
+        final Arena arena2 = mock(Arena.class);
+        
+        registry.set("multi", pli1, Role.PLAYING, arena1); //$NON-NLS-1$
+        final UUID uuid = registry.getUuid("multi"); //$NON-NLS-1$
+        assertSame(arena1, registry.getArena(uuid));
+        
+        registry.set("multi", pli2, Role.PLAYING, arena2); //$NON-NLS-1$
+        assertSame(arena2, registry.getArena(uuid));
+        assertSame(arena1, registry.getArena("multi", pli1, Role.PLAYING)); //$NON-NLS-1$
+        
+        registry.set("multi", pli2, Role.PLAYING, null); //$NON-NLS-1$
+        assertSame(arena1, registry.getArena(uuid));
+        assertEquals(1, registry.getSessions(pli1).size());
+        assertTrue(registry.getSessions(pli2).isEmpty());
+        
+        registry.clear(pli1, Role.PLAYING);
+        assertNull(registry.getArena(uuid));
+        assertFalse(registry.getSessions(pli1).iterator().hasNext());
+    }
+    
+}
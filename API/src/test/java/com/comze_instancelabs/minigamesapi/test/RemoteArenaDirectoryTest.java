@@ -0,0 +1,197 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.ChannelStrings;
+import com.comze_instancelabs.minigamesapi.RemoteArenaDirectory;
+import com.comze_instancelabs.minigamesapi.RemoteArenaDirectory.RemoteArena;
+import com.comze_instancelabs.minigamesapi.SignSnapshot;
+import com.comze_instancelabs.minigamesapi.SignSnapshot.Entry;
+import com.comze_instancelabs.minigamesapi.testutil.LocalBungeeTransport;
+
+/**
+ * Test case for the remote arena directory.
+ * 
+ * @author mepeisen
+ * 
+ * @see RemoteArenaDirectory
+ */
+public class RemoteArenaDirectoryTest
+{
+    
+    /** the fake clock. */
+    private long now = 1000;
+    
+    /**
+     * Tests the arena selection by fill level and latency.
+     */
+    @Test
+    public void testFindBest()
+    {
+        final RemoteArenaDirectory dir = new RemoteArenaDirectory(() -> null, () -> this.now, 60000);
+        assertNull(dir.findBest("mg")); //$NON-NLS-1$
+        
+        dir.apply(snapshot("game1", true, new Entry("mg", "a1", "JOIN", 2, 8), new Entry("mg", "a2", "INGAME", 6, 8), new Entry("mg", "a3", "JOIN", 8, 8))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$
+        dir.apply(snapshot("game2", true, new Entry("mg", "b1", "STARTING", 5, 8), new Entry("other", "c1", "JOIN", 7, 8))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+        assertEquals("game2/mg:b1:STARTING:5:8", dir.findBest("mg").toString()); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(4, dir.getArenas("mg").size()); //$NON-NLS-1$
+        assertEquals(5, dir.getArenas(null).size());
+        
+        // a slow server still wins with a higher fill level
+        dir.pingSent("game2", 1); //$NON-NLS-1$
+        this.now += 500;
+        assertTrue(dir.pongReceived("game2", 1)); //$NON-NLS-1$
+        assertEquals(500, dir.getLatency("game2")); //$NON-NLS-1$
+        assertEquals(-1, dir.getLatency("game1")); //$NON-NLS-1$
+        assertEquals("game2/mg:b1:STARTING:5:8", dir.findBest("mg").toString()); //$NON-NLS-1$ //$NON-NLS-2$
+        
+        // full snapshots replace all arenas of the server
+        dir.apply(snapshot("game1", true, new Entry("mg", "a3", "JOIN", 1, 8))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertNull(dir.getArena("game1", "mg", "a1")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertEquals(1, dir.getArena("game1", "mg", "a3").getPlayers()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+    
+    /**
+     * Tests that the latency only decides between arenas of the same fill level.
+     */
+    @Test
+    public void testLatencyTieBreak()
+    {
+        final RemoteArenaDirectory dir = new RemoteArenaDirectory(() -> null, () -> this.now, 60000);
+        dir.apply(snapshot("game1", true, new Entry("mg", "a1", "JOIN", 4, 8))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        dir.apply(snapshot("game2", true, new Entry("mg", "b1", "JOIN", 6, 12))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        
+        // snapshots arriving after a ping are no latency samples; they are published once per second
+        dir.pingSent("game1", 7); //$NON-NLS-1$
+        dir.pingSent("game2", 8); //$NON-NLS-1$
+        this.now += 20;
+        dir.apply(snapshot("game1", false)); //$NON-NLS-1$
+        assertEquals(-1, dir.getLatency("game1")); //$NON-NLS-1$
+        
+        // realistic round trip times; pongs to other lobbies are ignored
+        this.now += 15;
+        assertFalse(dir.pongReceived("game1", 8)); //$NON-NLS-1$
+        assertTrue(dir.pongReceived("game1", 7)); //$NON-NLS-1$
+        this.now += 15;
+        assertTrue(dir.pongReceived("game2", 8)); //$NON-NLS-1$
+        assertFalse(dir.pongReceived("game2", 8)); //$NON-NLS-1$
+        assertEquals(35, dir.getLatency("game1")); //$NON-NLS-1$
+        assertEquals(50, dir.getLatency("game2")); //$NON-NLS-1$
+        
+        // same fill level: the faster server wins
+        assertEquals("game1/mg:a1:JOIN:4:8", dir.findBest("mg").toString()); //$NON-NLS-1$ //$NON-NLS-2$
+        
+        // one more player on the slower server outweighs the latency
+        dir.update("game2", new Entry("mg", "b1", "JOIN", 7, 12)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertEquals("game2/mg:b1:JOIN:7:12", dir.findBest("mg").toString()); //$NON-NLS-1$ //$NON-NLS-2$
+        
+        // the faster server catches up
+        dir.update("game1", new Entry("mg", "a1", "JOIN", 5, 8)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertEquals("game1/mg:a1:JOIN:5:8", dir.findBest("mg").toString()); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+    /**
+     * Tests the eviction of servers not heard of.
+     */
+    @Test
+    public void testEviction()
+    {
+        final RemoteArenaDirectory dir = new RemoteArenaDirectory(() -> null, () -> this.now, 60000);
+        dir.apply(snapshot("game1", true, new Entry("mg", "a1", "JOIN", 2, 8))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        this.now += 30000;
+        dir.update("game2", new Entry("mg", "b1", "JOIN", 1, 8)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        this.now += 40000;
+        
+        // stale servers are never chosen, even before eviction
+        assertEquals("game2/mg:b1:JOIN:1:8", dir.findBest("mg").toString()); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(1, dir.evictStale());
+        assertNull(dir.getArena("game1", "mg", "a1")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        this.now += 30000;
+        assertEquals(1, dir.evictStale());
+        assertNull(dir.findBest("mg")); //$NON-NLS-1$
+    }
+    
+    /**
+     * Tests quick joins through the local stand-in transport.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testQuickJoin() throws Exception
+    {
+        final LocalBungeeTransport lobby = new LocalBungeeTransport("lobby"); //$NON-NLS-1$
+        final List<String> received = new ArrayList<>();
+        lobby.register("game1", (channel, player, message) -> { //$NON-NLS-1$
+            try
+            {
+                final DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+                final String subchannel = in.readUTF();
+                final byte[] payload = new byte[in.readShort()];
+                in.readFully(payload);
+                received.add(channel + "/" + subchannel + "/" + new DataInputStream(new ByteArrayInputStream(payload)).readUTF()); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            catch (final Exception e)
+            {
+                throw new IllegalStateException(e);
+            }
+        });
+        final RemoteArenaDirectory dir = new RemoteArenaDirectory(() -> lobby, () -> this.now, 60000);
+        dir.apply(snapshot("game1", true, new Entry("mg", "a1", "JOIN", 6, 8))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        
+        final RemoteArena chosen = dir.quickJoin("player1", "mg"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("a1", chosen.getArena()); //$NON-NLS-1$
+        assertEquals(Arrays.asList(ChannelStrings.CHANNEL_BUNGEE_CORD + "/" + ChannelStrings.SUBCHANNEL_MINIGAMESLIB_BACK + "/mg:a1:join:player1"), received); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(Arrays.asList("player1->game1"), lobby.getConnects()); //$NON-NLS-1$
+        
+        // the reservation counts until the next update
+        assertEquals(7, dir.getArena("game1", "mg", "a1").getPlayers()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertTrue(dir.getArena("game1", "mg", "a1").isJoinable()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        dir.quickJoin("player2", "mg"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertFalse(dir.getArena("game1", "mg", "a1").isJoinable()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertNull(dir.quickJoin("player3", "mg")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(2, lobby.getConnects().size());
+        
+        // bungee cord never forwards a message back to its sender
+        lobby.forServer("game1").send("ALL", ChannelStrings.SUBCHANNEL_MINIGAMESLIB_SNAPSHOT, new byte[0]); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(2, received.size());
+    }
+    
+    /**
+     * Creates a snapshot.
+     * 
+     * @param server
+     * @param full
+     * @param entries
+     * @return snapshot
+     */
+    private static SignSnapshot snapshot(final String server, final boolean full, final Entry... entries)
+    {
+        return new SignSnapshot(server, 1, 1, full, Arrays.asList(entries));
+    }
+    
+}
@@ -0,0 +1,115 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.util.ScoreboardLine;
+import com.comze_instancelabs.minigamesapi.util.ScoreboardSnapshot;
+
+/**
+ * Test case for the delta rendering of scoreboards.
+ * 
+ * @author mepeisen
+ * 
+ * @see ScoreboardSnapshot
+ * @see ScoreboardLine
+ */
+public class ScoreboardSnapshotTest
+{
+    
+    /**
+     * Records the changes sent to the scoreboard.
+     */
+    private static final class RecordingTarget implements ScoreboardSnapshot.Target
+    {
+        /** the recorded changes. */
+        final List<String> changes = new ArrayList<>();
+        
+        @Override
+        public void setTitle(final String title)
+        {
+            this.changes.add("title " + title); //$NON-NLS-1$
+        }
+        
+        @Override
+        public void setScore(final String entry, final int score)
+        {
+            this.changes.add("set " + entry + "=" + score); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        
+        @Override
+        public void resetScore(final String entry)
+        {
+            this.changes.add("reset " + entry); //$NON-NLS-1$
+        }
+    }
+    
+    /**
+     * Tests that only changed lines are sent.
+     */
+    @Test
+    public void testDelta()
+    {
+        final ScoreboardSnapshot snapshot = new ScoreboardSnapshot();
+        final Map<String, Integer> lines = new HashMap<>();
+        lines.put("a", 1); //$NON-NLS-1$
+        lines.put("b", 2); //$NON-NLS-1$
+        
+        RecordingTarget target = new RecordingTarget();
+        assertEquals(3, snapshot.render(target, "title", lines)); //$NON-NLS-1$
+        
+        target = new RecordingTarget();
+        assertEquals(0, snapshot.render(target, "title", lines)); //$NON-NLS-1$
+        
+        lines.put("b", 3); //$NON-NLS-1$
+        lines.remove("a"); //$NON-NLS-1$
+        target = new RecordingTarget();
+        assertEquals(2, snapshot.render(target, null, lines));
+        assertEquals("reset a", target.changes.get(0)); //$NON-NLS-1$
+        assertEquals("set b=3", target.changes.get(1)); //$NON-NLS-1$
+        assertEquals(1, snapshot.getScores().size());
+    }
+    
+    /**
+     * Tests parsing of custom scoreboard lines.
+     */
+    @Test
+    public void testParseLines()
+    {
+        final ScoreboardLine line = ScoreboardLine.parse("Players:<playercount>", false); //$NON-NLS-1$
+        assertEquals(ChatColor.GREEN + "Players", line.getEntry()); //$NON-NLS-1$
+        assertEquals(ScoreboardLine.Value.PLAYER_COUNT, line.getValue());
+        
+        assertNull(ScoreboardLine.parse("Players", false)); //$NON-NLS-1$
+        assertEquals(ScoreboardLine.Value.NONE, ScoreboardLine.parse("Players:<foo>", false).getValue()); //$NON-NLS-1$
+        
+        final ScoreboardLine lobby = ScoreboardLine.parse("Time:12:<KILLS>", true); //$NON-NLS-1$
+        assertEquals(ChatColor.GREEN + "Time:12", lobby.getEntry()); //$NON-NLS-1$
+        assertEquals(ScoreboardLine.Value.KILLS, lobby.getValue());
+        
+        assertEquals(ChatColor.RED + "0123456789abc", ScoreboardLine.toEntry(ChatColor.RED, "0123456789abcdef")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+}
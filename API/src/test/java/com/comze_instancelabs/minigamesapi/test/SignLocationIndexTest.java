@@ -0,0 +1,94 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.util.SignLocationIndex;
+
+/**
+ * Test case for the sign location index.
+ * 
+ * @author mepeisen
+ * 
+ * @see SignLocationIndex
+ */
+public class SignLocationIndexTest
+{
+    
+    /**
+     * Tests storing, replacing and removing values.
+     */
+    @Test
+    public void testIndex()
+    {
+        final SignLocationIndex<String> index = new SignLocationIndex<>();
+        assertNull(index.put("world", 10, 64, -20, "a")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue(index.putIfAbsent("world", 10, 65, -20, "b")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertFalse(index.putIfAbsent("world", 10, 65, -20, "c")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertNull(index.put("nether", 10, 64, -20, "d")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(3, index.size());
+        
+        assertEquals("a", index.get("world", 10, 64, -20)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("b", index.get("world", 10, 65, -20)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("d", index.get("nether", 10, 64, -20)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertNull(index.get("world", 10, 64, -21)); //$NON-NLS-1$
+        assertNull(index.get("unknown", 10, 64, -20)); //$NON-NLS-1$
+        
+        assertEquals("a", index.put("world", 10, 64, -20, "e")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertEquals(3, index.size());
+        assertEquals("e", index.remove("world", 10, 64, -20)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertNull(index.remove("world", 10, 64, -20)); //$NON-NLS-1$
+        assertNull(index.get("world", 10, 64, -20)); //$NON-NLS-1$
+        assertEquals(2, index.size());
+        
+        index.clear();
+        assertEquals(0, index.size());
+        assertNull(index.get("world", 10, 65, -20)); //$NON-NLS-1$
+    }
+    
+    /**
+     * Tests that neighbouring blocks, including negative and large coordinates, get distinct keys.
+     */
+    @Test
+    public void testBlockKeys()
+    {
+        final Set<Long> keys = new HashSet<>();
+        final int[] coords = { -30000000, -1, 0, 1, 29999999 };
+        for (final int x : coords)
+        {
+            for (final int z : coords)
+            {
+                for (int y = -64; y < 320; y += 64)
+                {
+                    for (int d = 0; d < 2; d++)
+                    {
+                        assertTrue(keys.add(Long.valueOf(SignLocationIndex.blockKey(x, y + d, z))));
+                    }
+                }
+            }
+        }
+        assertEquals(coords.length * coords.length * 12, keys.size());
+    }
+    
+}
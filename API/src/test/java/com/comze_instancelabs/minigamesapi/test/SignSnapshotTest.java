@@ -0,0 +1,172 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.SignSnapshot;
+import com.comze_instancelabs.minigamesapi.SignSnapshot.Entry;
+import com.comze_instancelabs.minigamesapi.SignSnapshot.Sequence;
+
+/**
+ * Test case for the lobby sign snapshots.
+ * 
+ * @author mepeisen
+ * 
+ * @see SignSnapshot
+ */
+public class SignSnapshotTest
+{
+    
+    /**
+     * Tests encoding and decoding of small (plain) and big (deflated) snapshots.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testEncoding() throws Exception
+    {
+        final SignSnapshot small = new SignSnapshot("game1", 1234L, 7, false, Arrays.asList(new Entry("Skywars", "arena1", "JOIN", 3, 8))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        final SignSnapshot decodedSmall = SignSnapshot.decode(small.encode());
+        assertEquals("game1", decodedSmall.getServer()); //$NON-NLS-1$
+        assertEquals(1234L, decodedSmall.getEpoch());
+        assertEquals(7, decodedSmall.getSequence());
+        assertFalse(decodedSmall.isFull());
+        assertEquals("[Skywars:arena1:JOIN:3:8]", decodedSmall.getEntries().toString()); //$NON-NLS-1$
+        
+        final List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 300; i++)
+        {
+            entries.add(new Entry(i % 2 == 0 ? "Skywars" : "Survivalgames", "arena" + i, i % 3 == 0 ? "INGAME" : "JOIN", i % 24, 24 + i * 100)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+        }
+        final SignSnapshot big = new SignSnapshot("game2", 99L, Integer.MAX_VALUE, true, entries); //$NON-NLS-1$
+        final byte[] encoded = big.encode();
+        assertTrue(encoded.length < 300 * 10);
+        final SignSnapshot decodedBig = SignSnapshot.decode(encoded);
+        assertTrue(decodedBig.isFull());
+        assertEquals(Integer.MAX_VALUE, decodedBig.getSequence());
+        assertEquals(300, decodedBig.getEntries().size());
+        assertEquals(sorted(entries), sorted(decodedBig.getEntries()));
+        
+        final byte[] unknownVersion = small.encode();
+        unknownVersion[0] = (byte) (SignSnapshot.PROTOCOL_VERSION + 1);
+        assertNull(SignSnapshot.decode(unknownVersion));
+    }
+    
+    /**
+     * Tests that deltas only contain changed arenas.
+     */
+    @Test
+    public void testDelta()
+    {
+        final SignSnapshot.Delta delta = new SignSnapshot.Delta(5L);
+        delta.requestFull();
+        delta.update(new Entry("mg", "a1", "JOIN", 0, 8)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        delta.update(new Entry("mg", "a2", "JOIN", 0, 8)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        final SignSnapshot first = delta.next("srv"); //$NON-NLS-1$
+        assertTrue(first.isFull());
+        assertEquals(1, first.getSequence());
+        assertEquals(2, first.getEntries().size());
+        
+        // nothing changed
+        delta.update(new Entry("mg", "a1", "JOIN", 0, 8)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertNull(delta.next("srv")); //$NON-NLS-1$
+        
+        // last value of a tick wins
+        delta.update(new Entry("mg", "a2", "JOIN", 1, 8)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        delta.update(new Entry("mg", "a2", "JOIN", 2, 8)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        final SignSnapshot second = delta.next("srv"); //$NON-NLS-1$
+        assertFalse(second.isFull());
+        assertEquals(2, second.getSequence());
+        assertEquals("[mg:a2:JOIN:2:8]", second.getEntries().toString()); //$NON-NLS-1$
+        
+        delta.requestHeartbeat();
+        final SignSnapshot heartbeat = delta.next("srv"); //$NON-NLS-1$
+        assertEquals(3, heartbeat.getSequence());
+        assertTrue(heartbeat.getEntries().isEmpty());
+        
+        // full snapshots contain the unchanged arenas too
+        delta.requestFull();
+        delta.update(new Entry("mg", "a1", "INGAME", 0, 8)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        final SignSnapshot full = delta.next("srv"); //$NON-NLS-1$
+        assertTrue(full.isFull());
+        assertEquals("[mg:a1:INGAME:0:8, mg:a2:JOIN:2:8]", sorted(full.getEntries()).toString()); //$NON-NLS-1$
+    }
+    
+    /**
+     * Tests that stale snapshots are dropped and lost deltas are detected.
+     */
+    @Test
+    public void testSequence()
+    {
+        final Sequence seq = new Sequence();
+        assertFalse(seq.isKnown());
+        assertEquals(Sequence.Result.RESYNC, seq.accept(snapshot(10L, 4, false)));
+        assertEquals(Sequence.Result.APPLY, seq.accept(snapshot(10L, 5, true)));
+        assertTrue(seq.isKnown());
+        assertEquals(Sequence.Result.APPLY, seq.accept(snapshot(10L, 6, false)));
+        assertEquals(Sequence.Result.STALE, seq.accept(snapshot(10L, 6, false)));
+        assertEquals(Sequence.Result.STALE, seq.accept(snapshot(10L, 3, true)));
+        assertEquals(Sequence.Result.RESYNC, seq.accept(snapshot(10L, 8, false)));
+        assertEquals(Sequence.Result.APPLY, seq.accept(snapshot(10L, 9, true)));
+        
+        // server restart
+        assertEquals(Sequence.Result.RESYNC, seq.accept(snapshot(20L, 1, false)));
+        assertEquals(Sequence.Result.APPLY, seq.accept(snapshot(20L, 1, true)));
+        // late snapshot of the old server instance
+        assertEquals(Sequence.Result.STALE, seq.accept(snapshot(10L, 10, false)));
+        assertEquals(Sequence.Result.APPLY, seq.accept(snapshot(20L, 2, false)));
+    }
+    
+    /**
+     * Creates an empty snapshot.
+     * 
+     * @param epoch
+     * @param sequence
+     * @param full
+     * @return snapshot
+     */
+    private static SignSnapshot snapshot(final long epoch, final int sequence, final boolean full)
+    {
+        return new SignSnapshot("srv", epoch, sequence, full, new ArrayList<Entry>()); //$NON-NLS-1$
+    }
+    
+    /**
+     * Sorts the entries by their string representation.
+     * 
+     * @param entries
+     * @return sorted strings
+     */
+    private static List<String> sorted(final List<Entry> entries)
+    {
+        final List<String> result = new ArrayList<>();
+        for (final Entry entry : entries)
+        {
+            result.add(entry.toString());
+        }
+        result.sort(null);
+        return result;
+    }
+    
+}
@@ -0,0 +1,198 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import org.bukkit.Material;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.comze_instancelabs.minigamesapi.SmartBlockLog;
+import com.comze_instancelabs.minigamesapi.SmartBlockLogFile;
+
+/**
+ * Test case for the smart reset file format.
+ * 
+ * @author mepeisen
+ * 
+ * @see SmartBlockLogFile
+ */
+public class SmartBlockLogFileTest
+{
+    
+    /** the logger. */
+    private static final Logger   LOGGER = Logger.getLogger(SmartBlockLogFileTest.class.getName());
+    
+    /** temporary folder. */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+    
+    /**
+     * Tests writing and reading multiple segments.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        final File file = new File(this.folder.getRoot(), "arena_smart.dat"); //$NON-NLS-1$
+        final SmartBlockLog log = createLog(20000);
+        assertEquals(log.size(), SmartBlockLogFile.write(file, log));
+        
+        final SmartBlockLog read = new SmartBlockLog();
+        assertEquals(log.size(), SmartBlockLogFile.read(file, read, LOGGER));
+        assertEquals(log.size(), read.size());
+        final SmartBlockLog.Cursor expected = log.cursor();
+        final SmartBlockLog.Cursor actual = read.cursor();
+        while (expected.next())
+        {
+            assertTrue(actual.next());
+            assertEquals(expected.getWorldName(), actual.getWorldName());
+            assertEquals(expected.getX(), actual.getX());
+            assertEquals(expected.getY(), actual.getY());
+            assertEquals(expected.getZ(), actual.getZ());
+            assertEquals(expected.getMaterial(), actual.getMaterial());
+            assertEquals(expected.getData(), actual.getData());
+        }
+        assertFalse(actual.next());
+    }
+    
+    /**
+     * Tests that appended segments do not overwrite blocks of older segments.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testAppend() throws IOException
+    {
+        final File file = new File(this.folder.getRoot(), "arena_smart.dat"); //$NON-NLS-1$
+        final SmartBlockLog first = new SmartBlockLog();
+        first.add("world", 1, 2, 3, Material.STONE, (byte) 1, null); //$NON-NLS-1$
+        SmartBlockLogFile.write(file, first);
+        final SmartBlockLog second = new SmartBlockLog();
+        second.add("world", 1, 2, 3, Material.DIRT, (byte) 0, null); //$NON-NLS-1$
+        second.add("world", -100, 70, 5, Material.SAND, (byte) 0, null); //$NON-NLS-1$
+        SmartBlockLogFile.write(file, second);
+        
+        final SmartBlockLog read = new SmartBlockLog();
+        assertEquals(2, SmartBlockLogFile.read(file, read, LOGGER));
+        final SmartBlockLog.Cursor cursor = read.cursor();
+        assertTrue(cursor.next());
+        assertEquals(Material.SAND, cursor.getMaterial());
+        assertEquals(-100, cursor.getX());
+        assertTrue(cursor.next());
+        assertEquals(Material.STONE, cursor.getMaterial());
+    }
+    
+    /**
+     * Tests reading one segment at a time.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testReader() throws IOException
+    {
+        final File file = new File(this.folder.getRoot(), "arena_smart.dat"); //$NON-NLS-1$
+        final SmartBlockLog first = new SmartBlockLog();
+        first.add("world", 1, 2, 3, Material.STONE, (byte) 1, null); //$NON-NLS-1$
+        SmartBlockLogFile.write(file, first);
+        final SmartBlockLog second = new SmartBlockLog();
+        second.add("world", 1, 2, 3, Material.DIRT, (byte) 0, null); //$NON-NLS-1$
+        second.add("world", -100, 70, 5, Material.SAND, (byte) 0, null); //$NON-NLS-1$
+        SmartBlockLogFile.write(file, second);
+        
+        final SmartBlockLog read = new SmartBlockLog();
+        try (final SmartBlockLogFile.Reader reader = SmartBlockLogFile.open(file, LOGGER))
+        {
+            assertTrue(reader.next(read));
+            assertEquals(1, reader.getCount());
+            assertEquals(1, read.size());
+            assertTrue(reader.next(read));
+            assertEquals(2, reader.getCount());
+            assertFalse(reader.next(read));
+            assertFalse(reader.next(read));
+            assertEquals(2, read.size());
+        }
+    }
+    
+    /**
+     * Tests that a half-written segment at the end does not break the segments before.
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testTruncated() throws IOException
+    {
+        final File file = new File(this.folder.getRoot(), "arena_smart.dat"); //$NON-NLS-1$
+        final SmartBlockLog log = createLog(100);
+        SmartBlockLogFile.write(file, log);
+        final long length = file.length();
+        SmartBlockLogFile.write(file, createLog(200));
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "rw")) //$NON-NLS-1$
+        {
+            raf.setLength(length + 20);
+        }
+        
+        final SmartBlockLog read = new SmartBlockLog();
+        assertEquals(log.size(), SmartBlockLogFile.read(file, read, LOGGER));
+    }
+    
+    /**
+     * Tests reading a file that is not a smart reset file.
+     * 
+     * @throws IOException
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidHeader() throws IOException
+    {
+        final File file = new File(this.folder.getRoot(), "arena_smart.dat"); //$NON-NLS-1$
+        try (final FileOutputStream fos = new FileOutputStream(file))
+        {
+            fos.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        }
+        SmartBlockLogFile.read(file, new SmartBlockLog(), LOGGER);
+    }
+    
+    /**
+     * Creates a change log with random plain blocks.
+     * 
+     * @param count
+     *            number of blocks to generate
+     * @return change log
+     */
+    private static SmartBlockLog createLog(final int count)
+    {
+        final Random random = new Random(count);
+        final Material[] materials = { Material.STONE, Material.DIRT, Material.SAND, Material.WOOL, Material.AIR };
+        final SmartBlockLog log = new SmartBlockLog();
+        for (int i = 0; i < count; i++)
+        {
+            log.add("world", random.nextInt(200) - 100, random.nextInt(256), random.nextInt(200) - 100, materials[random.nextInt(materials.length)], (byte) random.nextInt(16), null); //$NON-NLS-1$
+        }
+        return log;
+    }
+    
+}
@@ -0,0 +1,188 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.bukkit.Material;
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.SmartBlockLog;
+import com.comze_instancelabs.minigamesapi.util.SmartArenaBlock;
+
+/**
+ * Test case for the smart reset change log.
+ * 
+ * @author mepeisen
+ * 
+ * @see SmartBlockLog
+ */
+public class SmartBlockLogTest
+{
+    
+    /**
+     * Tests that the first recorded state of a block wins.
+     */
+    @Test
+    public void testFirstWriteWins()
+    {
+        final SmartBlockLog log = new SmartBlockLog();
+        assertTrue(log.add("world", 5, 70, -3, Material.STONE, (byte) 2, null)); //$NON-NLS-1$
+        assertFalse(log.add("world", 5, 70, -3, Material.DIRT, (byte) 0, null)); //$NON-NLS-1$
+        assertTrue(log.add("world2", 5, 70, -3, Material.DIRT, (byte) 0, null)); //$NON-NLS-1$
+        assertTrue(log.contains("world", 5, 70, -3)); //$NON-NLS-1$
+        assertFalse(log.contains("world", 5, 71, -3)); //$NON-NLS-1$
+        assertEquals(2, log.size());
+        
+        final SmartBlockLog.Cursor cursor = log.cursor();
+        assertTrue(cursor.next());
+        assertEquals("world", cursor.getWorldName()); //$NON-NLS-1$
+        assertEquals(Material.STONE, cursor.getMaterial());
+        assertEquals(2, cursor.getData());
+        assertTrue(cursor.next());
+        assertEquals("world2", cursor.getWorldName()); //$NON-NLS-1$
+        assertFalse(cursor.next());
+        
+        log.clear();
+        assertTrue(log.isEmpty());
+        assertFalse(log.contains("world", 5, 70, -3)); //$NON-NLS-1$
+        assertTrue(log.add("world", 5, 70, -3, Material.DIRT, (byte) 0, null)); //$NON-NLS-1$
+    }
+    
+    /**
+     * Tests the reset order and the unpacked coordinates.
+     */
+    @Test
+    public void testCursor()
+    {
+        final SmartBlockLog log = new SmartBlockLog();
+        final SmartArenaBlock chest = mock(SmartArenaBlock.class);
+        when(chest.getMaterial()).thenReturn(Material.CHEST);
+        when(chest.getData()).thenReturn(Byte.valueOf((byte) 3));
+        log.add("world", 5, 70, -3, Material.STONE, (byte) 2, null); //$NON-NLS-1$
+        log.add("world", 5, 64, -3, Material.SAND, (byte) 1, null); //$NON-NLS-1$
+        log.add("world", -20, 3, 100, Material.DIRT, (byte) 15, null); //$NON-NLS-1$
+        log.add("world", 4, 65, -3, Material.CHEST, (byte) 3, chest); //$NON-NLS-1$
+        assertEquals(4, log.size());
+        assertEquals(1, log.getTileCount());
+        
+        final SmartBlockLog.Cursor cursor = log.cursor();
+        assertTrue(cursor.next());
+        assertBlock(cursor, -20, 3, 100, Material.DIRT, 15);
+        assertNull(cursor.getTile());
+        assertTrue(cursor.next());
+        assertBlock(cursor, 5, 64, -3, Material.SAND, 1);
+        assertTrue(cursor.next());
+        assertBlock(cursor, 4, 65, -3, Material.CHEST, 3);
+        assertSame(chest, cursor.getTile());
+        assertTrue(cursor.hasNext());
+        assertTrue(cursor.next());
+        assertBlock(cursor, 5, 70, -3, Material.STONE, 2);
+        assertFalse(cursor.hasNext());
+        assertFalse(cursor.next());
+    }
+    
+    /**
+     * Tests that all sections of a chunk are reset before the next chunk.
+     */
+    @Test
+    public void testChunkOrder()
+    {
+        final SmartBlockLog log = new SmartBlockLog();
+        log.add("world", 40, 10, 0, Material.DIRT, (byte) 0, null); //$NON-NLS-1$
+        log.add("world", 5, 70, -3, Material.STONE, (byte) 0, null); //$NON-NLS-1$
+        log.add("world", 5, 20, -3, Material.SAND, (byte) 0, null); //$NON-NLS-1$
+        log.add("world", 40, 40, 0, Material.GRAVEL, (byte) 0, null); //$NON-NLS-1$
+        
+        final SmartBlockLog.Cursor cursor = log.cursor();
+        assertTrue(cursor.next());
+        assertBlock(cursor, 5, 20, -3, Material.SAND, 0);
+        assertTrue(cursor.next());
+        assertBlock(cursor, 5, 70, -3, Material.STONE, 0);
+        assertTrue(cursor.next());
+        assertBlock(cursor, 40, 10, 0, Material.DIRT, 0);
+        assertTrue(cursor.next());
+        assertBlock(cursor, 40, 40, 0, Material.GRAVEL, 0);
+        assertFalse(cursor.next());
+    }
+    
+    /**
+     * Tests that blocks attached to a neighbour block are reset after all other blocks, even if the neighbour lies in another chunk.
+     */
+    @Test
+    public void testAttachedOrder()
+    {
+        final SmartBlockLog log = new SmartBlockLog();
+        log.add("world", 15, 64, 0, Material.TORCH, (byte) 2, null); //$NON-NLS-1$
+        log.add("world", 16, 64, 0, Material.STONE, (byte) 0, null); //$NON-NLS-1$
+        log.add("world", 15, 63, 0, Material.DIRT, (byte) 0, null); //$NON-NLS-1$
+        log.add("world", 17, 64, 0, Material.WALL_SIGN, (byte) 5, null); //$NON-NLS-1$
+        
+        final SmartBlockLog.Cursor cursor = log.cursor();
+        assertTrue(cursor.next());
+        assertBlock(cursor, 15, 63, 0, Material.DIRT, 0);
+        assertTrue(cursor.hasNext());
+        assertTrue(cursor.next());
+        assertBlock(cursor, 16, 64, 0, Material.STONE, 0);
+        assertTrue(cursor.hasNext());
+        assertTrue(cursor.next());
+        assertBlock(cursor, 15, 64, 0, Material.TORCH, 2);
+        assertTrue(cursor.hasNext());
+        assertTrue(cursor.next());
+        assertBlock(cursor, 17, 64, 0, Material.WALL_SIGN, 5);
+        assertFalse(cursor.hasNext());
+        assertFalse(cursor.next());
+        
+        // blocks added later are ordered again
+        log.add("world", 16, 63, 0, Material.LADDER, (byte) 3, null); //$NON-NLS-1$
+        log.add("world", 16, 62, 0, Material.SAND, (byte) 0, null); //$NON-NLS-1$
+        final SmartBlockLog.Cursor cursor2 = log.cursor();
+        for (int i = 0; i < 3; i++)
+        {
+            assertTrue(cursor2.next());
+        }
+        assertBlock(cursor2, 16, 64, 0, Material.STONE, 0);
+        assertTrue(cursor2.next());
+        assertBlock(cursor2, 15, 64, 0, Material.TORCH, 2);
+        assertTrue(cursor2.next());
+        assertBlock(cursor2, 16, 63, 0, Material.LADDER, 3);
+    }
+    
+    /**
+     * Checks the current block of the cursor.
+     * 
+     * @param cursor
+     * @param x
+     * @param y
+     * @param z
+     * @param m
+     * @param data
+     */
+    private static void assertBlock(final SmartBlockLog.Cursor cursor, final int x, final int y, final int z, final Material m, final int data)
+    {
+        assertEquals(x, cursor.getX());
+        assertEquals(y, cursor.getY());
+        assertEquals(z, cursor.getZ());
+        assertEquals(m, cursor.getMaterial());
+        assertEquals(data, cursor.getData());
+    }
+    
+}
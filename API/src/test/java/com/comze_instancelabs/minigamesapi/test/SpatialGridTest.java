@@ -0,0 +1,131 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.util.SpatialGrid;
+
+/**
+ * Test case for the spatial grid.
+ * 
+ * @author mepeisen
+ * 
+ * @see SpatialGrid
+ */
+public class SpatialGridTest
+{
+    
+    /**
+     * Tests range queries, moves and removal.
+     */
+    @Test
+    public void testQueries()
+    {
+        final SpatialGrid<String> grid = new SpatialGrid<>(3);
+        assertTrue(grid.update("a", "world", 0.5D, 64D, 0.5D)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue(grid.update("b", "world", -3D, 64D, 2D)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue(grid.update("c", "world", 20D, 64D, 20D)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue(grid.update("d", "nether", 0.5D, 64D, 0.5D)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(4, grid.size());
+        
+        assertEquals(Arrays.asList("a", "b"), sorted(grid.getNear("world", 0D, 64D, 0D, 5.5D))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        // the distance is checked in all three dimensions
+        assertEquals(Collections.emptyList(), grid.getNear("world", 0D, 94D, 0D, 5.5D)); //$NON-NLS-1$
+        assertEquals(Collections.emptyList(), grid.getNear("unknown", 0D, 64D, 0D, 5.5D)); //$NON-NLS-1$
+        
+        // moving within the cell
+        assertFalse(grid.update("a", "world", 1.5D, 64D, 1.5D)); //$NON-NLS-1$ //$NON-NLS-2$
+        // moving to another cell and world
+        assertTrue(grid.update("b", "world", 18D, 64D, 18D)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue(grid.update("d", "world", 22D, 64D, 22D)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(Arrays.asList("a"), grid.getNear("world", 0D, 64D, 0D, 5.5D)); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(Arrays.asList("b", "c", "d"), sorted(grid.getNear("world", 20D, 64D, 20D, 5.5D))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertEquals(Collections.emptyList(), grid.getNear("nether", 0D, 64D, 0D, 5.5D)); //$NON-NLS-1$
+        
+        assertTrue(grid.remove("c")); //$NON-NLS-1$
+        assertFalse(grid.remove("c")); //$NON-NLS-1$
+        assertFalse(grid.contains("c")); //$NON-NLS-1$
+        assertEquals(Arrays.asList("b", "d"), sorted(grid.getNear("world", 20D, 64D, 20D, 5.5D))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        grid.clear();
+        assertEquals(0, grid.size());
+        assertEquals(Collections.emptyList(), grid.getNear("world", 20D, 64D, 20D, 5.5D)); //$NON-NLS-1$
+    }
+    
+    /**
+     * Compares the grid queries with a brute force search, including negative coordinates and cell borders.
+     */
+    @Test
+    public void testBruteForce()
+    {
+        final Random random = new Random(42);
+        final SpatialGrid<Integer> grid = new SpatialGrid<>(3);
+        final double[][] pos = new double[500][];
+        for (int round = 0; round < 20; round++)
+        {
+            for (int i = 0; i < pos.length; i++)
+            {
+                pos[i] = new double[] { random.nextDouble() * 200 - 100, 60 + random.nextDouble() * 10, random.nextDouble() * 200 - 100 };
+                grid.update(i, "world", pos[i][0], pos[i][1], pos[i][2]); //$NON-NLS-1$
+            }
+            for (int q = 0; q < 50; q++)
+            {
+                final double x = random.nextDouble() * 200 - 100;
+                final double y = 60 + random.nextDouble() * 10;
+                final double z = random.nextDouble() * 200 - 100;
+                final double radius = random.nextDouble() * 20;
+                final List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < pos.length; i++)
+                {
+                    final double dx = pos[i][0] - x;
+                    final double dy = pos[i][1] - y;
+                    final double dz = pos[i][2] - z;
+                    if (dx * dx + dy * dy + dz * dz <= radius * radius)
+                    {
+                        expected.add(i);
+                    }
+                }
+                final List<Integer> actual = new ArrayList<>(grid.getNear("world", x, y, z, radius)); //$NON-NLS-1$
+                Collections.sort(actual);
+                assertEquals(expected, actual);
+            }
+        }
+        assertEquals(pos.length, grid.size());
+    }
+    
+    /**
+     * Sorts the list.
+     * 
+     * @param list
+     * @return sorted copy
+     */
+    private static List<String> sorted(final List<String> list)
+    {
+        final List<String> result = new ArrayList<>(list);
+        Collections.sort(result);
+        return result;
+    }
+    
+}
@@ -0,0 +1,83 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.StatsRanking;
+
+/**
+ * Test case for the stats ranking.
+ * 
+ * @author mepeisen
+ * 
+ * @see StatsRanking
+ */
+public class StatsRankingTest
+{
+    
+    /**
+     * Tests ranks and top lists against a sorted list.
+     */
+    @Test
+    public void testRanking()
+    {
+        final Random random = new Random(42);
+        final StatsRanking ranking = new StatsRanking();
+        final Map<UUID, Integer> values = new HashMap<>();
+        for (int i = 0; i < 500; i++)
+        {
+            final UUID uuid = UUID.randomUUID();
+            final int value = random.nextInt(50);
+            values.put(uuid, value);
+            ranking.add(uuid, value);
+        }
+        final List<UUID> uuids = new ArrayList<>(values.keySet());
+        for (int i = 0; i < 2000; i++)
+        {
+            final UUID uuid = uuids.get(random.nextInt(uuids.size()));
+            final int value = values.get(uuid) + random.nextInt(5);
+            ranking.update(uuid, values.get(uuid), value);
+            values.put(uuid, value);
+        }
+        
+        final List<UUID> expected = new ArrayList<>(values.keySet());
+        expected.sort(Comparator.comparing((UUID u) -> -values.get(u)).thenComparing(u -> u));
+        
+        assertEquals(500, ranking.size());
+        assertEquals(expected.subList(0, 10), ranking.getTop(10));
+        assertEquals(expected, ranking.getTop(Integer.MAX_VALUE));
+        for (int i = 0; i < expected.size(); i++)
+        {
+            final UUID uuid = expected.get(i);
+            assertEquals(i + 1, ranking.getRank(uuid, values.get(uuid)));
+            assertEquals(uuid, ranking.get(i + 1));
+        }
+        assertNull(ranking.get(501));
+        assertEquals(0, ranking.getRank(UUID.randomUUID(), 1));
+    }
+    
+}
@@ -0,0 +1,196 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.comze_instancelabs.minigamesapi.StatsKey;
+import com.comze_instancelabs.minigamesapi.StatsStore;
+
+/**
+ * Test case for the in-memory stats store.
+ * 
+ * @author mepeisen
+ * 
+ * @see StatsStore
+ */
+public class StatsStoreTest
+{
+    
+    /** temporary folder for stats files. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    /**
+     * Tests loading, changing and flushing stats.
+     * 
+     * @throws IOException
+     *             thrown on io errors.
+     */
+    @Test
+    public void testFlush() throws IOException
+    {
+        final UUID uuid = UUID.randomUUID();
+        final File file = this.folder.newFile("stats.yml"); //$NON-NLS-1$
+        final YamlConfiguration config = new YamlConfiguration();
+        config.set("players." + uuid + ".wins", 3); //$NON-NLS-1$ //$NON-NLS-2$
+        config.set("players.invalid.wins", 7); //$NON-NLS-1$
+        config.set("skulls.abc.pos", 1); //$NON-NLS-1$
+        
+        final StatsStore store = new StatsStore(Logger.getAnonymousLogger(), () -> config, file);
+        assertTrue(store.isSet(uuid, StatsKey.WINS));
+        assertFalse(store.isSet(uuid, StatsKey.POINTS));
+        assertEquals(3, store.get(uuid, StatsKey.WINS));
+        assertFalse(store.isDirty());
+        
+        assertEquals(4, store.add(uuid, StatsKey.WINS, 1, "player1")); //$NON-NLS-1$
+        store.set(uuid, StatsKey.POINTS, 10, null);
+        assertTrue(store.isDirty());
+        assertEquals(4, config.getInt("players." + uuid + ".wins")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("player1", store.getPlayerName(uuid)); //$NON-NLS-1$
+        
+        store.flush();
+        assertFalse(store.isDirty());
+        assertFalse(new File(file.getPath() + ".tmp").exists()); //$NON-NLS-1$
+        
+        final YamlConfiguration saved = YamlConfiguration.loadConfiguration(file);
+        assertEquals(4, saved.getInt("players." + uuid + ".wins")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(10, saved.getInt("players." + uuid + ".points")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("player1", saved.getString("players." + uuid + ".playername")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertEquals(7, saved.getInt("players.invalid.wins")); //$NON-NLS-1$
+        assertEquals(1, saved.getInt("skulls.abc.pos")); //$NON-NLS-1$
+    }
+    
+    /**
+     * Tests that custom player values not managed by the store survive a flush.
+     * 
+     * @throws IOException
+     *             thrown on io errors.
+     */
+    @Test
+    public void testCustomKeys() throws IOException
+    {
+        final UUID uuid = UUID.randomUUID();
+        final File file = this.folder.newFile("stats.yml"); //$NON-NLS-1$
+        final YamlConfiguration config = new YamlConfiguration();
+        config.set("players." + uuid + ".wins", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        config.set("players." + uuid + ".foo", "bar"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        config.set("players." + uuid + ".custom.level", 5); //$NON-NLS-1$ //$NON-NLS-2$
+        
+        final StatsStore store = new StatsStore(Logger.getAnonymousLogger(), () -> config, file);
+        store.add(uuid, StatsKey.WINS, 1, "player1"); //$NON-NLS-1$
+        store.flush();
+        
+        final YamlConfiguration saved = YamlConfiguration.loadConfiguration(file);
+        assertEquals(3, saved.getInt("players." + uuid + ".wins")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals("player1", saved.getString("players." + uuid + ".playername")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertEquals("bar", saved.getString("players." + uuid + ".foo")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertEquals(5, saved.getInt("players." + uuid + ".custom.level")); //$NON-NLS-1$ //$NON-NLS-2$
+        
+        // reloading keeps the custom values as well
+        final StatsStore reloaded = new StatsStore(Logger.getAnonymousLogger(), () -> saved, file);
+        assertEquals(3, reloaded.get(uuid, StatsKey.WINS));
+        reloaded.flush();
+        final YamlConfiguration saved2 = YamlConfiguration.loadConfiguration(file);
+        assertEquals("bar", saved2.getString("players." + uuid + ".foo")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertEquals(5, saved2.getInt("players." + uuid + ".custom.level")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    
+    /**
+     * Tests reloading while an asynchronous flush is pending; the pending write must not replace the file afterwards.
+     * 
+     * @throws IOException
+     *             thrown on io errors.
+     */
+    @Test
+    public void testReloadWithPendingFlush() throws IOException
+    {
+        final UUID uuid1 = UUID.randomUUID();
+        final UUID uuid2 = UUID.randomUUID();
+        final UUID uuid3 = UUID.randomUUID();
+        final File file = this.folder.newFile("stats.yml"); //$NON-NLS-1$
+        final YamlConfiguration initial = new YamlConfiguration();
+        initial.set("players." + uuid1 + ".wins", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        final AtomicReference<FileConfiguration> config = new AtomicReference<>(initial);
+        
+        final StatsStore store = new StatsStore(Logger.getAnonymousLogger(), config::get, file);
+        store.add(uuid2, StatsKey.WINS, 2, "player2"); //$NON-NLS-1$
+        final List<Runnable> tasks = new ArrayList<>();
+        store.flushAsync(tasks::add);
+        assertEquals(1, tasks.size());
+        assertFalse(store.isDirty());
+        
+        // pending flush is still queued; the next one is not scheduled twice
+        store.add(uuid3, StatsKey.WINS, 3, "player3"); //$NON-NLS-1$
+        store.flushAsync(tasks::add);
+        assertEquals(1, tasks.size());
+        
+        // reload as done by the reload command
+        store.flush();
+        assertFalse(store.isDirty());
+        config.set(YamlConfiguration.loadConfiguration(file));
+        store.load();
+        assertEquals(1, store.get(uuid1, StatsKey.WINS));
+        assertEquals(2, store.get(uuid2, StatsKey.WINS));
+        assertEquals(3, store.get(uuid3, StatsKey.WINS));
+        
+        // the superseded write does nothing
+        assertTrue(file.delete());
+        tasks.get(0).run();
+        assertFalse(file.exists());
+        
+        // a later change is flushed again
+        store.add(uuid1, StatsKey.WINS, 1, "player1"); //$NON-NLS-1$
+        store.flushAsync(tasks::add);
+        assertEquals(2, tasks.size());
+        tasks.get(1).run();
+        final YamlConfiguration saved = YamlConfiguration.loadConfiguration(file);
+        assertEquals(2, saved.getInt("players." + uuid1 + ".wins")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(2, saved.getInt("players." + uuid2 + ".wins")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertEquals(3, saved.getInt("players." + uuid3 + ".wins")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertFalse(store.isDirty());
+    }
+    
+    /**
+     * Tests unknown players.
+     */
+    @Test
+    public void testUnknown()
+    {
+        final StatsStore store = new StatsStore(Logger.getAnonymousLogger(), () -> new YamlConfiguration(), new File(this.folder.getRoot(), "stats.yml")); //$NON-NLS-1$
+        final UUID uuid = UUID.randomUUID();
+        assertFalse(store.isSet(uuid, StatsKey.KILLS));
+        assertEquals(0, store.get(uuid, StatsKey.KILLS));
+        assertEquals(null, store.getPlayerName(uuid));
+    }
+    
+}
@@ -0,0 +1,130 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.TickWheel;
+
+/**
+ * Test case for the timing wheel.
+ * 
+ * @author mepeisen
+ * 
+ * @see TickWheel
+ */
+public class TickWheelTest
+{
+    
+    /**
+     * Tests that tasks run exactly at their due tick, including tasks cascading from the outer wheels.
+     */
+    @Test
+    public void testDelays()
+    {
+        final TickWheel wheel = new TickWheel();
+        final long[] delays = { 1, 2, 255, 256, 257, 300, 16383, 16384, 20000, 1048577, 70000000 };
+        final List<Long> expected = new ArrayList<>();
+        final List<Long> actual = new ArrayList<>();
+        for (final long delay : delays)
+        {
+            expected.add(delay);
+            wheel.schedule("owner", delay, () -> actual.add(wheel.getCurrentTick())); //$NON-NLS-1$
+        }
+        
+        while (wheel.getCurrentTick() < 70000001)
+        {
+            wheel.tick();
+        }
+        assertEquals(expected, actual);
+        assertEquals(0, wheel.size());
+        assertEquals(delays.length, wheel.getTiming("owner").getRuns()); //$NON-NLS-1$
+    }
+    
+    /**
+     * Tests repeating tasks and cancellation.
+     */
+    @Test
+    public void testRepeating()
+    {
+        final TickWheel wheel = new TickWheel();
+        final List<Long> runs = new ArrayList<>();
+        final TickWheel.Task[] task = new TickWheel.Task[1];
+        task[0] = wheel.scheduleRepeating("arena", 5, 20, () -> { //$NON-NLS-1$
+            runs.add(wheel.getCurrentTick());
+            if (runs.size() == 3)
+            {
+                task[0].cancel();
+            }
+        });
+        final TickWheel.Task other = wheel.schedule("arena", 30, () -> runs.add(-1L)); //$NON-NLS-1$
+        wheel.schedule("arena", 10, other::cancel); //$NON-NLS-1$
+        
+        for (int i = 0; i < 200; i++)
+        {
+            wheel.tick();
+        }
+        
+        assertEquals(3, runs.size());
+        assertEquals(5L, runs.get(0).longValue());
+        assertEquals(25L, runs.get(1).longValue());
+        assertEquals(45L, runs.get(2).longValue());
+        assertTrue(task[0].isCancelled());
+        assertTrue(other.isCancelled());
+        assertEquals(0, wheel.getTiming("arena").getPending()); //$NON-NLS-1$
+    }
+    
+    /**
+     * Tests cancelling all tasks of an owner.
+     */
+    @Test
+    public void testCancelAll()
+    {
+        final TickWheel wheel = new TickWheel();
+        final int[] counter = new int[2];
+        for (int i = 1; i <= 10; i++)
+        {
+            wheel.schedule("arena1", i * 100, () -> counter[0]++); //$NON-NLS-1$
+            wheel.schedule("arena2", i * 100, () -> counter[1]++); //$NON-NLS-1$
+        }
+        wheel.scheduleRepeating("arena1", 1, 1, () -> counter[0]++); //$NON-NLS-1$
+        
+        for (int i = 0; i < 350; i++)
+        {
+            wheel.tick();
+        }
+        assertEquals(8, wheel.cancelAll("arena1")); //$NON-NLS-1$
+        for (int i = 0; i < 1000; i++)
+        {
+            wheel.tick();
+        }
+        
+        assertEquals(353, counter[0]);
+        assertEquals(10, counter[1]);
+        assertFalse(wheel.getTimings().isEmpty());
+        wheel.removeTiming("arena1"); //$NON-NLS-1$
+        assertNull(wheel.getTiming("arena1")); //$NON-NLS-1$
+        assertEquals(10, wheel.getTiming("arena2").getRuns()); //$NON-NLS-1$
+    }
+    
+}
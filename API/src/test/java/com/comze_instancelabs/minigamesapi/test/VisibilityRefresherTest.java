@@ -0,0 +1,133 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.junit.Test;
+
+import com.comze_instancelabs.minigamesapi.PluginInstance;
+import com.comze_instancelabs.minigamesapi.TickWheel;
+import com.comze_instancelabs.minigamesapi.VisibilityRefresher;
+
+/**
+ * Test case for the batched visibility refresh.
+ * 
+ * @author mepeisen
+ * 
+ * @see VisibilityRefresher
+ */
+public class VisibilityRefresherTest
+{
+    
+    /**
+     * Tests that players are refreshed after their latest teleport and that teleports of the same tick are refreshed in one batch.
+     */
+    @Test
+    public void testDelayAndBatching()
+    {
+        final World world = mock(World.class);
+        when(world.getName()).thenReturn("world"); //$NON-NLS-1$
+        final Player a = player(1, new Location(world, 0, 64, 0));
+        final Player b = player(2, new Location(world, 5, 64, 5));
+        final Player c = player(3, new Location(world, 500, 64, 500));
+        final List<Player> online = Arrays.asList(a, b, c);
+        
+        final TickWheel wheel = new TickWheel();
+        final VisibilityRefresher refresher = new VisibilityRefresher(mock(PluginInstance.class), () -> wheel, () -> online);
+        
+        // teleported again before the refresh: the refresh is delayed
+        refresher.teleported(a);
+        advance(wheel, 2);
+        refresher.teleported(a);
+        advance(wheel, 4);
+        verify(a, never()).hidePlayer(any(Player.class));
+        verify(b, never()).hidePlayer(any(Player.class));
+        
+        advance(wheel, 1);
+        assertEquals(7, wheel.getCurrentTick());
+        verify(a, times(1)).hidePlayer(b);
+        verify(b, times(1)).hidePlayer(a);
+        verify(a, never()).showPlayer(b);
+        verify(c, never()).hidePlayer(any(Player.class));
+        
+        advance(wheel, 1);
+        verify(a, times(1)).showPlayer(b);
+        verify(b, times(1)).showPlayer(a);
+        
+        // both players teleported within the same tick: one batch, each pair once
+        refresher.teleported(a);
+        refresher.teleported(b);
+        advance(wheel, 6);
+        verify(a, times(2)).hidePlayer(b);
+        verify(b, times(2)).hidePlayer(a);
+        verify(a, times(2)).showPlayer(b);
+        verify(b, times(2)).showPlayer(a);
+        verify(c, never()).hidePlayer(any(Player.class));
+        
+        // empty refresh of the first teleport, refresh and show of the second teleport and of the batch
+        assertEquals(5, wheel.getTiming(refresher).getRuns());
+        assertEquals(0, wheel.size());
+    }
+    
+    /**
+     * Advances the wheel.
+     * 
+     * @param wheel
+     *            the wheel
+     * @param ticks
+     *            number of ticks
+     */
+    private static void advance(final TickWheel wheel, final int ticks)
+    {
+        for (int i = 0; i < ticks; i++)
+        {
+            wheel.tick();
+        }
+    }
+    
+    /**
+     * Creates an online player mock.
+     * 
+     * @param id
+     *            entity id
+     * @param location
+     *            player location
+     * @return player
+     */
+    private static Player player(final int id, final Location location)
+    {
+        final Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(player.getEntityId()).thenReturn(id);
+        when(player.getLocation()).thenReturn(location);
+        when(player.isOnline()).thenReturn(true);
+        return player;
+    }
+    
+}
@@ -0,0 +1,139 @@
+/*
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.comze_instancelabs.minigamesapi.testutil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import com.comze_instancelabs.minigamesapi.ChannelStrings;
+import com.comze_instancelabs.minigamesapi.util.BungeeTransport;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+
+/**
+ * In-memory stand-in for the bungee cord network.
+ * 
+ * <p>
+ * Each simulated server registers the listener normally attached to the bungee cord channel (usually the {@link com.comze_instancelabs.minigamesapi.MinigamesAPI} instance). Sent messages
+ * are delivered synchronously in the format bungee cord uses for forwarded messages; player connects are recorded.
+ * </p>
+ * 
+ * @author mepeisen
+ */
+public class LocalBungeeTransport implements BungeeTransport
+{
+    
+    /** the name of the sending server. */
+    private final String                             self;
+    
+    /** listeners by server name. */
+    private final Map<String, PluginMessageListener> servers;
+    
+    /** recorded connects. */
+    private final List<String>                       connects;
+    
+    /**
+     * Constructor for the first server of a new simulated network.
+     * 
+     * @param self
+     *            the name of the sending server
+     */
+    public LocalBungeeTransport(final String self)
+    {
+        this(self, new LinkedHashMap<>(), new ArrayList<>());
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param self
+     *            the name of the sending server
+     * @param servers
+     *            listeners by server name
+     * @param connects
+     *            recorded connects
+     */
+    private LocalBungeeTransport(final String self, final Map<String, PluginMessageListener> servers, final List<String> connects)
+    {
+        this.self = self;
+        this.servers = servers;
+        this.connects = connects;
+    }
+    
+    /**
+     * Returns the transport for another server of the same simulated network.
+     * 
+     * @param server
+     *            the name of the other server
+     * @return transport sending as given server
+     */
+    public LocalBungeeTransport forServer(final String server)
+    {
+        return new LocalBungeeTransport(server, this.servers, this.connects);
+    }
+    
+    /**
+     * Registers a server of the simulated network.
+     * 
+     * @param server
+     *            the server name
+     * @param listener
+     *            the listener receiving the bungee cord channel messages of that server
+     */
+    public void register(final String server, final PluginMessageListener listener)
+    {
+        this.servers.put(server, listener);
+    }
+    
+    /**
+     * Returns the recorded connects.
+     * 
+     * @return connects in the form {@code player->server}
+     */
+    public List<String> getConnects()
+    {
+        return Collections.unmodifiableList(this.connects);
+    }
+    
+    @Override
+    public void send(final String server, final String subchannel, final byte[] payload)
+    {
+        final ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        out.writeUTF(subchannel);
+        out.writeShort(payload.length);
+        out.write(payload);
+        final byte[] message = out.toByteArray();
+        for (final Map.Entry<String, PluginMessageListener> entry : new ArrayList<>(this.servers.entrySet()))
+        {
+            // bungee cord never forwards a message back to its sender
+            if (!entry.getKey().equals(this.self) && ("ALL".equals(server) || entry.getKey().equals(server))) //$NON-NLS-1$
+            {
+                entry.getValue().onPluginMessageReceived(ChannelStrings.CHANNEL_BUNGEE_CORD, null, message);
+            }
+        }
+    }
+    
+    @Override
+    public void connect(final String player, final String server)
+    {
+        this.connects.add(player + "->" + server); //$NON-NLS-1$
+    }
+    
+}
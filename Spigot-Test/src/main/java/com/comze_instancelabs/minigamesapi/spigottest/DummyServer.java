@@ -480,6 +480,16 @@ class DummyServer implements InvocationHandler, Answer {
         return this.worlds.computeIfAbsent(name, (n) -> new DummyWorld());
     }
 
+    /**
+     * Registers a world, f.e. a mocked world.
+     * @param name
+     * @param world
+     */
+    public void addWorld(String name, World world)
+    {
+        this.worlds.put(name, world);
+    }
+
     /**
      * Initializes a new dummy world.
      * @param name
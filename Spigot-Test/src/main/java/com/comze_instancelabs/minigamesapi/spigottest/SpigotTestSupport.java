@@ -134,6 +134,19 @@ public abstract class SpigotTestSupport
         return getDummyServer().initWorld(name, WorldType.FLAT, 123);
     }
     
+    /**
+     * Registers a world, f.e. a mocked world.
+     * 
+     * @param name
+     *            world name
+     * @param world
+     *            world instance.
+     */
+    public void addWorld(String name, World world)
+    {
+        getDummyServer().addWorld(name, world);
+    }
+    
     /**
      * Returns the dummy server.
      * 